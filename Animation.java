@@ -119,6 +119,9 @@ public class Animation {
             int frameIndex = 0;
             @Override
             public void actionPerformed(ActionEvent e) {
+                JfrEvents.FrameSwap event = new JfrEvents.FrameSwap();
+                event.begin();
+                String frame = frames.get(frameIndex);
                 try {
                     // Scale the image and display it
                     BufferedImage frameImage = ImageIO.read(new File(frames.get(frameIndex)));
@@ -130,6 +133,11 @@ public class Animation {
                     imageLabel.setIcon(null); // Set icon to null if image loading fails
                     LOGGER.log(Level.WARNING, "Failed to load image: " + frames.get(frameIndex), ex);
                 }
+                if (event.shouldCommit()) {
+                    event.frame = frame;
+                    event.size = size;
+                    event.commit();
+                }
             }
         });
         // Start the timer
@@ -146,6 +154,14 @@ public class Animation {
             timer.start();
     }
 
+    /**
+     * Stops the timer, for example while the animation is off screen.
+     */
+    public void stop() {
+        if (timer != null)
+            timer.stop();
+    }
+
     /**
      * Changes the animation to a static image, until restarted.
      * <br><br>
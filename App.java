@@ -1,6 +1,11 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import javax.swing.JOptionPane;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
@@ -45,6 +50,14 @@ public class App extends Observer {
     private ArrayList<Observer> observers;
     /** The title of the game */
     private final String title = "Pet Crossing: New Horizons";
+    /** The file the event dispatch metrics are written to on exit */
+    private static final String METRICS_FILE = "dispatch-metrics.txt";
+    /** The file the flight recorder is dumped to on exit and on fatal errors */
+    private static final String FLIGHT_RECORDER_FILE = "flight-recorder.bin";
+    /** The most observers any event should have, one game controller plus the long-lived observers */
+    private static final int MAX_OBSERVERS_PER_EVENT = 4;
+    /** The longest time, in seconds, to wait for saves to be written before exiting */
+    private static final long SAVE_FLUSH_TIMEOUT = 5;
     /** The screen that displays the game */
     private Screen screen;
     /** The event dispatcher that notifies observers of events in the game */
@@ -65,6 +78,14 @@ public class App extends Observer {
     private MenuPanel menuPanel;
     /** The save manager used for saving and loading game data */
     private SaveManager saveManager;
+    /** The save service, which writes saves in the background */
+    private SaveService saveService;
+    /** The autosave, which checkpoints the game being played */
+    private Autosave autosave;
+    /** The journal of the game being played, null if games are not journaled */
+    private GameJournal journal;
+    /** The recording of this session, null if it is not recorded */
+    private SessionRecorder sessionRecorder;
     /** If the user is reviving a pet */
     private boolean reviveOverride = false;
     /** If the user is overriding an existing save */
@@ -105,7 +126,11 @@ public class App extends Observer {
         }
         // Initialize attributes
         saveManager = new SaveManager();
-        eventDispatcher = new EventDispatcher();
+        // Events posted by handlers run after the current event, in the order they were posted
+        eventDispatcher = new EventDispatcher(true);
+        saveService = new SaveService(saveManager, eventDispatcher);
+        autosave = new Autosave(saveService, Autosave.DEFAULT_INTERVAL, TimeUnit.SECONDS);
+        sessionRecorder = SessionRecorder.configured();
 
         gameController = null;
         soundController = new SoundController(eventDispatcher);
@@ -133,13 +158,40 @@ public class App extends Observer {
     /**
      * Terminates the game.
      * <br><br>
-     * Saves the game if there is a game controller, stops the sound controller,
-     * and exits the program.
+     * Stops the autosave, closes the game so its final stats reach its journal and its
+     * outcome reaches the session recording, saves the game and waits for every queued
+     * save to be written, closes the journal and the session recording, writes any
+     * change to the parental controls, writes the dispatch metrics, dumps the flight
+     * recorder, stops the sound controller, and exits the program.
      */
     public void terminate() {
+        if (autosave != null) {
+            autosave.stop();
+        }
+        // Close the game before its journal, as setSave does, so the final stats are journaled
         if (gameController != null) {
-            saveManager.saveGame(gameController.getPet(), gameController.getInventory(), gameController.getSaveSlot(), gameController.getScore());
+            gameController.close();
+        }
+        if (saveService != null) {
+            if (gameController != null) {
+                saveService.save(gameController.capture(), gameController.getSaveSlot());
+            }
+            // Wait for the final saves to be written before exiting
+            if (!saveService.flush(SAVE_FLUSH_TIMEOUT, TimeUnit.SECONDS)) {
+                LOGGER.warning("Exiting before every save was written");
+            }
+        }
+        if (journal != null) {
+            journal.close();
         }
+        if (sessionRecorder != null) {
+            sessionRecorder.close();
+        }
+        if (parentalController != null) {
+            parentalController.flush();
+        }
+        writeMetrics();
+        dumpFlightRecorder("exit");
         for (Observer observer : observers) {
             if (observer instanceof SoundController) {
                 ((SoundController) observer).stop();
@@ -148,6 +200,71 @@ public class App extends Observer {
         System.exit(0);
     }
 
+    /**
+     * Writes the event dispatch metrics of this session to {@link #METRICS_FILE}.
+     */
+    private void writeMetrics() {
+        DispatchMetrics metrics = eventDispatcher.getMetrics();
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        try {
+            metrics.writeReport(Paths.get(METRICS_FILE));
+        } catch (IOException e) {
+            LOGGER.warning("Failed to write dispatch metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Dumps the most recent events and ticks of the {@link FlightRecorder} to {@link #FLIGHT_RECORDER_FILE}.
+     * <br><br>
+     * The reason is recorded as the last entry of the dump. Decode the dump with
+     * {@link FlightRecorderDecoder}.
+     *
+     * @param reason Why the recorder is being dumped, for example "fatal error"
+     */
+    public void dumpFlightRecorder(String reason) {
+        FlightRecorder recorder = FlightRecorder.getDefault();
+        if (!recorder.isEnabled()) {
+            return;
+        }
+        recorder.mark(reason);
+        try {
+            recorder.dump(Paths.get(FLIGHT_RECORDER_FILE));
+        } catch (IOException e) {
+            LOGGER.warning("Failed to dump the flight recorder: " + e.getMessage());
+        }
+    }
+
+    /**
+     * App changes screens, so its events are handled on the Swing thread.
+     * 
+     * @return The EDT lane
+     */
+    @Override
+    protected Lane getLane() {
+        return Lane.EDT;
+    }
+
+    @Override
+    protected void handleEvent(GameEvent event, EventPayload payload) {
+        if (payload instanceof EventPayload.Load load) {
+            LOGGER.fine("Loading save slot " + load.slot());
+            setSave(load.slot());
+            screen.refreshPanel();
+        } else if (payload instanceof EventPayload.Adopt adopt) {
+            LOGGER.fine("Adopting " + adopt.species());
+            overrideSaveHelper(adopt.species());
+            screen.refreshPanel();
+        } else if (payload instanceof EventPayload.SaveFailed failed) {
+            LOGGER.warning("Failed to save slot " + failed.slot());
+            JOptionPane.showMessageDialog(screen, "The game could not be saved to slot " + failed.slot() + ".",
+                    "Save Failed", JOptionPane.ERROR_MESSAGE);
+        } else {
+            handleEvent(event);
+        }
+    }
+
     @Override
     protected void handleEvent(GameEvent event) {
         LOGGER.fine("Handling event: " + event);
@@ -161,36 +278,18 @@ public class App extends Observer {
             case LOAD_GAME:
                 screen.setPanel(new LoadGamePanel(eventDispatcher));
                 break;
-            case LOAD1:
-                setSave(1);
-                break;
-            case LOAD2:
-                setSave(2);
-                break;
-            case LOAD3:
-                setSave(3);
-                break;
-            case CHOPPER:
-                overrideSaveHelper("Chopper");
-                break;
-            case LABOON:
-                overrideSaveHelper("Laboon");
-                break;
-            case DUGONG:
-                overrideSaveHelper("Dugong");
-                break;
             case MENU:
                 screen.setPanel(menuPanel);
                 if (gameController != null) {
-                    saveManager.saveGame(gameController.getPet(), gameController.getInventory(),
-                            gameController.getSaveSlot(), gameController.getScore());
+                    // Written in the background, so the menu appears straight away
+                    saveService.save(gameController.capture(), gameController.getSaveSlot());
                 }
                 break;
             case TUTORIAL:
                 screen.setPanel(tutorialPanel);
                 break;
             case MINIGAME:
-                screen.setPanel(new CatchGamePanel(eventDispatcher));
+                screen.setPanel(new CatchGamePanel(eventDispatcher, sessionRecorder));
                 break;
             case PARENTAL:
                 screen.setPanel(parentalPanel);
@@ -208,6 +307,8 @@ public class App extends Observer {
                 screen.setPanel(loadGamePanel);
                 break;
             case FATALERROR:
+                // Dump straight away, in case saving on the way out fails as well
+                dumpFlightRecorder("fatal error");
                 terminate();
                 break;
             default:
@@ -245,6 +346,17 @@ public class App extends Observer {
      * @param saveSlot
      */
     private void setSave(int saveSlot) {
+        // Close the previous game so it stops receiving events
+        if (gameController != null) {
+            gameController.close();
+        }
+        if (autosave != null) {
+            autosave.watch(null);
+        }
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
         // If the user is overriding a save, create a new pet with the specified name and type
         if (override) {
             Pet pet = new Pet(overrideName, overridePet, 100, 100, 100, 100);
@@ -253,25 +365,27 @@ public class App extends Observer {
             gameController = new GameController(eventDispatcher, new GameplayPanel(eventDispatcher), inventory,
                     saveSlot, pet, 0);
             gameController.registerEvents();
-            // Notify observers that we are now in game
-            eventDispatcher.notifyObservers(GameEvent.INGAME);
             ((GameplayPanel) (gameController.getPanel())).init(pet);
+            gameController.refresh();
             screen.setPanel(gameController.getPanel());
             override = false;
             // Save the new game data into the specified save slot
-            saveManager.saveGame(pet, inventory, saveSlot, 0);
+            saveService.save(gameController.capture(), saveSlot);
+            // The slot's journal belonged to the pet which was replaced
+            startJournal(saveSlot, true);
+            gameController.setSessionRecorder(sessionRecorder);
+            watchForAutosave();
+            // Notify observers that we are now in game, which starts the simulation
+            eventDispatcher.notifyObservers(GameEvent.INGAME);
+            eventDispatcher.checkForLeaks(MAX_OBSERVERS_PER_EVENT);
             return;
         }
-        // Load the save data from a save file
-        Tuple<Pet, Tuple<Inventory, Integer>> saveData = saveManager.loadGame(saveSlot);
+        // Load the save data from a save file, or from its journal if the game ended without saving
+        Tuple<Pet, Tuple<Inventory, Integer>> saveData = loadGame(saveSlot);
         Pet pet = saveData.x;
         Inventory inventory = saveData.y.x;
         int score = saveData.y.y;
-        // Reinitialize the game controller with the loaded data
-        gameController = new GameController(eventDispatcher, new GameplayPanel(eventDispatcher), inventory, saveSlot, pet, score);
-        gameController.registerEvents();
-        // Notify observers that we are now in game
-        eventDispatcher.notifyObservers(GameEvent.INGAME);
+        // Revive the pet before the simulation owns it
         if (pet.getState() == PetState.DEAD && reviveOverride) {
             pet.setHappiness(100);
             pet.setHealth(100);
@@ -280,29 +394,82 @@ public class App extends Observer {
             pet.setState(PetState.NORMAL);
             reviveOverride = false;
         }
+        // Reinitialize the game controller with the loaded data
+        gameController = new GameController(eventDispatcher, new GameplayPanel(eventDispatcher), inventory, saveSlot, pet, score);
+        gameController.registerEvents();
         ((GameplayPanel) (gameController.getPanel())).init(pet);
-        ((GameplayPanel) (gameController.getPanel())).updateScore(score);
+        // Render the loaded game onto the components created by init
+        gameController.refresh();
         screen.setPanel(gameController.getPanel());
+        startJournal(saveSlot, false);
+        gameController.setSessionRecorder(sessionRecorder);
+        watchForAutosave();
+        // Notify observers that we are now in game, which starts the simulation
+        eventDispatcher.notifyObservers(GameEvent.INGAME);
+        eventDispatcher.checkForLeaks(MAX_OBSERVERS_PER_EVENT);
+    }
+
+    /**
+     * Loads a save slot, or the game rebuilt from the slot's journal if it is newer.
+     * <br><br>
+     * The journal is only newer than the slot's saves if the game ended without being
+     * saved, for example because it crashed between two autosaves.
+     * 
+     * @param saveSlot The save slot number to load from
+     * @return A Tuple containing the Pet object and a Tuple of Inventory and score
+     */
+    private Tuple<Pet, Tuple<Inventory, Integer>> loadGame(int saveSlot) {
+        Tuple<Pet, Tuple<Inventory, Integer>> saveData = saveManager.loadGame(saveSlot);
+        if (!GameJournal.isEnabled()) {
+            return saveData;
+        }
+        try {
+            GameJournal.Replay replay = GameJournal.replay(GameJournal.getFile(saveSlot));
+            SlotSummary summary = saveManager.listSlots().get(saveSlot);
+            if (replay != null && (saveData.x == null || summary == null || replay.time() > summary.lastModified())) {
+                LOGGER.info("Restoring slot " + saveSlot + " from its journal, replaying " + replay.replayed()
+                        + " entries after its last snapshot");
+                return SaveManager.toGame(replay.data());
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to replay the journal of slot " + saveSlot + ": " + e.getMessage());
+        }
+        return saveData;
+    }
+
+    /**
+     * Starts journaling the current game, if games are journaled.
+     * 
+     * @param saveSlot The save slot of the game
+     * @param reset Whether the game is new, so the slot's journal is started again
+     */
+    private void startJournal(int saveSlot, boolean reset) {
+        if (!GameJournal.isEnabled()) {
+            return;
+        }
+        try {
+            journal = new GameJournal(GameJournal.getFile(saveSlot), reset, gameController.getClock());
+            gameController.setJournal(journal);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to open the journal of slot " + saveSlot + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts checkpointing the current game, if the autosave has been created.
+     */
+    private void watchForAutosave() {
+        if (autosave != null) {
+            autosave.watch(gameController);
+        }
     }
 
     @Override
     protected void registerEvents() {
-        eventDispatcher.addObserver(GameEvent.VET, this);
-        eventDispatcher.addObserver(GameEvent.LOAD1, this);
-        eventDispatcher.addObserver(GameEvent.LOAD2, this);
-        eventDispatcher.addObserver(GameEvent.LOAD3, this);
-        eventDispatcher.addObserver(GameEvent.CHOPPER, this);
-        eventDispatcher.addObserver(GameEvent.LABOON, this);
-        eventDispatcher.addObserver(GameEvent.DUGONG, this);
-        eventDispatcher.addObserver(GameEvent.QUIT, this);
-        eventDispatcher.addObserver(GameEvent.MENU, this);
-        eventDispatcher.addObserver(GameEvent.TUTORIAL, this);
-        eventDispatcher.addObserver(GameEvent.MINIGAME, this);
-        eventDispatcher.addObserver(GameEvent.PARENTAL, this);
-        eventDispatcher.addObserver(GameEvent.INGAME, this);
-        eventDispatcher.addObserver(GameEvent.NEW_GAME, this);
-        eventDispatcher.addObserver(GameEvent.SAVE_GAME, this);
-        eventDispatcher.addObserver(GameEvent.LOAD_GAME, this);
-        eventDispatcher.addObserver(GameEvent.REVIVE, this);
+        eventDispatcher.addObserver(EnumSet.of(
+                GameEvent.VET, GameEvent.LOAD, GameEvent.ADOPT, GameEvent.QUIT, GameEvent.MENU, GameEvent.TUTORIAL,
+                GameEvent.MINIGAME, GameEvent.PARENTAL, GameEvent.INGAME, GameEvent.NEW_GAME,
+                GameEvent.SAVE_GAME, GameEvent.LOAD_GAME, GameEvent.REVIVE, GameEvent.FATALERROR,
+                GameEvent.SAVE_FAILED), this);
     }
 }
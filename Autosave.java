@@ -0,0 +1,134 @@
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically checkpoints the game being played, so closing the window does not lose the session.
+ * <br><br>
+ * Every interval a timer thread checks the watched game. A checkpoint is only taken
+ * while the game is running and if its {@link GameController#getVersion() version}
+ * changed since the last checkpoint, so a paused or idle game is never rewritten. The
+ * check is a single read; the snapshot is copied on the simulation thread between two
+ * ticks and written by the {@link SaveService}'s writer thread, so neither the Swing
+ * thread nor the simulation ever waits on disk.
+ * <br><br>
+ * Checkpoints go to a ring of files next to the slot's save, see
+ * {@link SaveManager#saveCheckpoint(PetSnapshot, int)}. The interval defaults to
+ * {@link #DEFAULT_INTERVAL} seconds and is set with -Dpetcrossing.autosave.seconds,
+ * where 0 turns autosaving off.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   Autosave autosave = new Autosave(saveService, Autosave.DEFAULT_INTERVAL, TimeUnit.SECONDS);
+ *   autosave.watch(gameController);
+ * }
+ * </pre>
+ *
+ * @see SaveService
+ * @see GameController#getVersion()
+ */
+public class Autosave {
+    private static final Logger LOGGER = Logger.getLogger(Autosave.class.getName());
+
+    /** The seconds of play between checkpoints, set with -Dpetcrossing.autosave.seconds */
+    public static final long DEFAULT_INTERVAL = Long.getLong("petcrossing.autosave.seconds", 30);
+
+    /** The save service checkpoints are queued on */
+    private final SaveService saveService;
+    /** The thread which checks the game every interval, null if autosaving is off */
+    private final ScheduledExecutorService timer;
+    /** The game being checkpointed, null between games */
+    private volatile GameController game;
+    /** The game which was checked last, only used by the timer thread */
+    private GameController checkedGame;
+    /** The version of the checked game at its last checkpoint, only used by the timer thread */
+    private long checkpointVersion;
+    /** The number of checkpoints taken */
+    private volatile long checkpoints = 0;
+
+    /**
+     * Constructor for the Autosave class, which starts checking straight away.
+     *
+     * @param saveService The save service checkpoints are queued on
+     * @param interval The time between checks, 0 or less turns autosaving off
+     * @param unit The unit of the interval
+     */
+    public Autosave(SaveService saveService, long interval, TimeUnit unit) {
+        this.saveService = saveService;
+        if (interval <= 0) {
+            timer = null;
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                // An uncaught exception would silently cancel every future check
+                LOGGER.log(Level.WARNING, "Autosave failed", e);
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Sets the game to checkpoint.
+     * <br><br>
+     * The new game's first checkpoint is taken one interval after it has changed, since
+     * it has just been loaded or saved.
+     *
+     * @param game The game to checkpoint, or null to stop checkpointing
+     */
+    public void watch(GameController game) {
+        this.game = game;
+    }
+
+    /**
+     * Queues a checkpoint of the watched game if it is running and changed since the last checkpoint.
+     * <br><br>
+     * This is called by the timer thread every interval.
+     */
+    void checkpoint() {
+        GameController game = this.game;
+        if (game == null || !game.isRunning()) {
+            return;
+        }
+        long version = game.getVersion();
+        if (game != checkedGame) {
+            checkedGame = game;
+            checkpointVersion = version;
+            return;
+        }
+        if (version == checkpointVersion) {
+            return;
+        }
+        checkpointVersion = version;
+        checkpoints++;
+        saveService.checkpoint(game.capture(), game.getSaveSlot());
+    }
+
+    /**
+     * Returns the number of checkpoints taken so far.
+     *
+     * @return The number of checkpoints
+     */
+    public long getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Stops checking the game.
+     */
+    public void stop() {
+        game = null;
+        if (timer != null) {
+            timer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes the compact binary save format.
+ * <br><br>
+ * A binary save is a fixed header followed by fixed-width fields, read and written
+ * through a {@link ByteBuffer} in one pass with no reflection or text parsing:
+ * <pre>
+ *   int    magic "PCSV"
+ *   short  schema version
+ *   int    apples, bananas, purple gifts, green gifts
+ *   double health, hunger, happiness, sleep
+ *   int    score
+ *   string name, type, state  (unsigned short byte length, 0xFFFF for null, then UTF-8)
+ *   int    CRC32C of every byte before it
+ * </pre>
+ * All numbers are big-endian. A save whose checksum does not match is rejected, as is
+ * a save written by a newer schema version than {@link #VERSION}. The JSON format of
+ * {@link SaveCodec} remains the human-readable export, see {@link SaveConverter}.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   byte[] bytes = BinarySaveCodec.encode(SaveData.of(snapshot));
+ *   SaveData data = BinarySaveCodec.decode(bytes);
+ * }
+ * </pre>
+ *
+ * @see SaveData
+ * @see SaveManager
+ */
+public final class BinarySaveCodec {
+    /** The first four bytes of every binary save, "PCSV" */
+    public static final int MAGIC = 0x50435356;
+    /** The schema version written by this codec */
+    public static final short VERSION = 1;
+    /** The length written for a null string */
+    private static final int NULL_STRING = 0xFFFF;
+    /** The size of the header and the fixed-width fields */
+    private static final int FIXED_SIZE = 4 + 2 + 4 * 4 + 4 * 8 + 4;
+    /** The size of the checksum */
+    private static final int CHECKSUM_SIZE = 4;
+
+    private BinarySaveCodec() {}
+
+    /**
+     * Returns whether bytes start with the binary save magic number.
+     *
+     * @param bytes The bytes of a save file
+     * @return true if the bytes are a binary save rather than JSON
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes.length >= 4 && ByteBuffer.wrap(bytes).getInt(0) == MAGIC;
+    }
+
+    /**
+     * Encodes a save in the binary format.
+     *
+     * @param data The save to encode
+     * @return The bytes of the save file
+     * @throws IOException If a string of the save is too long to encode
+     */
+    public static byte[] encode(SaveData data) throws IOException {
+        byte[] name = utf8(data.name());
+        byte[] type = utf8(data.type());
+        byte[] state = utf8(data.state());
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + size(name) + size(type) + size(state) + CHECKSUM_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(data.apples());
+        buffer.putInt(data.bananas());
+        buffer.putInt(data.purpleGifts());
+        buffer.putInt(data.greenGifts());
+        buffer.putDouble(data.health());
+        buffer.putDouble(data.hunger());
+        buffer.putDouble(data.happiness());
+        buffer.putDouble(data.sleep());
+        buffer.putInt(data.score());
+        putString(buffer, name);
+        putString(buffer, type);
+        putString(buffer, state);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a binary save.
+     *
+     * @param bytes The bytes of the save file
+     * @return The save
+     * @throws IOException If the bytes are not a binary save, fail their checksum or are from a newer version
+     */
+    public static SaveData decode(byte[] bytes) throws IOException {
+        if (bytes.length < FIXED_SIZE + CHECKSUM_SIZE) {
+            throw new IOException("Binary save is truncated");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary save");
+        }
+        short version = buffer.getShort();
+        if (version > VERSION) {
+            throw new IOException("Binary save version " + version + " is newer than " + VERSION);
+        }
+        int body = bytes.length - CHECKSUM_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, body);
+        int expected = buffer.getInt(body);
+        if ((int) crc.getValue() != expected) {
+            throw new IOException("Binary save checksum does not match");
+        }
+        try {
+            int apples = buffer.getInt();
+            int bananas = buffer.getInt();
+            int purpleGifts = buffer.getInt();
+            int greenGifts = buffer.getInt();
+            double health = buffer.getDouble();
+            double hunger = buffer.getDouble();
+            double happiness = buffer.getDouble();
+            double sleep = buffer.getDouble();
+            int score = buffer.getInt();
+            // Only read up to the checksum
+            buffer.limit(body);
+            String name = getString(buffer);
+            String type = getString(buffer);
+            String state = getString(buffer);
+            return new SaveData(apples, bananas, purpleGifts, greenGifts, name, type, state, health, hunger,
+                    happiness, sleep, score);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Binary save is truncated", e);
+        }
+    }
+
+    /**
+     * Encodes a string as UTF-8.
+     *
+     * @param value The string, may be null
+     * @return The UTF-8 bytes, or null for a null string
+     * @throws IOException If the string is too long for its length prefix
+     */
+    static byte[] utf8(String value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("String of " + bytes.length + " bytes is too long for a save");
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the encoded size of a string.
+     *
+     * @param bytes The UTF-8 bytes, or null
+     * @return The size of the length prefix and bytes
+     */
+    static int size(byte[] bytes) {
+        return 2 + (bytes == null ? 0 : bytes.length);
+    }
+
+    /**
+     * Writes a length-prefixed string.
+     *
+     * @param buffer The buffer to write to
+     * @param bytes The UTF-8 bytes, or null
+     */
+    static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a length-prefixed string.
+     *
+     * @param buffer The buffer to read from, backed by an array
+     * @return The string, or null
+     */
+    static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -16,6 +16,7 @@ import javax.swing.JButton;
  * {@code
  *    EventDispatcher eventDispatcher = new EventDispatcher();
  *    Button button = new Button("", GameEvent.MY_EVENT, eventDispatcher);
+ *    Button load = new Button("Load", GameEvent.LOAD, new EventPayload.Load(1), eventDispatcher);
  * }
  * </pre>
  * 
@@ -26,6 +27,8 @@ import javax.swing.JButton;
 public class Button extends JButton {
     /** The event which clicking this button triggers */
     private GameEvent action;
+    /** The data sent with the event, null if the event has none */
+    private EventPayload payload;
     /** The event dispatcher which will handle the event */
     public EventDispatcher eventDispatcher;
     /** The color of the button */
@@ -90,11 +93,46 @@ public class Button extends JButton {
         this.setFont(GAME_FONT.deriveFont(Font.TRUETYPE_FONT, 20));
     }
 
+    /**
+     * Constructor for the Button class, where the event carries some data.
+     * <br><br>
+     * For example, a button to load the second save slot sends the LOAD event with
+     * a Load(2) payload.
+     * 
+     * @param name The name of the button.
+     * @param action The action to be performed when the button is clicked.
+     * @param payload The data sent with the action.
+     * @param eventDispatcher The event dispatcher to handle the action.
+     */
+    public Button(String name, GameEvent action, EventPayload payload, EventDispatcher eventDispatcher) {
+        this(name, action, eventDispatcher);
+        this.payload = payload;
+    }
+
+    /**
+     * Constructor for the Button class, where the event carries some data and the name
+     * of the component differs from its text.
+     * 
+     * @param text The text to be displayed on the button.
+     * @param action The action to be performed when the button is clicked.
+     * @param payload The data sent with the action.
+     * @param eventDispatcher The event dispatcher to handle the action.
+     * @param name The name of the button.
+     */
+    public Button(String text, GameEvent action, EventPayload payload, EventDispatcher eventDispatcher, String name) {
+        this(text, action, eventDispatcher, name);
+        this.payload = payload;
+    }
+
     /**
      * Method to handle the button click event. It notifies the event dispatcher
      * with the action associated with this button.
      */
     private void onClick() {
-        eventDispatcher.notifyObservers(action);
+        if (payload == null) {
+            eventDispatcher.notifyObservers(action);
+        } else {
+            eventDispatcher.notifyObservers(action, payload);
+        }
     }
 }
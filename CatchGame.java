@@ -0,0 +1,192 @@
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The rules of the apple-catching minigame, without drawing or sound.
+ * <br><br>
+ * The game advances in fixed frames of {@link #FRAME_MILLIS} milliseconds. An apple is
+ * dropped at a random position each second and the game ends after
+ * {@link #DURATION_SECONDS} seconds, both counted in frames rather than read from a
+ * clock, and the positions come from a seeded random number generator. A game played
+ * again with the same seed, size and moves at the same frames therefore always ends
+ * with the same score, which is how {@link SessionReplayer} replays a recorded game.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   CatchGame game = new CatchGame(seed, 800, 600, appleImage);
+ *   while (!game.isOver()) {
+ *       game.step();
+ *   }
+ *   game.getScore();
+ * }
+ * </pre>
+ *
+ * @see CatchGamePanel
+ * @see Apple
+ */
+public class CatchGame {
+    /** The time of one frame, approx. 60 frames per second */
+    static final int FRAME_MILLIS = 16;
+    /** The time between apples being dropped */
+    static final int SPAWN_MILLIS = 1000;
+    /** Total game duration in seconds */
+    static final int DURATION_SECONDS = 60;
+    /** Width of the basket */
+    static final int PLAYER_WIDTH = 100;
+    /** Height of the basket */
+    static final int PLAYER_HEIGHT = 100;
+    /** Movement speed of the basket */
+    static final int PLAYER_SPEED = 20;
+    /** The distance between the bottom of the basket and the bottom of the game */
+    static final int GROUND_OFFSET = 30;
+
+    /** Random number generator for apple spawn positions */
+    private final Random rand;
+    /** The width of the game */
+    private final int width;
+    /** The height of the game */
+    private final int height;
+    /** The image the apples are drawn with, null if they are not drawn */
+    private final BufferedImage appleImage;
+    /** List of falling apples */
+    private final List<Apple> apples = new ArrayList<>();
+    /** X-coordinate of the player (basket) */
+    private int playerX;
+    /** Y-coordinate of the player (basket) */
+    private final int playerY;
+    /** Current score of the player */
+    private int score = 0;
+    /** The number of frames played */
+    private int frame = 0;
+
+    /**
+     * Constructor for the CatchGame class, with the basket in the middle of the ground.
+     *
+     * @param seed The seed of the apple spawn positions
+     * @param width The width of the game
+     * @param height The height of the game
+     * @param appleImage The image the apples are drawn with, null if they are not drawn
+     */
+    public CatchGame(long seed, int width, int height, BufferedImage appleImage) {
+        this.rand = new Random(seed);
+        this.width = width;
+        this.height = height;
+        this.appleImage = appleImage;
+        this.playerX = (width - PLAYER_WIDTH) / 2;
+        this.playerY = height - PLAYER_HEIGHT - GROUND_OFFSET;
+    }
+
+    /**
+     * Advances the game by one frame.
+     * <br><br>
+     * Every apple falls, apples in the basket are caught and apples below the game are
+     * dropped. An apple is then added if a second has passed.
+     *
+     * @return The number of apples caught in this frame
+     */
+    public int step() {
+        if (isOver()) {
+            return 0;
+        }
+        int caught = 0;
+        Iterator<Apple> it = apples.iterator();
+        while (it.hasNext()) {
+            Apple apple = it.next();
+            apple.update();
+
+            if (apple.getY() + apple.getSize() >= playerY &&
+                apple.getY() + apple.getSize() <= playerY + PLAYER_HEIGHT &&
+                apple.getX() + apple.getSize() >= playerX &&
+                apple.getX() <= playerX + PLAYER_WIDTH) {
+
+                score++;
+                caught++;
+                it.remove();
+                continue;
+            }
+
+            if (apple.getY() > height) {
+                it.remove();
+            }
+        }
+        frame++;
+        if (getElapsedMillis() / SPAWN_MILLIS > (getElapsedMillis() - FRAME_MILLIS) / SPAWN_MILLIS) {
+            int x = rand.nextInt(Math.max(1, width - 20));
+            apples.add(new Apple(x, appleImage));
+        }
+        return caught;
+    }
+
+    /**
+     * Moves the basket, unless it is already at that edge of the game.
+     *
+     * @param direction -1 to move left, 1 to move right
+     */
+    public void move(int direction) {
+        if (direction < 0 && playerX > 0) {
+            playerX -= PLAYER_SPEED;
+        } else if (direction > 0 && playerX + PLAYER_WIDTH < width) {
+            playerX += PLAYER_SPEED;
+        }
+    }
+
+    /**
+     * Returns whether the time is up.
+     *
+     * @return true if the game is over
+     */
+    public boolean isOver() {
+        return getElapsedMillis() >= DURATION_SECONDS * 1000L;
+    }
+
+    /**
+     * Returns the game time played, the frames played times {@link #FRAME_MILLIS}.
+     *
+     * @return The time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return (long) frame * FRAME_MILLIS;
+    }
+
+    /**
+     * Returns the whole seconds left to play.
+     *
+     * @return The seconds left
+     */
+    public int getTimeLeft() {
+        return DURATION_SECONDS - (int) (getElapsedMillis() / 1000);
+    }
+
+    public List<Apple> getApples() {
+        return Collections.unmodifiableList(apples);
+    }
+
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getFrame() {
+        return frame;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
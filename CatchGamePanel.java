@@ -10,8 +10,6 @@ import java.awt.event.KeyListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.Random;
 import javax.imageio.ImageIO;
 import javax.sound.sampled.AudioInputStream;
@@ -29,6 +27,11 @@ import javax.swing.Timer;
  * The game features animations, sound effects, and changing visuals based on score.
  * The game runs on a fixed timer, and the player's objective is to catch as many apples as possible before time runs out.
  * <br><br>
+ * The rules are played by a {@link CatchGame}, which this panel steps once per frame
+ * of its timer and draws. The game is seeded, and if the session is being recorded
+ * the seed and every move are passed to the {@link SessionRecorder}, so the game can
+ * be replayed exactly.
+ * <br><br>
  * <b>Example Use:</b>
  * <pre>{@code
  *   EventDispatcher dispatcher = new EventDispatcher();
@@ -44,46 +47,17 @@ import javax.swing.Timer;
  */
 public class CatchGamePanel extends Panel implements ActionListener, KeyListener {
 
-    /** Timer for game loop (approx. 60 FPS) */
+    /** Timer for game loop, one {@link CatchGame#FRAME_MILLIS} frame per tick (approx. 60 FPS) */
     private Timer timer;
 
-    /** Timer for spawning apples periodically */
-    private Timer appleSpawnTimer;
-
-    /** Timer for tracking the total duration of the game */
-    private Timer gameTimer;
-
-    /** List of falling apples */
-    private ArrayList<Apple> apples;
-
-    /** Random number generator for apple spawn positions */
-    private Random rand = new Random();
-
-    // --- Player properties ---
-
-    /** X-coordinate of the player (basket) */
-    private int playerX;
-
-    /** Y-coordinate of the player (basket), set dynamically */
-    private int playerY;
-
-    /** Width of the basket image */
-    private final int playerWidth = 100;
-
-    /** Height of the basket image */
-    private final int playerHeight = 100;
+    /** The game being played, created on the first frame once the panel has its size */
+    private CatchGame game;
 
-    /** Movement speed of the basket */
-    private final int playerSpeed = 20;
+    /** The seed of the apple spawn positions */
+    private final long seed = new Random().nextLong();
 
-    /** Current score of the player */
-    private int score = 0;
-
-    /** Total game duration in seconds */
-    private final int GAME_DURATION = 60;
-
-    /** Time elapsed since game start */
-    private int timeElapsed = 0;
+    /** The recording of the session, null if it is not recorded */
+    private final SessionRecorder recorder;
 
     /** Flag indicating whether the game is over */
     private boolean isGameOver = false;
@@ -91,9 +65,6 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
     /** Button for returning to the main game after minigame ends */
     private JButton returnButton;
 
-    /** Flag to determine if it's the first frame (for centering basket) */
-    private boolean isFirstFrame = true;
-
     // --- Images ---
 
     /** Basket image (default) */
@@ -130,14 +101,23 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
      * @param eventDispatcher the event dispatcher for communicating with other parts of the game
      */
     public CatchGamePanel(EventDispatcher eventDispatcher) {
+        this(eventDispatcher, null);
+    }
+
+    /**
+     * Constructs a CatchGamePanel which records its game to a session recording.
+     *
+     * @param eventDispatcher the event dispatcher for communicating with other parts of the game
+     * @param recorder the recording of the session, null if it is not recorded
+     */
+    public CatchGamePanel(EventDispatcher eventDispatcher, SessionRecorder recorder) {
         super(eventDispatcher);
+        this.recorder = recorder;
         setFocusable(true);
         addKeyListener(this);
         setLayout(null);
         setBackground(Color.BLACK);
 
-        apples = new ArrayList<>();
-
         try {
             basketImage = ImageIO.read(new File("resources/sprites/basket.png"));
             basketImage2 = ImageIO.read(new File("resources/sprites/basket5.png"));
@@ -155,22 +135,8 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
         bepoLabel.setBounds((getWidth() / 2) + 10, (getHeight() / 2) - 50, 120, 120);
         add(bepoLabel);
 
-        timer = new Timer(16, this);
+        timer = new Timer(CatchGame.FRAME_MILLIS, this);
         timer.start();
-
-        appleSpawnTimer = new Timer(1000, e -> {
-            int x = rand.nextInt(Math.max(1, getWidth() - 20));
-            apples.add(new Apple(x, appleImage));
-        });
-        appleSpawnTimer.start();
-
-        gameTimer = new Timer(1000, e -> {
-            timeElapsed++;
-            if (timeElapsed >= GAME_DURATION) {
-                endGame();
-            }
-        });
-        gameTimer.start();
     }
 
     /**
@@ -179,8 +145,9 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
     private void endGame() {
         isGameOver = true;
         timer.stop();
-        appleSpawnTimer.stop();
-        gameTimer.stop();
+        if (recorder != null) {
+            recorder.endMinigame(game.getFrame(), game.getScore());
+        }
 
         int panelWidth = getWidth();
         int panelHeight = getHeight();
@@ -245,34 +212,34 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
 
         int panelWidth = getWidth();
         int panelHeight = getHeight();
-        playerY = panelHeight - playerHeight - 30;
 
         if (groundImage != null) {
             int groundHeight = 50;
             g.drawImage(groundImage, 0, panelHeight - groundHeight, panelWidth, groundHeight, null);
         }
 
-        if (isFirstFrame) {
-            playerX = (panelWidth - playerWidth) / 2;
-            isFirstFrame = false;
+        if (game == null) {
+            return;
         }
-
+        int playerX = game.getPlayerX();
+        int playerY = game.getPlayerY();
         if (basketImage != null) {
-            g.drawImage(basketImage, playerX, playerY, playerWidth, playerHeight, null);
+            g.drawImage(basketImage, playerX, playerY, CatchGame.PLAYER_WIDTH, CatchGame.PLAYER_HEIGHT, null);
         } else {
             g.setColor(Color.GREEN);
-            g.fillRect(playerX, playerY, playerWidth, playerHeight);
+            g.fillRect(playerX, playerY, CatchGame.PLAYER_WIDTH, CatchGame.PLAYER_HEIGHT);
         }
 
-        for (Apple apple : apples) {
+        for (Apple apple : game.getApples()) {
             apple.draw(g);
         }
 
+        int score = game.getScore();
         g.setColor(Color.WHITE);
         g.setFont(new Font("Arial", Font.BOLD, 20));
         g.drawString("Score: " + score, 20, 30);
 
-        int timeLeft = GAME_DURATION - timeElapsed;
+        int timeLeft = game.getTimeLeft();
         String timeText = "Time: " + timeLeft + "s";
         FontMetrics fm = g.getFontMetrics();
         int textWidth = fm.stringWidth(timeText);
@@ -288,35 +255,31 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
     }
 
     /**
-     * Main game loop method called on each timer tick.
+     * Main game loop method called on each timer tick, which plays one frame of the game.
+     * <br><br>
+     * The game is started on the first frame the panel has a size, since the size
+     * decides where apples fall and where the basket stands.
      *
      * @param e the ActionEvent from the timer
      */
     @Override
     public void actionPerformed(ActionEvent e) {
         if (isGameOver) return;
-
-        Iterator<Apple> it = apples.iterator();
-        while (it.hasNext()) {
-            Apple apple = it.next();
-            apple.update();
-
-            if (apple.getY() + apple.getSize() >= playerY &&
-                apple.getY() + apple.getSize() <= playerY + playerHeight &&
-                apple.getX() + apple.getSize() >= playerX &&
-                apple.getX() <= playerX + playerWidth) {
-
-                score++;
-                it.remove();
-                playApplePickupSound();
-                continue;
+        if (game == null) {
+            if (getWidth() == 0 || getHeight() == 0) {
+                return;
             }
-
-            if (apple.getY() > getHeight()) {
-                it.remove();
+            game = new CatchGame(seed, getWidth(), getHeight(), appleImage);
+            if (recorder != null) {
+                recorder.startMinigame(seed, getWidth(), getHeight());
             }
         }
 
+        for (int caught = game.step(); caught > 0; caught--) {
+            playApplePickupSound();
+        }
+
+        int score = game.getScore();
         if (score > 25) {
             basketImage = basketImage25;
         } else if (score > 20) {
@@ -329,6 +292,9 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
             basketImage = basketImage2;
         }
 
+        if (game.isOver()) {
+            endGame();
+        }
         repaint();
     }
 
@@ -339,12 +305,18 @@ public class CatchGamePanel extends Panel implements ActionListener, KeyListener
      */
     @Override
     public void keyPressed(KeyEvent e) {
+        if (game == null || isGameOver) {
+            return;
+        }
         int key = e.getKeyCode();
-        if (key == KeyEvent.VK_LEFT && playerX > 0) {
-            playerX -= playerSpeed;
-        } else if (key == KeyEvent.VK_RIGHT && playerX + playerWidth < getWidth()) {
-            playerX += playerSpeed;
+        int direction = key == KeyEvent.VK_LEFT ? -1 : key == KeyEvent.VK_RIGHT ? 1 : 0;
+        if (direction == 0) {
+            return;
+        }
+        if (recorder != null) {
+            recorder.move(game.getFrame(), direction);
         }
+        game.move(direction);
         repaint();
     }
 
@@ -1,22 +1,41 @@
+import java.time.Clock;
+
 /**
  * The abstract base class of controllers in our game.
  * <br><br>
  * This class extends the Observer class and is responsible for handling events.
- * It also manages an associated Panel, to display changes in the UI.
+ * It also manages an associated Panel, to display changes in the UI, and the
+ * clock which the controller reads the time from.
  */
 public abstract class Controller extends Observer {
     /** The panel associated with this class */
     private Panel panel;
+    /** The clock this controller reads the current time from */
+    protected final Clock clock;
 
     /**
-     * Constructor for the Controller class.
-     * 
+     * Constructor for the Controller class, using the system clock.
+     *
      * @param eventDispatcher The event dispatcher to handle events.
      * @param panel The panel associated with this controller.
      */
     public Controller(EventDispatcher eventDispatcher, Panel panel) {
+        this(eventDispatcher, panel, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor for the Controller class.
+     * <br><br>
+     * Tests and benchmarks can pass a {@link VirtualClock} to control time manually.
+     *
+     * @param eventDispatcher The event dispatcher to handle events.
+     * @param panel The panel associated with this controller.
+     * @param clock The clock to read the current time from.
+     */
+    public Controller(EventDispatcher eventDispatcher, Panel panel, Clock clock) {
         super(eventDispatcher);
         this.panel = panel;
+        this.clock = clock;
     }
 
     public Panel getPanel() {
@@ -26,4 +45,8 @@ public abstract class Controller extends Observer {
     public void setPanel(Panel panel) {
         this.panel = panel;
     }
+
+    public Clock getClock() {
+        return clock;
+    }
 }
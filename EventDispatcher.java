@@ -1,68 +1,641 @@
-import java.util.List;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * EventDispatcher is responsible for managing the observers and notifying them
- * of events. 
+ * of events.
+ * <br><br>
+ * Observers are stored in a table indexed by the event's ordinal, where each entry
+ * is an array of the event's observers. The arrays are never modified once they are
+ * in the table; adding or removing an observer replaces the event's array with a
+ * copy. Dispatching is therefore a plain loop over an array, which never allocates
+ * and is not affected by observers subscribing or unsubscribing during the dispatch.
+ * <br><br>
+ * A dispatcher can also be created in queued mode. In this mode an event posted while
+ * another event is being dispatched (for example an observer which notifies INGAME
+ * while handling LOAD) is added to a ring buffer, and runs once the current event has
+ * finished. Events are handled one at a time in the order they were posted, so bursts
+ * never nest handlers inside each other.
+ * <br><br>
+ * Each observer is notified on its own {@link Lane}. Observers on the caller's lane
+ * are notified before notifyObservers returns, while observers on the EDT, I/O and
+ * simulation lanes are handed the event and notified on that lane's thread.
+ * <br><br>
+ * Observers with a limited lifetime should subscribe through a {@link SubscriptionScope}
+ * and close it when they are finished, or be added with {@link #addWeakObserver} so
+ * the dispatcher does not keep them reachable. {@link #checkForLeaks(int)} reports
+ * events whose observer count keeps growing.
+ * <br><br>
+ * Unless disabled, the dispatcher also records how long each event and each kind of
+ * observer takes to handle, see {@link #getMetrics()}, logs each dispatch to the
+ * {@link FlightRecorder}, and emits a {@link JfrEvents.Dispatch} when a JFR recording
+ * is running.
+ * <br><br>
+ * An observer can subscribe to a set of events (or a bit mask of events) in one call,
+ * in which case the table is rebuilt once for the whole set.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   EventDispatcher eventDispatcher = new EventDispatcher(true);
+ *   eventDispatcher.addObserver(GameEvent.LOAD, app);
+ *   eventDispatcher.notifyObservers(GameEvent.LOAD, new EventPayload.Load(1)); // INGAME runs after LOAD finishes
+ *   eventDispatcher.getMaxDepth(); // 1
+ * }
+ * </pre>
  */
 public class EventDispatcher {
-    /** The map of observers, where the key is a game event and the value is a list of observers */
-    HashMap<GameEvent, List<Observer>> observers;
+    private static final Logger LOGGER = Logger.getLogger(EventDispatcher.class.getName());
+    /** The shared array for events without observers */
+    private static final Observer[] NONE = new Observer[0];
+
+    /** Whether dispatchers record metrics when created, set with -Dpetcrossing.metrics=false to disable */
+    static final boolean METRICS_ENABLED = !"false".equals(System.getProperty("petcrossing.metrics"));
+    /** The initial capacity of the queue of posted events */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The table of observers, indexed by game event ordinal, the arrays are never modified */
+    private volatile Observer[][] observers;
+    /** The table being built while subscribing to a set of events, null otherwise */
+    private Observer[][] batch;
+    /** Whether events posted during a dispatch are queued instead of dispatched immediately */
+    private final boolean queued;
+    /** The lock guarding the queue of posted events */
+    private final Object queueLock = new Object();
+    /** The ring buffer of posted events waiting to be dispatched, its length is a power of two */
+    private GameEvent[] queue = new GameEvent[INITIAL_CAPACITY];
+    /** The payloads of the posted events, at the same index as their event */
+    private EventPayload[] payloads = new EventPayload[INITIAL_CAPACITY];
+    /** The index of the oldest posted event in the queue */
+    private int head = 0;
+    /** The number of posted events in the queue */
+    private int backlog = 0;
+    /** The largest number of events which have waited in the queue at once */
+    private int maxBacklog = 0;
+    /** Whether a thread is currently draining the queue */
+    private boolean draining = false;
+    /** The number of dispatches currently nested inside each other */
+    private int depth = 0;
+    /** The deepest that dispatches have been nested */
+    private int maxDepth = 0;
+    /** The counts and latencies of the events dispatched */
+    private final DispatchMetrics metrics = new DispatchMetrics(METRICS_ENABLED);
+    /** The flight recorder which keeps the most recent dispatches */
+    private final FlightRecorder recorder = FlightRecorder.getDefault();
+
 
     /**
-     * Constructor for the EventDispatcher class, initializes the observers map.
+     * Constructor for the EventDispatcher class, initializes the observers table.
+     * <br><br>
+     * Events are dispatched immediately, even if another event is being dispatched.
      */
     public EventDispatcher() {
-        observers = new HashMap<GameEvent, List<Observer>>();
+        this(false);
+    }
+
+    /**
+     * Constructor for the EventDispatcher class.
+     *
+     * @param queued true to queue events posted during a dispatch until it finishes,
+     *               false to dispatch them immediately (nested inside the current dispatch)
+     */
+    public EventDispatcher(boolean queued) {
+        Observer[][] table = new Observer[GameEvent.values().length][];
+        Arrays.fill(table, NONE);
+        observers = table;
+        this.queued = queued;
     }
 
     /**
-     * Adds an observer for a specific game event. 
+     * Adds an observer for a specific game event.
      * <br><br>
-     * If the event already has observers, the new observer is added to the list.
-     * Otherwise, a new list is created for the event and the observer is added to it.
-     * 
+     * The observer is added after any observers already registered for the event.
+     * If the event is being dispatched, the observer is notified from the next dispatch.
+     *
      * @param event The game event to observe.
      * @param observer The observer to add.
      */
-    public <T extends Observer> void addObserver(GameEvent event, T observer) {
-        if (observers.containsKey(event)) {
-            observers.get(event).add(observer);
-        } else {
-            List<Observer> newObserver = new ArrayList<Observer>();
-            newObserver.add(observer);
-            observers.put(event, newObserver);
+    public synchronized <T extends Observer> void addObserver(GameEvent event, T observer) {
+        Observer[][] table = batch != null ? batch : observers.clone();
+        Observer[] current = table[event.ordinal()];
+        Observer[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = observer;
+        table[event.ordinal()] = updated;
+        if (batch == null) {
+            observers = table;
+        }
+    }
+
+    /**
+     * Adds an observer for a set of game events in one call.
+     * <br><br>
+     * The routing table is rebuilt once for the whole set, rather than once per event.
+     * <br><br>
+     * <b>Example Use:</b>
+     * <pre>
+     * {@code
+     *   eventDispatcher.addObserver(EnumSet.of(GameEvent.MENU, GameEvent.QUIT), observer);
+     * }
+     * </pre>
+     *
+     * @param events The game events to observe.
+     * @param observer The observer to add.
+     */
+    public synchronized void addObserver(Set<GameEvent> events, Observer observer) {
+        batch = observers.clone();
+        try {
+            for (GameEvent event : events) {
+                addObserver(event, observer);
+            }
+            observers = batch;
+        } finally {
+            batch = null;
+        }
+    }
+
+    /**
+     * Adds an observer for every game event whose bit is set in a mask.
+     *
+     * @param mask The mask of game events to observe, see {@link #mask(GameEvent...)}.
+     * @param observer The observer to add.
+     */
+    public void addObserver(long mask, Observer observer) {
+        addObserver(events(mask), observer);
+    }
+
+    /**
+     * Returns a mask with the bit of each game event set, bit n is the event with ordinal n.
+     *
+     * @param events The game events to include.
+     * @return The mask of the events.
+     */
+    public static long mask(GameEvent... events) {
+        long mask = 0;
+        for (GameEvent event : events) {
+            mask |= 1L << event.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the game events whose bits are set in a mask.
+     *
+     * @param mask The mask of game events.
+     * @return The set of events in the mask.
+     */
+    public static EnumSet<GameEvent> events(long mask) {
+        EnumSet<GameEvent> events = EnumSet.noneOf(GameEvent.class);
+        for (GameEvent event : GameEvent.values()) {
+            if ((mask & (1L << event.ordinal())) != 0) {
+                events.add(event);
+            }
         }
+        return events;
     }
 
     /**
      * Removes an observer from a specific game event. If the event has observers,
      * the specified observer is removed from the list.
-     * 
+     * <br><br>
+     * If the event is being dispatched, the dispatch in progress still notifies the observer.
+     *
      * @param event The game event to stop observing.
      * @param observer The observer to remove.
      */
-    public void removeObserver(GameEvent event, Observer observer) {
-        if (observers.containsKey(event)) {
-            observers.get(event).remove(observer);
+    public synchronized void removeObserver(GameEvent event, Observer observer) {
+        Observer[] current = (batch != null ? batch : observers)[event.ordinal()];
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(observer) || isWeakReferenceTo(current[i], observer)) {
+                Observer[] updated = NONE;
+                if (current.length > 1) {
+                    updated = new Observer[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                }
+                if (batch != null) {
+                    batch[event.ordinal()] = updated;
+                } else {
+                    Observer[][] table = observers.clone();
+                    table[event.ordinal()] = updated;
+                    observers = table;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes an observer from a set of game events in one call.
+     *
+     * @param events The game events to stop observing.
+     * @param observer The observer to remove.
+     */
+    public synchronized void removeObserver(Set<GameEvent> events, Observer observer) {
+        batch = observers.clone();
+        try {
+            for (GameEvent event : events) {
+                removeObserver(event, observer);
+            }
+            observers = batch;
+        } finally {
+            batch = null;
+        }
+    }
+
+    /**
+     * Adds an observer for a specific game event, and returns a handle which removes it.
+     *
+     * @param event The game event to observe.
+     * @param observer The observer to add.
+     * @return The subscription of the observer to the event.
+     */
+    public Subscription subscribe(GameEvent event, Observer observer) {
+        return subscribe(EnumSet.of(event), observer);
+    }
+
+    /**
+     * Adds an observer for a set of game events, and returns a handle which removes it from all of them.
+     *
+     * @param events The game events to observe.
+     * @param observer The observer to add.
+     * @return The subscription of the observer to the events.
+     */
+    public Subscription subscribe(Set<GameEvent> events, Observer observer) {
+        addObserver(events, observer);
+        return new Subscription(this, EnumSet.copyOf(events), observer);
+    }
+
+    /**
+     * Adds an observer for a specific game event without keeping the observer reachable.
+     * <br><br>
+     * Once the observer has been garbage collected, it is removed from the event the
+     * next time the event is dispatched. The observer can also be removed with
+     * {@link #removeObserver(GameEvent, Observer)} as usual.
+     *
+     * @param event The game event to observe.
+     * @param observer The observer to add.
+     */
+    public void addWeakObserver(GameEvent event, Observer observer) {
+        addObserver(event, new WeakObserver(this, event, observer));
+    }
+
+    /**
+     * Returns whether a registered observer is a weak reference to an observer.
+     *
+     * @param registered The observer in the table.
+     * @param observer The observer being removed.
+     * @return true if registered weakly refers to observer.
+     */
+    private static boolean isWeakReferenceTo(Observer registered, Observer observer) {
+        return registered instanceof WeakObserver && ((WeakObserver) registered).reference.get() == observer;
+    }
+
+    /**
+     * Returns the number of observers registered for each game event.
+     *
+     * @return The observer count of each event with at least one observer.
+     */
+    public EnumMap<GameEvent, Integer> getObserverCounts() {
+        Observer[][] table = observers;
+        EnumMap<GameEvent, Integer> counts = new EnumMap<>(GameEvent.class);
+        for (GameEvent event : GameEvent.values()) {
+            if (table[event.ordinal()].length > 0) {
+                counts.put(event, table[event.ordinal()].length);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Logs a warning for every game event with more than a number of observers.
+     * <br><br>
+     * The game only has a handful of long-lived observers, so an event whose observer
+     * count grows every time a game is loaded means observers are not being removed.
+     *
+     * @param limit The largest number of observers an event should have.
+     * @return true if any event has more observers than the limit.
+     */
+    public boolean checkForLeaks(int limit) {
+        boolean leaking = false;
+        for (Map.Entry<GameEvent, Integer> entry : getObserverCounts().entrySet()) {
+            if (entry.getValue() > limit) {
+                LOGGER.warning(entry.getKey() + " has " + entry.getValue() + " observers, more than the expected "
+                        + limit + ". Observers may not be being removed.");
+                leaking = true;
+            }
         }
+        return leaking;
+    }
+
+    /**
+     * Returns the observers of a specific game event, in the order they will be notified.
+     * <br><br>
+     * The returned array is shared with the dispatcher and must not be modified.
+     *
+     * @param event The game event.
+     * @return The observers of the event, an empty array if there are none.
+     */
+    Observer[] getObservers(GameEvent event) {
+        return observers[event.ordinal()];
     }
 
     /**
-     * Notifies all observers of a specific game event. 
+     * Notifies all observers of a specific game event.
      * <br><br>
      * If the event has observers, each observer is notified by calling its handleEvent method with the event.
      * For example, if the MENU event is triggered, all observers registered for the
      * MENU event will be notified, and respond by doing something (calling a method).
-     * 
+     * <br><br>
+     * In queued mode, if an event is already being dispatched the event is queued and
+     * this returns straight away. The event is dispatched by the thread which is
+     * draining the queue once the events posted before it have been handled.
+     *
      * @param event The game event to notify observers about.
      */
     public void notifyObservers(GameEvent event) {
-        if (observers.containsKey(event)) {
-            for (Observer observer : observers.get(event)) {
-                observer.handleEvent(event);
+        notifyObservers(event, null);
+    }
+
+    /**
+     * Notifies all observers of a specific game event, along with the event's data.
+     * <br><br>
+     * The event is routed exactly like {@link #notifyObservers(GameEvent)}, and each
+     * observer receives the payload in {@link Observer#handleEvent(GameEvent, EventPayload)}.
+     *
+     * @param event The game event to notify observers about.
+     * @param payload The data of the event, for example the save slot to load.
+     */
+    public void notifyObservers(GameEvent event, EventPayload payload) {
+        if (!queued) {
+            dispatch(event, payload);
+            return;
+        }
+        synchronized (queueLock) {
+            enqueue(event, payload);
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        drain();
+    }
+
+    /**
+     * Dispatches queued events in the order they were posted until the queue is empty.
+     */
+    private void drain() {
+        boolean finished = false;
+        try {
+            while (true) {
+                GameEvent next;
+                EventPayload payload;
+                synchronized (queueLock) {
+                    if (backlog == 0) {
+                        draining = false;
+                        finished = true;
+                        return;
+                    }
+                    next = queue[head];
+                    payload = payloads[head];
+                    queue[head] = null;
+                    payloads[head] = null;
+                    head = (head + 1) & (queue.length - 1);
+                    backlog--;
+                }
+                dispatch(next, payload);
+            }
+        } finally {
+            if (!finished) {
+                // An observer threw, leave the rest of the queue for the next event posted
+                synchronized (queueLock) {
+                    draining = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an event to the back of the queue, doubling the ring buffer if it is full.
+     * <br><br>
+     * The caller must hold the queue lock.
+     *
+     * @param event The event to add.
+     * @param payload The data of the event.
+     */
+    private void enqueue(GameEvent event, EventPayload payload) {
+        if (backlog == queue.length) {
+            GameEvent[] larger = new GameEvent[queue.length * 2];
+            EventPayload[] largerPayloads = new EventPayload[queue.length * 2];
+            for (int i = 0; i < backlog; i++) {
+                larger[i] = queue[(head + i) & (queue.length - 1)];
+                largerPayloads[i] = payloads[(head + i) & (queue.length - 1)];
+            }
+            queue = larger;
+            payloads = largerPayloads;
+            head = 0;
+        }
+        int tail = (head + backlog) & (queue.length - 1);
+        queue[tail] = event;
+        payloads[tail] = payload;
+        backlog++;
+        if (backlog > maxBacklog) {
+            maxBacklog = backlog;
+        }
+    }
+
+    /**
+     * Notifies every observer of an event, each on its own lane.
+     *
+     * @param event The game event to notify observers about.
+     * @param payload The data of the event.
+     */
+    private void dispatch(GameEvent event, EventPayload payload) {
+        JfrEvents.Dispatch jfrEvent = new JfrEvents.Dispatch();
+        jfrEvent.begin();
+        Observer[] targets = observers[event.ordinal()];
+        boolean measuring = metrics.isEnabled();
+        boolean flying = recorder.isEnabled();
+        boolean timing = measuring || flying;
+        long start = timing ? System.nanoTime() : 0;
+        // When timing, each handler is timed from the end of the previous one
+        long last = start;
+        if (++depth > maxDepth) {
+            maxDepth = depth;
+        }
+        try {
+            for (int i = 0; i < targets.length; i++) {
+                Observer target = targets[i];
+                Lane lane = target.getLane();
+                if (lane == Lane.CALLER) {
+                    target.handleEvent(event, payload);
+                } else {
+                    lane.execute(() -> handleOnLane(target, event, payload));
+                }
+                if (timing) {
+                    long now = System.nanoTime();
+                    if (lane == Lane.CALLER) {
+                        if (measuring) {
+                            metrics.recordObserver(target, now - last);
+                        }
+                        if (flying) {
+                            recorder.recordObserver(event, target, now, now - last);
+                        }
+                    }
+                    last = now;
+                }
+            }
+        } finally {
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.event = event.name();
+                jfrEvent.payload = payload == null ? null : payload.toString();
+                jfrEvent.observers = targets.length;
+                jfrEvent.depth = depth;
+                jfrEvent.commit();
+            }
+            depth--;
+            if (timing) {
+                long end = System.nanoTime();
+                if (measuring) {
+                    metrics.recordEvent(event, end - start);
+                }
+                if (flying) {
+                    recorder.recordEvent(event, end, end - start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Notifies an observer of an event on its lane.
+     * <br><br>
+     * Nothing is waiting for a lane's handlers to return, so a failure is logged
+     * instead of being thrown.
+     *
+     * @param observer The observer to notify.
+     * @param event The game event to notify the observer about.
+     * @param payload The data of the event.
+     */
+    private void handleOnLane(Observer observer, GameEvent event, EventPayload payload) {
+        boolean timing = metrics.isEnabled() || recorder.isEnabled();
+        long start = timing ? System.nanoTime() : 0;
+        try {
+            observer.handleEvent(event, payload);
+            if (timing) {
+                long end = System.nanoTime();
+                if (metrics.isEnabled()) {
+                    metrics.recordObserver(observer, end - start);
+                }
+                recorder.recordObserver(event, observer, end, end - start);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to handle " + event + " on the " + observer.getLane() + " lane", e);
+        }
+    }
+
+    /**
+     * An observer which forwards events to another observer through a weak reference.
+     */
+    private static class WeakObserver extends Observer {
+        /** The observer events are forwarded to */
+        private final WeakReference<Observer> reference;
+        /** The event this observer is registered for */
+        private final GameEvent event;
+
+        /**
+         * Constructor for the WeakObserver class.
+         *
+         * @param eventDispatcher The dispatcher this observer is registered on.
+         * @param event The event this observer is registered for.
+         * @param observer The observer to forward events to.
+         */
+        WeakObserver(EventDispatcher eventDispatcher, GameEvent event, Observer observer) {
+            super(eventDispatcher);
+            this.reference = new WeakReference<>(observer);
+            this.event = event;
+        }
+
+        @Override
+        protected Lane getLane() {
+            Observer observer = reference.get();
+            return observer == null ? Lane.CALLER : observer.getLane();
+        }
+
+        @Override
+        protected void handleEvent(GameEvent event) {
+            handleEvent(event, null);
+        }
+
+        @Override
+        protected void handleEvent(GameEvent event, EventPayload payload) {
+            Observer observer = reference.get();
+            if (observer == null) {
+                eventDispatcher.removeObserver(this.event, this);
+            } else {
+                observer.handleEvent(event, payload);
             }
         }
+
+        @Override
+        protected void registerEvents() {
+            // Registered by addWeakObserver
+        }
+    }
+
+    /**
+     * Returns the counts and latency histograms of the events dispatched.
+     *
+     * @return The metrics of this dispatcher
+     */
+    public DispatchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns whether events posted during a dispatch are queued.
+     *
+     * @return true if this dispatcher is in queued mode
+     */
+    public boolean isQueued() {
+        return queued;
+    }
+
+    /**
+     * Returns the number of posted events waiting to be dispatched.
+     *
+     * @return The current backlog
+     */
+    public int getBacklog() {
+        synchronized (queueLock) {
+            return backlog;
+        }
+    }
+
+    /**
+     * Returns the largest number of posted events which have waited to be dispatched at once.
+     *
+     * @return The peak backlog
+     */
+    public int getMaxBacklog() {
+        synchronized (queueLock) {
+            return maxBacklog;
+        }
+    }
+
+    /**
+     * Returns the deepest that dispatches have been nested inside observers' handlers.
+     * <br><br>
+     * This is always at most 1 in queued mode. It is only tracked accurately when
+     * events are dispatched from one thread, such as the Swing thread.
+     *
+     * @return The peak dispatch depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
     }
 }
@@ -0,0 +1,54 @@
+/**
+ * The data carried by a game event, such as which save slot to load or which item to use.
+ * <br><br>
+ * Events which need data are routed by their {@link GameEvent} as usual, and observers
+ * read the payload passed alongside it. New save slots, items and species are new
+ * payload values rather than new enum constants.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   eventDispatcher.notifyObservers(GameEvent.LOAD, new EventPayload.Load(2));
+ *   eventDispatcher.notifyObservers(GameEvent.FEED, new EventPayload.Feed(Item.BANANA));
+ * }
+ * </pre>
+ *
+ * @see GameEvent
+ * @see EventDispatcher
+ */
+public interface EventPayload {
+    /**
+     * Payload of {@link GameEvent#LOAD}, the save slot to load.
+     *
+     * @param slot The save slot number
+     */
+    record Load(int slot) implements EventPayload {}
+
+    /**
+     * Payload of {@link GameEvent#FEED}, the food to feed the pet.
+     *
+     * @param item The food item
+     */
+    record Feed(Item item) implements EventPayload {}
+
+    /**
+     * Payload of {@link GameEvent#GIFT}, the gift to give the pet.
+     *
+     * @param item The gift item
+     */
+    record Gift(Item item) implements EventPayload {}
+
+    /**
+     * Payload of {@link GameEvent#ADOPT}, the species of pet to adopt.
+     *
+     * @param species The species, e.g. "Chopper"
+     */
+    record Adopt(String species) implements EventPayload {}
+
+    /**
+     * Payload of {@link GameEvent#SAVE_FAILED}, the save slot which could not be written.
+     *
+     * @param slot The save slot number
+     */
+    record SaveFailed(int slot) implements EventPayload {}
+}
@@ -0,0 +1,181 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Stores each record as a file in a directory, named by its key.
+ * <br><br>
+ * A record is written to a temporary file, forced to disk and then renamed over the
+ * record's file, so the file always holds either the old or the new contents and never
+ * half of them. If the old contents are kept, the record's backup is linked to the old
+ * file before it is replaced.
+ * The directory is created by the first write.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveRepository repository = new FileSaveRepository(Paths.get("saves"));
+ *   SaveManager saveManager = new SaveManager(repository);
+ * }
+ * </pre>
+ *
+ * @see SaveRepository
+ */
+public class FileSaveRepository implements SaveRepository {
+    private static final Logger LOGGER = Logger.getLogger(FileSaveRepository.class.getName());
+    /** The suffix of the file a record is written to before it replaces the record's file */
+    static final String TEMP_SUFFIX = ".tmp";
+
+    /** The directory the files are kept in */
+    private final Path directory;
+
+    /**
+     * Constructor for the FileSaveRepository class.
+     *
+     * @param directory The directory the files are kept in
+     */
+    public FileSaveRepository(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the file a record is kept in.
+     *
+     * @param key The key of the record
+     * @return The path of the record's file
+     */
+    public Path getFile(String key) {
+        return directory.resolve(key);
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        try {
+            return Files.readAllBytes(getFile(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void write(String key, byte[] contents, boolean keepBackup) throws IOException {
+        Files.createDirectories(directory);
+        writeAtomically(getFile(key), contents, keepBackup);
+    }
+
+    @Override
+    public long lastModified(String key) {
+        try {
+            return Files.getLastModifiedTime(getFile(key)).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Replaces a file with new contents, optionally keeping the old contents as its backup.
+     * <br><br>
+     * The contents are written to a temporary file and forced to disk first, then the
+     * temporary file is renamed over the file, which therefore always exists and holds
+     * either the old or the new contents. The backup is made before that rename by hard
+     * linking the old file, or copying it where links are not supported, under a
+     * temporary name which is renamed over the old backup. The backup is therefore never
+     * missing or half written either, and keeping it costs a link and a rename of the
+     * backup but nothing on the file itself.
+     *
+     * @param file The file to replace
+     * @param contents The new contents of the file
+     * @param keepBackup Whether to keep the old contents as the file's backup
+     * @throws IOException If the file cannot be written
+     */
+    static void writeAtomically(Path file, byte[] contents, boolean keepBackup) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(contents);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        if (keepBackup) {
+            keepBackup(file);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file);
+    }
+
+    /**
+     * Replaces a file's backup with the file's current contents, leaving the file in place.
+     *
+     * @param file The file to back up
+     * @throws IOException If the backup cannot be written
+     */
+    private static void keepBackup(Path file) throws IOException {
+        Path backup = file.resolveSibling(file.getFileName() + BACKUP_SUFFIX);
+        Path temp = backup.resolveSibling(backup.getFileName() + TEMP_SUFFIX);
+        Files.deleteIfExists(temp);
+        try {
+            Files.createLink(temp, file);
+        } catch (NoSuchFileException e) {
+            // The first write of the record
+            return;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // The file system has no hard links
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(temp, backup, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Forces the renames in a file's directory to disk, where the platform allows it.
+     *
+     * @param file The file whose directory to sync
+     */
+    private static void syncDirectory(Path file) {
+        Path parent = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(parent, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on Windows, where the rename is already durable
+        }
+    }
+
+    /**
+     * Moves saves written by older versions outside of a directory into it.
+     * <br><br>
+     * Older versions named their files "saves\save1.sav", which is only a path on
+     * Windows. Elsewhere it created a file of that name next to the directory, which is
+     * moved into the directory unless the directory already has a file of the same name.
+     *
+     * @param directory The directory the saves are kept in
+     */
+    static void adoptMisnamedFiles(Path directory) {
+        if (File.separatorChar == '\\') {
+            return;
+        }
+        String prefix = directory.getFileName() + "\\";
+        Path parent = directory.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(parent, prefix.replace("\\", "\\\\") + "*")) {
+            for (Path file : files) {
+                Path target = directory.resolve(file.getFileName().toString().substring(prefix.length()));
+                if (!Files.exists(target)) {
+                    Files.createDirectories(directory);
+                    Files.move(file, target);
+                    LOGGER.info("Moved " + file.getFileName() + " to " + target);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to move older saves into " + directory + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size, always-on record of the most recent events and simulation ticks.
+ * <br><br>
+ * Every entry is {@value #ENTRY_SIZE} bytes in a ring buffer allocated outside the heap:
+ * the time it was recorded, what kind of entry it is, the event and observer involved,
+ * how long it took, and the pet's stats for ticks. Recording an entry only claims a
+ * slot and writes a few numbers into it, so it never allocates or locks, and the
+ * recorder can stay on while the game is played. Once the buffer is full the oldest
+ * entries are overwritten.
+ * <br><br>
+ * The buffer can be dumped to a file at any time, and {@link FlightRecorderDecoder}
+ * turns a dump into readable text. The game dumps the buffer when it exits or hits a
+ * fatal error. Set -Dpetcrossing.flightrecorder=false to disable recording.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   FlightRecorder recorder = FlightRecorder.getDefault();
+ *   recorder.recordEvent(GameEvent.MENU, System.nanoTime(), 1500);
+ *   recorder.dump(Path.of("flight-recorder.bin"));
+ * }
+ * </pre>
+ *
+ * @see FlightRecorderDecoder
+ */
+public class FlightRecorder {
+    /** The first bytes of a dump, "PCFR" */
+    static final int MAGIC = 0x50434652;
+    /** The version of the dump format */
+    static final int VERSION = 2;
+    /** The number of bytes in each entry */
+    static final int ENTRY_SIZE = 40;
+    /** The number of entries kept by the default recorder, a power of two */
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** An entry for a whole event dispatch */
+    static final byte KIND_EVENT = 1;
+    /** An entry for one observer handling an event */
+    static final byte KIND_OBSERVER = 2;
+    /** An entry for one simulation tick */
+    static final byte KIND_TICK = 3;
+    /** An entry written with {@link #mark(String)} */
+    static final byte KIND_MARK = 4;
+
+    /** The offset of the time the entry was recorded, from System.nanoTime */
+    static final int TIME = 0;
+    /** The offset of the kind of entry */
+    static final int KIND = 8;
+    /** The offset of the event ordinal, -1 if there is no event */
+    static final int EVENT = 9;
+    /** The offset of the observer or mark id, -1 if there is none */
+    static final int NAME = 10;
+    /**
+     * The offset of the duration in nanoseconds, a long so long stalls are not cut short.
+     * The four bytes before it are unused, which keeps it aligned.
+     */
+    static final int DURATION = 16;
+    /** The offset of the pet's stats, four floats in {@link PetStat} order */
+    static final int STATS = 24;
+
+    /** The recorder shared by the game */
+    private static final FlightRecorder DEFAULT = new FlightRecorder(DEFAULT_CAPACITY,
+            !"false".equals(System.getProperty("petcrossing.flightrecorder")));
+
+    /** The entries, outside the heap */
+    private final ByteBuffer buffer;
+    /** The mask turning a sequence number into an entry index */
+    private final int mask;
+    /** The sequence number of the next entry */
+    private final AtomicLong next = new AtomicLong();
+    /** Whether new entries are recorded */
+    private volatile boolean enabled;
+    /** The names of the observer classes and marks, indexed by their id */
+    private final List<String> names = new CopyOnWriteArrayList<>();
+    /** The id of each observer class, cached on the class */
+    private final ClassValue<Short> observerIds = new ClassValue<Short>() {
+        @Override
+        protected Short computeValue(Class<?> type) {
+            return idOf(type.getName());
+        }
+    };
+
+    /**
+     * Constructor for the FlightRecorder class.
+     *
+     * @param capacity The number of entries to keep, rounded up to a power of two
+     * @param enabled Whether to start recording straight away
+     */
+    public FlightRecorder(int capacity, boolean enabled) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.buffer = ByteBuffer.allocateDirect(size * ENTRY_SIZE);
+        this.mask = size - 1;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the recorder shared by the game.
+     *
+     * @return The default recorder
+     */
+    public static FlightRecorder getDefault() {
+        return DEFAULT;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the number of entries the recorder keeps.
+     *
+     * @return The capacity of the ring buffer
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of entries recorded since the recorder was created, including overwritten ones.
+     *
+     * @return The number of entries recorded
+     */
+    public long getRecorded() {
+        return next.get();
+    }
+
+    /**
+     * Records a dispatch of an event to all of its observers.
+     *
+     * @param event The event dispatched
+     * @param end The System.nanoTime the dispatch finished at
+     * @param nanos The time taken in nanoseconds
+     */
+    public void recordEvent(GameEvent event, long end, long nanos) {
+        if (enabled) {
+            claim(KIND_EVENT, (byte) event.ordinal(), (short) -1, end, nanos);
+        }
+    }
+
+    /**
+     * Records an observer handling an event.
+     *
+     * @param event The event handled
+     * @param observer The observer which handled it
+     * @param end The System.nanoTime the handler returned at
+     * @param nanos The time taken in nanoseconds
+     */
+    public void recordObserver(GameEvent event, Observer observer, long end, long nanos) {
+        if (enabled) {
+            claim(KIND_OBSERVER, (byte) event.ordinal(), observerIds.get(observer.getClass()), end, nanos);
+        }
+    }
+
+    /**
+     * Records a simulation tick, with the pet's stats at the end of it.
+     *
+     * @param pet The pet after the tick
+     * @param end The System.nanoTime the tick finished at
+     * @param nanos The time taken in nanoseconds
+     */
+    public void recordTick(Pet pet, long end, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        int offset = claim(KIND_TICK, (byte) -1, (short) -1, end, nanos);
+        buffer.putFloat(offset + STATS, (float) pet.getHealth());
+        buffer.putFloat(offset + STATS + 4, (float) pet.getHunger());
+        buffer.putFloat(offset + STATS + 8, (float) pet.getHappiness());
+        buffer.putFloat(offset + STATS + 12, (float) pet.getSleep());
+    }
+
+    /**
+     * Records a named point in time, for example the reason the buffer is being dumped.
+     *
+     * @param name The name of the mark
+     */
+    public void mark(String name) {
+        if (enabled) {
+            claim(KIND_MARK, (byte) -1, idOf(name), System.nanoTime(), 0);
+        }
+    }
+
+    /**
+     * Claims the next entry and writes the fields every entry has.
+     * <br><br>
+     * The stats are cleared, so entries which overwrite a tick do not show its stats.
+     * The caller passes in the time, which it has already read to measure the duration,
+     * since reading the clock costs more than writing the entry.
+     *
+     * @param kind The kind of entry
+     * @param event The event ordinal, or -1
+     * @param name The observer or mark id, or -1
+     * @param time The System.nanoTime of the entry
+     * @param nanos The duration in nanoseconds
+     * @return The offset of the entry in the buffer
+     */
+    private int claim(byte kind, byte event, short name, long time, long nanos) {
+        int offset = (int) (next.getAndIncrement() & mask) * ENTRY_SIZE;
+        buffer.putLong(offset + TIME, time);
+        buffer.put(offset + KIND, kind);
+        buffer.put(offset + EVENT, event);
+        buffer.putShort(offset + NAME, name);
+        buffer.putLong(offset + DURATION, nanos);
+        buffer.putLong(offset + STATS, 0L);
+        buffer.putLong(offset + STATS + 8, 0L);
+        return offset;
+    }
+
+    /**
+     * Returns the id of an observer class or mark name, assigning the next id if it is new.
+     *
+     * @param name The name
+     * @return The id of the name
+     */
+    private synchronized short idOf(String name) {
+        int id = names.indexOf(name);
+        if (id < 0) {
+            names.add(name);
+            id = names.size() - 1;
+        }
+        return (short) id;
+    }
+
+    /**
+     * Writes the recorded entries to a file, oldest first.
+     * <br><br>
+     * Entries recorded while the dump is being written may appear half written; the
+     * rest of the dump is unaffected.
+     *
+     * @param path The file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void dump(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writeTo(out);
+        }
+    }
+
+    /**
+     * Writes the recorded entries to a stream, oldest first.
+     * <br><br>
+     * The dump starts with a header holding the clocks at the time of the dump and the
+     * names of the game events and observers, so it can be decoded by another version
+     * of the game.
+     *
+     * @param stream The stream to write to, it is not closed
+     * @throws IOException If the stream cannot be written
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        long end = next.get();
+        long start = Math.max(0, end - getCapacity());
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.nanoTime());
+        out.writeLong(System.currentTimeMillis());
+        GameEvent[] events = GameEvent.values();
+        out.writeInt(events.length);
+        for (GameEvent event : events) {
+            out.writeUTF(event.name());
+        }
+        List<String> snapshot = List.copyOf(names);
+        out.writeInt(snapshot.size());
+        for (String name : snapshot) {
+            out.writeUTF(name);
+        }
+        out.writeInt((int) (end - start));
+        byte[] entry = new byte[ENTRY_SIZE];
+        ByteBuffer view = buffer.duplicate();
+        for (long sequence = start; sequence < end; sequence++) {
+            view.position((int) (sequence & mask) * ENTRY_SIZE);
+            view.get(entry);
+            out.write(entry);
+        }
+        out.flush();
+    }
+}
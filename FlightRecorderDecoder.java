@@ -0,0 +1,153 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Turns a {@link FlightRecorder} dump into readable text, one line per entry.
+ * <br><br>
+ * Each line shows the wall clock time of the entry, its kind, the event and observer
+ * involved, how long it took, and the pet's stats for ticks.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   java -cp out FlightRecorderDecoder flight-recorder.bin
+ *   14:02:11.532104  TICK                                                12.4 us  health 98.0 hunger 71.3 happiness 64.0 sleep 88.1
+ *   14:02:11.540869  OBSERVER  FEED        GameController                 1.9 us
+ *   14:02:11.540871  EVENT     FEED                                       3.1 us
+ * }
+ * </pre>
+ *
+ * @see FlightRecorder
+ */
+public class FlightRecorderDecoder {
+    /** The format of the time of each entry */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSSSSS")
+            .withZone(ZoneId.systemDefault());
+    /** The names of the kinds of entry, indexed by kind */
+    private static final String[] KINDS = { "?", "EVENT", "OBSERVER", "TICK", "MARK" };
+
+    /**
+     * Decodes the dump named by the first argument to standard output.
+     *
+     * @param args The path of the dump
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: java FlightRecorderDecoder <dump file>");
+            System.exit(2);
+        }
+        PrintWriter out = new PrintWriter(System.out);
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            decode(in, out);
+        } catch (IOException e) {
+            System.err.println("Failed to decode " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Decodes a dump file.
+     *
+     * @param path The dump to decode
+     * @param out Where to write the text
+     * @throws IOException If the dump cannot be read or is not a flight recorder dump
+     */
+    public static void decode(Path path, PrintWriter out) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            decode(in, out);
+        }
+    }
+
+    /**
+     * Decodes a dump read from a stream.
+     *
+     * @param stream The dump to decode, it is not closed
+     * @param out Where to write the text
+     * @throws IOException If the dump cannot be read or is not a flight recorder dump
+     */
+    public static void decode(InputStream stream, PrintWriter out) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != FlightRecorder.MAGIC) {
+            throw new IOException("Not a flight recorder dump");
+        }
+        int version = in.readInt();
+        if (version != FlightRecorder.VERSION) {
+            throw new IOException("Unsupported flight recorder dump version " + version);
+        }
+        long dumpNanos = in.readLong();
+        long dumpMillis = in.readLong();
+        String[] events = readNames(in);
+        String[] names = readNames(in);
+        int count = in.readInt();
+
+        byte[] bytes = new byte[FlightRecorder.ENTRY_SIZE];
+        ByteBuffer entry = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < count; i++) {
+            in.readFully(bytes);
+            long time = entry.getLong(FlightRecorder.TIME);
+            byte kind = entry.get(FlightRecorder.KIND);
+            int event = entry.get(FlightRecorder.EVENT);
+            int name = entry.getShort(FlightRecorder.NAME);
+            long duration = entry.getLong(FlightRecorder.DURATION);
+
+            // Convert the entry's System.nanoTime to the wall clock, relative to the time of the dump
+            long nanosSinceEpoch = dumpMillis * 1_000_000L - (dumpNanos - time);
+            Instant instant = Instant.ofEpochSecond(Math.floorDiv(nanosSinceEpoch, 1_000_000_000L),
+                    Math.floorMod(nanosSinceEpoch, 1_000_000_000L));
+            StringBuilder line = new StringBuilder(TIME_FORMAT.format(instant)).append("  ");
+            line.append(String.format("%-9s %-11s %-26s", kind > 0 && kind < KINDS.length ? KINDS[kind] : KINDS[0],
+                    lookup(events, event), lookup(names, name)));
+            if (kind != FlightRecorder.KIND_MARK) {
+                line.append(String.format(" %9.1f us", duration / 1000.0));
+            }
+            if (kind == FlightRecorder.KIND_TICK) {
+                int offset = FlightRecorder.STATS;
+                line.append(String.format("  health %.1f hunger %.1f happiness %.1f sleep %.1f",
+                        entry.getFloat(offset), entry.getFloat(offset + 4), entry.getFloat(offset + 8),
+                        entry.getFloat(offset + 12)));
+            }
+            out.println(line);
+        }
+    }
+
+    /**
+     * Reads a count followed by that many names.
+     *
+     * @param in The stream to read
+     * @return The names
+     * @throws IOException If the stream cannot be read
+     */
+    private static String[] readNames(DataInputStream in) throws IOException {
+        String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        return names;
+    }
+
+    /**
+     * Returns the name with an id, or a placeholder if the id is unknown.
+     *
+     * @param names The names, indexed by id
+     * @param id The id, -1 for none
+     * @return The name, empty for none
+     */
+    private static String lookup(String[] names, int id) {
+        if (id < 0) {
+            return "";
+        }
+        return id < names.length ? names[id] : "#" + id;
+    }
+}
@@ -1,6 +1,23 @@
-import javax.swing.Timer;
+import java.time.Clock;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
 
 /**
  * GameController is responsible for managing the game state and represents one game instance.
@@ -8,24 +25,89 @@ import java.util.Map;
  * This class extends the Controller class and handles events related to the pet's state,
  * inventory management, and game actions. It also manages the cooldowns for various actions.   
  * For example, if the user enters the vet, the vet button will be disabled for 15 seconds.
+ * <br><br>
+ * The simulation runs on the {@link Lane#SIMULATION} lane rather than the Swing thread.
+ * User actions (feeding, playing, etc.) are queued and applied at the start of the next
+ * tick, and after a tick which changed something visible a {@link PetSnapshot} is
+ * published for the Swing thread to render. Slow painting never pauses the pet, and a
+ * slow tick never delays input.
+ * <br><br>
+ * From {@link #start()} until a {@link #pause()} has finished on the lane, only the lane
+ * touches the game. After that the game belongs to whichever thread applies an action
+ * or captures it, one at a time. The hand over, and every decision about which side owns
+ * the game, is made under one lock, so work is never done on the wrong side.
+ * <br><br>
+ * If the game has a {@link GameJournal}, every action which is applied and the pet's
+ * stats once a second are appended to it, with a snapshot of the game every
+ * {@link GameJournal#SNAPSHOT_INTERVAL} entries.
+ * <br><br>
+ * If the session is being recorded, every action the simulation takes is passed to the
+ * {@link SessionRecorder} with the number of ticks before it and the time it was applied
+ * at, which is all {@link SessionReplayer} needs to play the game again tick for tick.
  *
  * @see Controller
  * @see Pet
  * @see Inventory
- * @see Timer
+ * @see PetSnapshot
  * @see PetState 
  */
 public class GameController extends Controller {
+    private static final Logger LOGGER = Logger.getLogger(GameController.class.getName());
+
     /** The pet associated with this game instance */
     private Pet pet;
     /** The inventory associated with this game instance */
     private Inventory inventory;
     /** The save slot for this game instance */
     private int saveSlot;
-    /** The timer for updating the pet's stats */
-    private Timer statTimer;
-    /** The previous state of the pet */
-    private PetState previousState;
+    /** The scheduled task which posts the ticks to the simulation lane, null while paused */
+    private ScheduledFuture<?> tickTask;
+    /** Whether the simulation is currently ticking */
+    private volatile boolean running = false;
+    /** Whether the simulation lane owns the game, from a start until the pause has run on it */
+    private boolean onSimulation = false;
+    /** Counts starts and pauses, ticks and pauses posted by an earlier one are skipped */
+    private volatile long generation = 0;
+    /** Guards which side owns the game, and the paused game's changes and snapshots */
+    private final Object lifecycle = new Object();
+    /** User actions waiting to be applied by the simulation, any thread may add to it */
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+    /** The latest published snapshot, read by the Swing thread without locking */
+    private final AtomicReference<PetSnapshot> snapshot = new AtomicReference<>();
+    /** The changes published since the panel was last rendered */
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    /** The flight recorder which keeps the most recent ticks */
+    private final FlightRecorder recorder = FlightRecorder.getDefault();
+    /** The changes made during the current tick, only used by the simulation */
+    private int changes = 0;
+    /** The subscriptions of this controller, closed when the game is closed */
+    private SubscriptionScope subscriptions;
+    /** The listener which records which parts of the panel the pet's changes affect */
+    private PetListener displayListener;
+    /** The score at the last publish */
+    private int publishedScore;
+    /** The number of times the score has changed */
+    private long scoreVersion = 0;
+    /** The version of the game at the last publish, read by the autosave */
+    private volatile long version;
+    /** The journal the game's actions and stats are appended to, null if it has none */
+    private GameJournal journal;
+    /** The version of the game when its stats were last journaled */
+    private long journaledVersion;
+    /** The ticks since the stats were last journaled */
+    private int ticksSinceJournal = 0;
+    /** The recording of the session, null if it is not recorded */
+    private SessionRecorder sessionRecorder;
+    /** The number the recording gave this game */
+    private int recordedGame;
+    /** The number of ticks run, only used by the simulation */
+    private long ticks = 0;
+    /** Whether the vet is off cooldown */
+    private boolean allowVet = true;
+    /** Whether walking is off cooldown */
+    private boolean allowWalk = true;
+    /** Whether playing is off cooldown */
+    private boolean allowPlay = true;
     /** Track if the sleep penalty was applied (minus health when sleep hits 0) */
     private boolean sleepPenaltyApplied = false; // Track if sleep penalty was already applied
     /** Tracks if the anger penalty was applied (cannot do certain actions until 50% happiness, if angry) */
@@ -40,6 +122,34 @@ public class GameController extends Controller {
     private static final int WALK_COOLDOWN = 10000; 
     /** The cooldown time for the play action */
     private static final int PLAY_COOLDOWN = 8000; 
+    /** The actions which have cooldowns */
+    private static final String[] ACTIONS = { "vet", "walk", "play" };
+    /** The time between ticks, the pet's stats are updated 60 times per second */
+    static final long TICK_MILLIS = 1000 / 60;
+    /** The ticks between the stats being journaled, once a second */
+    private static final int JOURNAL_TICKS = 60;
+    /** Change flag for the pet's state (sprite and status text) */
+    private static final int CHANGED_STATE = 1;
+    /** Change flag for the displayed stat values */
+    private static final int CHANGED_STATS = 2;
+    /** Change flag for the status bar warning colours */
+    private static final int CHANGED_WARNINGS = 4;
+    /** Change flag for which buttons are enabled */
+    private static final int CHANGED_BUTTONS = 8;
+    /** Change flag for the score */
+    private static final int CHANGED_SCORE = 16;
+    /** Change flag for the inventory counts */
+    private static final int CHANGED_INVENTORY = 32;
+    /** Every change flag */
+    private static final int CHANGED_ALL = 63;
+    /** The longest time pause waits for the simulation lane to finish the game's last tick */
+    static final long PAUSE_TIMEOUT_MILLIS = 500;
+    /** The thread which posts the ticks of every game to the simulation lane */
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "pet-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * Constructor for the GameController class.
@@ -56,11 +166,29 @@ public class GameController extends Controller {
      */
     public GameController(EventDispatcher eventDispatcher, GameplayPanel panel, Inventory inventory, int saveSlot,
             Pet pet, int score) {
-        super(eventDispatcher, panel);
+        this(eventDispatcher, panel, inventory, saveSlot, pet, score, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor for the GameController class which reads cooldown times from the given clock.
+     * 
+     * @param eventDispatcher The event dispatcher to handle events
+     * @param panel The gameplay panel associated with this controller, null for a game
+     *        which is not shown, such as one replayed by {@link SessionReplayer}
+     * @param inventory The inventory associated with this game instance
+     * @param saveSlot The save slot for this game instance
+     * @param pet The pet associated with this game instance
+     * @param score The score for this game instance
+     * @param clock The clock used for action cooldowns
+     */
+    public GameController(EventDispatcher eventDispatcher, GameplayPanel panel, Inventory inventory, int saveSlot,
+            Pet pet, int score, Clock clock) {
+        super(eventDispatcher, panel, clock);
         this.inventory = inventory;
         this.saveSlot = saveSlot;
         this.pet = pet;
         this.score = score;
+        this.publishedScore = score;
         // Cooldowns start at 0
         cooldowns.put("vet", 0L);
         cooldowns.put("walk", 0L);
@@ -71,95 +199,336 @@ public class GameController extends Controller {
     /**
      * Private helper method which takes care of some initialization tasks.
      * <br><br>
-     * This method creates the timer which periodically updates the pet's stats,
-     * the inventory, the score, and tracks the cooldowns for actions. 
+     * This method registers the pet listeners, which track what changes in each tick,
+     * and renders the initial state of the game onto the panel.
      */
     private void init() {
-        ((GameplayPanel) this.getPanel()).updateInventory(inventory);
-        previousState = pet.getState();
-        // Create the timer
-        statTimer = new Timer(1000 / 60, e -> {
-            // Update the pet's stats 60 times per second
-            pet.setHunger(pet.getHunger() - pet.getHungerRate());
-            pet.setHappiness(pet.getHappiness() - pet.getHappinessRate());
-
-            // If the pet is sleeping, restore is sleep value, if the pet is not sleeping, decay its sleep value
-            if (pet.getState() != PetState.SLEEPING) {
-                pet.setSleep(pet.getSleep() - pet.getSleepRate()); // Slightly adjusted sleep decay rate
-            } else {
-                pet.setSleep(pet.getSleep() + pet.getSleepRate() / 2);
+        addPetListeners();
+        changes = CHANGED_ALL;
+        publish();
+        render();
+    }
+
+    /**
+     * Registers the listener which records what the pet's changes affect.
+     * <br><br>
+     * Status bars are updated when a displayed value changes, turn red when a stat
+     * falls to the warning threshold, and the sprite and buttons change when the pet's
+     * state changes or one of its stats runs out. The listener runs on the simulation
+     * thread, so it only records the change and the panel is updated by {@link #render()}.
+     */
+    private void addPetListeners() {
+        displayListener = new PetListener() {
+            @Override
+            public void stateChanged(Pet pet, PetState previous, PetState current) {
+                changes |= CHANGED_STATE | CHANGED_STATS | CHANGED_BUTTONS;
             }
 
-            // If the pet's sleep reaches 0, apply a penalty and subtract the pets health by some amount
-            if (pet.getSleep() <= 0.5 && !sleepPenaltyApplied) {
-                pet.setHealth(pet.getHealth() - 20); // 
-                sleepPenaltyApplied = true;
-            } else if (pet.getSleep() > 0) {
-                // Reset the penalty once sleep is retored
-                sleepPenaltyApplied = false;
+            @Override
+            public void statsChanged(Pet pet) {
+                changes |= CHANGED_STATS;
             }
 
-            // If the pets hunger is 0, subtract health and score
-            if (pet.getHunger() <= 0) {
-                pet.setHealth(pet.getHealth() - 0.05);
-                score = Math.max(0, score - 1); 
+            @Override
+            public void thresholdCrossed(Pet pet, PetStat stat, double threshold, boolean below) {
+                if (threshold == GameplayPanel.WARNING_THRESHOLD) {
+                    changes |= CHANGED_WARNINGS;
+                } else {
+                    // A stat ran out (or recovered), which changes which actions are allowed
+                    changes |= CHANGED_BUTTONS;
+                }
             }
-            updateButtonCooldowns();
+        };
+        pet.addListener(displayListener);
+        for (PetStat stat : PetStat.values()) {
+            pet.addThresholdListener(stat, GameplayPanel.WARNING_THRESHOLD, displayListener);
+        }
+        pet.addThresholdListener(PetStat.HEALTH, 0, displayListener);
+        pet.addThresholdListener(PetStat.SLEEP, 0, displayListener);
+        pet.addThresholdListener(PetStat.HAPPINESS, 0, displayListener);
+    }
+
+    /**
+     * Advances the game by one tick.
+     * <br><br>
+     * Applies queued user actions, decays the pet's stats, applies penalties, updates
+     * the pet's state and then publishes the net changes of this tick. The tick and
+     * the pet's stats at the end of it are logged to the {@link FlightRecorder}, and
+     * emitted as a {@link JfrEvents.Tick} when a JFR recording is running.
+     */
+    void tick() {
+        JfrEvents.Tick event = new JfrEvents.Tick();
+        event.begin();
+        boolean recording = recorder.isEnabled();
+        long start = recording ? System.nanoTime() : 0;
+        int applied = drainCommands();
+
+        pet.setHunger(pet.getHunger() - pet.getHungerRate());
+        pet.setHappiness(pet.getHappiness() - pet.getHappinessRate());
+
+        // If the pet is sleeping, restore is sleep value, if the pet is not sleeping, decay its sleep value
+        if (pet.getState() != PetState.SLEEPING) {
+            pet.setSleep(pet.getSleep() - pet.getSleepRate()); // Slightly adjusted sleep decay rate
+        } else {
+            pet.setSleep(pet.getSleep() + pet.getSleepRate() / 2);
+        }
+
+        // If the pet's sleep reaches 0, apply a penalty and subtract the pets health by some amount
+        if (pet.getSleep() <= 0.5 && !sleepPenaltyApplied) {
+            pet.setHealth(pet.getHealth() - 20); // 
+            sleepPenaltyApplied = true;
+        } else if (pet.getSleep() > 0) {
+            // Reset the penalty once sleep is retored
+            sleepPenaltyApplied = false;
+        }
+
+        // If the pets hunger is 0, subtract health and score
+        if (pet.getHunger() <= 0) {
+            pet.setHealth(pet.getHealth() - 0.05);
+            score = Math.max(0, score - 1); 
+        }
+        updateButtonCooldowns();
+
+        // If the anger penalty is active, keep the pet angry as long as its happiness is below 50%
+        if (angerPenalty && pet.getHappiness() <= 50) {
+            pet.setState(PetState.ANGRY);
+        }
+        // If the pet is angry then apply the anger penalty
+        else if (pet.getState() == PetState.ANGRY && !angerPenalty) {
+            angerPenalty = true; 
+        } 
+        // Otherwise update the pet's state
+        else {
+            pet.updateState();
+        }
+        publish();
+        ticks++;
+        if (journal != null && ++ticksSinceJournal >= JOURNAL_TICKS) {
+            ticksSinceJournal = 0;
+            journalStats();
+        }
+        if (recording) {
+            long end = System.nanoTime();
+            recorder.recordTick(pet, end, end - start);
+        }
+        if (event.shouldCommit()) {
+            event.pet = pet.getName();
+            event.state = pet.getState().name();
+            event.health = pet.getHealth();
+            event.hunger = pet.getHunger();
+            event.happiness = pet.getHappiness();
+            event.sleep = pet.getSleep();
+            event.score = score;
+            event.commands = applied;
+            event.commit();
+        }
+    }
+
+    /**
+     * Applies every queued user action.
+     * <br><br>
+     * The clock is read once for each action, and the action is recorded with that
+     * time if the session is being recorded, so a replay decides cooldowns the same way.
+     *
+     * @return The number of actions applied
+     */
+    private int drainCommands() {
+        int applied = 0;
+        Command command;
+        while ((command = commands.poll()) != null) {
+            long now = clock.millis();
+            if (sessionRecorder != null) {
+                sessionRecorder.command(recordedGame, ticks, now, command.event(), getItem(command.payload()));
+            }
+            apply(command.event(), command.payload(), now);
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Returns the item of a FEED or GIFT payload.
+     *
+     * @param payload The data of an action, null if it has none
+     * @return The item, or null if the payload has none
+     */
+    private static Item getItem(EventPayload payload) {
+        if (payload instanceof EventPayload.Feed feed) {
+            return feed.item();
+        }
+        if (payload instanceof EventPayload.Gift gift) {
+            return gift.item();
+        }
+        return null;
+    }
+
+    /**
+     * Publishes a new snapshot if anything visible changed since the last publish.
+     * <br><br>
+     * Only one render is queued on the Swing thread at a time. If several ticks publish
+     * before it runs, their changes are merged and it renders the latest snapshot.
+     */
+    private void publish() {
+        // Notify the pet's listeners of what changed this tick
+        pet.publishChanges();
+        if (score != publishedScore) {
+            publishedScore = score;
+            scoreVersion++;
+            changes |= CHANGED_SCORE;
+        }
+        version = pet.getVersion() + inventory.getVersion() + scoreVersion;
+        if (changes == 0) {
+            return;
+        }
+        int published = changes;
+        changes = 0;
+        snapshot.set(takeSnapshot());
+        // A game which is not shown, such as a replayed one, is never rendered
+        if (getPanel() != null && pendingChanges.getAndAccumulate(published, (a, b) -> a | b) == 0) {
+            SwingUtilities.invokeLater(this::render);
+        }
+    }
 
-            ((GameplayPanel) this.getPanel()).updateButtonCooldowns(pet);
-            // If the anger penalty is active, keep the pet angry as long as its happiness is below 50%
-            if (angerPenalty && pet.getHappiness() <= 50) {
-                pet.setState(PetState.ANGRY);
+    /**
+     * Renders the latest snapshot onto the panel, only touching the parts which changed.
+     * <br><br>
+     * This must be called on the Swing thread.
+     */
+    void render() {
+        int changed = pendingChanges.getAndSet(0);
+        PetSnapshot latest = snapshot.get();
+        GameplayPanel panel = (GameplayPanel) this.getPanel();
+        if (changed == 0 || latest == null || panel == null) {
+            return;
+        }
+        panel.allowVet = latest.isVetAllowed();
+        panel.allowWalk = latest.isWalkAllowed();
+        panel.allowPlay = latest.isPlayAllowed();
+        if ((changed & CHANGED_STATE) != 0) {
+            panel.updatePetSprite(latest.getState());
+        }
+        if ((changed & CHANGED_STATS) != 0) {
+            panel.updateStatusBars(latest);
+        }
+        if ((changed & CHANGED_WARNINGS) != 0) {
+            for (PetStat stat : PetStat.values()) {
+                panel.updateStatusWarning(stat, latest.get(stat) <= GameplayPanel.WARNING_THRESHOLD);
             }
-            // If the pet is angry then apply the anger penalty
-            else if (pet.getState() == PetState.ANGRY && !angerPenalty) {
-                angerPenalty = true; 
-            } 
-            // Otherwise update the pet's state
-            else {
-                pet.updateState();
+        }
+        if ((changed & CHANGED_BUTTONS) != 0) {
+            panel.updateButtonCooldowns(latest);
+        }
+        if ((changed & CHANGED_SCORE) != 0) {
+            panel.updateScore(latest.getScore());
+        }
+        if ((changed & CHANGED_INVENTORY) != 0) {
+            panel.updateInventory(latest);
+        }
+    }
+
+    /**
+     * Renders every part of the latest snapshot, for example once the panel's components are created.
+     */
+    public void refresh() {
+        pendingChanges.getAndAccumulate(CHANGED_ALL, (a, b) -> a | b);
+        render();
+    }
+
+    /**
+     * Copies the current values of the game, only called by the side which owns the game.
+     * 
+     * @return A new snapshot
+     */
+    private PetSnapshot takeSnapshot() {
+        return new PetSnapshot(pet, inventory, score, allowVet, allowWalk, allowPlay);
+    }
+
+    /**
+     * Captures an exact snapshot of the game between two ticks.
+     * <br><br>
+     * The latest published snapshot can lag the pet by a fraction of a point, since
+     * only visible changes are published. This is used for saving instead: while the
+     * simulation lane owns the game, the copy is taken on the lane after the current
+     * tick, so it never mixes values from two ticks. Otherwise it is taken straight away.
+     * The caller is never blocked by a tick.
+     * <br><br>
+     * <b>Example Use:</b>
+     * <pre>
+     * {@code
+     *   saveService.save(gameController.capture(), gameController.getSaveSlot());
+     * }
+     * </pre>
+     * 
+     * @return A future which completes with the snapshot
+     */
+    public CompletableFuture<PetSnapshot> capture() {
+        synchronized (lifecycle) {
+            if (!onSimulation) {
+                return CompletableFuture.completedFuture(takeSnapshot());
             }
-            // Update other indicators
-            ((GameplayPanel) this.getPanel()).updateStatusBars(pet);
-            ((GameplayPanel) this.getPanel()).updateScore(score);
-            // Change the pet's sprite if its state has changed
-            if (pet.getState() != previousState) {
-                ((GameplayPanel) this.getPanel()).updatePetSprite(pet.getState());
-                previousState = pet.getState();
+        }
+        // Posted outside the lock, since a full lane makes the poster wait. If the game is
+        // handed over first, the lock keeps the copy apart from the paused game's changes.
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (lifecycle) {
+                return takeSnapshot();
             }
-        });
+        }, Lane.SIMULATION::execute);
+    }
+
+    /**
+     * Returns the latest published snapshot of this game.
+     * 
+     * @return The latest snapshot
+     */
+    public PetSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
     public int getScore() {
         return score;
     }
 
+    /**
+     * Returns the version of the game at the end of the last tick.
+     * <br><br>
+     * The version increases whenever the pet, the inventory or the score changes, so
+     * an equal version means there is nothing new to save. This can be read from any
+     * thread.
+     * 
+     * @return The version of the game
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Updates the cooldowns for the actions.
      * <br><br>
      * This method checks if the cooldowns for the actions (vet, walk, play) have expired.
-     * If the cooldown has expired, it allows the action to be performed again. 
+     * If the cooldown has expired, it allows the action to be performed again. The panel
+     * is only refreshed when an action becomes available.
     */
     private void updateButtonCooldowns() {
-        long currentTime = System.currentTimeMillis();
-        GameplayPanel panel = (GameplayPanel) this.getPanel();
+        long currentTime = clock.millis();
 
-        String[] actions = { "vet", "walk", "play" };
-        for (String action : actions) {
+        for (String action : ACTIONS) {
             long cooldownEnd = cooldowns.get(action);
             boolean isReady = currentTime >= cooldownEnd;
             // If an action is still on cooldown, skip it
             if (!isReady)
                 continue;
             // Otherwise, allow it to be performed again
-            if (action.equals("vet")) {
-                panel.allowVet = true;
-            } else if (action.equals("walk")) {
-                panel.allowWalk = true;
-            } else if (action.equals("play")) {
-                panel.allowPlay = true;
+            if (action.equals("vet") && !allowVet) {
+                allowVet = true;
+                changes |= CHANGED_BUTTONS;
+            } else if (action.equals("walk") && !allowWalk) {
+                allowWalk = true;
+                changes |= CHANGED_BUTTONS;
+            } else if (action.equals("play") && !allowPlay) {
+                allowPlay = true;
+                changes |= CHANGED_BUTTONS;
             }
-            ((GameplayPanel) this.getPanel()).updateButtonCooldowns(pet);
         }
     }
 
@@ -167,54 +536,144 @@ public class GameController extends Controller {
      * Checks if the action is on cooldown.
      * 
      * @param action The action to check cooldown for (vet, walk, play)
+     * @param now The current time in milliseconds
      * @return true if the action is on cooldown, false otherwise
      */
-    private boolean isOnCooldown(String action) {
-        return System.currentTimeMillis() < cooldowns.get(action);
+    private boolean isOnCooldown(String action, long now) {
+        return now < cooldowns.get(action);
     }
 
     /**
      * Starts the cooldown for the specified action.
      * 
      * @param action The action to start cooldown for (vet, walk, play)
+     * @param now The current time in milliseconds
      */
-    private void startCooldown(String action) {
+    private void startCooldown(String action, long now) {
         int cooldownTime = 0;
         switch (action) {
             // Do not allow an action to occur if it is on cooldown
             case "vet":
                 cooldownTime = VET_COOLDOWN;
-                ((GameplayPanel) this.getPanel()).allowVet = false;
+                allowVet = false;
                 break;
             case "walk":
                 cooldownTime = WALK_COOLDOWN;
-                ((GameplayPanel) this.getPanel()).allowWalk = false;
+                allowWalk = false;
                 break;
             case "play":
                 cooldownTime = PLAY_COOLDOWN;
-                ((GameplayPanel) this.getPanel()).allowPlay = false;
+                allowPlay = false;
                 break;
         }
 
-        cooldowns.put(action, System.currentTimeMillis() + cooldownTime);
-        ((GameplayPanel) this.getPanel()).updateButtonCooldowns(pet);
+        cooldowns.put(action, now + cooldownTime);
+        changes |= CHANGED_BUTTONS;
     }
 
     /**
-     * Starts the stat timer.
+     * Starts ticking the simulation.
+     * <br><br>
+     * The ticks are posted to the simulation lane at a fixed rate, so the lane owns the
+     * game from now on.
      */
     public void start() {
-        statTimer.start();
+        synchronized (lifecycle) {
+            if (running) {
+                return;
+            }
+            running = true;
+            onSimulation = true;
+            long current = ++generation;
+            tickTask = TICKER.scheduleAtFixedRate(() -> Lane.SIMULATION.execute(() -> {
+                if (generation != current) {
+                    // Posted before the game was paused
+                    return;
+                }
+                try {
+                    tick();
+                } catch (RuntimeException e) {
+                    // An uncaught exception would end the lane's thread
+                    LOGGER.log(Level.SEVERE, "Simulation tick failed", e);
+                }
+            }), TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
-     * Pauses the stat timer.
+     * Pauses the simulation.
      * <br><br>
      * When we leave the game (e.g. go to the minigame or main menu) we want to pause
-     * the stat decay timers.
+     * the stat decay timers. Ticks stop being posted, and the pause is posted to the
+     * simulation lane after the game's last tick. There it applies any actions which are
+     * still queued and hands the game over. This waits up to
+     * {@link #PAUSE_TIMEOUT_MILLIS} for that, so the Swing thread is never held up by a
+     * stuck tick; if it takes longer, the lane keeps the game until it has finished.
      */
     public void pause() {
-        statTimer.stop();
+        long current;
+        synchronized (lifecycle) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            tickTask.cancel(false);
+            tickTask = null;
+            current = ++generation;
+        }
+        FutureTask<Void> paused = new FutureTask<>(() -> {
+            synchronized (lifecycle) {
+                // Started again before the pause ran
+                if (generation != current) {
+                    return;
+                }
+                // The lane runs tasks in order, so no tick of this game is in progress or still to run
+                onSimulation = false;
+                drainCommands();
+                publish();
+                if (journal != null) {
+                    journalStats();
+                }
+            }
+        }, null);
+        Lane.SIMULATION.execute(paused);
+        try {
+            paused.get(PAUSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Failed to pause the simulation", e);
+        } catch (TimeoutException e) {
+            LOGGER.warning("The simulation is still running a tick, the game pauses once it has finished");
+        }
+    }
+
+    /**
+     * Returns whether the simulation is currently ticking.
+     * 
+     * @return true if running, false if paused
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Queues a user action for the simulation.
+     * <br><br>
+     * While the simulation lane owns the game the action is applied at the start of the
+     * next tick, or by the pause. Once the game is paused it is applied straight away.
+     * 
+     * @param event The action to apply
+     * @param payload The data of the action, null if it has none
+     */
+    private void submit(GameEvent event, EventPayload payload) {
+        commands.offer(new Command(event, payload));
+        synchronized (lifecycle) {
+            if (!onSimulation) {
+                drainCommands();
+                publish();
+            }
+        }
     }
 
     public Pet getPet() {
@@ -222,7 +681,9 @@ public class GameController extends Controller {
     }
 
     public void setPet(Pet pet) {
+        this.pet.removeListener(displayListener);
         this.pet = pet;
+        addPetListeners();
     }
 
     public void setInventory(Inventory inventory) {
@@ -243,123 +704,250 @@ public class GameController extends Controller {
 
     @Override
     protected void handleEvent(GameEvent event) {
+        handleEvent(event, null);
+    }
+
+    @Override
+    protected void handleEvent(GameEvent event, EventPayload payload) {
         switch (event) {
-            case FEED1:
-                // Do not allow the user to feed the pet an apple if they do not have any
-                if (inventory.getCount(Item.APPLE) == 0) {
+            case MINIGAME:
+            case MENU:
+                pause();
+                break;
+            case INGAME:
+                start();
+                break;
+            case FEED:
+            case GIFT:
+            case PLAY:
+            case WALK:
+            case VET:
+            case SLEEP:
+            case HEAL:
+            case LEAVEMINIGAME:
+                submit(event, payload);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Applies a user action to the game, only called by the simulation (or while it is paused).
+     * <br><br>
+     * Actions which are on cooldown or cannot be afforded are ignored. An action which
+     * is applied is appended to the journal, if the game has one.
+     * 
+     * @param event The action to apply
+     * @param payload The data of the action, null if it has none
+     * @param now The time the action is applied at, in milliseconds
+     */
+    private void apply(GameEvent event, EventPayload payload, long now) {
+        Item item = null;
+        switch (event) {
+            case FEED:
+                if (payload instanceof EventPayload.Feed feed) {
+                    item = feed.item();
+                }
+                // Nothing happens if the inventory has none of the item
+                if (item == null || inventory.getCount(item) == 0)
                     return;
+                changes |= CHANGED_INVENTORY;
+                break;
+            case GIFT:
+                if (payload instanceof EventPayload.Gift gift) {
+                    item = gift.item();
                 }
-                // If the user uses an apple, give the pet 10 hunger
-                pet.setHunger(pet.getHunger() + 10);
-                inventory.removeItem(Item.APPLE);
-                // Remove one apple from the inventory
-                ((GameplayPanel) this.getPanel()).updateInventory(inventory);
-                score += 10;
+                if (item == null || inventory.getCount(item) == 0)
+                    return;
+                changes |= CHANGED_INVENTORY;
                 break;
-            case FEED2:
-                if (inventory.getCount(Item.BANANA) == 0) {
+            case PLAY:
+                // If the user is allowed to play, then allow the user to play
+                if (isOnCooldown("play", now))
                     return;
-                }
-                // If the user uses a banana, give the pet 20 hunger
-                pet.setHunger(pet.getHunger() + 20);
-                inventory.removeItem(Item.BANANA);
-                ((GameplayPanel) this.getPanel()).updateInventory(inventory);
-                score += 20;
+                startCooldown("play", now);
                 break;
-            case GIFT1:
-                if (inventory.getCount(Item.PURPLEGIFT) == 0) {
+            case WALK:
+                // If the user is allowed to walk, then allow the user to walk
+                if (isOnCooldown("walk", now))
                     return;
-                }
-                // If the user uses a purple gift, give the pet 5 happiness
-                pet.setHappiness(pet.getHappiness() + 5);
-                inventory.removeItem(Item.PURPLEGIFT);
-                ((GameplayPanel) this.getPanel()).updateInventory(inventory);
-                score += 5;
+                startCooldown("walk", now);
                 break;
-            case GIFT2:
-                if (inventory.getCount(Item.GREENGIFT) == 0) {
+            case VET:
+                // If vet is allowed, then allow the user to go to the vet
+                if (isOnCooldown("vet", now) || score < 5)
                     return;
-                }
-                // If the user uses a green gift, give the pet 15 happiness
-                pet.setHappiness(pet.getHappiness() + 15);
-                inventory.removeItem(Item.GREENGIFT);
-                ((GameplayPanel) this.getPanel()).updateInventory(inventory);
-                score += 15;
+                startCooldown("vet", now);
+                break;
+            case SLEEP:
+            case HEAL:
+                break;
+            case LEAVEMINIGAME:
+                changes |= CHANGED_INVENTORY;
                 break;
+            default:
+                return;
+        }
+        score = applyEffect(event, item, pet, inventory, score);
+        if (journal != null) {
+            journal.action(event, item);
+            snapshotIfDue();
+        }
+    }
+
+    /**
+     * Applies the effect of an action which is allowed to a pet, inventory and score.
+     * <br><br>
+     * This is shared by the simulation and {@link GameJournal}, which replays the
+     * journaled actions of a game.
+     * 
+     * @param event The action
+     * @param item The item used by a FEED or GIFT, otherwise null
+     * @param pet The pet
+     * @param inventory The inventory
+     * @param score The score before the action
+     * @return The score after the action
+     */
+    static int applyEffect(GameEvent event, Item item, Pet pet, Inventory inventory, int score) {
+        switch (event) {
+            case FEED:
+            case GIFT:
+                // For example an apple gives the pet 10 hunger and a green gift gives it 15 happiness
+                PetStat stat = item.getStat();
+                stat.set(pet, stat.get(pet) + item.getAmount());
+                inventory.removeItem(item);
+                return score + item.getScore();
             case PLAY:
-                // If the user is allowed to play, then allow the user to play
-                if (isOnCooldown("play"))
-                    break;
                 // Playing increases happiness by 10
                 pet.setHappiness(pet.getHappiness() + 10);
-                startCooldown("play");
-                score += 10;
-                break;
+                return score + 10;
             case WALK:
-                // If the user is allowed to walk, then allow the user to walk
-                if (isOnCooldown("walk"))
-                    break;
                 // Walking increases happiness by 5
                 pet.setHappiness(pet.getHappiness() + 5);
-                startCooldown("walk");
-                score += 5;
-                break;
+                return score + 5;
             case VET:
-                // If vet is allowed, then allow the user to go to the vet
-                if (isOnCooldown("vet") || score < 5)
-                    break;
-                score -= 5; // Visiting the vet costs 5 points
-                startCooldown("vet");
-                break;
+                return score - 5; // Visiting the vet costs 5 points
             case SLEEP:
                 pet.setState(PetState.SLEEPING);
-                break;
+                return score;
             case HEAL:
                 // Healing increments health by 10
                 pet.setHealth(pet.getHealth() + 10);
-                score += 10;
-                break;
-            case MINIGAME:
-            case MENU:
-                pause();
-                break;
-            case INGAME:
-                start();
-                break;
+                return score + 10;
             case LEAVEMINIGAME:
                 // Upon leaving the minigame, give the user one of each item
                 inventory.addItem(Item.APPLE);
                 inventory.addItem(Item.BANANA);
                 inventory.addItem(Item.PURPLEGIFT);
                 inventory.addItem(Item.GREENGIFT);
-                ((GameplayPanel) this.getPanel()).updateInventory(inventory);
-                break;
+                return score;
             default:
-                break;
+                return score;
+        }
+    }
+
+    /**
+     * Sets the journal the actions and stats of this game are appended to.
+     * <br><br>
+     * A snapshot of the game is appended straight away, so the journal can be replayed
+     * from it. This must be called while the simulation is paused.
+     * 
+     * @param journal The journal, or null to stop journaling
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+        if (journal != null) {
+            journal.snapshot(SaveData.of(takeSnapshot()));
+            journaledVersion = version;
+        }
+    }
+
+    /**
+     * Sets the recording the actions of this game are passed to.
+     * <br><br>
+     * The game as it is now is recorded as the start of a game straight away, so this
+     * must be called before the simulation is first started.
+     * 
+     * @param sessionRecorder The recording, or null to stop recording
+     */
+    public void setSessionRecorder(SessionRecorder sessionRecorder) {
+        this.sessionRecorder = sessionRecorder;
+        if (sessionRecorder != null) {
+            recordedGame = sessionRecorder.startGame(saveSlot, clock.millis(), SaveData.of(takeSnapshot()));
+        }
+    }
+
+    /**
+     * Returns the number of ticks the simulation has run.
+     * 
+     * @return The number of ticks
+     */
+    long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Appends the pet's stats to the journal, if they changed since they were last journaled.
+     */
+    private void journalStats() {
+        if (version == journaledVersion) {
+            return;
+        }
+        journaledVersion = version;
+        journal.stats(pet, score);
+        snapshotIfDue();
+    }
+
+    /**
+     * Appends a snapshot of the game to the journal once enough entries follow the last one.
+     */
+    private void snapshotIfDue() {
+        if (journal.isSnapshotDue()) {
+            journal.snapshot(SaveData.of(takeSnapshot()));
         }
     }
 
+    /**
+     * A user action waiting to be applied by the simulation.
+     * 
+     * @param event The action
+     * @param payload The data of the action, null if it has none
+     */
+    private record Command(GameEvent event, EventPayload payload) {}
+
     @Override
     protected void registerEvents() {
-        eventDispatcher.addObserver(GameEvent.SAVE_GAME, this);
-        eventDispatcher.addObserver(GameEvent.LOAD_GAME, this);
-        eventDispatcher.addObserver(GameEvent.NEW_GAME, this);
-        eventDispatcher.addObserver(GameEvent.EXIT_GAME, this);
-        eventDispatcher.addObserver(GameEvent.MENU, this);
-        eventDispatcher.addObserver(GameEvent.QUIT, this);
-        eventDispatcher.addObserver(GameEvent.TUTORIAL, this);
-        eventDispatcher.addObserver(GameEvent.INGAME, this);
-        eventDispatcher.addObserver(GameEvent.MINIGAME, this);
-        eventDispatcher.addObserver(GameEvent.PARENTAL, this);
-        eventDispatcher.addObserver(GameEvent.VET, this);
-        eventDispatcher.addObserver(GameEvent.FEED1, this);
-        eventDispatcher.addObserver(GameEvent.WALK, this);
-        eventDispatcher.addObserver(GameEvent.GIFT1, this);
-        eventDispatcher.addObserver(GameEvent.GIFT2, this);
-        eventDispatcher.addObserver(GameEvent.FEED2, this);
-        eventDispatcher.addObserver(GameEvent.PLAY, this);
-        eventDispatcher.addObserver(GameEvent.HEAL, this);
-        eventDispatcher.addObserver(GameEvent.SLEEP, this);
-        eventDispatcher.addObserver(GameEvent.LEAVEMINIGAME, this);
+        if (subscriptions != null) {
+            subscriptions.close();
+        }
+        subscriptions = new SubscriptionScope(eventDispatcher);
+        subscriptions.subscribe(EnumSet.of(
+                GameEvent.SAVE_GAME, GameEvent.LOAD_GAME, GameEvent.NEW_GAME, GameEvent.EXIT_GAME,
+                GameEvent.MENU, GameEvent.QUIT, GameEvent.TUTORIAL, GameEvent.INGAME, GameEvent.MINIGAME,
+                GameEvent.PARENTAL, GameEvent.VET, GameEvent.FEED, GameEvent.WALK, GameEvent.GIFT,
+                GameEvent.PLAY, GameEvent.HEAL, GameEvent.SLEEP, GameEvent.LEAVEMINIGAME), this);
+    }
+
+    /**
+     * Closes this game, for example when another game is loaded.
+     * <br><br>
+     * Stops the simulation, unsubscribes from every event and stops listening to the
+     * pet, so the dispatcher no longer keeps this controller reachable. If the session
+     * is being recorded, the game's outcome is recorded once the simulation has paused,
+     * after its last actions. That can be after the next game has started, which the
+     * recording tells apart by the game's number.
+     */
+    public void close() {
+        pause();
+        SessionRecorder recorder = sessionRecorder;
+        if (recorder != null) {
+            // Runs on the side which owns the game, after any action the pause applies
+            capture().thenAccept(snapshot -> recorder.endGame(recordedGame, ticks, SaveData.of(snapshot)));
+        }
+        if (subscriptions != null) {
+            subscriptions.close();
+        }
+        pet.removeListener(displayListener);
     }
 }
\ No newline at end of file
@@ -10,27 +10,25 @@ enum GameEvent {
     MINIGAME,
     PARENTAL,
     ERROR,
-    CHOPPER,
-    DUGONG,
-    LABOON,
-    LOAD1,
-    LOAD2,
-    LOAD3,
-    SAVE1,
-    SAVE2,
-    SAVE3,
+    /** Adopts a new pet, carries an {@link EventPayload.Adopt} */
+    ADOPT,
+    /** Loads a save slot, carries an {@link EventPayload.Load} */
+    LOAD,
+    SAVE,
     NEW_SAVE,
     VET,
-    FEED1,
-    FEED2,
+    /** Feeds the pet, carries an {@link EventPayload.Feed} */
+    FEED,
     WALK,
-    GIFT1,
-    GIFT2,
+    /** Gives the pet a gift, carries an {@link EventPayload.Gift} */
+    GIFT,
     PLAY,
     HEAL,
     SLEEP,
     LEAVEMINIGAME,
     STOPSOUND,
     FATALERROR,
-    REVIVE
+    REVIVE,
+    /** A save could not be written, carries an {@link EventPayload.SaveFailed} */
+    SAVE_FAILED
 }
@@ -0,0 +1,696 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends what happens in a game to a per-slot journal, so a session can be audited
+ * and its latest state rebuilt even if it was never saved.
+ * <br><br>
+ * The {@link GameController} appends every action it applies (FEED, GIFT, PLAY, WALK,
+ * VET, SLEEP, HEAL, LEAVEMINIGAME), the pet's stats once a second, and a snapshot of
+ * the whole game every {@link #SNAPSHOT_INTERVAL} entries. Appending only encodes the
+ * entry into a buffer in memory. The buffer is written and forced to disk every
+ * {@link #FLUSH_MILLIS} milliseconds by a background thread, so the simulation never
+ * waits on disk and a crash loses at most the entries of the last flush.
+ * <br><br>
+ * {@link #replay(Path)} restores the latest snapshot and applies the entries after it.
+ * Once the journal holds more than {@link #SNAPSHOTS_KEPT} snapshots, the entries
+ * before the oldest kept snapshot are dropped by rewriting the file on the background
+ * thread. The file follows {@link BinarySaveCodec}:
+ * <pre>
+ *   int    magic "PCJN"
+ *   short  schema version
+ *   entries byte kind, long time, unsigned short body length, body,
+ *           int CRC32C of the entry's bytes before it
+ *
+ *   action   byte event, byte item (0 for none, else 1 + the item's ordinal)
+ *   stats    double health, hunger, happiness, sleep, byte state ordinal, int score
+ *   snapshot a binary save
+ * </pre>
+ * The codes of events, items and states are only ever appended to, so older journals
+ * keep their meaning. An entry cut short or failing its checksum, as a crash while
+ * writing leaves, ends the journal.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   GameJournal journal = new GameJournal(GameJournal.getFile(slot), false);
+ *   gameController.setJournal(journal);
+ *   ...
+ *   journal.close();
+ *   GameJournal.Replay replay = GameJournal.replay(GameJournal.getFile(slot));
+ * }
+ * </pre>
+ *
+ * @see GameController#setJournal(GameJournal)
+ */
+public class GameJournal implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(GameJournal.class.getName());
+    /** The first four bytes of every journal, "PCJN" */
+    public static final int MAGIC = 0x50434A4E;
+    /** The schema version written by this class */
+    public static final short VERSION = 1;
+    /** The extension of journal files */
+    static final String EXTENSION = ".journal";
+    /** The entries between snapshots, set with -Dpetcrossing.journal.snapshot */
+    static final int SNAPSHOT_INTERVAL = Math.max(1, Integer.getInteger("petcrossing.journal.snapshot", 256));
+    /** The number of snapshots kept, with the entries between them, set with -Dpetcrossing.journal.snapshots */
+    static final int SNAPSHOTS_KEPT = Math.max(1, Integer.getInteger("petcrossing.journal.snapshots", 8));
+    /** The time between writes of the appended entries */
+    static final long FLUSH_MILLIS = 200;
+    /** The kind of an entry for an action */
+    static final byte ACTION = 1;
+    /** The kind of an entry for the pet's stats */
+    static final byte STATS = 2;
+    /** The kind of an entry for a snapshot of the game */
+    static final byte SNAPSHOT = 3;
+    /** The events which are journaled, by their code */
+    private static final GameEvent[] EVENTS = { GameEvent.FEED, GameEvent.GIFT, GameEvent.PLAY, GameEvent.WALK,
+            GameEvent.VET, GameEvent.SLEEP, GameEvent.HEAL, GameEvent.LEAVEMINIGAME };
+    /** The size of the header */
+    private static final int HEADER_SIZE = 4 + 2;
+    /** The size of an entry's kind, time, length and checksum */
+    private static final int ENTRY_SIZE = 1 + 8 + 2 + 4;
+    /** The size of the body of an action */
+    private static final int ACTION_SIZE = 2;
+    /** The size of the body of the pet's stats */
+    private static final int STATS_SIZE = 4 * 8 + 1 + 4;
+    /** The thread which writes every journal */
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "journal-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The file of the journal */
+    private final Path file;
+    /** The clock the entries are timed by */
+    private final Clock clock;
+    /** The open file, only used by the writer */
+    private FileChannel channel;
+    /** The entries appended since the last flush, guarded by this */
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    /** The buffer which was last flushed, reused as the next pending buffer, guarded by this */
+    private ByteBuffer spare;
+    /** Where the entry being appended starts in the pending buffer */
+    private int entryStart;
+    /** The checksum of the entry being appended */
+    private final CRC32C crc = new CRC32C();
+    /** The entries appended since the last snapshot, guarded by this */
+    private int sinceSnapshot = 0;
+    /** The number of snapshots in the journal, guarded by this */
+    private int snapshots;
+    /** Whether a compaction has been requested and not yet run, guarded by this */
+    private boolean compacting = false;
+    /** The number of times the journal was rewritten without its oldest entries, guarded by this */
+    private int compactions = 0;
+    /** The task which flushes the journal */
+    private final ScheduledFuture<?> flushTask;
+    /** Whether the journal has been closed, guarded by this */
+    private boolean closed = false;
+
+    /**
+     * An entry of a journal.
+     *
+     * @param kind {@link #ACTION}, {@link #STATS} or {@link #SNAPSHOT}
+     * @param time When the entry was appended, in milliseconds since the epoch
+     * @param event The action of an action entry, otherwise null
+     * @param item The item used by an action, otherwise null
+     * @param data The game of a snapshot, or the stats, state and score of a stats entry, otherwise null
+     */
+    public record Entry(byte kind, long time, GameEvent event, Item item, SaveData data) {}
+
+    /**
+     * The latest state of a game, rebuilt from its journal.
+     *
+     * @param data The game
+     * @param time When the last entry was appended
+     * @param replayed The number of entries applied after the latest snapshot
+     */
+    public record Replay(SaveData data, long time, int replayed) {}
+
+    /**
+     * Opens a journal to append to, creating it if it does not exist.
+     * <br><br>
+     * An entry cut short at the end of the journal is dropped.
+     *
+     * @param file The file of the journal
+     * @param reset Whether to drop every entry of the journal, for a new game in its slot
+     * @throws IOException If the journal cannot be opened
+     */
+    public GameJournal(Path file, boolean reset) throws IOException {
+        this(file, reset, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Opens a journal which times its entries by the given clock, such as the game's.
+     *
+     * @param file The file of the journal
+     * @param reset Whether to drop every entry of the journal, for a new game in its slot
+     * @param clock The clock the entries are timed by
+     * @throws IOException If the journal cannot be opened
+     */
+    public GameJournal(Path file, boolean reset, Clock clock) throws IOException {
+        this.file = file;
+        this.clock = clock;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        byte[] bytes = reset ? null : readIfExists(file);
+        List<Integer> snapshotOffsets = new ArrayList<>();
+        int end = bytes == null ? -1 : scan(bytes, null, snapshotOffsets);
+        if (end < 0) {
+            if (bytes != null) {
+                LOGGER.warning(file + " is not a journal, starting a new one");
+            }
+            FileSaveRepository.writeAtomically(file, header(), false);
+        } else if (end < bytes.length) {
+            LOGGER.warning("Journal " + file + " has " + (bytes.length - end) + " damaged bytes at its end, dropping them");
+        }
+        snapshots = snapshotOffsets.size();
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        if (end >= 0 && end < bytes.length) {
+            channel.truncate(end);
+        }
+        channel.position(channel.size());
+        flushTask = WRITER.scheduleWithFixedDelay(this::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns whether games are journaled.
+     * <br><br>
+     * Journaling is turned off with -Dpetcrossing.journal=false, and when the saves are
+     * only kept in memory.
+     *
+     * @return true if games are journaled
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("petcrossing.journal", "true"))
+                && !"memory".equals(System.getProperty("petcrossing.saves.backend"));
+    }
+
+    /**
+     * Returns the journal file of a save slot, in the directory set with -Dpetcrossing.saves.dir.
+     *
+     * @param slot The save slot number
+     * @return The path of the slot's journal
+     */
+    public static Path getFile(int slot) {
+        return Paths.get(System.getProperty("petcrossing.saves.dir", SaveRepository.DEFAULT_DIRECTORY))
+                .resolve("save" + slot + EXTENSION);
+    }
+
+    /**
+     * Appends an action which was applied to the game.
+     *
+     * @param event The action, ignored if it is not journaled or the journal is closed
+     * @param item The item used by a FEED or GIFT, otherwise null
+     */
+    public synchronized void action(GameEvent event, Item item) {
+        int code = eventCode(event);
+        if (code < 0 || closed) {
+            return;
+        }
+        ByteBuffer buffer = begin(ACTION, ACTION_SIZE);
+        buffer.put((byte) code);
+        buffer.put((byte) itemCode(item));
+        end();
+    }
+
+    /**
+     * Returns the code an action is written as, also used by {@link SessionRecorder}.
+     *
+     * @param event The action
+     * @return The code, or -1 if the action is not journaled
+     */
+    static int eventCode(GameEvent event) {
+        return Arrays.asList(EVENTS).indexOf(event);
+    }
+
+    /**
+     * Returns the action written as a code.
+     *
+     * @param code The code
+     * @return The action, or null if the code is not known
+     */
+    static GameEvent eventOf(int code) {
+        return code < 0 || code >= EVENTS.length ? null : EVENTS[code];
+    }
+
+    /**
+     * Returns the code an item is written as, 0 for none and otherwise 1 + its ordinal.
+     *
+     * @param item The item, or null
+     * @return The code
+     */
+    static int itemCode(Item item) {
+        return item == null ? 0 : item.ordinal() + 1;
+    }
+
+    /**
+     * Returns whether a code is an item or none.
+     *
+     * @param code The code
+     * @return true if the code is 0 or an item
+     */
+    static boolean isItemCode(int code) {
+        return code >= 0 && code <= Item.values().length;
+    }
+
+    /**
+     * Returns the item written as a code.
+     *
+     * @param code The code, which must pass {@link #isItemCode(int)}
+     * @return The item, or null for none
+     */
+    static Item itemOf(int code) {
+        return code == 0 ? null : Item.values()[code - 1];
+    }
+
+    /**
+     * Appends the stats, state and score of a game.
+     *
+     * @param pet The pet
+     * @param score The score
+     */
+    public synchronized void stats(Pet pet, int score) {
+        if (closed) {
+            return;
+        }
+        ByteBuffer buffer = begin(STATS, STATS_SIZE);
+        buffer.putDouble(pet.getHealth());
+        buffer.putDouble(pet.getHunger());
+        buffer.putDouble(pet.getHappiness());
+        buffer.putDouble(pet.getSleep());
+        buffer.put((byte) pet.getState().ordinal());
+        buffer.putInt(score);
+        end();
+    }
+
+    /**
+     * Appends a snapshot of a game, which a replay can start from.
+     *
+     * @param data The game
+     */
+    public synchronized void snapshot(SaveData data) {
+        if (closed) {
+            return;
+        }
+        byte[] save;
+        try {
+            save = BinarySaveCodec.encode(data);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to journal a snapshot: " + e.getMessage());
+            return;
+        }
+        begin(SNAPSHOT, save.length).put(save);
+        end();
+        sinceSnapshot = 0;
+        snapshots++;
+        if (snapshots > SNAPSHOTS_KEPT && !compacting) {
+            compacting = true;
+            WRITER.execute(this::compact);
+        }
+    }
+
+    /**
+     * Returns whether enough entries have been appended since the last snapshot for another.
+     *
+     * @return true if a snapshot should be appended
+     */
+    public synchronized boolean isSnapshotDue() {
+        return sinceSnapshot >= SNAPSHOT_INTERVAL;
+    }
+
+    /**
+     * Returns the number of times the journal was rewritten without its oldest entries.
+     *
+     * @return The number of compactions
+     */
+    public synchronized int getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * Starts appending an entry to the pending buffer.
+     *
+     * @param kind The kind of the entry
+     * @param length The length of the entry's body
+     * @return The pending buffer, to put the body into
+     */
+    private ByteBuffer begin(byte kind, int length) {
+        if (pending.remaining() < ENTRY_SIZE + length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + ENTRY_SIZE + length));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        entryStart = pending.position();
+        pending.put(kind);
+        pending.putLong(clock.millis());
+        pending.putShort((short) length);
+        return pending;
+    }
+
+    /**
+     * Finishes appending an entry by putting its checksum.
+     */
+    private void end() {
+        crc.reset();
+        crc.update(pending.array(), entryStart, pending.position() - entryStart);
+        pending.putInt((int) crc.getValue());
+        sinceSnapshot++;
+    }
+
+    /**
+     * Writes the pending entries to the file and forces them to disk, on the writer thread.
+     */
+    private void flush() {
+        ByteBuffer full;
+        synchronized (this) {
+            if (pending.position() == 0 || channel == null) {
+                return;
+            }
+            full = pending;
+            pending = spare != null ? spare : ByteBuffer.allocate(full.capacity());
+            spare = null;
+        }
+        full.flip();
+        try {
+            while (full.hasRemaining()) {
+                channel.write(full);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to write the journal " + file + ": " + e);
+        }
+        full.clear();
+        synchronized (this) {
+            spare = full;
+        }
+    }
+
+    /**
+     * Drops the entries before the oldest snapshot which is kept, on the writer thread.
+     */
+    private void compact() {
+        try {
+            flush();
+            byte[] bytes = Files.readAllBytes(file);
+            List<Integer> snapshotOffsets = new ArrayList<>();
+            int end = scan(bytes, null, snapshotOffsets);
+            int dropped = snapshotOffsets.size() - SNAPSHOTS_KEPT;
+            if (end < 0 || dropped <= 0) {
+                return;
+            }
+            int start = snapshotOffsets.get(dropped);
+            ByteBuffer kept = ByteBuffer.allocate(HEADER_SIZE + end - start);
+            kept.put(header());
+            kept.put(bytes, start, end - start);
+            channel.close();
+            FileSaveRepository.writeAtomically(file, kept.array(), false);
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            synchronized (this) {
+                snapshots -= dropped;
+                compactions++;
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to compact the journal " + file + ": " + e);
+            try {
+                if (!channel.isOpen()) {
+                    channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                    channel.position(channel.size());
+                }
+            } catch (IOException reopen) {
+                LOGGER.warning("Failed to reopen the journal " + file + ": " + reopen);
+                channel = null;
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Writes every appended entry to disk and closes the journal.
+     * <br><br>
+     * Entries appended after this are ignored.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flushTask.cancel(false);
+        try {
+            WRITER.submit(() -> {
+                flush();
+                try {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                } catch (IOException e) {
+                    LOGGER.warning("Failed to close the journal " + file + ": " + e);
+                }
+                synchronized (this) {
+                    channel = null;
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.warning("Failed to close the journal " + file + ": " + e.getCause());
+        }
+    }
+
+    /**
+     * Reads every intact entry of a journal.
+     *
+     * @param file The file of the journal
+     * @return The entries, in the order they were appended, empty if there is no journal
+     * @throws IOException If the file cannot be read or is not a journal
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        byte[] bytes = readIfExists(file);
+        List<Entry> entries = new ArrayList<>();
+        if (bytes != null && scan(bytes, entries, null) < 0) {
+            throw new IOException(file + " is not a journal");
+        }
+        return entries;
+    }
+
+    /**
+     * Rebuilds the latest state of a game from its journal.
+     * <br><br>
+     * The latest snapshot is restored, then each action after it is applied as the
+     * game applied it and each stats entry replaces the pet's stats, state and score.
+     *
+     * @param file The file of the journal
+     * @return The latest state, or null if the journal has no snapshot
+     * @throws IOException If the file cannot be read or is not a journal
+     */
+    public static Replay replay(Path file) throws IOException {
+        List<Entry> entries = read(file);
+        int base = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).kind() == SNAPSHOT) {
+                base = i;
+            }
+        }
+        if (base < 0) {
+            return null;
+        }
+        SaveData start = entries.get(base).data();
+        Pet pet = new Pet(start.name(), start.type(), start.health(), start.hunger(), start.happiness(),
+                start.sleep());
+        pet.setState(PetState.valueOf(start.state().toUpperCase()));
+        Inventory inventory = new Inventory(start.apples(), start.bananas(), start.purpleGifts(), start.greenGifts());
+        int score = start.score();
+        for (Entry entry : entries.subList(base + 1, entries.size())) {
+            if (entry.kind() == ACTION) {
+                if (entry.item() != null && inventory.getCount(entry.item()) == 0) {
+                    continue;
+                }
+                score = GameController.applyEffect(entry.event(), entry.item(), pet, inventory, score);
+            } else if (entry.kind() == STATS) {
+                SaveData stats = entry.data();
+                pet.setHealth(stats.health());
+                pet.setHunger(stats.hunger());
+                pet.setHappiness(stats.happiness());
+                pet.setSleep(stats.sleep());
+                pet.setState(PetState.valueOf(stats.state().toUpperCase()));
+                score = stats.score();
+            }
+        }
+        SaveData data = SaveData.of(new PetSnapshot(pet, inventory, score, true, true, true));
+        return new Replay(data, entries.get(entries.size() - 1).time(), entries.size() - base - 1);
+    }
+
+    /**
+     * Reads where the intact entries of a journal are.
+     *
+     * @param bytes The bytes of the journal
+     * @param entries The list the decoded entries are added to, or null
+     * @param snapshotOffsets The list where each snapshot starts is added to, or null
+     * @return Where the last intact entry ends, or -1 if the bytes are not a journal
+     */
+    private static int scan(byte[] bytes, List<Entry> entries, List<Integer> snapshotOffsets) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getShort() > VERSION) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            try {
+                byte kind = buffer.get();
+                long time = buffer.getLong();
+                int length = Short.toUnsignedInt(buffer.getShort());
+                if (length > buffer.remaining() - 4) {
+                    return start;
+                }
+                int body = buffer.position();
+                crc.reset();
+                crc.update(bytes, start, body + length - start);
+                if ((int) crc.getValue() != buffer.getInt(body + length)) {
+                    return start;
+                }
+                Entry entry = decode(kind, time, ByteBuffer.wrap(bytes, body, length).slice(), length);
+                if (entry == null) {
+                    return start;
+                }
+                if (kind == SNAPSHOT && snapshotOffsets != null) {
+                    snapshotOffsets.add(start);
+                }
+                if (entries != null) {
+                    entries.add(entry);
+                }
+                buffer.position(body + length + 4);
+            } catch (BufferUnderflowException | IOException e) {
+                return start;
+            }
+        }
+        return bytes.length;
+    }
+
+    /**
+     * Decodes the body of an entry.
+     *
+     * @param kind The kind of the entry
+     * @param time When the entry was appended
+     * @param body The body of the entry
+     * @param length The length of the body
+     * @return The entry, or null if its kind or codes are not known
+     * @throws IOException If a snapshot is not a valid save
+     */
+    private static Entry decode(byte kind, long time, ByteBuffer body, int length) throws IOException {
+        switch (kind) {
+            case ACTION: {
+                int event = body.get();
+                int item = body.get();
+                if (eventOf(event) == null || !isItemCode(item)) {
+                    return null;
+                }
+                return new Entry(kind, time, eventOf(event), itemOf(item), null);
+            }
+            case STATS: {
+                double health = body.getDouble();
+                double hunger = body.getDouble();
+                double happiness = body.getDouble();
+                double sleep = body.getDouble();
+                int state = body.get();
+                int score = body.getInt();
+                if (state < 0 || state >= PetState.values().length) {
+                    return null;
+                }
+                return new Entry(kind, time, null, null, new SaveData(0, 0, 0, 0, null, null,
+                        PetState.values()[state].name().toLowerCase(), health, hunger, happiness, sleep, score));
+            }
+            case SNAPSHOT: {
+                byte[] save = new byte[length];
+                body.get(save);
+                return new Entry(kind, time, null, null, BinarySaveCodec.decode(save));
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the header of a journal.
+     *
+     * @return The bytes of the header
+     */
+    private static byte[] header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).array();
+    }
+
+    /**
+     * Reads a file if it exists.
+     *
+     * @param file The file
+     * @return The bytes of the file, or null if it does not exist
+     * @throws IOException If the file exists but cannot be read
+     */
+    private static byte[] readIfExists(Path file) throws IOException {
+        try {
+            return Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Prints the journal of a save slot, for example to see how a pet died.
+     *
+     * @param args The save slot number
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: java GameJournal <slot>");
+            System.exit(2);
+        }
+        try {
+            for (Entry entry : read(getFile(Integer.parseInt(args[0])))) {
+                String time = Instant.ofEpochMilli(entry.time()).toString();
+                SaveData data = entry.data();
+                if (entry.kind() == ACTION) {
+                    System.out.println(time + " " + entry.event() + (entry.item() == null ? "" : " " + entry.item()));
+                } else if (entry.kind() == STATS) {
+                    System.out.printf("%s stats health %.1f hunger %.1f happiness %.1f sleep %.1f %s score %d%n",
+                            time, data.health(), data.hunger(), data.happiness(), data.sleep(), data.state(),
+                            data.score());
+                } else {
+                    System.out.println(time + " snapshot " + data);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to read the journal: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
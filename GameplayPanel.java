@@ -85,6 +85,8 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
     private static final Color SLEEP_COLOR = new Color(33, 150, 243);
     /** The colour to change a bar to when it reaches a dangerous level (below 25%) */
     private static final Color WARNING_COLOR = Color.RED;
+    /** The stat value at or below which a status bar shows the warning colour */
+    public static final double WARNING_THRESHOLD = 25;
     /** The colour of text */
     private static final Color TEXT_COLOR = Color.WHITE;
     /** The label which displays a pets sprite */
@@ -428,13 +430,13 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
     /**
      * Updates the inventory display.
      * 
-     * @param inventory The current inventory state
+     * @param snapshot The snapshot holding the current inventory counts
      */
-    public void updateInventory(Inventory inventory) {
-        appleCount = String.valueOf(inventory.getCount(Item.APPLE));
-        bananaCount = String.valueOf(inventory.getCount(Item.BANANA));
-        purpleGiftCount = String.valueOf(inventory.getCount(Item.PURPLEGIFT));
-        greenGiftCount = String.valueOf(inventory.getCount(Item.GREENGIFT));
+    public void updateInventory(PetSnapshot snapshot) {
+        appleCount = String.valueOf(snapshot.getCount(Item.APPLE));
+        bananaCount = String.valueOf(snapshot.getCount(Item.BANANA));
+        purpleGiftCount = String.valueOf(snapshot.getCount(Item.PURPLEGIFT));
+        greenGiftCount = String.valueOf(snapshot.getCount(Item.GREENGIFT));
         repaint();
     }
 
@@ -449,7 +451,11 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
             setupStatusBar(pet);
             setupActionButtons();
             setupInteractiveElements();
-            updateStatusBars(pet);
+            PetSnapshot snapshot = PetSnapshot.of(pet);
+            updateStatusBars(snapshot);
+            for (PetStat stat : PetStat.values()) {
+                updateStatusWarning(stat, snapshot.get(stat) <= WARNING_THRESHOLD);
+            }
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to initialize gameplay", e);
         }
@@ -544,13 +550,13 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
 
         // Consumable interactive elements
         createInteractiveButton("food", 150, 200, dimensions.get("foodWidth"), dimensions.get("foodHeight"),
-                GameEvent.FEED1);
+                GameEvent.FEED, new EventPayload.Feed(Item.APPLE));
         createInteractiveButton("food2", 20, 200, dimensions.get("foodWidth"), dimensions.get("foodHeight"),
-                GameEvent.FEED2);
+                GameEvent.FEED, new EventPayload.Feed(Item.BANANA));
         createInteractiveButton("gift", 20, 300, dimensions.get("giftWidth"), dimensions.get("giftHeight"),
-                GameEvent.GIFT1);
+                GameEvent.GIFT, new EventPayload.Gift(Item.PURPLEGIFT));
         createInteractiveButton("gift2", 150, 300, dimensions.get("giftWidth"), dimensions.get("giftHeight"),
-                GameEvent.GIFT2);
+                GameEvent.GIFT, new EventPayload.Gift(Item.GREENGIFT));
     }
 
     /**
@@ -566,7 +572,23 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
      * @param event The event to trigger when clicked
      */
     private void createInteractiveButton(String name, int x, int y, int width, int height, GameEvent event) {
-        Button button = new Button("", event, eventDispatcher, name);
+        createInteractiveButton(name, x, y, width, height, event, null);
+    }
+
+    /**
+     * Creates an interactive button with invisible hitbox, whose event carries some data.
+     * 
+     * @param name The name of the button
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @param width The width of the button
+     * @param height The height of the button
+     * @param event The event to trigger when clicked
+     * @param payload The data sent with the event, for example the item to use
+     */
+    private void createInteractiveButton(String name, int x, int y, int width, int height, GameEvent event,
+            EventPayload payload) {
+        Button button = new Button("", event, payload, eventDispatcher, name);
         button.setBounds(x, y, width, height);
         button.setContentAreaFilled(false);
         button.setBorderPainted(false);
@@ -752,9 +774,9 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
      * Updates all status bars and the current status displayed to reflect the pets
      * state.
      * 
-     * @param pet The pet whose stats to display
+     * @param pet The snapshot of the pet whose stats to display
      */
-    public void updateStatusBars(Pet pet) {
+    public void updateStatusBars(PetSnapshot pet) {
         if (statusBars.isEmpty())
             return;
         // Update all progress bar values
@@ -762,24 +784,41 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
         statusBars.get("hunger").setValue((int) pet.getHunger());
         statusBars.get("happiness").setValue((int) pet.getHappiness());
         statusBars.get("sleep").setValue((int) pet.getSleep());
-        // If a progress bar is below 25%, change its colour to a warning colour
-        if (pet.getHealth() < 25) {
-            statusBars.get("health").setForeground(WARNING_COLOR);
-        }
-        if (pet.getHunger() < 25) {
-            statusBars.get("hunger").setForeground(WARNING_COLOR);
-        }
-        if (pet.getHappiness() < 25) {
-            statusBars.get("happiness").setForeground(WARNING_COLOR);
-        }
-        if (pet.getSleep() < 25) {
-            statusBars.get("sleep").setForeground(WARNING_COLOR);
-        }
         // Update the pet status string then repaint
         petStatus = pet.getState().toString().toLowerCase();
         repaint();
     }
 
+    /**
+     * Changes a status bar to the warning colour, or back to its normal colour.
+     * <br><br>
+     * This is called when a stat crosses {@link #WARNING_THRESHOLD}.
+     * 
+     * @param stat The stat whose bar should change
+     * @param warning Whether the stat is at a dangerous level
+     */
+    public void updateStatusWarning(PetStat stat, boolean warning) {
+        JProgressBar bar = statusBars.get(stat.name().toLowerCase());
+        if (bar == null)
+            return;
+        Color normalColor;
+        switch (stat) {
+            case HEALTH:
+                normalColor = HEALTH_COLOR;
+                break;
+            case HUNGER:
+                normalColor = HUNGER_COLOR;
+                break;
+            case HAPPINESS:
+                normalColor = HAPPINESS_COLOR;
+                break;
+            default:
+                normalColor = SLEEP_COLOR;
+                break;
+        }
+        bar.setForeground(warning ? WARNING_COLOR : normalColor);
+    }
+
     /**
      * Updates the pet sprite based on its current state.
      * 
@@ -841,9 +880,9 @@ public class GameplayPanel extends Panel implements MouseListener, KeyListener {
     /**
      * Updates button cooldowns and availability.
      * 
-     * @param pet The current pet
+     * @param pet The snapshot of the current pet
      */
-    public void updateButtonCooldowns(Pet pet) {
+    public void updateButtonCooldowns(PetSnapshot pet) {
         if (pet.getHealth() <= 0 || pet.getState() == PetState.DEAD) {
             setButtons(false, false, false, false, false, false, false);
         } else if (pet.getSleep() == 0 || pet.getState() == PetState.SLEEPING) {
@@ -3,10 +3,13 @@ import java.util.EnumMap;
 /**
  * Inventory class that manages the items in the game.
  * The class uses an EnumMap to store the count of each item type.
+ * Every change increments the inventory's {@link #getVersion() version}.
  */
 public class Inventory {
     /** The map of items, where the key is the item type and the value is the count of that item */
     private EnumMap<Item, Integer> items;
+    /** Incremented whenever an item is added or removed */
+    private long version = 0;
 
     /**
      * Default constructor for the Inventory class. Initializes the items map.
@@ -43,6 +46,7 @@ public class Inventory {
      */
     public void addItem(Item item) {
         items.put(item, items.getOrDefault(item, 0) + 1);
+        version++;
     }
 
     /**
@@ -75,9 +79,19 @@ public class Inventory {
             } else {
                 items.remove(item);
             }
+            version++;
         }
     }
 
+    /**
+     * Returns the number of changes made to the inventory.
+     * 
+     * @return The version of the inventory
+     */
+    public long getVersion() {
+        return version;
+    }
+
     public EnumMap<Item, Integer> getInventory() {
         return items;
     }
@@ -1,6 +1,44 @@
+/**
+ * The items which can be used on a pet, and the effect of using each one.
+ *
+ * @see Inventory
+ * @see EventPayload
+ */
 enum Item {
-    APPLE, 
-    BANANA,
-    PURPLEGIFT,
-    GREENGIFT
+    APPLE(PetStat.HUNGER, 10, 10),
+    BANANA(PetStat.HUNGER, 20, 20),
+    PURPLEGIFT(PetStat.HAPPINESS, 5, 5),
+    GREENGIFT(PetStat.HAPPINESS, 15, 15);
+
+    /** The stat which using this item increases */
+    private final PetStat stat;
+    /** The amount the stat is increased by */
+    private final double amount;
+    /** The score gained for using this item */
+    private final int score;
+
+    /**
+     * Constructor for the Item enum.
+     *
+     * @param stat The stat which using this item increases
+     * @param amount The amount the stat is increased by
+     * @param score The score gained for using this item
+     */
+    Item(PetStat stat, double amount, int score) {
+        this.stat = stat;
+        this.amount = amount;
+        this.score = score;
+    }
+
+    public PetStat getStat() {
+        return stat;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public int getScore() {
+        return score;
+    }
 }
@@ -0,0 +1,157 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events of the game.
+ * <br><br>
+ * Each nested class is a {@link jdk.jfr.Event} emitted around one piece of work, so a
+ * recording shows ticks, paints, saves and dispatches next to the JDK's own GC, I/O
+ * and thread events in JDK Mission Control. The events cost almost nothing unless a
+ * recording with them enabled is running. Start one with the bundled settings:
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   java -XX:StartFlightRecording=settings=default,settings=petcrossing.jfc,filename=session.jfr -cp "out:lib/*" PetCrossing
+ *
+ *   JfrEvents.Save event = new JfrEvents.Save();
+ *   event.begin();
+ *   ... // write the save
+ *   if (event.shouldCommit()) {
+ *       event.slot = 1;
+ *       event.commit();
+ *   }
+ * }
+ * </pre>
+ */
+public final class JfrEvents {
+    /** The category shared by all of the game's events */
+    private static final String CATEGORY = "Pet Crossing";
+
+    private JfrEvents() {}
+
+    /**
+     * One tick of the simulation, with the pet's stats at the end of it.
+     */
+    @Name("petcrossing.Tick")
+    @Label("Simulation Tick")
+    @Category({ CATEGORY, "Simulation" })
+    @StackTrace(false)
+    public static class Tick extends Event {
+        @Label("Pet")
+        public String pet;
+        @Label("State")
+        public String state;
+        @Label("Health")
+        public double health;
+        @Label("Hunger")
+        public double hunger;
+        @Label("Happiness")
+        public double happiness;
+        @Label("Sleep")
+        public double sleep;
+        @Label("Score")
+        public int score;
+        @Label("Commands")
+        @Description("The number of user actions applied during the tick")
+        public int commands;
+    }
+
+    /**
+     * One paint of a panel, including its children.
+     */
+    @Name("petcrossing.Paint")
+    @Label("Panel Paint")
+    @Category({ CATEGORY, "Swing" })
+    @StackTrace(false)
+    public static class Paint extends Event {
+        @Label("Panel")
+        public String panel;
+        @Label("Width")
+        public int width;
+        @Label("Height")
+        public int height;
+    }
+
+    /**
+     * Writing a game to a save slot.
+     */
+    @Name("petcrossing.Save")
+    @Label("Save Game")
+    @Category({ CATEGORY, "Saves" })
+    public static class Save extends Event {
+        @Label("Slot")
+        public int slot;
+        @Label("Pet")
+        public String pet;
+        @Label("Success")
+        public boolean success;
+        @Label("Checkpoint")
+        public boolean checkpoint;
+    }
+
+    /**
+     * Reading a game from a save slot.
+     */
+    @Name("petcrossing.Load")
+    @Label("Load Game")
+    @Category({ CATEGORY, "Saves" })
+    public static class Load extends Event {
+        @Label("Slot")
+        public int slot;
+        @Label("Pet")
+        public String pet;
+        @Label("Found")
+        @Description("Whether the slot held a readable save")
+        public boolean found;
+    }
+
+    /**
+     * The dispatch of a game event to its observers on the notifying thread.
+     */
+    @Name("petcrossing.Dispatch")
+    @Label("Event Dispatch")
+    @Category({ CATEGORY, "Events" })
+    @StackTrace(false)
+    public static class Dispatch extends Event {
+        @Label("Event")
+        public String event;
+        @Label("Payload")
+        public String payload;
+        @Label("Observers")
+        public int observers;
+        @Label("Depth")
+        @Description("How many dispatches this one is nested inside, plus one")
+        public int depth;
+    }
+
+    /**
+     * An animation loading and showing its next frame.
+     */
+    @Name("petcrossing.FrameSwap")
+    @Label("Animation Frame Swap")
+    @Category({ CATEGORY, "Swing" })
+    @StackTrace(false)
+    public static class FrameSwap extends Event {
+        @Label("Frame")
+        public String frame;
+        @Label("Size")
+        @Description("The width and height the frame is scaled to, in pixels")
+        public int size;
+    }
+
+    /**
+     * Opening and starting a sound.
+     */
+    @Name("petcrossing.SoundPlay")
+    @Label("Sound Play")
+    @Category({ CATEGORY, "Sound" })
+    public static class SoundPlay extends Event {
+        @Label("Sound")
+        public String path;
+    }
+}
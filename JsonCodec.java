@@ -0,0 +1,97 @@
+import java.io.File;
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The shared JSON configuration of the game, with a reader and writer for each kind of file.
+ * <br><br>
+ * Building an ObjectMapper, and the serializers it finds by reflection the first time
+ * it sees a type, is far more expensive than reading a small file. There is therefore
+ * one mapper for the whole game, and a reader and writer for each schema which are
+ * created once. When the class is loaded each of them is warmed up with a sample value,
+ * so the serializers are found then rather than on the first save or parental read.
+ * Readers and writers are immutable, so they can be used by the Swing thread and the
+ * save writer thread at the same time.
+ * <br><br>
+ * Save files are read as {@link SaveData}, by the game through the streaming
+ * {@link SaveCodec} built on {@link #FACTORY}. The parental controls file is read as a
+ * tree, so that properties the game does not use (such as the password) are kept
+ * when it is written back.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveData data = SaveCodec.read(new File("saves/save1.json"));
+ *   ObjectNode settings = JsonCodec.readParental(new File("saves/parental_controls.json"));
+ *   settings.put("numLogins", settings.path("numLogins").asInt() + 1);
+ *   JsonCodec.writeParental(new File("saves/parental_controls.json"), settings);
+ * }
+ * </pre>
+ *
+ * @see SaveManager
+ * @see ParentalController
+ */
+public final class JsonCodec {
+    /** The mapper shared by every reader and writer, only used to create them */
+    private static final ObjectMapper MAPPER = new ObjectMapper(JsonFactory.builder()
+            // The stats are doubles, which the default number parsing and printing is slow at
+            .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+            .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+            .build())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /** The factory of the streaming parsers and generators, shared with the mapper */
+    public static final JsonFactory FACTORY = MAPPER.getFactory();
+    /** The reader of save files, see {@link SaveCodec} for the streaming version used by the game */
+    public static final ObjectReader SAVE_READER = MAPPER.readerFor(SaveData.class);
+    /** The writer of save files */
+    public static final ObjectWriter SAVE_WRITER = MAPPER.writerFor(SaveData.class);
+    /** The reader of the parental controls file */
+    public static final ObjectReader PARENTAL_READER = MAPPER.readerFor(ObjectNode.class);
+    /** The writer of the parental controls file */
+    public static final ObjectWriter PARENTAL_WRITER = MAPPER.writerFor(ObjectNode.class);
+
+    static {
+        try {
+            SaveData sample = new SaveData(0, 0, 0, 0, "Pet", "Chopper", "normal", 100, 100, 100, 100, 0);
+            SAVE_READER.readValue(SAVE_WRITER.writeValueAsBytes(sample));
+            ObjectNode settings = MAPPER.createObjectNode().put("numLogins", 0);
+            settings.putArray("restrictedTimes").addObject().put("start", "00:00").put("end", "00:00");
+            PARENTAL_READER.readValue(PARENTAL_WRITER.writeValueAsBytes(settings));
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private JsonCodec() {}
+
+    /**
+     * Reads the parental controls file.
+     *
+     * @param file The parental controls file
+     * @return The settings in the file
+     * @throws IOException If the file cannot be read or is not a JSON object
+     */
+    public static ObjectNode readParental(File file) throws IOException {
+        return PARENTAL_READER.readValue(file);
+    }
+
+    /**
+     * Writes the parental controls file.
+     *
+     * @param file The parental controls file
+     * @param settings The settings to write
+     * @throws IOException If the file cannot be written
+     */
+    public static void writeParental(File file, ObjectNode settings) throws IOException {
+        PARENTAL_WRITER.writeValue(file, settings);
+    }
+}
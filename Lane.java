@@ -0,0 +1,124 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * The thread an observer's events are handled on.
+ * <br><br>
+ * Each observer declares its lane by overriding {@link Observer#getLane()}, and the
+ * {@link EventDispatcher} hands the event to that lane. Handlers on the EDT, I/O and
+ * simulation lanes run after the notifying call has returned, so a button click never
+ * waits for a sound file to open or a save to be written.
+ * <br><br>
+ * The I/O and simulation lanes each have one thread and a bounded queue. If a lane
+ * falls far behind, the thread posting to it waits until there is room again, rather
+ * than queueing events without limit.
+ *
+ * @see Observer
+ * @see EventDispatcher
+ */
+public enum Lane {
+    /** Handled immediately on the thread which notified the event */
+    CALLER(false),
+    /** Handled on the Swing event dispatch thread, for observers which update the UI */
+    EDT(false),
+    /** Handled on a background thread, for observers which read or write files or play sounds */
+    IO(true),
+    /** Handled on the thread which runs the game's ticks, for observers which update the game's model */
+    SIMULATION(true);
+
+    /** The number of events which can wait on a background lane before posting blocks */
+    static final int CAPACITY = 1024;
+
+    /** The executor of this lane, null for lanes without their own thread */
+    private final ThreadPoolExecutor executor;
+    /** The thread of this lane, null for lanes without their own thread */
+    private volatile Thread thread;
+
+    /**
+     * Constructor for the Lane enum, creates the executor of background lanes.
+     *
+     * @param background Whether the lane has its own thread
+     */
+    Lane(boolean background) {
+        if (!background) {
+            executor = null;
+            return;
+        }
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(CAPACITY),
+                r -> {
+                    thread = new Thread(r, name().toLowerCase() + "-lane");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new WaitForRoom());
+    }
+
+    /**
+     * Applies backpressure by making the posting thread wait for room in a full lane.
+     */
+    private static class WaitForRoom implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs a task on this lane.
+     *
+     * @param task The task to run
+     */
+    void execute(Runnable task) {
+        switch (this) {
+            case CALLER:
+                task.run();
+                break;
+            case EDT:
+                SwingUtilities.invokeLater(task);
+                break;
+            default:
+                if (isLaneThread()) {
+                    // The lane's own thread would wait forever for itself to make room
+                    task.run();
+                } else {
+                    executor.execute(task);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Returns whether the current thread is this lane's thread.
+     *
+     * @return true if running on this lane
+     */
+    boolean isLaneThread() {
+        switch (this) {
+            case CALLER:
+                return true;
+            case EDT:
+                return SwingUtilities.isEventDispatchThread();
+            default:
+                return Thread.currentThread() == thread;
+        }
+    }
+
+    /**
+     * Returns the number of events waiting to be handled on this lane.
+     *
+     * @return The number of queued events, 0 for lanes without their own thread
+     */
+    public int getBacklog() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size histogram of durations in nanoseconds.
+ * <br><br>
+ * Durations are counted in buckets which grow exponentially: each power of two is
+ * split into {@link #SUB_BUCKETS} equal buckets, so every recorded value is accurate
+ * to within 1/8 (12.5%) of itself, from 1 nanosecond up to over two hours. Recording
+ * a value is a few shifts and one atomic increment, and never allocates.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   LatencyHistogram histogram = new LatencyHistogram();
+ *   long start = System.nanoTime();
+ *   doWork();
+ *   histogram.record(System.nanoTime() - start);
+ *   histogram.getPercentile(99); // p99 in nanoseconds
+ * }
+ * </pre>
+ *
+ * @see DispatchMetrics
+ */
+public class LatencyHistogram {
+    /** The number of buckets each power of two is split into, a power of two itself */
+    static final int SUB_BUCKETS = 8;
+    /** log2 of SUB_BUCKETS */
+    private static final int SUB_BITS = 3;
+    /** The number of powers of two covered, values of 2^43 ns (over two hours) or more share the last bucket */
+    private static final int MAGNITUDES = 40;
+
+    /** The number of values in each bucket */
+    private final AtomicLongArray buckets = new AtomicLongArray((MAGNITUDES + 1) * SUB_BUCKETS);
+    /** The number of values recorded */
+    private final AtomicLong count = new AtomicLong();
+    /** The sum of the values recorded */
+    private final AtomicLong total = new AtomicLong();
+    /** The largest value recorded */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative values are counted as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long previous = max.get();
+        while (value > previous && !max.compareAndSet(previous, value)) {
+            previous = max.get();
+        }
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     *
+     * @param value The value, at least 0
+     * @return The index of the bucket
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // The position of the highest bit picks the power of two, the next bits pick the sub-bucket
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS + 1;
+        if (magnitude > MAGNITUDES) {
+            return (MAGNITUDES + 1) * SUB_BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (magnitude - 1)) & (SUB_BUCKETS - 1);
+        return magnitude * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value counted in a bucket.
+     *
+     * @param bucket The index of the bucket
+     * @return The upper bound of the bucket
+     */
+    static long upperBoundOf(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return sub;
+        }
+        return ((long) (SUB_BUCKETS + sub + 1) << (magnitude - 1)) - 1;
+    }
+
+    /**
+     * Returns a percentile of the recorded values.
+     * <br><br>
+     * The result is the upper bound of the bucket holding the percentile, capped at
+     * the largest recorded value.
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return The value in nanoseconds, 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        long recorded = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            recorded += buckets.get(i);
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean in nanoseconds, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double) total.get() / recorded;
+    }
+
+    /**
+     * Clears every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+}
@@ -4,8 +4,12 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.GridBagLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
+import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -14,7 +18,15 @@ import javax.swing.JPanel;
 /**
  * Extends panel to create a screen for loading the game.
  * <br><br>
- * This panel creates a screen where the user can load a game.
+ * This panel creates a screen where the user can load a game. The slots are listed
+ * from {@link SaveManager#listSlots()}, which reads one small index rather than
+ * every save; a save is only loaded in full once its slot is selected.
+ * <br><br>
+ * There can be any number of slots, so they are shown {@link #PAGE_SIZE} at a time.
+ * Only the rows of the page being shown are created, and their pet animations only
+ * run while the panel is on screen. After the saved slots there is always one free
+ * slot, which creates a new profile.
+ * <br><br>
  * 
  * <b>Example Use:</b>
  * <pre>
@@ -44,6 +56,26 @@ public class LoadGamePanel extends Panel {
     private boolean revive = false;
     /** The dimensions of an interior panel */
     private final Dimension PET_PANEL_DIM = new Dimension(600, 150);
+    /** The number of slots shown on each page */
+    static final int PAGE_SIZE = 3;
+    /** The select buttons of the saved slots on the page, whose text can be overridden */
+    private final List<Button> selectButtons = new ArrayList<>();
+    /** The animations of the pets on the page */
+    private final List<Animation> animations = new ArrayList<>();
+    /** The summaries of the saved slots, read once from the slot index */
+    private Map<Integer, SlotSummary> slots = Map.of();
+    /** The number of slots which can be selected */
+    private int slotCount;
+    /** The page being shown, from 0 */
+    private int page = 0;
+    /** A JPanel which holds the page buttons, hidden if there is only one page */
+    private JPanel pagePanel;
+    /** The label which shows the page number */
+    private JLabel pageLabel;
+    /** The button which shows the previous page */
+    private JButton previousButton;
+    /** The button which shows the next page */
+    private JButton nextButton;
 
     /**
      * Constructs a new LoadGamePanel to handle game loading.
@@ -74,7 +106,9 @@ public class LoadGamePanel extends Panel {
      */
     public void overrideButtonText(String text) {
         this.buttonText = text;
-        init();
+        for (Button selectButton : selectButtons) {
+            selectButton.setText(text);
+        }
     }
 
     /**
@@ -96,26 +130,12 @@ public class LoadGamePanel extends Panel {
         petListPanel.setLayout(new BoxLayout(petListPanel, BoxLayout.Y_AXIS));
         petListPanel.setBackground(new Color(255, 255, 255, 200));
         petListPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        // Loads the saves to display to the user
-        SaveManager saveManager = new SaveManager();
-        Tuple<Pet, Tuple<Inventory, Integer>> save1 = saveManager.loadGame(1);
-        Tuple<Pet, Tuple<Inventory, Integer>> save2 = saveManager.loadGame(2);
-        Tuple<Pet, Tuple<Inventory, Integer>> save3 = saveManager.loadGame(3);
-
-        Pet pet1 = save1.x;
-        Inventory inventory1 = save1.y.x;
-        Pet pet2 = save2.x;
-        Inventory inventory2 = save2.y.x;
-        Pet pet3 = save3.x;
-        Inventory inventory3 = save3.y.x;
-
-        // Adds each save as an option on to the petListPanel
-        addPetOption(pet1, inventory1, 1);
-        addPetOption(pet2, inventory2, 2);
-        addPetOption(pet3, inventory3, 3);
+        // Lists the saves to display to the user, only the rows of the page are created
+        slots = new SaveManager().listSlots();
+        slotCount = getSlotCount(slots);
         containerPanel = new JPanel(new GridBagLayout());
         containerPanel.setOpaque(false);
-        containerPanel.setBorder(BorderFactory.createEmptyBorder(50, 50, 50, 50));
+        containerPanel.setBorder(BorderFactory.createEmptyBorder(20, 50, 20, 50));
         // Add the petListPanel to the containerPanel
         containerPanel.add(petListPanel);
         // Add the containerPanel to the main panel
@@ -128,35 +148,151 @@ public class LoadGamePanel extends Panel {
         Button backButton = new Button("Back", GameEvent.MENU, eventDispatcher);
         // Add the back button panel to the left side
         add(backButton, BorderLayout.WEST);
+        // Add the page buttons below the list
+        pagePanel = new JPanel();
+        pagePanel.setOpaque(false);
+        previousButton = createPageButton("Previous", -1);
+        nextButton = createPageButton("Next", 1);
+        pageLabel = new JLabel();
+        pageLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        pagePanel.add(previousButton);
+        pagePanel.add(pageLabel);
+        pagePanel.add(nextButton);
+        add(pagePanel, BorderLayout.SOUTH);
+        showPage(0);
+    }
+
+    /**
+     * Returns the number of slots which can be selected.
+     * <br><br>
+     * These are the saved slots and one free slot after the last of them, and never
+     * fewer than {@link SaveManager#SLOTS}.
+     * 
+     * @param slots The summaries of the saved slots, by slot number
+     * @return The number of slots
+     */
+    static int getSlotCount(Map<Integer, SlotSummary> slots) {
+        int last = 0;
+        for (int slot : slots.keySet()) {
+            last = Math.max(last, slot);
+        }
+        return Math.max(SaveManager.SLOTS, last + 1);
+    }
+
+    /**
+     * Returns the number of pages needed to show a number of slots.
+     * 
+     * @param slotCount The number of slots
+     * @return The number of pages
+     */
+    static int getPageCount(int slotCount) {
+        return (slotCount + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+
+    /**
+     * Replaces the rows of the list with the slots of a page.
+     * <br><br>
+     * The animations of the previous page are stopped, and those of the new page are
+     * started if the panel is on screen.
+     * 
+     * @param page The page to show, from 0
+     */
+    private void showPage(int page) {
+        this.page = page;
+        stopAnimations();
+        animations.clear();
+        selectButtons.clear();
+        petListPanel.removeAll();
+        int first = page * PAGE_SIZE + 1;
+        int last = Math.min(slotCount, first + PAGE_SIZE - 1);
+        // Adds each save of the page as an option on to the petListPanel
+        for (int slot = first; slot <= last; slot++) {
+            addPetOption(slots.get(slot), slot);
+        }
+        int pages = getPageCount(slotCount);
+        pageLabel.setText("Page " + (page + 1) + " of " + pages);
+        previousButton.setEnabled(page > 0);
+        nextButton.setEnabled(page < pages - 1);
+        pagePanel.setVisible(pages > 1);
+        if (isDisplayable()) {
+            startAnimations();
+        }
+        petListPanel.revalidate();
+        petListPanel.repaint();
+    }
+
+    /**
+     * Creates a button which moves between pages.
+     * 
+     * @param text The text of the button
+     * @param step The number of pages to move by
+     * @return The button
+     */
+    private JButton createPageButton(String text, int step) {
+        JButton button = new JButton(text);
+        button.setBackground(Button.BUTTON_COLOR);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setFont(Button.GAME_FONT.deriveFont(Font.TRUETYPE_FONT, 20));
+        button.addActionListener(e -> showPage(page + step));
+        return button;
+    }
+
+    /**
+     * Starts the animations of the pets on the page.
+     */
+    private void startAnimations() {
+        for (Animation animation : animations) {
+            animation.start();
+        }
+    }
+
+    /**
+     * Stops the animations of the pets on the page.
+     */
+    private void stopAnimations() {
+        for (Animation animation : animations) {
+            animation.stop();
+        }
+    }
+
+    /**
+     * Starts the pets' animations once the panel is shown.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        startAnimations();
+    }
+
+    /**
+     * Stops the pets' animations once the panel is no longer shown.
+     */
+    @Override
+    public void removeNotify() {
+        stopAnimations();
+        super.removeNotify();
     }
 
     /**
      * Helper method which adds a pet option to the petListPanel.
      * <br><br>
-     * There are three entries on the petListPanel, each represents one
-     * of the three save slots which the user may select.
+     * There are up to {@link #PAGE_SIZE} entries on the petListPanel, each represents
+     * one of the save slots on the page which the user may select.
      * 
-     * @param pet The pet of the save slot to be displayed
-     * @param inventory The inventory of the save slot to be displayed 
+     * @param pet The summary of the save slot to be displayed, null if the slot is empty
      * @param saveSlot The save slot number to be displayed
      */
-    private void addPetOption(Pet pet, Inventory inventory, int saveSlot) {
-        // Each save slot has a different event to load the game
-        GameEvent loadEvent = null;
-        if (saveSlot == 1) {
-            loadEvent = GameEvent.LOAD1;
-        } else if (saveSlot == 2) {
-            loadEvent = GameEvent.LOAD2;
-        } else if (saveSlot == 3) {
-            loadEvent = GameEvent.LOAD3;
-        }
+    private void addPetOption(SlotSummary pet, int saveSlot) {
+        // Each save slot loads the game with its own slot number
+        EventPayload load = new EventPayload.Load(saveSlot);
         // If the pet is null create a new save option
         if (pet == null) {
             JPanel emptySave = new JPanel();
             emptySave.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
             emptySave.setBackground(Color.WHITE);
             emptySave.setPreferredSize(PET_PANEL_DIM);
-            Button emptySaveButton = new Button("New", loadEvent, eventDispatcher);
+            Button emptySaveButton = new Button("New", GameEvent.LOAD, load, eventDispatcher);
             emptySaveButton.setPreferredSize(new Dimension(100, 20));
             emptySave.setLayout(new GridBagLayout()); // Center the button
             emptySave.add(emptySaveButton);
@@ -177,18 +313,19 @@ public class LoadGamePanel extends Panel {
         JLabel imageLabel = new JLabel();
         Animation animation = null;
         // Create an animation for the pet based on its type
-        if (pet.getType().toLowerCase().equals("chopper")) {
+        if (pet.type().toLowerCase().equals("chopper")) {
             animation = new Animation("resources/sprites/chopper", 6, 150, imageLabel);
-        } else if (pet.getType().toLowerCase().equals("dugong")) {
+        } else if (pet.type().toLowerCase().equals("dugong")) {
             animation = new Animation("resources/sprites/dugong", 3, 250, imageLabel);
-        } else if (pet.getType().toLowerCase().equals("laboon")) {
+        } else if (pet.type().toLowerCase().equals("laboon")) {
             animation = new Animation("resources/sprites/laboon", 3, 250, imageLabel);
         }
         // Create the select button for the pet
-        selectButton = new Button(buttonText, loadEvent, eventDispatcher);
+        selectButton = new Button(buttonText, GameEvent.LOAD, load, eventDispatcher);
+        selectButtons.add(selectButton);
 
         if (animation != null)
-            animation.start();
+            animations.add(animation);
         imageLabel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 35)); // Add padding
 
         // Create some panels which will holds stats or information about each pet/save
@@ -196,16 +333,17 @@ public class LoadGamePanel extends Panel {
         textPanel.setLayout(new BoxLayout(textPanel, BoxLayout.Y_AXIS));
         textPanel.setBackground(Color.WHITE);
         textPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
-        JLabel nameLabel = new JLabel(pet.getName());
+        JLabel nameLabel = new JLabel(pet.name());
         nameLabel.setFont(new Font("Arial", Font.BOLD, 16));
         JLabel statsHeaderLabel = new JLabel("Stats");
         statsHeaderLabel.setFont(new Font("Arial", Font.BOLD, 14));
         statsHeaderLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 5, 0)); // Add spacing around the header
-        String stats = "Health: " + pet.getHealth() + "<br>" +
-                "Hunger: " + pet.getHunger() + "<br>" +
-                "Happiness: " + pet.getHappiness() + "<br>" +
-                "Sleep: " + pet.getSleep() + "<br>" +
-                "State: " + pet.getState().toString().toLowerCase() + "<br>";
+        // Stats are loaded as whole numbers
+        String stats = "Health: " + (double) (int) pet.health() + "<br>" +
+                "Hunger: " + (double) (int) pet.hunger() + "<br>" +
+                "Happiness: " + (double) (int) pet.happiness() + "<br>" +
+                "Sleep: " + (double) (int) pet.sleep() + "<br>" +
+                "State: " + pet.state().toLowerCase() + "<br>";
         JLabel statsLabel = new JLabel("<html>" + stats + "</html>");
         statsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
         JPanel buttonPanel = new JPanel();
@@ -219,7 +357,7 @@ public class LoadGamePanel extends Panel {
 
         // If the user is reviving a pet, and the pet is not dead, then disable the button
         // (obviously, a pet that is alive cannot be revived)
-        if (revive && !pet.getState().equals(PetState.DEAD))
+        if (revive && !pet.isDead())
             selectButton.setEnabled(false);
 
         petPanel.add(imageLabel, BorderLayout.WEST);
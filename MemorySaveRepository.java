@@ -0,0 +1,55 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps every record in memory, for tests and benchmarks.
+ * <br><br>
+ * Nothing is written to disk, so the records are lost when the game exits. Each write
+ * is dated at least a millisecond after the previous one, so records written in the
+ * same millisecond are still ordered by their times.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveManager saveManager = new SaveManager(new MemorySaveRepository());
+ *   saveManager.saveGame(pet, inventory, 1, 10);
+ * }
+ * </pre>
+ *
+ * @see SaveRepository
+ */
+public class MemorySaveRepository implements SaveRepository {
+    /**
+     * The contents of a record and when it was written.
+     *
+     * @param contents The contents of the record
+     * @param modified When the record was written
+     */
+    private record Entry(byte[] contents, long modified) {}
+
+    /** The records by key, guarded by this */
+    private final Map<String, Entry> records = new HashMap<>();
+    /** The time of the last write */
+    private long lastWrite = 0;
+
+    @Override
+    public synchronized byte[] read(String key) {
+        Entry entry = records.get(key);
+        return entry == null ? null : entry.contents().clone();
+    }
+
+    @Override
+    public synchronized void write(String key, byte[] contents, boolean keepBackup) {
+        lastWrite = Math.max(System.currentTimeMillis(), lastWrite + 1);
+        Entry old = records.put(key, new Entry(contents.clone(), lastWrite));
+        if (keepBackup && old != null) {
+            records.put(key + BACKUP_SUFFIX, old);
+        }
+    }
+
+    @Override
+    public synchronized long lastModified(String key) {
+        Entry entry = records.get(key);
+        return entry == null ? -1 : entry.modified();
+    }
+}
@@ -133,13 +133,13 @@ public class NewGamePanel extends Panel {
         // Uses the pet's type/name to determine which animation to use
         if (petName.equals("Chopper")) {
             animation = new Animation("resources/sprites/chopper", 6, 150, imageLabel);
-            selectButton = new Button("Select", GameEvent.CHOPPER, eventDispatcher);
+            selectButton = new Button("Select", GameEvent.ADOPT, new EventPayload.Adopt("Chopper"), eventDispatcher);
         } else if (petName.equals("Dugong")) {
             animation = new Animation("resources/sprites/dugong", 3, 250, imageLabel);
-            selectButton = new Button("Select", GameEvent.DUGONG, eventDispatcher);
+            selectButton = new Button("Select", GameEvent.ADOPT, new EventPayload.Adopt("Dugong"), eventDispatcher);
         } else if (petName.equals("Laboon")) {
             animation = new Animation("resources/sprites/laboon", 3, 250, imageLabel);
-            selectButton = new Button("Select", GameEvent.LABOON, eventDispatcher);
+            selectButton = new Button("Select", GameEvent.ADOPT, new EventPayload.Adopt("Laboon"), eventDispatcher);
         }
         // Start the animation
         if (animation != null)
@@ -28,6 +28,31 @@ public abstract class Observer {
     */
     abstract protected void handleEvent(GameEvent event);
 
+    /**
+     * This method is triggered when an event which may carry data occurs.
+     * <br><br>
+     * By default the payload is ignored. Observers of events with payloads, such as
+     * LOAD or FEED, override this to read it.
+     * 
+     * @param event The event that occurred.
+     * @param payload The data of the event, null if it has none.
+     */
+    protected void handleEvent(GameEvent event, EventPayload payload) {
+        handleEvent(event);
+    }
+
+    /**
+     * Returns the lane this observer's events are handled on.
+     * <br><br>
+     * By default events are handled immediately on the thread which notified them.
+     * Observers which do slow work, or must run on a particular thread, override this.
+     * 
+     * @return The lane to handle events on.
+     */
+    protected Lane getLane() {
+        return Lane.CALLER;
+    }
+
     /* Registers the object to listen for and respond to some game event */
     abstract protected void registerEvents();
 }
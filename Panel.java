@@ -1,5 +1,6 @@
 import java.awt.Font;
 import java.awt.FontMetrics;
+import java.awt.Graphics;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -61,7 +62,26 @@ public abstract class Panel extends JPanel {
         }
     }
 
-        /**
+    /**
+     * Paints the panel and its children, emitting a {@link JfrEvents.Paint} when a
+     * JFR recording is running, so slow paints of every panel show up in the recording.
+     *
+     * @param g The graphics to paint with
+     */
+    @Override
+    public void paint(Graphics g) {
+        JfrEvents.Paint event = new JfrEvents.Paint();
+        event.begin();
+        super.paint(g);
+        if (event.shouldCommit()) {
+            event.panel = getClass().getName();
+            event.width = getWidth();
+            event.height = getHeight();
+            event.commit();
+        }
+    }
+
+    /**
      * Returns the x and y coordinates for centering text on the screen.
      * 
      * @param text The text to center
@@ -1,13 +1,12 @@
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.TimeUnit;
+import java.util.EnumSet;
+import java.time.Clock;
 import java.time.LocalTime;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import javax.swing.SwingUtilities;
 import javax.swing.JOptionPane;
-import java.io.File;
-import java.io.IOException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
  * ParentalController class for managing playtime restrictions and parental controls.
@@ -15,6 +14,10 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
  * This class is responsible for enforcing time limits and restricted hours for gameplay. It tracks the user's session time,
  * updates JSON configuration files, and integrates with the game's event system to notify observers when restrictions apply.
  * <br><br>
+ * The settings are read once into a {@link ParentalSettings} and changed in memory, which
+ * writes them to the file in the background. None of the methods, which the
+ * {@link ParentalPanel} calls on the Swing thread, wait for the disk.
+ * <br><br>
  * <b>Example Use:</b>
  * <pre>
  * {@code
@@ -56,8 +59,11 @@ public class ParentalController extends Controller {
     /** End time for restricted hours (e.g. 07:00) */
     private LocalTime restrictedEndTime;
 
-    /** The file path to the parental controls JSON configuration file */
-    private static final String PARENTAL_CONTROLS_FILE = "saves/parental_controls.json";
+    /** The settings, kept in memory and written to the parental controls file */
+    private final ParentalSettings settings;
+
+    /** The name of the parental controls JSON configuration file in the saves directory */
+    private static final String PARENTAL_CONTROLS_FILE = "parental_controls.json";
 
     /**
      * Constructs a ParentalController and starts the internal timer.
@@ -65,43 +71,76 @@ public class ParentalController extends Controller {
      * @param eventDispatcher The event dispatcher used to notify observers of restriction events.
      */
     public ParentalController(EventDispatcher eventDispatcher) {
-        super(eventDispatcher, null);
+        this(eventDispatcher, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a ParentalController which reads the time from the given clock, and starts the internal timer.
+     *
+     * @param eventDispatcher The event dispatcher used to notify observers of restriction events.
+     * @param clock           The clock used for session time and restricted hours.
+     */
+    public ParentalController(EventDispatcher eventDispatcher, Clock clock) {
+        this(eventDispatcher, clock, ParentalSettings.load(getFile()));
+    }
+
+    /**
+     * Constructs a ParentalController with the given settings, and starts the internal timer.
+     *
+     * @param eventDispatcher The event dispatcher used to notify observers of restriction events.
+     * @param clock           The clock used for session time and restricted hours.
+     * @param settings        The parental controls settings.
+     */
+    public ParentalController(EventDispatcher eventDispatcher, Clock clock, ParentalSettings settings) {
+        this(eventDispatcher, clock, settings, true);
+    }
+
+    /**
+     * Constructs a ParentalController with the given settings, which only starts the internal timer if asked.
+     * <br><br>
+     * Without the timer, restrictions are only enforced by calling {@link #enforceRestrictions()},
+     * so tests can drive it from a {@link VirtualClock} without a background thread or dialogs.
+     *
+     * @param eventDispatcher The event dispatcher used to notify observers of restriction events.
+     * @param clock           The clock used for session time and restricted hours.
+     * @param settings        The parental controls settings.
+     * @param startTimer      Whether to start the timer which enforces restrictions every minute.
+     */
+    ParentalController(EventDispatcher eventDispatcher, Clock clock, ParentalSettings settings, boolean startTimer) {
+        super(eventDispatcher, null, clock);
+        this.settings = settings;
         this.timeLimit = -1;
         this.isRunning = new AtomicBoolean(true);
-        this.startTime = System.currentTimeMillis();
+        this.startTime = clock.millis();
         this.restrictionsEnabled = false;
 
         loadRestrictedTimes();
         incrementLogins();
-        startTimer();
+        if (startTimer) {
+            startTimer();
+        }
+    }
+
+    /**
+     * Returns the parental controls file, in the directory set with -Dpetcrossing.saves.dir.
+     *
+     * @return The path of the parental controls file
+     */
+    public static Path getFile() {
+        return Paths.get(System.getProperty("petcrossing.saves.dir", SaveRepository.DEFAULT_DIRECTORY))
+                .resolve(PARENTAL_CONTROLS_FILE);
     }
 
     /**
-     * Loads restricted time intervals from the parental controls JSON file.
+     * Loads restricted time intervals from the parental controls settings.
      */
     private void loadRestrictedTimes() {
-        try {
-            File file = new File(PARENTAL_CONTROLS_FILE);
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(file);
-
-            JsonNode restrictedTimesNode = rootNode.path("restrictedTimes").get(0);
-            if (!restrictedTimesNode.isMissingNode()) {
-                String startTime = restrictedTimesNode.path("start").asText();
-                String endTime = restrictedTimesNode.path("end").asText();
-
-                if (!startTime.equals("00:00") || !endTime.equals("00:00")) {
-                    this.restrictedStartTime = LocalTime.parse(startTime);
-                    this.restrictedEndTime = LocalTime.parse(endTime);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        this.restrictedStartTime = settings.getRestrictedStartTime();
+        this.restrictedEndTime = settings.getRestrictedEndTime();
     }
 
     /**
-     * Sets the restricted hours and updates the parental controls file.
+     * Sets the restricted hours and updates the parental controls file in the background.
      *
      * @param startTime The beginning of the restricted period.
      * @param endTime   The end of the restricted period.
@@ -109,22 +148,7 @@ public class ParentalController extends Controller {
     public void setRestrictedHours(LocalTime startTime, LocalTime endTime) {
         this.restrictedStartTime = startTime;
         this.restrictedEndTime = endTime;
-
-        try {
-            File file = new File(PARENTAL_CONTROLS_FILE);
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(file);
-
-            ((ObjectNode) rootNode).putArray("restrictedTimes")
-                    .addObject()
-                    .put("start", startTime.toString())
-                    .put("end", endTime.toString());
-
-            objectMapper.writeValue(file, rootNode);
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        settings.setRestrictedHours(startTime, endTime);
     }
 
     /**
@@ -137,7 +161,7 @@ public class ParentalController extends Controller {
             return false;
         }
 
-        LocalTime now = LocalTime.now();
+        LocalTime now = LocalTime.now(clock);
 
         if (restrictedStartTime.isBefore(restrictedEndTime)) {
             return now.isAfter(restrictedStartTime) && now.isBefore(restrictedEndTime);
@@ -210,7 +234,7 @@ public class ParentalController extends Controller {
      * Updates total play time and the timer label in the UI.
      */
     private void updatePlayTime() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.millis();
         long elapsedMinutes = TimeUnit.MILLISECONDS.toMinutes(currentTime - startTime);
 
         if (elapsedMinutes > totalPlayTime) {
@@ -277,9 +301,7 @@ public class ParentalController extends Controller {
      */
     @Override
     protected void registerEvents() {
-        eventDispatcher.addObserver(GameEvent.QUIT, this);
-        eventDispatcher.addObserver(GameEvent.PARENTAL, this);
-        eventDispatcher.addObserver(GameEvent.MENU, this);
+        eventDispatcher.addObserver(EnumSet.of(GameEvent.QUIT, GameEvent.PARENTAL, GameEvent.MENU), this);
     }
 
     /**
@@ -323,64 +345,45 @@ public class ParentalController extends Controller {
     }
 
     /**
-     * Increments the login counter in the parental controls JSON file.
+     * Increments the login counter in the parental controls settings.
      */
     private void incrementLogins() {
-        try {
-            File file = new File(PARENTAL_CONTROLS_FILE);
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(file);
-
-            int numLogins = rootNode.path("numLogins").asInt();
-            ((ObjectNode) rootNode).put("numLogins", numLogins + 1);
-
-            objectMapper.writeValue(file, rootNode);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        settings.incrementLogins();
     }
 
     /**
-     * Updates the total playtime in the parental controls file based on the current session.
+     * Adds the current session's playtime to the total playtime in the parental controls settings.
      *
      * @param sessionPlayTime The current session's playtime in minutes.
      */
     public void updateTotalPlayTime(long sessionPlayTime) {
-        try {
-            File file = new File(PARENTAL_CONTROLS_FILE);
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(file);
-
-            long totalPlayTimeFromFile = rootNode.path("totalPlayTime").asLong();
-            long updatedTotalPlayTime = totalPlayTimeFromFile + sessionPlayTime;
-            ((ObjectNode) rootNode).put("totalPlayTime", updatedTotalPlayTime);
-
-            objectMapper.writeValue(file, rootNode);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        settings.addPlayTime(sessionPlayTime);
     }
 
     /**
-     * Calculates the average playtime per session using data from the parental controls file.
+     * Returns the average playtime per session, from the settings in memory.
      *
      * @return The average playtime, or 0 if no logins are recorded.
      */
     public long getAveragePlayTime() {
-        try {
-            File file = new File(PARENTAL_CONTROLS_FILE);
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(file);
+        return settings.getAveragePlayTime();
+    }
 
-            long totalPlayTime = rootNode.path("totalPlayTime").asLong();
-            int numLogins = rootNode.path("numLogins").asInt();
+    /**
+     * Returns the parental controls settings.
+     *
+     * @return The settings.
+     */
+    public ParentalSettings getSettings() {
+        return settings;
+    }
 
-            if (numLogins > 0) {
-                return totalPlayTime / numLogins;
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return 0;
+    /**
+     * Writes any change to the parental controls settings straight away, for example before exiting.
+     *
+     * @return true if the file holds every change, false if it could not be written.
+     */
+    public boolean flush() {
+        return settings.flush();
     }
 }
\ No newline at end of file
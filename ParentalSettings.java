@@ -0,0 +1,262 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The parental controls settings, read from their file once and kept in memory.
+ * <br><br>
+ * Reads, such as the average playtime, never touch the disk. Each change is made in
+ * memory and the file is written in the background {@link #WRITE_DELAY_MILLIS} after
+ * the first change since the last write, so a burst of changes costs one write. The
+ * file is replaced atomically, so a crash leaves either the old or the new settings.
+ * Properties of the file which are not used here are written back unchanged.
+ * {@link #flush()} writes any change straight away, for example before exiting.
+ * <br><br>
+ * If the file exists but cannot be read, the settings start empty and are never
+ * written, so the file is not replaced by them.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   ParentalSettings settings = ParentalSettings.load(Paths.get("saves", "parental_controls.json"));
+ *   settings.incrementLogins();
+ *   settings.getAveragePlayTime();
+ *   settings.flush(); // on exit
+ * }
+ * </pre>
+ *
+ * @see ParentalController
+ * @see JsonCodec#readParental(java.io.File)
+ */
+public class ParentalSettings {
+    private static final Logger LOGGER = Logger.getLogger(ParentalSettings.class.getName());
+    /** The time between the first change and the settings being written */
+    static final long WRITE_DELAY_MILLIS = 500;
+    /** The thread which writes the settings */
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "parental-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The file the settings are kept in */
+    private final Path file;
+    /** Every property of the file, guarded by this */
+    private final ObjectNode root;
+    /** Whether changes are written to the file */
+    private final boolean persistent;
+    /** Serializes writes of the file, taken before this */
+    private final Object writeLock = new Object();
+    /** The number of times the game has been started */
+    private int numLogins;
+    /** The total playtime of every session, in minutes */
+    private long totalPlayTime;
+    /** Start time for restricted hours, null if there are none */
+    private LocalTime restrictedStartTime;
+    /** End time for restricted hours, null if there are none */
+    private LocalTime restrictedEndTime;
+    /** Whether there are changes which have not been written */
+    private boolean dirty = false;
+    /** The scheduled write, null if none is scheduled */
+    private ScheduledFuture<?> pendingWrite;
+    /** The number of times the file has been written */
+    private int writes = 0;
+
+    /**
+     * Constructor for the ParentalSettings class.
+     *
+     * @param file The file the settings are kept in
+     * @param root The properties read from the file
+     * @param persistent Whether changes are written to the file
+     */
+    private ParentalSettings(Path file, ObjectNode root, boolean persistent) {
+        this.file = file;
+        this.root = root;
+        this.persistent = persistent;
+        this.numLogins = root.path("numLogins").asInt();
+        this.totalPlayTime = root.path("totalPlayTime").asLong();
+        JsonNode restrictedTimes = root.path("restrictedTimes").path(0);
+        if (!restrictedTimes.isMissingNode()) {
+            String start = restrictedTimes.path("start").asText();
+            String end = restrictedTimes.path("end").asText();
+            // 00:00 to 00:00 means there are no restricted hours
+            if (!start.equals("00:00") || !end.equals("00:00")) {
+                try {
+                    this.restrictedStartTime = LocalTime.parse(start);
+                    this.restrictedEndTime = LocalTime.parse(end);
+                } catch (DateTimeParseException e) {
+                    LOGGER.warning("Ignoring invalid restricted hours in " + file + ": " + e.getMessage());
+                    this.restrictedStartTime = null;
+                    this.restrictedEndTime = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the settings from their file.
+     *
+     * @param file The file the settings are kept in
+     * @return The settings, empty if the file does not exist or cannot be read
+     */
+    public static ParentalSettings load(Path file) {
+        try {
+            return new ParentalSettings(file, JsonCodec.readParental(file.toFile()), true);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return new ParentalSettings(file, JsonNodeFactory.instance.objectNode(), true);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to read the parental controls " + file + ", changes will not be saved: "
+                    + e.getMessage());
+            return new ParentalSettings(file, JsonNodeFactory.instance.objectNode(), false);
+        }
+    }
+
+    public synchronized int getLogins() {
+        return numLogins;
+    }
+
+    /**
+     * Counts the game being started.
+     */
+    public synchronized void incrementLogins() {
+        numLogins++;
+        root.put("numLogins", numLogins);
+        changed();
+    }
+
+    public synchronized long getTotalPlayTime() {
+        return totalPlayTime;
+    }
+
+    /**
+     * Adds a session's playtime to the total playtime.
+     *
+     * @param minutes The session's playtime in minutes
+     */
+    public synchronized void addPlayTime(long minutes) {
+        totalPlayTime += minutes;
+        root.put("totalPlayTime", totalPlayTime);
+        changed();
+    }
+
+    /**
+     * Returns the average playtime per session.
+     *
+     * @return The average playtime in minutes, or 0 if no logins are recorded
+     */
+    public synchronized long getAveragePlayTime() {
+        return numLogins > 0 ? totalPlayTime / numLogins : 0;
+    }
+
+    public synchronized LocalTime getRestrictedStartTime() {
+        return restrictedStartTime;
+    }
+
+    public synchronized LocalTime getRestrictedEndTime() {
+        return restrictedEndTime;
+    }
+
+    /**
+     * Sets the restricted hours.
+     *
+     * @param startTime The beginning of the restricted period
+     * @param endTime The end of the restricted period
+     */
+    public synchronized void setRestrictedHours(LocalTime startTime, LocalTime endTime) {
+        restrictedStartTime = startTime;
+        restrictedEndTime = endTime;
+        root.putArray("restrictedTimes")
+                .addObject()
+                .put("start", startTime.toString())
+                .put("end", endTime.toString());
+        changed();
+    }
+
+    /**
+     * Returns the number of times the file has been written.
+     *
+     * @return The number of writes
+     */
+    public synchronized int getWrites() {
+        return writes;
+    }
+
+    /**
+     * Writes any change which has not been written yet, without waiting for the scheduled write.
+     *
+     * @return true if the file holds every change, false if it could not be written
+     */
+    public boolean flush() {
+        synchronized (this) {
+            if (pendingWrite != null) {
+                pendingWrite.cancel(false);
+                pendingWrite = null;
+            }
+        }
+        return write();
+    }
+
+    /**
+     * Schedules a write of the file, unless one is already scheduled.
+     */
+    private void changed() {
+        dirty = true;
+        if (persistent && pendingWrite == null) {
+            pendingWrite = WRITER.schedule(this::write, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the settings to the file, if they changed since they were last written.
+     *
+     * @return true if the file holds every change, false if it could not be written
+     */
+    private boolean write() {
+        synchronized (writeLock) {
+            byte[] contents;
+            synchronized (this) {
+                pendingWrite = null;
+                if (!dirty || !persistent) {
+                    return !dirty;
+                }
+                try {
+                    contents = JsonCodec.PARENTAL_WRITER.writeValueAsBytes(root);
+                } catch (IOException e) {
+                    LOGGER.warning("Failed to encode the parental controls: " + e.getMessage());
+                    return false;
+                }
+                dirty = false;
+            }
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                FileSaveRepository.writeAtomically(file, contents, false);
+                synchronized (this) {
+                    writes++;
+                }
+                return true;
+            } catch (IOException e) {
+                LOGGER.warning("Failed to write the parental controls " + file + ": " + e.getMessage());
+                synchronized (this) {
+                    // Try again with the next change or flush
+                    dirty = true;
+                }
+                return false;
+            }
+        }
+    }
+}
@@ -1,5 +1,16 @@
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The pet class represents a pet in the game. It contains attributes such as name, type, health hunger, etc.
+ * <br><br>
+ * Other classes can register {@link PetListener}s to hear about threshold crossings
+ * and state changes. Setters only record that something changed, and the listeners
+ * are called once per tick from {@link #publishChanges()}.
+ * <br><br>
+ * Every change to a value also increments the pet's {@link #getVersion() version},
+ * so autosaves can tell whether anything changed since the last checkpoint without
+ * comparing values.
  */
 public class Pet {
     /** The name of the pet */
@@ -22,6 +33,37 @@ public class Pet {
     private double hungerRate = 0.05;
     /** The rates at which the pet's health depreciates */
     private double sleepRate = 0.1;
+    /** The listeners registered for threshold crossings */
+    private final List<Threshold> thresholds = new ArrayList<>();
+    /** The listeners registered for state and stat changes */
+    private final List<PetListener> listeners = new ArrayList<>();
+    /** Whether anything has changed since the last publish */
+    private boolean changed = false;
+    /** Incremented whenever a value actually changes */
+    private long version = 0;
+    /** The state at the last publish */
+    private PetState publishedState;
+    /** The watched stats, cached so that publishing does not allocate */
+    private static final PetStat[] STATS = PetStat.values();
+    /** The whole number value of each stat at the last publish, indexed by PetStat ordinal */
+    private final int[] publishedStats = new int[STATS.length];
+
+    /**
+     * A threshold watched by a listener, and which side of it the stat was on at the last publish.
+     */
+    private static class Threshold {
+        final PetStat stat;
+        final double value;
+        final PetListener listener;
+        boolean below;
+
+        Threshold(PetStat stat, double value, PetListener listener, boolean below) {
+            this.stat = stat;
+            this.value = value;
+            this.listener = listener;
+            this.below = below;
+        }
+    }
 
     /**
      * Constructor for the Pet class.
@@ -41,6 +83,7 @@ public class Pet {
         this.happiness = happiness;
         this.sleep = sleep;
         setRates();
+        markPublished();
     }
 
     public String getName() {
@@ -84,23 +127,143 @@ public class Pet {
     }
 
     public void setHealth(double health) {
-        this.health = Math.max(0, Math.min(100, health));
+        health = Math.max(0, Math.min(100, health));
+        if (health != this.health) {
+            this.health = health;
+            version++;
+        }
+        changed = true;
     }
     
     public void setHunger(double hunger) {
-        this.hunger = Math.max(0, Math.min(100, hunger));
+        hunger = Math.max(0, Math.min(100, hunger));
+        if (hunger != this.hunger) {
+            this.hunger = hunger;
+            version++;
+        }
+        changed = true;
     }
     
     public void setHappiness(double happiness) {
-        this.happiness = Math.max(0, Math.min(100, happiness));  
+        happiness = Math.max(0, Math.min(100, happiness));
+        if (happiness != this.happiness) {
+            this.happiness = happiness;
+            version++;
+        }
+        changed = true;
     }
     
     public void setSleep(double sleep) {
-        this.sleep = Math.max(0, Math.min(100, sleep)); 
+        sleep = Math.max(0, Math.min(100, sleep));
+        if (sleep != this.sleep) {
+            this.sleep = sleep;
+            version++;
+        }
+        changed = true;
     }
 
     public void setState(PetState state) {
-        this.state = state;
+        if (state != this.state) {
+            this.state = state;
+            version++;
+        }
+        changed = true;
+    }
+
+    /**
+     * Returns the number of changes made to the pet's values.
+     * <br><br>
+     * Two equal versions of the same pet mean that nothing changed in between.
+     * 
+     * @return The version of the pet
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Registers a listener which is told when a stat moves to or below a threshold, or back above it.
+     * 
+     * @param stat The stat to watch
+     * @param threshold The threshold to watch (e.g. 25 for a low health warning)
+     * @param listener The listener to notify
+     */
+    public void addThresholdListener(PetStat stat, double threshold, PetListener listener) {
+        thresholds.add(new Threshold(stat, threshold, listener, stat.get(this) <= threshold));
+    }
+
+    /**
+     * Registers a listener which is told about state changes and changes to displayed stats.
+     * 
+     * @param listener The listener to notify
+     */
+    public void addListener(PetListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener from every threshold and change it was registered for.
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeListener(PetListener listener) {
+        listeners.remove(listener);
+        thresholds.removeIf(t -> t.listener == listener);
+    }
+
+    /**
+     * Notifies listeners of everything that changed since the last publish.
+     * <br><br>
+     * This is called once per tick. Values are compared against the last publish, so
+     * a stat which dips below a threshold and recovers within one tick does not notify
+     * anyone. If nothing was set since the last publish this returns immediately.
+     */
+    public void publishChanges() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        // Threshold crossings
+        for (int i = 0; i < thresholds.size(); i++) {
+            Threshold threshold = thresholds.get(i);
+            boolean below = threshold.stat.get(this) <= threshold.value;
+            if (below != threshold.below) {
+                threshold.below = below;
+                threshold.listener.thresholdCrossed(this, threshold.stat, threshold.value, below);
+            }
+        }
+        // State transitions
+        if (state != publishedState) {
+            PetState previous = publishedState;
+            publishedState = state;
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).stateChanged(this, previous, state);
+            }
+        }
+        // Changes to the whole number part of a stat
+        boolean statsChanged = false;
+        for (PetStat stat : STATS) {
+            int value = (int) stat.get(this);
+            if (value != publishedStats[stat.ordinal()]) {
+                publishedStats[stat.ordinal()] = value;
+                statsChanged = true;
+            }
+        }
+        if (statsChanged) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).statsChanged(this);
+            }
+        }
+    }
+
+    /**
+     * Records the current values as published without notifying anyone.
+     */
+    private void markPublished() {
+        publishedState = state;
+        for (PetStat stat : STATS) {
+            publishedStats[stat.ordinal()] = (int) stat.get(this);
+        }
     }
 
     /**
@@ -144,6 +307,7 @@ public class Pet {
             return;   
         }
         
+        PetState previous = state;
         if (health <= 0) {
             state = PetState.DEAD;
         } else if (sleep <= 0.5) {
@@ -155,5 +319,8 @@ public class Pet {
         } else {
             state = PetState.NORMAL;
         }
+        if (state != previous) {
+            changed = true;
+        }
     }
 }
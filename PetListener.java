@@ -0,0 +1,49 @@
+/**
+ * Listens for changes to a pet which are worth reacting to.
+ * <br><br>
+ * A pet does not call its listeners from its setters. Changes are collected during a
+ * tick and published once by {@link Pet#publishChanges()}, so a listener hears about
+ * the net change in a tick rather than every intermediate value.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   pet.addThresholdListener(PetStat.HEALTH, 25, new PetListener() {
+ *       public void thresholdCrossed(Pet pet, PetStat stat, double threshold, boolean below) {
+ *           // Warn the user
+ *       }
+ *   });
+ * }
+ * </pre>
+ *
+ * @see Pet
+ * @see PetStat
+ */
+public interface PetListener {
+    /**
+     * Called when a stat moves to or below a threshold, or back above it.
+     *
+     * @param pet The pet which changed
+     * @param stat The stat which crossed the threshold
+     * @param threshold The threshold that was crossed
+     * @param below true if the stat is now at or below the threshold, false if it is above it
+     */
+    default void thresholdCrossed(Pet pet, PetStat stat, double threshold, boolean below) {}
+
+    /**
+     * Called when the pet's state changes (e.g. from NORMAL to SLEEPING).
+     *
+     * @param pet The pet which changed
+     * @param previous The state at the last publish
+     * @param current The current state
+     */
+    default void stateChanged(Pet pet, PetState previous, PetState current) {}
+
+    /**
+     * Called when the whole number part of any stat changes, which is the
+     * precision the status bars display.
+     *
+     * @param pet The pet which changed
+     */
+    default void statsChanged(Pet pet) {}
+}
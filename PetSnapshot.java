@@ -0,0 +1,152 @@
+/**
+ * An immutable copy of everything the gameplay screen shows about a game at one moment.
+ * <br><br>
+ * The simulation thread owns the live {@link Pet} and {@link Inventory}. After a tick
+ * which changed something visible it publishes a new PetSnapshot, and the Swing thread
+ * renders from the latest snapshot without taking any locks. Since a snapshot is built
+ * in one place after a tick, its values always belong to the same tick.
+ *
+ * @see GameController
+ * @see GameplayPanel
+ */
+public final class PetSnapshot {
+    /** The name of the pet */
+    private final String name;
+    /** The type of the pet */
+    private final String type;
+    /** The state of the pet */
+    private final PetState state;
+    /** The health of the pet */
+    private final double health;
+    /** The hunger of the pet */
+    private final double hunger;
+    /** The happiness of the pet */
+    private final double happiness;
+    /** The sleep of the pet */
+    private final double sleep;
+    /** The score of the game */
+    private final int score;
+    /** The count of each item in the inventory, indexed by Item ordinal */
+    private final int[] items;
+    /** Whether the vet is off cooldown */
+    private final boolean allowVet;
+    /** Whether walking is off cooldown */
+    private final boolean allowWalk;
+    /** Whether playing is off cooldown */
+    private final boolean allowPlay;
+
+    /** The items, cached so that snapshots do not allocate a values array */
+    private static final Item[] ITEMS = Item.values();
+
+    /**
+     * Constructor for the PetSnapshot class, copies the current values of a game.
+     *
+     * @param pet The pet to copy
+     * @param inventory The inventory to copy
+     * @param score The score of the game
+     * @param allowVet Whether the vet is off cooldown
+     * @param allowWalk Whether walking is off cooldown
+     * @param allowPlay Whether playing is off cooldown
+     */
+    public PetSnapshot(Pet pet, Inventory inventory, int score, boolean allowVet, boolean allowWalk,
+            boolean allowPlay) {
+        this.name = pet.getName();
+        this.type = pet.getType();
+        this.state = pet.getState();
+        this.health = pet.getHealth();
+        this.hunger = pet.getHunger();
+        this.happiness = pet.getHappiness();
+        this.sleep = pet.getSleep();
+        this.score = score;
+        this.items = new int[ITEMS.length];
+        for (Item item : ITEMS) {
+            items[item.ordinal()] = inventory.getCount(item);
+        }
+        this.allowVet = allowVet;
+        this.allowWalk = allowWalk;
+        this.allowPlay = allowPlay;
+    }
+
+    /**
+     * Creates a snapshot of a pet on its own, with an empty inventory and no cooldowns.
+     *
+     * @param pet The pet to copy
+     * @return A snapshot of the pet
+     */
+    public static PetSnapshot of(Pet pet) {
+        return new PetSnapshot(pet, new Inventory(), 0, true, true, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public PetState getState() {
+        return state;
+    }
+
+    public double getHealth() {
+        return health;
+    }
+
+    public double getHunger() {
+        return hunger;
+    }
+
+    public double getHappiness() {
+        return happiness;
+    }
+
+    public double getSleep() {
+        return sleep;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isVetAllowed() {
+        return allowVet;
+    }
+
+    public boolean isWalkAllowed() {
+        return allowWalk;
+    }
+
+    public boolean isPlayAllowed() {
+        return allowPlay;
+    }
+
+    /**
+     * Returns the count of an item in the inventory when the snapshot was taken.
+     *
+     * @param item The item to get the count for
+     * @return The count of the item
+     */
+    public int getCount(Item item) {
+        return items[item.ordinal()];
+    }
+
+    /**
+     * Returns the value of a stat when the snapshot was taken.
+     *
+     * @param stat The stat to read
+     * @return The value of the stat
+     */
+    public double get(PetStat stat) {
+        switch (stat) {
+            case HEALTH:
+                return health;
+            case HUNGER:
+                return hunger;
+            case HAPPINESS:
+                return happiness;
+            default:
+                return sleep;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * The stats of a pet which can be watched for threshold crossings.
+ *
+ * @see Pet
+ * @see PetListener
+ */
+enum PetStat {
+    HEALTH,
+    HUNGER,
+    HAPPINESS,
+    SLEEP;
+
+    /**
+     * Reads the value of this stat from a pet.
+     *
+     * @param pet The pet to read from
+     * @return The current value of this stat
+     */
+    public double get(Pet pet) {
+        switch (this) {
+            case HEALTH:
+                return pet.getHealth();
+            case HUNGER:
+                return pet.getHunger();
+            case HAPPINESS:
+                return pet.getHappiness();
+            default:
+                return pet.getSleep();
+        }
+    }
+
+    /**
+     * Writes the value of this stat to a pet.
+     *
+     * @param pet The pet to write to
+     * @param value The new value of this stat
+     */
+    public void set(Pet pet, double value) {
+        switch (this) {
+            case HEALTH:
+                pet.setHealth(value);
+                break;
+            case HUNGER:
+                pet.setHunger(value);
+                break;
+            case HAPPINESS:
+                pet.setHappiness(value);
+                break;
+            default:
+                pet.setSleep(value);
+                break;
+        }
+    }
+}
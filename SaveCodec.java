@@ -0,0 +1,329 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Reads and writes save files in one streaming pass, without building a JSON tree.
+ * <br><br>
+ * The parser reads each property straight into a local variable and the generator
+ * writes each property straight from the {@link SaveData}, using property names which
+ * are encoded once. Reading a save therefore only allocates the parser, its strings
+ * and the SaveData. Unknown properties, including nested objects and arrays, are
+ * skipped so that saves written by a newer version of the game can still be read.
+ * <br><br>
+ * Every save ends with a "crc32c" property holding the CRC32C checksum of all the
+ * bytes before it. A save whose checksum does not match is rejected, so a file which
+ * was damaged on disk is never mistaken for a real save. Apart from the checksum the
+ * files are identical to the ones written by {@link JsonCodec#SAVE_WRITER}.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveData data = SaveCodec.read(new File("saves/save1.json"));
+ *   SaveCodec.write(new File("saves/save2.json"), data);
+ * }
+ * </pre>
+ *
+ * @see SaveData
+ * @see SaveManager
+ */
+public final class SaveCodec {
+    /** The property names, encoded once */
+    private static final SerializableString APPLES = new SerializedString("apples");
+    private static final SerializableString BANANAS = new SerializedString("bananas");
+    private static final SerializableString PURPLE_GIFTS = new SerializedString("purplegifts");
+    private static final SerializableString GREEN_GIFTS = new SerializedString("greengifts");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString STATE = new SerializedString("state");
+    private static final SerializableString HEALTH = new SerializedString("health");
+    private static final SerializableString HUNGER = new SerializedString("hunger");
+    private static final SerializableString HAPPINESS = new SerializedString("happiness");
+    private static final SerializableString SLEEP = new SerializedString("sleep");
+    private static final SerializableString SCORE = new SerializedString("score");
+    /** The start of the checksum property, which is always the last property of a save */
+    private static final byte[] CHECKSUM_MARKER = ",\"crc32c\":".getBytes(StandardCharsets.US_ASCII);
+
+    private SaveCodec() {}
+
+    /**
+     * Reads a save file.
+     *
+     * @param file The save file
+     * @return The contents of the file
+     * @throws IOException If the file cannot be read, is not a save or fails its checksum
+     */
+    public static SaveData read(File file) throws IOException {
+        return decode(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Reads a save from a stream.
+     *
+     * @param in The stream to read, it is closed once the save has been read
+     * @return The save
+     * @throws IOException If the stream cannot be read, is not a save or fails its checksum
+     */
+    public static SaveData read(InputStream in) throws IOException {
+        try (in) {
+            return decode(in.readAllBytes());
+        }
+    }
+
+    /**
+     * Reads a save from bytes in memory.
+     *
+     * @param json The UTF-8 JSON of the save
+     * @return The save
+     * @throws IOException If the bytes are not a save or fail their checksum
+     */
+    public static SaveData read(byte[] json) throws IOException {
+        return decode(json);
+    }
+
+    /**
+     * Checks the checksum of a save and reads it.
+     * <br><br>
+     * Saves written before checksums were added have no checksum, and are read as they are.
+     *
+     * @param json The UTF-8 JSON of the save
+     * @return The save
+     * @throws IOException If the bytes are not a save or fail their checksum
+     */
+    public static SaveData decode(byte[] json) throws IOException {
+        verifyChecksum(json);
+        try (JsonParser parser = JsonCodec.FACTORY.createParser(json)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Checks that the checksum at the end of a save matches the bytes before it.
+     *
+     * @param json The UTF-8 JSON of the save
+     * @throws IOException If the save has a checksum and it does not match
+     */
+    static void verifyChecksum(byte[] json) throws IOException {
+        int marker = lastIndexOf(json, CHECKSUM_MARKER);
+        if (marker < 0) {
+            return;
+        }
+        long expected = 0;
+        int i = marker + CHECKSUM_MARKER.length;
+        int digits = 0;
+        for (; i < json.length && json[i] >= '0' && json[i] <= '9' && digits < 10; i++, digits++) {
+            expected = expected * 10 + (json[i] - '0');
+        }
+        if (digits == 0 || i >= json.length || json[i] != '}') {
+            throw new IOException("Save has a malformed checksum");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(json, 0, marker);
+        if (crc.getValue() != expected) {
+            throw new IOException("Save checksum does not match, expected " + expected + " but was " + crc.getValue());
+        }
+    }
+
+    /**
+     * Returns the index of the last occurrence of a sequence of bytes.
+     *
+     * @param bytes The bytes to search
+     * @param target The sequence to find
+     * @return The index of the sequence, or -1 if it does not occur
+     */
+    private static int lastIndexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = bytes.length - target.length; i >= 0; i--) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a save object from a parser.
+     * <br><br>
+     * Missing properties are read as 0 or null, numbers are read as whole numbers
+     * where the schema expects one, and unknown properties are skipped.
+     *
+     * @param parser The parser, positioned before the save object
+     * @return The save
+     * @throws IOException If the parser's input is not a save
+     */
+    static SaveData read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a save object");
+        }
+        int apples = 0;
+        int bananas = 0;
+        int purpleGifts = 0;
+        int greenGifts = 0;
+        String name = null;
+        String type = null;
+        String state = null;
+        double health = 0;
+        double hunger = 0;
+        double happiness = 0;
+        double sleep = 0;
+        int score = 0;
+
+        String field;
+        // Property names are interned by the parser, so switching on them does not copy them
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "apples":
+                    apples = parser.getValueAsInt();
+                    break;
+                case "bananas":
+                    bananas = parser.getValueAsInt();
+                    break;
+                case "purplegifts":
+                    purpleGifts = parser.getValueAsInt();
+                    break;
+                case "greengifts":
+                    greenGifts = parser.getValueAsInt();
+                    break;
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "type":
+                    type = parser.getValueAsString();
+                    break;
+                case "state":
+                    state = parser.getValueAsString();
+                    break;
+                case "health":
+                    health = parser.getValueAsDouble();
+                    break;
+                case "hunger":
+                    hunger = parser.getValueAsDouble();
+                    break;
+                case "happiness":
+                    happiness = parser.getValueAsDouble();
+                    break;
+                case "sleep":
+                    sleep = parser.getValueAsDouble();
+                    break;
+                case "score":
+                    score = parser.getValueAsInt();
+                    break;
+                default:
+                    // A property from a newer version of the game
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Expected a property or the end of the save object");
+        }
+        return new SaveData(apples, bananas, purpleGifts, greenGifts, name, type, state, health, hunger, happiness,
+                sleep, score);
+    }
+
+    /**
+     * Encodes a save as UTF-8 JSON, ending with the checksum of everything before it.
+     *
+     * @param data The save to encode
+     * @return The bytes of the save file
+     * @throws IOException If the save cannot be encoded
+     */
+    public static byte[] encode(SaveData data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try (JsonGenerator generator = JsonCodec.FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            write(generator, data);
+        }
+        byte[] json = out.toByteArray();
+        // Replace the closing brace with the checksum property, then close the object again
+        int body = json.length - 1;
+        CRC32C crc = new CRC32C();
+        crc.update(json, 0, body);
+        byte[] checksum = Long.toString(crc.getValue()).getBytes(StandardCharsets.US_ASCII);
+        byte[] encoded = Arrays.copyOf(json, body + CHECKSUM_MARKER.length + checksum.length + 1);
+        System.arraycopy(CHECKSUM_MARKER, 0, encoded, body, CHECKSUM_MARKER.length);
+        System.arraycopy(checksum, 0, encoded, body + CHECKSUM_MARKER.length, checksum.length);
+        encoded[encoded.length - 1] = '}';
+        return encoded;
+    }
+
+    /**
+     * Writes a save file in place.
+     * <br><br>
+     * A crash while writing leaves a truncated file, so the game writes saves through
+     * {@link SaveManager}, which replaces them atomically.
+     *
+     * @param file The save file
+     * @param data The save to write
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(File file, SaveData data) throws IOException {
+        Files.write(file.toPath(), encode(data));
+    }
+
+    /**
+     * Writes a save to a stream.
+     *
+     * @param out The stream to write to, it is closed once the save has been written
+     * @param data The save to write
+     * @throws IOException If the stream cannot be written
+     */
+    public static void write(OutputStream out, SaveData data) throws IOException {
+        try (out) {
+            out.write(encode(data));
+        }
+    }
+
+    /**
+     * Writes a save object to a generator, in the order of {@link SaveData}'s properties.
+     *
+     * @param generator The generator to write to
+     * @param data The save to write
+     * @throws IOException If the generator's output cannot be written
+     */
+    static void write(JsonGenerator generator, SaveData data) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(APPLES);
+        generator.writeNumber(data.apples());
+        generator.writeFieldName(BANANAS);
+        generator.writeNumber(data.bananas());
+        generator.writeFieldName(PURPLE_GIFTS);
+        generator.writeNumber(data.purpleGifts());
+        generator.writeFieldName(GREEN_GIFTS);
+        generator.writeNumber(data.greenGifts());
+        generator.writeFieldName(NAME);
+        generator.writeString(data.name());
+        generator.writeFieldName(TYPE);
+        generator.writeString(data.type());
+        generator.writeFieldName(STATE);
+        generator.writeString(data.state());
+        generator.writeFieldName(HEALTH);
+        generator.writeNumber(data.health());
+        generator.writeFieldName(HUNGER);
+        generator.writeNumber(data.hunger());
+        generator.writeFieldName(HAPPINESS);
+        generator.writeNumber(data.happiness());
+        generator.writeFieldName(SLEEP);
+        generator.writeNumber(data.sleep());
+        generator.writeFieldName(SCORE);
+        generator.writeNumber(data.score());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,59 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Converts saves between the JSON format of older versions and the binary format.
+ * <br><br>
+ * "migrate" rewrites the JSON save of each slot as a binary save, so the game no
+ * longer has to parse JSON to show or load it. The game loads JSON saves on its own,
+ * so migrating is optional. "export" writes the newest save of a slot as readable
+ * JSON, for example to inspect or edit it; an exported file can be placed back as the
+ * slot's JSON save to be loaded.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   java -cp "out:lib/*" SaveConverter migrate
+ *   java -cp "out:lib/*" SaveConverter export 2 pet2.json
+ * }
+ * </pre>
+ *
+ * @see BinarySaveCodec
+ * @see SaveCodec
+ * @see SaveManager#migrate(int)
+ * @see SaveManager#exportJson(int, java.nio.file.Path)
+ */
+public class SaveConverter {
+    /**
+     * Runs the command named by the first argument.
+     *
+     * @param args "migrate" followed by optional slot numbers, or "export", a slot number and a JSON file
+     */
+    public static void main(String[] args) {
+        SaveManager saveManager = new SaveManager();
+        try {
+            if (args.length >= 1 && args[0].equals("migrate")) {
+                int[] slots = new int[args.length > 1 ? args.length - 1 : SaveManager.SLOTS];
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = args.length > 1 ? Integer.parseInt(args[i + 1]) : i + 1;
+                }
+                for (int slot : slots) {
+                    System.out.println("Slot " + slot + ": " + (saveManager.migrate(slot) ? "migrated" : "up to date"));
+                }
+            } else if (args.length == 3 && args[0].equals("export")) {
+                int slot = Integer.parseInt(args[1]);
+                if (!saveManager.exportJson(slot, Paths.get(args[2]))) {
+                    System.err.println("Slot " + slot + " has no save to export");
+                    System.exit(1);
+                }
+            } else {
+                System.err.println("Usage: java SaveConverter migrate [slot...]");
+                System.err.println("       java SaveConverter export <slot> <json file>");
+                System.exit(2);
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to convert saves: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The contents of a save file, in the order they are written.
+ * <br><br>
+ * This is the schema of the JSON save files, read and written by the streaming
+ * {@link SaveCodec} (or through {@link JsonCodec#SAVE_READER} and
+ * {@link JsonCodec#SAVE_WRITER}). Properties missing from a file are read as 0 or
+ * null, and unknown properties are ignored.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveData data = SaveData.of(gameController.getSnapshot());
+ *   SaveCodec.write(file, data);
+ * }
+ * </pre>
+ *
+ * @param apples The number of apples in the inventory
+ * @param bananas The number of bananas in the inventory
+ * @param purpleGifts The number of purple gifts in the inventory
+ * @param greenGifts The number of green gifts in the inventory
+ * @param name The name of the pet
+ * @param type The type of the pet
+ * @param state The state of the pet, in lower case
+ * @param health The health of the pet
+ * @param hunger The hunger of the pet
+ * @param happiness The happiness of the pet
+ * @param sleep The sleep of the pet
+ * @param score The score of the game
+ */
+public record SaveData(
+        int apples,
+        int bananas,
+        @JsonProperty("purplegifts") int purpleGifts,
+        @JsonProperty("greengifts") int greenGifts,
+        String name,
+        String type,
+        String state,
+        double health,
+        double hunger,
+        double happiness,
+        double sleep,
+        int score) {
+
+    /**
+     * Creates the save data of a snapshot of a game.
+     *
+     * @param snapshot The snapshot of the pet, inventory and score
+     * @return The save data of the snapshot
+     */
+    public static SaveData of(PetSnapshot snapshot) {
+        return new SaveData(
+                snapshot.getCount(Item.APPLE),
+                snapshot.getCount(Item.BANANA),
+                snapshot.getCount(Item.PURPLEGIFT),
+                snapshot.getCount(Item.GREENGIFT),
+                snapshot.getName(),
+                snapshot.getType(),
+                snapshot.getState().toString().toLowerCase(),
+                snapshot.getHealth(),
+                snapshot.getHunger(),
+                snapshot.getHappiness(),
+                snapshot.getSleep(),
+                snapshot.getScore());
+    }
+}
@@ -1,14 +1,27 @@
-import java.io.File;
-
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
 
 /**
- * Handles saving and loading game data to and from JSON files.
+ * Handles saving and loading game data to and from save files.
  * <br><br>
  * This class provides methods to save the current state of the game, including
- * the pet's attributes and inventory, to a JSON file. It also allows loading the game
- * state from a JSON file, restoring the pet's attributes and inventory.
+ * the pet's attributes and inventory, to a save file. It also allows loading the game
+ * state from a save file, restoring the pet's attributes and inventory. Saves are
+ * written as {@link SaveData} in the compact binary format of {@link BinarySaveCodec}.
+ * Slots saved by older versions of the game as JSON (read by {@link SaveCodec}) are
+ * still loaded, and are replaced by a binary save the next time the slot is saved or
+ * when they are migrated with {@link SaveConverter}.
  * <br><br>
  * 
  * <b>Example Use:</b>
@@ -20,117 +33,535 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  *    saveManager.saveGame(pet, inventory, 1, 1000);
  * }
  * </pre>
+ * <br><br>
+ * Saves are kept in a {@link SaveRepository}, chosen with -Dpetcrossing.saves.backend,
+ * by default one file per record in the "saves" directory. Saves are crash-safe. Each
+ * record is replaced atomically, so it always holds either the old or the new save
+ * and never half of one. The previous save is kept as a ".bak" record next to it, and
+ * every save carries a checksum (see {@link SaveCodec}). If the slot's save is
+ * damaged or missing, loading falls back to the previous save.
+ * <br><br>
+ * Every save and load is emitted as a {@link JfrEvents.Save} or {@link JfrEvents.Load}
+ * when a JFR recording is running.
+ * <br><br>
+ * While a game is running, saves should be written from a {@link PetSnapshot} through
+ * a {@link SaveService}, so that the file is written on a background thread and never
+ * holds values from two different ticks.
+ * <br><br>
+ * Autosave checkpoints are kept next to each slot's save in a ring of
+ * {@link #CHECKPOINTS} files, the oldest of which is replaced by each new checkpoint.
+ * Loading a slot reads the newest intact save of the slot, its checkpoints and its
+ * backup, so a session which ended without saving resumes from its last checkpoint.
+ * <br><br>
+ * Every write also updates the {@link SlotIndex}, a summary of each slot which the
+ * load screen lists with {@link #listSlots()} instead of reading every save.
  * 
  * @see Pet
+ * @see PetSnapshot
  * @see Inventory
  * @see PetState
  * @see Item
  * @see Tuple
+ * @see SaveCodec
+ * @see SaveRepository
  */
 public class SaveManager {
+    private static final Logger LOGGER = Logger.getLogger(SaveManager.class.getName());
+    /** The extension of binary save files */
+    static final String EXTENSION = ".sav";
+    /** The extension of JSON save files, written by older versions and by exports */
+    static final String JSON_EXTENSION = ".json";
+    /** The number of save slots which are always offered, more are created as they are used */
+    static final int SLOTS = 3;
+    /** The key of the slot index, next to the saves */
+    static final String INDEX_FILE = "slots.idx";
+    /** Guards reading and rewriting the slot index, which every SaveManager shares */
+    private static final Object INDEX_LOCK = new Object();
+    /** The repositories whose slot index rows have been compared with their saves in this process */
+    private static final Set<SaveRepository> VERIFIED_INDEXES = Collections.newSetFromMap(new WeakHashMap<>());
+    /** The number of autosave checkpoints kept for each slot, set with -Dpetcrossing.autosave.checkpoints */
+    static final int CHECKPOINTS = Math.max(1, Integer.getInteger("petcrossing.autosave.checkpoints", 3));
+    /** The configured repository, shared by every SaveManager created without one */
+    private static SaveRepository configuredRepository;
+
+    /** The repository the saves are kept in */
+    private final SaveRepository repository;
 
     /**
      * Default constructor for SaveManager.
      * <br><br>
-     * Initializes a new instance of the SaveManager class. 
-     * Does not have attributes or methods to initialize.
+     * Initializes a new instance of the SaveManager class, which keeps its saves in
+     * the repository configured by {@link SaveRepository#configured()}.
      */
-    public SaveManager() {}
+    public SaveManager() {
+        this(getConfiguredRepository());
+    }
+
+    /**
+     * Constructor for SaveManager which keeps its saves in a given repository.
+     * 
+     * @param repository The repository the saves are kept in.
+     */
+    public SaveManager(SaveRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Returns the configured repository, opening it on first use.
+     *
+     * @return The repository shared by every SaveManager created without one.
+     */
+    private static synchronized SaveRepository getConfiguredRepository() {
+        if (configuredRepository == null) {
+            configuredRepository = SaveRepository.configured();
+        }
+        return configuredRepository;
+    }
+
+    /**
+     * Returns the repository the saves are kept in.
+     *
+     * @return The repository.
+     */
+    public SaveRepository getRepository() {
+        return repository;
+    }
 
     /**
      * Loads the game state from a specified save slot.
      * <br><br>
-     * This method reads the JSON file corresponding to the specified save slot,
-     * and restores the pet's attributes and inventory. If the file does not exist
-     * or is invalid, it returns tuples null values.
+     * This method reads the save file corresponding to the specified save slot,
+     * and restores the pet's attributes and inventory. If an autosave checkpoint of
+     * the slot is newer, it is loaded instead, and if the file is damaged the next
+     * newest checkpoint or previous save is loaded. If none exists or is valid,
+     * it returns tuples null values.
      * 
-     * @param slot The save slot number (1, 2, or 3) to load from.
+     * @param slot The save slot number to load from.
      * @return A Tuple containing the Pet object and a Tuple of Inventory and score.
      */
     public Tuple<Pet, Tuple<Inventory, Integer>> loadGame(int slot) {
-        // Variables for Pet and Inventory objects and the game score
-        Pet pet = null;
-        int apples = 0;
-        int bananas = 0;
-        int purpleGifts = 0;
-        int greenGifts = 0;
-        int score = 0;
-
+        JfrEvents.Load event = new JfrEvents.Load();
+        event.begin();
         Tuple<Pet, Tuple<Inventory, Integer>> saveData;
         try {
-            File file = new File("saves\\save" + slot + ".json");
-            ObjectMapper objectMapper = new ObjectMapper();
-
-            // Read each attribute from the JSON file
-            JsonNode rootNode = objectMapper.readTree(file);
-
-            apples = rootNode.path("apples").asInt();
-            bananas = rootNode.path("bananas").asInt();
-            purpleGifts = rootNode.path("purplegifts").asInt();
-            greenGifts = rootNode.path("greengifts").asInt();
-
-            String name = rootNode.path("name").asText();
-            String type = rootNode.path("type").asText();
-
-            int health = rootNode.path("health").asInt();
-            int hunger = rootNode.path("hunger").asInt();
-            int happiness = rootNode.path("happiness").asInt();
-            int sleep = rootNode.path("sleep").asInt();
-            String state = rootNode.path("state").asText();
-            score = rootNode.path("score").asInt();
-
-            PetState petState = PetState.valueOf(state.toUpperCase());
-            // If the state is not found, set it to NORMAL
-            if (petState == null) {
-                petState = PetState.NORMAL;
+            StoredSave save = readNewestValid(slot);
+            if (save == null) {
+                throw new IOException("Save slot " + slot + " is empty");
             }
-
-            pet = new Pet(name, type, health, hunger, happiness, sleep);
-            pet.setState(PetState.valueOf(state.toUpperCase()));
-            saveData = new Tuple<>(pet, new Tuple<>(new Inventory(apples, bananas, purpleGifts, greenGifts), Integer.valueOf(score)));  
+            saveData = toGame(save.data());
         } catch (Exception e) {
             // If an error occurs, return null values
             saveData = new Tuple<>(null, new Tuple<>(null, null));
         }
+        if (event.shouldCommit()) {
+            event.slot = slot;
+            event.found = saveData.x != null;
+            event.pet = saveData.x == null ? null : saveData.x.getName();
+            event.commit();
+        }
         return saveData;
     }
 
+    /**
+     * Creates the pet, inventory and score of a save.
+     * 
+     * @param data The save.
+     * @return A Tuple containing the Pet object and a Tuple of Inventory and score.
+     */
+    static Tuple<Pet, Tuple<Inventory, Integer>> toGame(SaveData data) {
+        // Stats are restored as whole numbers
+        Pet pet = new Pet(data.name(), data.type(), (int) data.health(), (int) data.hunger(),
+                (int) data.happiness(), (int) data.sleep());
+        pet.setState(PetState.valueOf(data.state().toUpperCase()));
+        Inventory inventory = new Inventory(data.apples(), data.bananas(), data.purpleGifts(), data.greenGifts());
+        return new Tuple<>(pet, new Tuple<>(inventory, Integer.valueOf(data.score())));
+    }
+
+    /**
+     * A save read from a record, with the record's bytes.
+     *
+     * @param key The key of the record the save was read from
+     * @param contents The bytes of the record
+     * @param data The save
+     */
+    private record StoredSave(String key, byte[] contents, SaveData data) {}
+
+    /**
+     * Reads the newest save of a slot which is intact.
+     * <br><br>
+     * The slot's save, its checkpoints, its previous save and its JSON save from an
+     * older version are tried from the most recently written to the least. The slot's
+     * save is only missing while a save is between its two renames, or if the slot has
+     * never been saved.
+     *
+     * @param slot The save slot number.
+     * @return The newest valid save of the slot, or null if there is none.
+     */
+    private StoredSave readNewestValid(int slot) {
+        String key = getSaveKey(slot);
+        List<String> candidates = new ArrayList<>(CHECKPOINTS + 3);
+        candidates.add(key);
+        for (int i = 0; i < CHECKPOINTS; i++) {
+            candidates.add(getCheckpointKey(slot, i));
+        }
+        candidates.add(key + SaveRepository.BACKUP_SUFFIX);
+        candidates.add(getJsonKey(slot));
+        Map<String, Long> modified = new HashMap<>();
+        for (String candidate : candidates) {
+            modified.put(candidate, repository.lastModified(candidate));
+        }
+        candidates.removeIf(candidate -> modified.get(candidate) < 0);
+        // Stable, so the slot's save wins a tie with a checkpoint written in the same instant
+        candidates.sort(Comparator.comparing(modified::get, Comparator.reverseOrder()));
+        for (String candidate : candidates) {
+            try {
+                byte[] contents = repository.read(candidate);
+                if (contents == null) {
+                    continue;
+                }
+                return new StoredSave(candidate, contents, decode(contents));
+            } catch (IOException e) {
+                LOGGER.warning("Save " + candidate + " is damaged (" + e.getMessage() + "), loading an older save");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a save file in either format.
+     *
+     * @param file The save file, binary or JSON.
+     * @return The contents of the file.
+     * @throws IOException If the file cannot be read, is not a save or fails its checksum.
+     */
+    static SaveData read(Path file) throws IOException {
+        return decode(Files.readAllBytes(file));
+    }
+
+    /**
+     * Decodes the bytes of a save file in either format.
+     *
+     * @param bytes The bytes of the save file.
+     * @return The save.
+     * @throws IOException If the bytes are not a save or fail their checksum.
+     */
+    private static SaveData decode(byte[] bytes) throws IOException {
+        return BinarySaveCodec.isBinary(bytes) ? BinarySaveCodec.decode(bytes) : SaveCodec.decode(bytes);
+    }
+
+    /**
+     * Rewrites the JSON save of a slot from an older version as a binary save.
+     * <br><br>
+     * Nothing is written if the slot has no JSON save, or already has a binary save
+     * which is at least as new. The JSON file is left in place.
+     *
+     * @param slot The save slot number.
+     * @return true if the slot was migrated.
+     * @throws IOException If the JSON save cannot be read or the binary save cannot be written.
+     */
+    public boolean migrate(int slot) throws IOException {
+        String json = getJsonKey(slot);
+        long jsonModified = repository.lastModified(json);
+        if (jsonModified < 0 || repository.lastModified(getSaveKey(slot)) >= jsonModified) {
+            return false;
+        }
+        byte[] jsonContents = repository.read(json);
+        if (jsonContents == null) {
+            return false;
+        }
+        SaveData data = decode(jsonContents);
+        byte[] contents = BinarySaveCodec.encode(data);
+        repository.write(getSaveKey(slot), contents, true);
+        updateIndex(slot, data, getSaveKey(slot), contents);
+        return true;
+    }
+
+    /**
+     * Exports the newest save of a slot as readable JSON.
+     *
+     * @param slot The save slot number.
+     * @param target The JSON file to write.
+     * @return true if the slot had a save to export.
+     * @throws IOException If the JSON file cannot be written.
+     */
+    public boolean exportJson(int slot, Path target) throws IOException {
+        StoredSave save = readNewestValid(slot);
+        if (save == null) {
+            return false;
+        }
+        FileSaveRepository.writeAtomically(target, SaveCodec.encode(save.data()), false);
+        return true;
+    }
+
     /**
      * Saves the current game state to a specified save slot.
      * <br><br>
-     * This method writes the pet's attributes, an inventory and a score to a JSON file
+     * This method writes the pet's attributes, an inventory and a score to a save file
      * corresponding to the specified save slot. If the file cannot be created or written to,
      * it returns false.
      * 
      * @param pet The Pet object.
      * @param inventory The Inventory object.
-     * @param saveSlot The save slot number (1, 2, or 3) to save to.
+     * @param saveSlot The save slot number to save to.
      * @param score The current score of the game.
      * @return true if the game was saved successfully, false otherwise.
      */
     public boolean saveGame(Pet pet, Inventory inventory, int saveSlot, int score) {
+        return saveGame(new PetSnapshot(pet, inventory, score, true, true, true), saveSlot);
+    }
+
+    /**
+     * Saves a snapshot of a game to a specified save slot.
+     * 
+     * @param snapshot The snapshot of the pet, inventory and score.
+     * @param saveSlot The save slot number to save to.
+     * @return true if the game was saved successfully, false otherwise.
+     */
+    public boolean saveGame(PetSnapshot snapshot, int saveSlot) {
+        JfrEvents.Save event = new JfrEvents.Save();
+        event.begin();
+        boolean saved = writeSave(snapshot, saveSlot, false);
+        if (event.shouldCommit()) {
+            event.slot = saveSlot;
+            event.pet = snapshot.getName();
+            event.success = saved;
+            event.commit();
+        }
+        return saved;
+    }
+
+    /**
+     * Saves a snapshot of a game as an autosave checkpoint of a save slot.
+     * <br><br>
+     * The checkpoint replaces the oldest of the slot's {@link #CHECKPOINTS} checkpoints,
+     * and leaves the slot's save and its backup as they are.
+     * 
+     * @param snapshot The snapshot of the pet, inventory and score.
+     * @param saveSlot The save slot number to checkpoint.
+     * @return true if the checkpoint was saved successfully, false otherwise.
+     */
+    public boolean saveCheckpoint(PetSnapshot snapshot, int saveSlot) {
+        JfrEvents.Save event = new JfrEvents.Save();
+        event.begin();
+        boolean saved = writeSave(snapshot, saveSlot, true);
+        if (event.shouldCommit()) {
+            event.slot = saveSlot;
+            event.pet = snapshot.getName();
+            event.success = saved;
+            event.checkpoint = true;
+            event.commit();
+        }
+        return saved;
+    }
+
+    /**
+     * Writes a snapshot of a game to the save of a slot or to its oldest checkpoint.
+     * 
+     * @param snapshot The snapshot of the pet, inventory and score.
+     * @param saveSlot The save slot number to save to.
+     * @param checkpoint Whether to write a checkpoint instead of the slot's save.
+     * @return true if the save was written, false otherwise.
+     */
+    private boolean writeSave(PetSnapshot snapshot, int saveSlot, boolean checkpoint) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            File file = new File("saves\\save" + saveSlot + ".json");
-
-            JsonNode petNode = objectMapper.createObjectNode()
-                    .put("apples", inventory.getCount(Item.APPLE))
-                    .put("bananas", inventory.getCount(Item.BANANA))
-                    .put("purplegifts", inventory.getCount(Item.PURPLEGIFT))
-                    .put("greengifts", inventory.getCount(Item.GREENGIFT))
-                    .put("name", pet.getName())
-                    .put("type", pet.getType())
-                    .put("state", pet.getState().toString().toLowerCase())
-                    .put("health", pet.getHealth())
-                    .put("hunger", pet.getHunger())
-                    .put("happiness", pet.getHappiness())
-                    .put("sleep", pet.getSleep())
-                    .put("score", score);
-
-            objectMapper.writeValue(file, petNode);
+            SaveData data = SaveData.of(snapshot);
+            byte[] contents = BinarySaveCodec.encode(data);
+            // The ring of checkpoints is its own history, so no backup is kept
+            String key = checkpoint ? getOldestCheckpoint(saveSlot) : getSaveKey(saveSlot);
+            repository.write(key, contents, !checkpoint);
+            updateIndex(saveSlot, data, key, contents);
         } catch (Exception e) {
+            LOGGER.warning("Failed to save " + (checkpoint ? "a checkpoint of " : "") + "slot " + saveSlot + ": " + e);
             return false; // could not save the game
         }
         return true;
     }
+
+    /**
+     * Returns a summary of every saved slot, for the load screen.
+     * <br><br>
+     * The summaries come from the {@link SlotIndex}, so listing the slots reads one
+     * small record rather than every save, however many slots there are. The index is
+     * rebuilt from the saves if it is missing or damaged.
+     * <br><br>
+     * A crash between writing a save and the index leaves a row older than its slot's
+     * save. Every later write in the same process updates the index, so the first
+     * listing of each index in a process compares the rows with their saves' times,
+     * and reads the slots whose save is newer again.
+     *
+     * @return The summary of each saved slot, by slot number.
+     */
+    public Map<Integer, SlotSummary> listSlots() {
+        synchronized (INDEX_LOCK) {
+            SlotIndex index = readIndex();
+            if (VERIFIED_INDEXES.add(repository)) {
+                boolean stale = false;
+                // The slot after the last one is checked for a new slot's first save
+                int last = Math.max(SLOTS, index.getLastSlot() + 1);
+                for (int slot = 1; slot <= last; slot++) {
+                    SlotSummary summary = index.get(slot);
+                    long modified = repository.lastModified(getSaveKey(slot));
+                    if (modified >= 0 && (summary == null || modified > summary.lastModified())) {
+                        summarize(index, slot);
+                        stale = true;
+                    }
+                }
+                if (stale) {
+                    writeIndex(index);
+                }
+            }
+            return index.getSummaries();
+        }
+    }
+
+    /**
+     * Records a save which has just been written in the slot index.
+     *
+     * @param slot The save slot number.
+     * @param data The save.
+     * @param key The key of the record the save was written to.
+     * @param contents The bytes of the record.
+     */
+    private void updateIndex(int slot, SaveData data, String key, byte[] contents) {
+        SlotSummary summary = SlotSummary.of(slot, data, repository.lastModified(key), checksum(contents));
+        synchronized (INDEX_LOCK) {
+            SlotIndex index = readIndex();
+            index.put(summary);
+            writeIndex(index);
+        }
+    }
+
+    /**
+     * Reads the slot index, rebuilding it from the saves if it is missing or damaged.
+     * <br><br>
+     * This must be called while holding {@link #INDEX_LOCK}.
+     *
+     * @return The slot index.
+     */
+    private SlotIndex readIndex() {
+        try {
+            byte[] contents = repository.read(INDEX_FILE);
+            // Saves written before the index existed have none
+            if (contents != null) {
+                return SlotIndex.decode(contents);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Slot index is damaged (" + e.getMessage() + "), rebuilding it");
+        }
+        SlotIndex index = new SlotIndex();
+        // Slots are created in order, so every slot is found before the first without a save
+        for (int slot = 1; slot <= SLOTS || hasSave(slot); slot++) {
+            summarize(index, slot);
+        }
+        writeIndex(index);
+        return index;
+    }
+
+    /**
+     * Returns whether a slot has been saved, in either format.
+     *
+     * @param slot The save slot number.
+     * @return true if the slot's save, its previous save or its JSON save exists.
+     */
+    private boolean hasSave(int slot) {
+        String key = getSaveKey(slot);
+        return repository.exists(key) || repository.exists(key + SaveRepository.BACKUP_SUFFIX)
+                || repository.exists(getJsonKey(slot));
+    }
+
+    /**
+     * Replaces a slot's row in the index with a summary of its newest valid save.
+     *
+     * @param index The slot index.
+     * @param slot The save slot number.
+     */
+    private void summarize(SlotIndex index, int slot) {
+        StoredSave save = readNewestValid(slot);
+        if (save == null) {
+            index.remove(slot);
+        } else {
+            index.put(SlotSummary.of(slot, save.data(), repository.lastModified(save.key()),
+                    checksum(save.contents())));
+        }
+    }
+
+    /**
+     * Writes the slot index, logging a failure since the index can always be rebuilt.
+     *
+     * @param index The slot index.
+     */
+    private void writeIndex(SlotIndex index) {
+        try {
+            repository.write(INDEX_FILE, index.encode(), false);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to write the slot index: " + e);
+        }
+    }
+
+    /**
+     * Returns the CRC32C of a record's bytes.
+     *
+     * @param contents The bytes of the record.
+     * @return The checksum.
+     */
+    private static int checksum(byte[] contents) {
+        CRC32C crc = new CRC32C();
+        crc.update(contents);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the checkpoint of a slot which the next checkpoint replaces.
+     *
+     * @param slot The save slot number.
+     * @return The key of the first missing checkpoint, or of the least recently written one.
+     */
+    private String getOldestCheckpoint(int slot) {
+        String oldest = null;
+        long oldestModified = Long.MAX_VALUE;
+        for (int i = 0; i < CHECKPOINTS; i++) {
+            String checkpoint = getCheckpointKey(slot, i);
+            long modified = repository.lastModified(checkpoint);
+            if (modified < 0) {
+                return checkpoint;
+            }
+            if (modified < oldestModified) {
+                oldest = checkpoint;
+                oldestModified = modified;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Returns the key a save slot is stored under.
+     *
+     * @param slot The save slot number.
+     * @return The key of the slot's save, such as "save1.sav".
+     */
+    static String getSaveKey(int slot) {
+        return "save" + slot + EXTENSION;
+    }
+
+    /**
+     * Returns the key one of a slot's autosave checkpoints is stored under.
+     *
+     * @param slot The save slot number.
+     * @param index The index of the checkpoint in the slot's ring, from 0 to {@link #CHECKPOINTS} - 1.
+     * @return The key of the checkpoint, such as "save1.checkpoint0.sav".
+     */
+    static String getCheckpointKey(int slot, int index) {
+        return "save" + slot + ".checkpoint" + index + EXTENSION;
+    }
+
+    /**
+     * Returns the key a slot was saved under as JSON by older versions of the game.
+     *
+     * @param slot The save slot number.
+     * @return The key of the JSON save, such as "save1.json".
+     */
+    static String getJsonKey(int slot) {
+        return "save" + slot + JSON_EXTENSION;
+    }
+
 }
@@ -0,0 +1,121 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Stores the records of the saves, such as each slot's save, its checkpoints and the
+ * slot index, by key.
+ * <br><br>
+ * {@link SaveManager} decides what is stored under which key; a repository only keeps
+ * bytes. Each write replaces a record atomically, so a reader sees either the old or
+ * the new contents of a record and never part of one. Three backends are provided:
+ * <ul>
+ * <li>{@link FileSaveRepository}: one file per record in a directory, the default</li>
+ * <li>{@link MemorySaveRepository}: records kept in memory, for tests and benchmarks</li>
+ * <li>{@link StoreSaveRepository}: every record in one append-only file, for installs
+ * with many profiles</li>
+ * </ul>
+ * The backend the game uses is chosen with -Dpetcrossing.saves.backend ("files",
+ * "memory" or "store") and its location with -Dpetcrossing.saves.dir, see
+ * {@link #configured()}.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveRepository repository = SaveRepository.open("store", Paths.get("saves"));
+ *   repository.write("save1.sav", bytes, true);
+ *   byte[] save = repository.read("save1.sav");
+ * }
+ * </pre>
+ *
+ * @see SaveManager
+ */
+public interface SaveRepository {
+    /** The suffix of the key the previous contents of a record are kept under */
+    String BACKUP_SUFFIX = ".bak";
+    /** The backend used unless -Dpetcrossing.saves.backend names another */
+    String DEFAULT_BACKEND = "files";
+    /** The directory used unless -Dpetcrossing.saves.dir names another */
+    String DEFAULT_DIRECTORY = "saves";
+
+    /**
+     * Reads a record.
+     *
+     * @param key The key of the record
+     * @return The contents of the record, or null if there is none
+     * @throws IOException If the record exists but cannot be read
+     */
+    byte[] read(String key) throws IOException;
+
+    /**
+     * Replaces a record atomically, optionally keeping its old contents.
+     * <br><br>
+     * The record is durable once this returns. If keepBackup is set, the old contents
+     * remain readable under the key followed by {@link #BACKUP_SUFFIX}, and a crash
+     * while writing leaves the old contents under the key or its backup.
+     *
+     * @param key The key of the record
+     * @param contents The new contents of the record
+     * @param keepBackup Whether to keep the old contents as the record's backup
+     * @throws IOException If the record cannot be written
+     */
+    void write(String key, byte[] contents, boolean keepBackup) throws IOException;
+
+    /**
+     * Returns when a record was last written.
+     * <br><br>
+     * Times are only compared with other times of the same repository. A record
+     * written after another never has an earlier time.
+     *
+     * @param key The key of the record
+     * @return The time in milliseconds since the epoch, or -1 if there is no record
+     */
+    long lastModified(String key);
+
+    /**
+     * Returns whether a record exists.
+     *
+     * @param key The key of the record
+     * @return true if the record exists
+     */
+    default boolean exists(String key) {
+        return lastModified(key) >= 0;
+    }
+
+    /**
+     * Opens a backend.
+     *
+     * @param backend "files", "memory" or "store"
+     * @param directory The directory the records are kept in, unused by "memory"
+     * @return The repository
+     * @throws IllegalArgumentException If the backend is not known
+     */
+    static SaveRepository open(String backend, Path directory) {
+        switch (backend) {
+            case "files":
+                return new FileSaveRepository(directory);
+            case "memory":
+                return new MemorySaveRepository();
+            case "store":
+                return new StoreSaveRepository(directory.resolve(StoreSaveRepository.FILE_NAME));
+            default:
+                throw new IllegalArgumentException("Unknown save backend: " + backend);
+        }
+    }
+
+    /**
+     * Opens the backend named by -Dpetcrossing.saves.backend in the directory named by
+     * -Dpetcrossing.saves.dir.
+     *
+     * @return The repository
+     * @throws IllegalArgumentException If the backend is not known
+     */
+    static SaveRepository configured() {
+        String backend = System.getProperty("petcrossing.saves.backend", DEFAULT_BACKEND);
+        Path directory = Paths.get(System.getProperty("petcrossing.saves.dir", DEFAULT_DIRECTORY));
+        if (backend.equals("files")) {
+            FileSaveRepository.adoptMisnamedFiles(directory);
+        }
+        return open(backend, directory);
+    }
+}
@@ -0,0 +1,226 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Writes saves on a single background thread, so the Swing thread never waits on disk.
+ * <br><br>
+ * Saves are queued and written one at a time in the order they were requested. If a
+ * slot is saved again while its previous save is still waiting to be written, the two
+ * are merged: only the latest snapshot is written, and both callers are told when it
+ * has been. Toggling between the menu and the game therefore writes each slot at most
+ * once per write, however fast it is done.
+ * <br><br>
+ * A save which cannot be written is reported to observers as a
+ * {@link GameEvent#SAVE_FAILED} event carrying an {@link EventPayload.SaveFailed},
+ * instead of being lost in a returned boolean. The event is posted from the Swing
+ * thread, like every other event, so the writer thread never dispatches events to
+ * observers which expect the Swing thread. Before exiting, {@link #flush()} waits
+ * for every save requested so far to be written.
+ * <br><br>
+ * Autosave {@link #checkpoint(CompletableFuture, int) checkpoints} share the queue.
+ * A checkpoint merged with a save of the same slot becomes a save, and a failed
+ * checkpoint is only logged, since the next one follows shortly.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveService saveService = new SaveService(new SaveManager(), eventDispatcher);
+ *   saveService.save(gameController.capture(), gameController.getSaveSlot());
+ *   saveService.flush().join(); // on exit
+ * }
+ * </pre>
+ *
+ * @see SaveManager
+ * @see GameController#capture()
+ */
+public class SaveService {
+    private static final Logger LOGGER = Logger.getLogger(SaveService.class.getName());
+
+    /** The save manager which writes the files */
+    private final SaveManager saveManager;
+    /** The event dispatcher failures are reported to */
+    private final EventDispatcher eventDispatcher;
+    /** The thread which writes saves, one at a time and in order */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "save-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** The save of each slot which is waiting to be written, guarded by itself */
+    private final Map<Integer, PendingSave> pending = new HashMap<>();
+    /** The number of saves merged into a save which was already waiting */
+    private long coalesced = 0;
+
+    /**
+     * A save of a slot which has been requested but not yet written.
+     */
+    private static class PendingSave {
+        /** The latest snapshot requested for the slot */
+        CompletableFuture<PetSnapshot> snapshot;
+        /** Whether only checkpoints were requested, rather than a save of the slot's file */
+        boolean checkpoint;
+        /** Completed with whether the save was written, shared by every merged request */
+        final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        PendingSave(CompletableFuture<PetSnapshot> snapshot, boolean checkpoint) {
+            this.snapshot = snapshot;
+            this.checkpoint = checkpoint;
+        }
+    }
+
+    /**
+     * Constructor for the SaveService class.
+     *
+     * @param saveManager The save manager which writes the files
+     * @param eventDispatcher The event dispatcher failures are reported to
+     */
+    public SaveService(SaveManager saveManager, EventDispatcher eventDispatcher) {
+        this.saveManager = saveManager;
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    /**
+     * Queues a save of a snapshot once it has been captured.
+     * <br><br>
+     * If the slot already has a save waiting to be written, its snapshot is replaced
+     * by this one and the two requests share one write.
+     *
+     * @param snapshot The future snapshot to save, for example from {@link GameController#capture()}
+     * @param slot The save slot number to save to
+     * @return A future which completes with true once the save has been written, or false if it failed
+     */
+    public CompletableFuture<Boolean> save(CompletableFuture<PetSnapshot> snapshot, int slot) {
+        return enqueue(snapshot, slot, false);
+    }
+
+    /**
+     * Queues a save of a snapshot which has already been taken.
+     *
+     * @param snapshot The snapshot to save
+     * @param slot The save slot number to save to
+     * @return A future which completes with true once the save has been written, or false if it failed
+     */
+    public CompletableFuture<Boolean> save(PetSnapshot snapshot, int slot) {
+        return save(CompletableFuture.completedFuture(snapshot), slot);
+    }
+
+    /**
+     * Queues an autosave checkpoint of a snapshot once it has been captured.
+     * <br><br>
+     * The checkpoint is written with {@link SaveManager#saveCheckpoint(PetSnapshot, int)},
+     * unless it is merged with a save of the slot, in which case the slot's file is
+     * written instead.
+     *
+     * @param snapshot The future snapshot to checkpoint
+     * @param slot The save slot number to checkpoint
+     * @return A future which completes with true once the checkpoint has been written, or false if it failed
+     */
+    public CompletableFuture<Boolean> checkpoint(CompletableFuture<PetSnapshot> snapshot, int slot) {
+        return enqueue(snapshot, slot, true);
+    }
+
+    /**
+     * Queues a save or checkpoint, merging it with a save of the slot which is still waiting.
+     *
+     * @param snapshot The future snapshot to write
+     * @param slot The save slot number
+     * @param checkpoint Whether this is a checkpoint rather than a save
+     * @return A future which completes with whether the snapshot was written
+     */
+    private CompletableFuture<Boolean> enqueue(CompletableFuture<PetSnapshot> snapshot, int slot,
+            boolean checkpoint) {
+        synchronized (pending) {
+            PendingSave save = pending.get(slot);
+            if (save != null) {
+                save.snapshot = snapshot;
+                save.checkpoint &= checkpoint;
+                coalesced++;
+                return save.written;
+            }
+            save = new PendingSave(snapshot, checkpoint);
+            pending.put(slot, save);
+            writer.execute(() -> write(slot));
+            return save.written;
+        }
+    }
+
+    /**
+     * Writes the latest snapshot requested for a slot, on the writer thread.
+     *
+     * @param slot The save slot number
+     */
+    private void write(int slot) {
+        PendingSave save;
+        synchronized (pending) {
+            // Later requests for the slot now queue a new write
+            save = pending.remove(slot);
+        }
+        boolean written;
+        try {
+            PetSnapshot snapshot = save.snapshot.join();
+            written = save.checkpoint
+                    ? saveManager.saveCheckpoint(snapshot, slot)
+                    : saveManager.saveGame(snapshot, slot);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Failed to capture the game for slot " + slot + ": " + e);
+            written = false;
+        }
+        if (!written && !save.checkpoint) {
+            // In queued mode the posting thread may run the whole queue, which must stay on the Swing thread
+            SwingUtilities.invokeLater(() -> eventDispatcher.notifyObservers(GameEvent.SAVE_FAILED,
+                    new EventPayload.SaveFailed(slot)));
+        }
+        save.written.complete(written);
+    }
+
+    /**
+     * Returns a future which completes once every save requested so far has been written.
+     *
+     * @return The future of the saves requested so far
+     */
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.runAsync(() -> {}, writer);
+    }
+
+    /**
+     * Waits for every save requested so far to be written, for at most a given time.
+     * <br><br>
+     * This is the barrier used on shutdown.
+     *
+     * @param timeout The longest time to wait
+     * @param unit The unit of the timeout
+     * @return true if every save was written in time
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        try {
+            flush().get(timeout, unit);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.warning("Saves were not written before the timeout: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of saves which were merged into a save already waiting to be written.
+     *
+     * @return The number of merged saves
+     */
+    public long getCoalesced() {
+        synchronized (pending) {
+            return coalesced;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Records everything a session's outcome depends on, so it can be replayed exactly.
+ * <br><br>
+ * The pet simulation only depends on the game it starts from, which actions are applied
+ * after how many ticks and the time each was applied at, since the time decides whether
+ * an action is on cooldown. The minigame only depends on its seed, its size and which
+ * frames the basket was moved in. Those are all recorded, together with the outcome of
+ * each game, so {@link SessionReplayer} can drive the same games without a window or
+ * wall-clock timers and check it arrives at the same outcomes. A customer's slow session
+ * recorded this way becomes a repeatable benchmark.
+ * <br><br>
+ * Recording is turned on with -Dpetcrossing.record=&lt;file&gt;. The file is written
+ * with a {@link DataOutputStream}:
+ * <pre>
+ *   int    magic "PCRS"
+ *   short  schema version
+ *   records byte kind, then
+ *     game          int game, int slot, long time, int length, bytes save ({@link BinarySaveCodec})
+ *     command       int game, long tick, long time, byte event, byte item (as {@link GameJournal} writes them)
+ *     game end      int game, long ticks, int length, bytes save
+ *     minigame      long seed, int width, int height
+ *     move          int frame, byte direction
+ *     minigame end  int frames, int score
+ * </pre>
+ * Each game is numbered when it starts, and its actions and end carry the number. A
+ * game's last actions and its end are recorded by the simulation once it has paused,
+ * which can be after the next game has started, so the records of two games may be
+ * interleaved. If a write fails the error is logged once and the rest of the session
+ * is not recorded. The records are written from the simulation and the Swing thread, so
+ * every method is synchronized.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SessionRecorder recorder = SessionRecorder.configured();
+ *   gameController.setSessionRecorder(recorder);
+ *   ...
+ *   gameController.close();
+ *   recorder.close();
+ * }
+ * </pre>
+ *
+ * @see SessionReplayer
+ * @see GameController#setSessionRecorder(SessionRecorder)
+ * @see CatchGame
+ */
+public class SessionRecorder implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(SessionRecorder.class.getName());
+    /** The first four bytes of every recording, "PCRS" */
+    public static final int MAGIC = 0x50435253;
+    /** The schema version written by this class */
+    public static final short VERSION = 2;
+    /** The kind of the record of a game being started */
+    static final byte GAME = 1;
+    /** The kind of the record of an action applied to a game */
+    static final byte COMMAND = 2;
+    /** The kind of the record of a game being closed */
+    static final byte GAME_END = 3;
+    /** The kind of the record of a minigame being started */
+    static final byte MINIGAME = 4;
+    /** The kind of the record of the basket being moved */
+    static final byte MOVE = 5;
+    /** The kind of the record of a minigame ending */
+    static final byte MINIGAME_END = 6;
+
+    /** The file being recorded to */
+    private final Path file;
+    /** The stream the records are written to, null once closed or failed */
+    private DataOutputStream out;
+    /** The number of games started */
+    private int games = 0;
+    /** The numbers of the games which have started but not ended */
+    private final Set<Integer> openGames = new HashSet<>();
+
+    /**
+     * Constructor for the SessionRecorder class, which replaces the file.
+     *
+     * @param file The file to record to
+     * @throws IOException If the file cannot be created
+     */
+    public SessionRecorder(Path file) throws IOException {
+        this.file = file;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+    }
+
+    /**
+     * Opens the recording named by -Dpetcrossing.record.
+     *
+     * @return The recorder, or null if sessions are not recorded or the file cannot be created
+     */
+    public static SessionRecorder configured() {
+        String file = System.getProperty("petcrossing.record");
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        try {
+            LOGGER.info("Recording the session to " + file);
+            return new SessionRecorder(Paths.get(file));
+        } catch (IOException e) {
+            LOGGER.warning("Failed to open the session recording " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records a game being started.
+     *
+     * @param slot The save slot of the game
+     * @param time The time of the game's clock
+     * @param data The game before its first tick
+     * @return The number of the game, which its actions and end are recorded with
+     */
+    public synchronized int startGame(int slot, long time, SaveData data) {
+        int game = games++;
+        if (out == null) {
+            return game;
+        }
+        openGames.add(game);
+        try {
+            byte[] save = BinarySaveCodec.encode(data);
+            out.writeByte(GAME);
+            out.writeInt(game);
+            out.writeInt(slot);
+            out.writeLong(time);
+            out.writeInt(save.length);
+            out.write(save);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return game;
+    }
+
+    /**
+     * Records an action being applied to a game, whether or not it was allowed.
+     *
+     * @param game The number of the game
+     * @param tick The number of ticks before the action
+     * @param time The time of the game's clock when it was applied
+     * @param event The action
+     * @param item The item used by a FEED or GIFT, otherwise null
+     */
+    public synchronized void command(int game, long tick, long time, GameEvent event, Item item) {
+        if (out == null || !openGames.contains(game)) {
+            return;
+        }
+        try {
+            out.writeByte(COMMAND);
+            out.writeInt(game);
+            out.writeLong(tick);
+            out.writeLong(time);
+            out.writeByte(GameJournal.eventCode(event));
+            out.writeByte(GameJournal.itemCode(item));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a game being closed, and writes the records so far to the file. A game
+     * which has already ended is not recorded again.
+     *
+     * @param game The number of the game
+     * @param ticks The number of ticks of the game
+     * @param data The game after its last tick
+     */
+    public synchronized void endGame(int game, long ticks, SaveData data) {
+        if (out == null || !openGames.remove(game)) {
+            return;
+        }
+        try {
+            byte[] save = BinarySaveCodec.encode(data);
+            out.writeByte(GAME_END);
+            out.writeInt(game);
+            out.writeLong(ticks);
+            out.writeInt(save.length);
+            out.write(save);
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a minigame being started.
+     *
+     * @param seed The seed of the apple spawn positions
+     * @param width The width of the minigame
+     * @param height The height of the minigame
+     */
+    public synchronized void startMinigame(long seed, int width, int height) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(MINIGAME);
+            out.writeLong(seed);
+            out.writeInt(width);
+            out.writeInt(height);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the basket of the current minigame being moved.
+     *
+     * @param frame The number of frames played before the move
+     * @param direction -1 for left, 1 for right
+     */
+    public synchronized void move(int frame, int direction) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(MOVE);
+            out.writeInt(frame);
+            out.writeByte(direction);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the current minigame ending, and writes the records so far to the file.
+     *
+     * @param frames The number of frames played
+     * @param score The final score
+     */
+    public synchronized void endMinigame(int frames, int score) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(MINIGAME_END);
+            out.writeInt(frames);
+            out.writeInt(score);
+            out.flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the remaining records and closes the file. Nothing is recorded after this.
+     */
+    @Override
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close the session recording " + file + ": " + e.getMessage());
+        }
+        out = null;
+    }
+
+    /**
+     * Stops recording after a failed write.
+     *
+     * @param e The error
+     */
+    private void fail(IOException e) {
+        LOGGER.warning("Failed to record the session to " + file + ", no longer recording: " + e.getMessage());
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // Already failed
+        }
+        out = null;
+    }
+}
@@ -0,0 +1,392 @@
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Replays a session recorded by {@link SessionRecorder} without a window, as fast as it runs.
+ * <br><br>
+ * Each recorded game is rebuilt from the save it started from and driven by a
+ * {@link GameController} with no panel and a {@link VirtualClock}: the simulation is
+ * ticked directly until each recorded action, the clock is set to the time the action
+ * was applied at, and the action is applied. Each recorded minigame is played again by
+ * a {@link CatchGame} with the recorded seed and moves. The outcome of every game and
+ * minigame is then compared with the recorded one, which must be identical down to the
+ * last bit of every stat.
+ * <br><br>
+ * The time spent reading the recording, ticking the games and playing the minigames is
+ * measured separately, with the time of every tick kept in a {@link LatencyHistogram},
+ * so a recording of a slow session can be replayed as a benchmark:
+ * <pre>
+ *   java -cp "out:lib/*" SessionReplayer session.rec 10
+ * </pre>
+ * replays it ten times and prints the timings of each run.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SessionReplayer.Result result = SessionReplayer.replay(Paths.get("session.rec"));
+ *   result.mismatches(); // empty if the replay matched the recording
+ * }
+ * </pre>
+ *
+ * @see SessionRecorder
+ */
+public class SessionReplayer {
+    private static final Logger LOGGER = Logger.getLogger(SessionReplayer.class.getName());
+
+    /**
+     * An action recorded being applied to a game.
+     *
+     * @param tick The number of ticks before the action
+     * @param time The time it was applied at
+     * @param event The action
+     * @param item The item used by a FEED or GIFT, otherwise null
+     */
+    record Command(long tick, long time, GameEvent event, Item item) {}
+
+    /**
+     * A recorded game.
+     *
+     * @param slot The save slot of the game
+     * @param time The time of the game's clock when it started
+     * @param start The game before its first tick
+     * @param commands The actions applied to the game
+     * @param ticks The number of ticks of the game, -1 if the recording ends before it
+     * @param end The game after its last tick, null if the recording ends before it
+     */
+    record Game(int slot, long time, SaveData start, List<Command> commands, long ticks, SaveData end) {}
+
+    /**
+     * A recorded move of the minigame's basket.
+     *
+     * @param frame The number of frames played before the move
+     * @param direction -1 for left, 1 for right
+     */
+    record Move(int frame, int direction) {}
+
+    /**
+     * A recorded minigame.
+     *
+     * @param seed The seed of the apple spawn positions
+     * @param width The width of the minigame
+     * @param height The height of the minigame
+     * @param moves The moves of the basket
+     * @param frames The number of frames played, -1 if the recording ends before it
+     * @param score The final score
+     */
+    record Minigame(long seed, int width, int height, List<Move> moves, int frames, int score) {}
+
+    /**
+     * The outcome and timings of a replay.
+     *
+     * @param games The number of games replayed
+     * @param minigames The number of minigames replayed
+     * @param frames The number of minigame frames played
+     * @param mismatches A description of each outcome which differs from the recording
+     * @param parseNanos The time spent reading the recording
+     * @param gameNanos The time spent replaying the games
+     * @param minigameNanos The time spent replaying the minigames
+     * @param tickTimes The time of each tick of the games
+     */
+    public record Result(int games, int minigames, long frames, List<String> mismatches, long parseNanos,
+            long gameNanos, long minigameNanos, LatencyHistogram tickTimes) {}
+
+    /** The games of the recording, in the order they were played */
+    private final List<Game> games = new ArrayList<>();
+    /** The minigames of the recording, in the order they were played */
+    private final List<Minigame> minigames = new ArrayList<>();
+
+    /**
+     * Reads and replays a recording.
+     *
+     * @param file The recording
+     * @return The outcome and timings of the replay
+     * @throws IOException If the file cannot be read or is not a recording
+     */
+    public static Result replay(Path file) throws IOException {
+        long start = System.nanoTime();
+        SessionReplayer replayer = new SessionReplayer();
+        replayer.parse(Files.readAllBytes(file));
+        long parsed = System.nanoTime();
+
+        List<String> mismatches = new ArrayList<>();
+        LatencyHistogram tickTimes = new LatencyHistogram();
+        int games = 0;
+        for (Game game : replayer.games) {
+            if (game.end() == null) {
+                continue;
+            }
+            SaveData end = replayGame(game, tickTimes);
+            games++;
+            if (!end.equals(game.end())) {
+                mismatches.add("Game " + games + " in slot " + game.slot() + " ended as " + end
+                        + " but was recorded as " + game.end());
+            }
+        }
+        long played = System.nanoTime();
+
+        int minigames = 0;
+        long frames = 0;
+        for (Minigame minigame : replayer.minigames) {
+            if (minigame.frames() < 0) {
+                continue;
+            }
+            CatchGame game = replayMinigame(minigame);
+            minigames++;
+            frames += game.getFrame();
+            if (game.getScore() != minigame.score()) {
+                mismatches.add("Minigame " + minigames + " scored " + game.getScore() + " but was recorded scoring "
+                        + minigame.score());
+            }
+        }
+        long end = System.nanoTime();
+        return new Result(games, minigames, frames, mismatches, parsed - start, played - parsed, end - played,
+                tickTimes);
+    }
+
+    /**
+     * Replays a game.
+     *
+     * @param game The recorded game
+     * @param tickTimes The histogram the time of each tick is recorded in
+     * @return The game after its last tick
+     */
+    static SaveData replayGame(Game game, LatencyHistogram tickTimes) {
+        SaveData start = game.start();
+        Pet pet = new Pet(start.name(), start.type(), start.health(), start.hunger(), start.happiness(),
+                start.sleep());
+        pet.setState(PetState.valueOf(start.state().toUpperCase()));
+        Inventory inventory = new Inventory(start.apples(), start.bananas(), start.purpleGifts(), start.greenGifts());
+        VirtualClock clock = new VirtualClock(Instant.ofEpochMilli(game.time()), ZoneOffset.UTC);
+        GameController controller = new GameController(new EventDispatcher(), null, inventory, game.slot(), pet,
+                start.score(), clock);
+        for (Command command : game.commands()) {
+            tick(controller, clock, command.tick(), tickTimes);
+            clock.set(Instant.ofEpochMilli(command.time()));
+            controller.handleEvent(command.event(), payload(command));
+        }
+        tick(controller, clock, game.ticks(), tickTimes);
+        SaveData end = SaveData.of(controller.capture().join());
+        controller.close();
+        return end;
+    }
+
+    /**
+     * Ticks a game until it has run a number of ticks.
+     *
+     * @param controller The game, which is not running
+     * @param clock The game's clock, advanced by the time between ticks each tick
+     * @param ticks The number of ticks to run to
+     * @param tickTimes The histogram the time of each tick is recorded in
+     */
+    private static void tick(GameController controller, VirtualClock clock, long ticks, LatencyHistogram tickTimes) {
+        while (controller.getTicks() < ticks) {
+            clock.advanceMillis(GameController.TICK_MILLIS);
+            long start = System.nanoTime();
+            controller.tick();
+            tickTimes.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the payload an action was applied with.
+     *
+     * @param command The recorded action
+     * @return The payload, null if the action has none
+     */
+    private static EventPayload payload(Command command) {
+        switch (command.event()) {
+            case FEED:
+                return new EventPayload.Feed(command.item());
+            case GIFT:
+                return new EventPayload.Gift(command.item());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Replays a minigame.
+     *
+     * @param minigame The recorded minigame
+     * @return The minigame after its last frame
+     */
+    static CatchGame replayMinigame(Minigame minigame) {
+        CatchGame game = new CatchGame(minigame.seed(), minigame.width(), minigame.height(), null);
+        for (Move move : minigame.moves()) {
+            while (game.getFrame() < move.frame()) {
+                game.step();
+            }
+            game.move(move.direction());
+        }
+        while (game.getFrame() < minigame.frames()) {
+            game.step();
+        }
+        return game;
+    }
+
+    /**
+     * Reads the games and minigames of a recording.
+     * <br><br>
+     * A recording cut short, as one is if the game crashed, is read up to its last
+     * whole record. A game or minigame which was not finished is not replayed.
+     *
+     * @param bytes The recording
+     * @throws IOException If the bytes are not a recording or are from a newer version
+     */
+    private void parse(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < 6 || in.readInt() != SessionRecorder.MAGIC) {
+            throw new IOException("Not a session recording");
+        }
+        short version = in.readShort();
+        if (version > SessionRecorder.VERSION) {
+            throw new IOException("Session recording version " + version + " is newer than "
+                    + SessionRecorder.VERSION);
+        }
+        // The index of each game which has not ended, by its number
+        Map<Integer, Integer> openGames = new HashMap<>();
+        Minigame minigame = null;
+        try {
+            while (in.available() > 0) {
+                byte kind = in.readByte();
+                switch (kind) {
+                    case SessionRecorder.GAME:
+                        int number = readGame(in, version, games.size());
+                        int slot = in.readInt();
+                        long time = in.readLong();
+                        games.add(new Game(slot, time, readSave(in), new ArrayList<>(), -1, null));
+                        openGames.put(number, games.size() - 1);
+                        break;
+                    case SessionRecorder.COMMAND:
+                        Integer index = openGames.get(readGame(in, version, games.size() - 1));
+                        long tick = in.readLong();
+                        long at = in.readLong();
+                        GameEvent event = GameJournal.eventOf(in.readByte());
+                        int item = in.readByte();
+                        if (index == null || event == null || !GameJournal.isItemCode(item)) {
+                            throw new IOException("Invalid action in the session recording");
+                        }
+                        games.get(index).commands().add(new Command(tick, at, event, GameJournal.itemOf(item)));
+                        break;
+                    case SessionRecorder.GAME_END:
+                        Integer ended = openGames.remove(readGame(in, version, games.size() - 1));
+                        long ticks = in.readLong();
+                        SaveData end = readSave(in);
+                        if (ended == null) {
+                            throw new IOException("Game end without a game in the session recording");
+                        }
+                        Game game = games.get(ended);
+                        games.set(ended, new Game(game.slot(), game.time(), game.start(), game.commands(), ticks, end));
+                        break;
+                    case SessionRecorder.MINIGAME:
+                        minigame = new Minigame(in.readLong(), in.readInt(), in.readInt(), new ArrayList<>(), -1, 0);
+                        minigames.add(minigame);
+                        break;
+                    case SessionRecorder.MOVE:
+                        int frame = in.readInt();
+                        int direction = in.readByte();
+                        if (minigame == null) {
+                            throw new IOException("Move without a minigame in the session recording");
+                        }
+                        minigame.moves().add(new Move(frame, direction));
+                        break;
+                    case SessionRecorder.MINIGAME_END:
+                        int frames = in.readInt();
+                        int score = in.readInt();
+                        if (minigame == null) {
+                            throw new IOException("Minigame end without a minigame in the session recording");
+                        }
+                        minigames.set(minigames.size() - 1, new Minigame(minigame.seed(), minigame.width(),
+                                minigame.height(), minigame.moves(), frames, score));
+                        minigame = null;
+                        break;
+                    default:
+                        throw new IOException("Unknown record " + kind + " in the session recording");
+                }
+            }
+        } catch (EOFException e) {
+            LOGGER.warning("The session recording is cut short, replaying it up to its last whole record");
+        }
+    }
+
+    /**
+     * Reads the number of the game a record belongs to.
+     * <br><br>
+     * Recordings before version 2 have no numbers, since their records were always in
+     * order, so each record belongs to the last game started.
+     *
+     * @param in The recording
+     * @param version The version of the recording
+     * @param last The number of the game a record before version 2 belongs to
+     * @return The number of the game
+     * @throws IOException If the recording is cut short
+     */
+    private static int readGame(DataInputStream in, short version, int last) throws IOException {
+        return version >= 2 ? in.readInt() : last;
+    }
+
+    /**
+     * Reads a length-prefixed save.
+     *
+     * @param in The recording
+     * @return The save
+     * @throws IOException If the save is cut short or invalid
+     */
+    private static SaveData readSave(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new EOFException();
+        }
+        byte[] save = new byte[length];
+        in.readFully(save);
+        return BinarySaveCodec.decode(save);
+    }
+
+    /**
+     * Replays a recording and prints the timings of each run.
+     *
+     * @param args The recording, and optionally the number of times to replay it
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java SessionReplayer <recording> [runs]");
+            System.exit(2);
+        }
+        try {
+            Path file = Paths.get(args[0]);
+            int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+            boolean matched = true;
+            for (int run = 1; run <= runs; run++) {
+                Result result = replay(file);
+                LatencyHistogram ticks = result.tickTimes();
+                System.out.printf("Run %d: %d games (%d ticks), %d minigames (%d frames)%n", run, result.games(),
+                        ticks.getCount(), result.minigames(), result.frames());
+                System.out.printf("  parse     %10.3f ms%n", result.parseNanos() / 1e6);
+                System.out.printf("  games     %10.3f ms  tick mean %.1f us  p50 %.1f us  p99 %.1f us  max %.1f us%n",
+                        result.gameNanos() / 1e6, ticks.getMean() / 1e3, ticks.getPercentile(50) / 1e3,
+                        ticks.getPercentile(99) / 1e3, ticks.getMax() / 1e3);
+                System.out.printf("  minigames %10.3f ms%n", result.minigameNanos() / 1e6);
+                for (String mismatch : result.mismatches()) {
+                    System.out.println("  MISMATCH " + mismatch);
+                }
+                matched &= result.mismatches().isEmpty();
+            }
+            System.exit(matched ? 0 : 1);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to replay the session: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
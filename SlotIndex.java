@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * A summary of every save slot, so the load screen can list the slots by reading one small file.
+ * <br><br>
+ * The index holds one {@link SlotSummary} row per saved slot and is rewritten by
+ * {@link SaveManager} after each save, checkpoint or migration of a slot. Its binary
+ * format follows {@link BinarySaveCodec}:
+ * <pre>
+ *   int    magic "PCSI"
+ *   short  schema version
+ *   int    number of rows
+ *   rows   int slot, double health, hunger, happiness, sleep, int score,
+ *          long last modified, int checksum, string name, type, state
+ *   int    CRC32C of every byte before it
+ * </pre>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SlotIndex index = SlotIndex.decode(Files.readAllBytes(file));
+ *   index.put(SlotSummary.of(1, data, modified, checksum));
+ *   Files.write(file, index.encode());
+ * }
+ * </pre>
+ *
+ * @see SlotSummary
+ * @see SaveManager#listSlots()
+ */
+public final class SlotIndex {
+    /** The first four bytes of every index, "PCSI" */
+    public static final int MAGIC = 0x50435349;
+    /** The schema version written by this class */
+    public static final short VERSION = 1;
+    /** The size of the header */
+    private static final int HEADER_SIZE = 4 + 2 + 4;
+    /** The size of the fixed-width fields of a row */
+    private static final int ROW_SIZE = 4 + 4 * 8 + 4 + 8 + 4;
+    /** The size of the checksum */
+    private static final int CHECKSUM_SIZE = 4;
+
+    /** The rows of the index, by slot */
+    private final TreeMap<Integer, SlotSummary> summaries = new TreeMap<>();
+
+    /**
+     * Returns the summary of a slot.
+     *
+     * @param slot The save slot number
+     * @return The summary, or null if the slot has no save
+     */
+    public SlotSummary get(int slot) {
+        return summaries.get(slot);
+    }
+
+    /**
+     * Adds or replaces the summary of a slot.
+     *
+     * @param summary The summary of the slot
+     */
+    public void put(SlotSummary summary) {
+        summaries.put(summary.slot(), summary);
+    }
+
+    /**
+     * Removes the summary of a slot which no longer has a save.
+     *
+     * @param slot The save slot number
+     */
+    public void remove(int slot) {
+        summaries.remove(slot);
+    }
+
+    /**
+     * Returns the highest slot number in the index.
+     *
+     * @return The last slot, or 0 if the index is empty
+     */
+    public int getLastSlot() {
+        return summaries.isEmpty() ? 0 : summaries.lastKey();
+    }
+
+    /**
+     * Returns every summary, ordered by slot.
+     *
+     * @return The summaries by slot, which cannot be modified
+     */
+    public Map<Integer, SlotSummary> getSummaries() {
+        return Collections.unmodifiableMap(summaries);
+    }
+
+    /**
+     * Encodes the index.
+     *
+     * @return The bytes of the index file
+     * @throws IOException If a string of a summary is too long to encode
+     */
+    public byte[] encode() throws IOException {
+        int size = HEADER_SIZE + CHECKSUM_SIZE;
+        byte[][] strings = new byte[summaries.size() * 3][];
+        int i = 0;
+        for (SlotSummary summary : summaries.values()) {
+            strings[i] = BinarySaveCodec.utf8(summary.name());
+            strings[i + 1] = BinarySaveCodec.utf8(summary.type());
+            strings[i + 2] = BinarySaveCodec.utf8(summary.state());
+            size += ROW_SIZE + BinarySaveCodec.size(strings[i]) + BinarySaveCodec.size(strings[i + 1])
+                    + BinarySaveCodec.size(strings[i + 2]);
+            i += 3;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(summaries.size());
+        i = 0;
+        for (SlotSummary summary : summaries.values()) {
+            buffer.putInt(summary.slot());
+            buffer.putDouble(summary.health());
+            buffer.putDouble(summary.hunger());
+            buffer.putDouble(summary.happiness());
+            buffer.putDouble(summary.sleep());
+            buffer.putInt(summary.score());
+            buffer.putLong(summary.lastModified());
+            buffer.putInt(summary.checksum());
+            BinarySaveCodec.putString(buffer, strings[i++]);
+            BinarySaveCodec.putString(buffer, strings[i++]);
+            BinarySaveCodec.putString(buffer, strings[i++]);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an index.
+     *
+     * @param bytes The bytes of the index file
+     * @return The index
+     * @throws IOException If the bytes are not an index, fail their checksum or are from a newer version
+     */
+    public static SlotIndex decode(byte[] bytes) throws IOException {
+        if (bytes.length < HEADER_SIZE + CHECKSUM_SIZE) {
+            throw new IOException("Slot index is truncated");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a slot index");
+        }
+        short version = buffer.getShort();
+        if (version > VERSION) {
+            throw new IOException("Slot index version " + version + " is newer than " + VERSION);
+        }
+        int body = bytes.length - CHECKSUM_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, body);
+        if ((int) crc.getValue() != buffer.getInt(body)) {
+            throw new IOException("Slot index checksum does not match");
+        }
+        buffer.limit(body);
+        SlotIndex index = new SlotIndex();
+        try {
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int slot = buffer.getInt();
+                double health = buffer.getDouble();
+                double hunger = buffer.getDouble();
+                double happiness = buffer.getDouble();
+                double sleep = buffer.getDouble();
+                int score = buffer.getInt();
+                long lastModified = buffer.getLong();
+                int checksum = buffer.getInt();
+                String name = BinarySaveCodec.getString(buffer);
+                String type = BinarySaveCodec.getString(buffer);
+                String state = BinarySaveCodec.getString(buffer);
+                index.put(new SlotSummary(slot, name, type, state, health, hunger, happiness, sleep, score,
+                        lastModified, checksum));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Slot index is truncated", e);
+        }
+        return index;
+    }
+}
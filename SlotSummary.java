@@ -0,0 +1,59 @@
+/**
+ * What the load screen shows of a save slot, kept in the {@link SlotIndex}.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SlotSummary summary = saveManager.listSlots().get(1);
+ *   label.setText(summary.name() + " the " + summary.type());
+ * }
+ * </pre>
+ *
+ * @param slot The save slot number
+ * @param name The name of the pet
+ * @param type The type of the pet
+ * @param state The state of the pet, in lower case
+ * @param health The health of the pet
+ * @param hunger The hunger of the pet
+ * @param happiness The happiness of the pet
+ * @param sleep The sleep of the pet
+ * @param score The score of the game
+ * @param lastModified When the save was written, in milliseconds since the epoch
+ * @param checksum The CRC32C of the save file's bytes
+ */
+public record SlotSummary(
+        int slot,
+        String name,
+        String type,
+        String state,
+        double health,
+        double hunger,
+        double happiness,
+        double sleep,
+        int score,
+        long lastModified,
+        int checksum) {
+
+    /**
+     * Creates the summary of a save.
+     *
+     * @param slot The save slot number
+     * @param data The save
+     * @param lastModified When the save was written
+     * @param checksum The CRC32C of the save file's bytes
+     * @return The summary of the save
+     */
+    public static SlotSummary of(int slot, SaveData data, long lastModified, int checksum) {
+        return new SlotSummary(slot, data.name(), data.type(), data.state(), data.health(), data.hunger(),
+                data.happiness(), data.sleep(), data.score(), lastModified, checksum);
+    }
+
+    /**
+     * Returns whether the pet of the slot is dead, and can be revived.
+     *
+     * @return true if the pet is dead
+     */
+    public boolean isDead() {
+        return PetState.DEAD.name().equalsIgnoreCase(state);
+    }
+}
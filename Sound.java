@@ -27,6 +27,8 @@ public class Sound {
     private Clip clip;
     /** The audio input stream used to read the audio file */
     private AudioInputStream audioInput;
+    /** The path of the audio file */
+    private final String path;
 
     /**
      * Constructor for the Sound class.
@@ -46,6 +48,7 @@ public class Sound {
      */
     public Sound(String path)
             throws UnsupportedAudioFileException, IOException, LineUnavailableException, InterruptedException {
+        this.path = path;
         audioInput = AudioSystem.getAudioInputStream(new File(path));
         clip = AudioSystem.getClip();
     }
@@ -58,9 +61,15 @@ public class Sound {
      * @throws InterruptedException if the thread is interrupted while playing
      */
     public void play() throws IOException, LineUnavailableException, InterruptedException {
+        JfrEvents.SoundPlay event = new JfrEvents.SoundPlay();
+        event.begin();
         clip.open(audioInput);
         clip.loop(Clip.LOOP_CONTINUOUSLY);
         clip.start();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.commit();
+        }
     }
 
     /**
@@ -1,4 +1,5 @@
 import java.io.IOException;
+import java.util.EnumSet;
 
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
@@ -8,6 +9,7 @@ import javax.sound.sampled.UnsupportedAudioFileException;
  * <br><br>
  * This class is responsible for playing different sound effects based on the game state.
  * It uses the Sound class to handle audio playback. The sound is played in a loop until stopped.
+ * Opening sound files is slow, so events are handled on the I/O lane.
  * <br><br>
  * <b>Example Use:</b>
  * <pre>
@@ -45,13 +47,14 @@ public class SoundController extends Observer {
 
     @Override
     public void registerEvents() {
-        eventDispatcher.addObserver(GameEvent.MENU, this);
-        eventDispatcher.addObserver(GameEvent.TUTORIAL, this);
-        eventDispatcher.addObserver(GameEvent.MINIGAME, this);
-        eventDispatcher.addObserver(GameEvent.PARENTAL, this);
-        eventDispatcher.addObserver(GameEvent.INGAME, this);
-        eventDispatcher.addObserver(GameEvent.NEW_GAME, this);
-        eventDispatcher.addObserver(GameEvent.STOPSOUND, this);
+        eventDispatcher.addObserver(EnumSet.of(
+                GameEvent.MENU, GameEvent.TUTORIAL, GameEvent.MINIGAME, GameEvent.PARENTAL, GameEvent.INGAME,
+                GameEvent.NEW_GAME, GameEvent.STOPSOUND), this);
+    }
+
+    @Override
+    protected Lane getLane() {
+        return Lane.IO;
     }
 
     /**
@@ -0,0 +1,331 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps every record in one append-only file, for installs with many profiles.
+ * <br><br>
+ * Each write appends the record to the end of the file and forces it to disk, instead
+ * of creating, renaming and syncing a file per record. Where each record starts is
+ * kept in memory, so a read is one positioned read of the file. The file follows
+ * {@link BinarySaveCodec}:
+ * <pre>
+ *   int    magic "PCKV"
+ *   short  schema version
+ *   records string key, long last modified, int length, bytes contents,
+ *          int CRC32C of the record's bytes before it
+ * </pre>
+ * The last record written under a key is its contents. When the store is opened it
+ * is read from the start, and a record cut short or failing its checksum, as a crash
+ * while appending leaves, is cut off along with everything after it. A backup is
+ * appended as a record of its own in the same write as the new contents.
+ * <br><br>
+ * Records which have been replaced stay in the file until it is twice the size of the
+ * current records, when they are dropped by rewriting the file with only the current
+ * records.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SaveRepository repository = new StoreSaveRepository(Paths.get("saves", "saves.store"));
+ *   SaveManager saveManager = new SaveManager(repository);
+ * }
+ * </pre>
+ *
+ * @see SaveRepository
+ */
+public class StoreSaveRepository implements SaveRepository, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(StoreSaveRepository.class.getName());
+    /** The name of the store's file in the saves directory */
+    static final String FILE_NAME = "saves.store";
+    /** The first four bytes of the store, "PCKV" */
+    public static final int MAGIC = 0x50434B56;
+    /** The schema version written by this class */
+    public static final short VERSION = 1;
+    /** The size of the header */
+    private static final int HEADER_SIZE = 4 + 2;
+    /** The size of the fixed-width fields and checksum of a record */
+    private static final int RECORD_SIZE = 8 + 4 + 4;
+    /** The size of the file below which replaced records are never dropped */
+    static final long COMPACT_MIN_SIZE = 64 * 1024;
+
+    /**
+     * Where the contents of a record are in the file.
+     *
+     * @param start Where the record starts
+     * @param offset Where the contents start
+     * @param length The length of the contents
+     * @param modified When the record was written
+     */
+    private record Entry(long start, long offset, int length, long modified) {}
+
+    /** The file of the store */
+    private final Path file;
+    /** The open file, or null until the store is first used */
+    private FileChannel channel;
+    /** The current record of each key */
+    private final Map<String, Entry> entries = new HashMap<>();
+    /** The size of the current records */
+    private long liveSize;
+    /** The time of the last write */
+    private long lastWrite;
+    /** The number of times the file has been rewritten without its replaced records */
+    private int compactions = 0;
+
+    /**
+     * Constructor for the StoreSaveRepository class.
+     * <br><br>
+     * The file is opened, or created, when the store is first used.
+     *
+     * @param file The file of the store
+     */
+    public StoreSaveRepository(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized byte[] read(String key) throws IOException {
+        open();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, entry.offset() + buffer.position()) < 0) {
+                throw new IOException("Save store " + file + " is truncated");
+            }
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public synchronized void write(String key, byte[] contents, boolean keepBackup) throws IOException {
+        open();
+        List<String> keys = new ArrayList<>(2);
+        List<byte[]> values = new ArrayList<>(2);
+        if (keepBackup && entries.containsKey(key)) {
+            keys.add(key + BACKUP_SUFFIX);
+            values.add(read(key));
+        }
+        keys.add(key);
+        values.add(contents);
+        lastWrite = Math.max(System.currentTimeMillis(), lastWrite + 1);
+
+        byte[][] records = new byte[keys.size()][];
+        int size = 0;
+        for (int i = 0; i < records.length; i++) {
+            records[i] = encode(keys.get(i), values.get(i), lastWrite);
+            size += records[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : records) {
+            buffer.put(record);
+        }
+        buffer.flip();
+        long start = channel.size();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+        channel.force(false);
+
+        long position = start;
+        for (int i = 0; i < records.length; i++) {
+            put(keys.get(i), new Entry(position, position + records[i].length - 4 - values.get(i).length,
+                    values.get(i).length, lastWrite), records[i].length);
+            position += records[i].length;
+        }
+        long fileSize = channel.size();
+        if (fileSize > COMPACT_MIN_SIZE && fileSize > 2 * (HEADER_SIZE + liveSize)) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized long lastModified(String key) {
+        try {
+            open();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to open the save store " + file + ": " + e);
+            return -1;
+        }
+        Entry entry = entries.get(key);
+        return entry == null ? -1 : entry.modified();
+    }
+
+    /**
+     * Returns the number of times the file has been rewritten without its replaced records.
+     *
+     * @return The number of compactions
+     */
+    public synchronized int getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * Closes the file. The store opens it again if it is used after this.
+     *
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Opens the file and reads where each record is, if it is not already open.
+     * <br><br>
+     * A damaged or partly written record at the end of the file is cut off.
+     *
+     * @throws IOException If the file cannot be opened or is not a save store
+     */
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length == 0) {
+                opened.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).flip());
+                opened.force(true);
+            } else {
+                long end = scan(bytes);
+                if (end < bytes.length) {
+                    LOGGER.warning("Save store " + file + " has " + (bytes.length - end)
+                            + " damaged bytes at its end, dropping them");
+                    opened.truncate(end);
+                    opened.force(true);
+                }
+            }
+        } catch (IOException e) {
+            opened.close();
+            entries.clear();
+            throw e;
+        }
+        channel = opened;
+    }
+
+    /**
+     * Reads where each record of the file is.
+     *
+     * @param bytes The bytes of the file
+     * @return Where the last intact record ends
+     * @throws IOException If the bytes are not a save store or are from a newer version
+     */
+    private long scan(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a save store");
+        }
+        short version = buffer.getShort();
+        if (version > VERSION) {
+            throw new IOException("Save store version " + version + " is newer than " + VERSION);
+        }
+        entries.clear();
+        liveSize = 0;
+        lastWrite = 0;
+        CRC32C crc = new CRC32C();
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            try {
+                String key = BinarySaveCodec.getString(buffer);
+                long modified = buffer.getLong();
+                int length = buffer.getInt();
+                if (key == null || length < 0 || length > buffer.remaining() - 4) {
+                    return start;
+                }
+                int offset = buffer.position();
+                buffer.position(offset + length);
+                crc.reset();
+                crc.update(bytes, start, buffer.position() - start);
+                if ((int) crc.getValue() != buffer.getInt()) {
+                    return start;
+                }
+                put(key, new Entry(start, offset, length, modified), buffer.position() - start);
+                lastWrite = Math.max(lastWrite, modified);
+            } catch (BufferUnderflowException e) {
+                return start;
+            }
+        }
+        return bytes.length;
+    }
+
+    /**
+     * Makes a record the current record of its key.
+     *
+     * @param key The key of the record
+     * @param entry Where the record is
+     * @param size The size of the record in the file
+     */
+    private void put(String key, Entry entry, int size) {
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            liveSize -= old.offset() + old.length() + 4 - old.start();
+        }
+        liveSize += size;
+    }
+
+    /**
+     * Rewrites the file with only the current records, in the order they were written.
+     *
+     * @throws IOException If the file cannot be rewritten
+     */
+    private void compact() throws IOException {
+        List<Map.Entry<String, Entry>> current = new ArrayList<>(entries.entrySet());
+        current.sort(Comparator.comparingLong(e -> e.getValue().start()));
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_SIZE + liveSize));
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        for (Map.Entry<String, Entry> entry : current) {
+            buffer.put(encode(entry.getKey(), read(entry.getKey()), entry.getValue().modified()));
+        }
+        FileSaveRepository.writeAtomically(file, buffer.array(), false);
+        channel.close();
+        channel = null;
+        open();
+        compactions++;
+    }
+
+    /**
+     * Encodes a record.
+     *
+     * @param key The key of the record
+     * @param contents The contents of the record
+     * @param modified When the record was written
+     * @return The bytes of the record
+     * @throws IOException If the key is too long to encode
+     */
+    private static byte[] encode(String key, byte[] contents, long modified) throws IOException {
+        byte[] name = BinarySaveCodec.utf8(key);
+        ByteBuffer buffer = ByteBuffer.allocate(BinarySaveCodec.size(name) + RECORD_SIZE + contents.length);
+        BinarySaveCodec.putString(buffer, name);
+        buffer.putLong(modified);
+        buffer.putInt(contents.length);
+        buffer.put(contents);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.EnumSet;
+
+/**
+ * A handle to one observer's subscription to a set of game events.
+ * <br><br>
+ * Closing the handle removes the observer from the events. Closing it again does nothing.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   Subscription subscription = eventDispatcher.subscribe(GameEvent.MENU, observer);
+ *   subscription.close(); // the observer is no longer notified of MENU
+ * }
+ * </pre>
+ *
+ * @see EventDispatcher
+ * @see SubscriptionScope
+ */
+public class Subscription implements AutoCloseable {
+    /** The dispatcher the observer is subscribed to */
+    private final EventDispatcher eventDispatcher;
+    /** The events the observer is subscribed to */
+    private final EnumSet<GameEvent> events;
+    /** The subscribed observer */
+    private final Observer observer;
+    /** Whether the subscription has been closed */
+    private boolean closed = false;
+
+    /**
+     * Constructor for the Subscription class, the observer must already be subscribed.
+     *
+     * @param eventDispatcher The dispatcher the observer is subscribed to
+     * @param events The events the observer is subscribed to
+     * @param observer The subscribed observer
+     */
+    Subscription(EventDispatcher eventDispatcher, EnumSet<GameEvent> events, Observer observer) {
+        this.eventDispatcher = eventDispatcher;
+        this.events = events;
+        this.observer = observer;
+    }
+
+    public EnumSet<GameEvent> getEvents() {
+        return EnumSet.copyOf(events);
+    }
+
+    public Observer getObserver() {
+        return observer;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Removes the observer from the events.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        eventDispatcher.removeObserver(events, observer);
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A group of subscriptions which share a lifetime, such as a controller's or a panel's.
+ * <br><br>
+ * Observers subscribe through the scope instead of the dispatcher, and closing the
+ * scope removes every one of its subscriptions at once. Without this, each new game
+ * would leave the previous game's controller subscribed to every event.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   SubscriptionScope scope = new SubscriptionScope(eventDispatcher);
+ *   scope.subscribe(GameEvent.FEED, controller);
+ *   scope.subscribe(EnumSet.of(GameEvent.MENU, GameEvent.QUIT), view);
+ *   scope.close(); // controller and view are removed from every event
+ * }
+ * </pre>
+ *
+ * @see Subscription
+ * @see EventDispatcher
+ */
+public class SubscriptionScope implements AutoCloseable {
+    /** The dispatcher the subscriptions are made on */
+    private final EventDispatcher eventDispatcher;
+    /** The subscriptions made in this scope, in the order they were made */
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    /** Whether the scope has been closed */
+    private boolean closed = false;
+
+    /**
+     * Constructor for the SubscriptionScope class.
+     *
+     * @param eventDispatcher The dispatcher to subscribe to
+     */
+    public SubscriptionScope(EventDispatcher eventDispatcher) {
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    /**
+     * Subscribes an observer to an event for the lifetime of this scope.
+     *
+     * @param event The game event to observe
+     * @param observer The observer to add
+     * @return The subscription, which can also be closed on its own
+     * @throws IllegalStateException If the scope has already been closed
+     */
+    public Subscription subscribe(GameEvent event, Observer observer) {
+        return subscribe(EnumSet.of(event), observer);
+    }
+
+    /**
+     * Subscribes an observer to a set of events for the lifetime of this scope.
+     *
+     * @param events The game events to observe
+     * @param observer The observer to add
+     * @return The subscription, which can also be closed on its own
+     * @throws IllegalStateException If the scope has already been closed
+     */
+    public synchronized Subscription subscribe(Set<GameEvent> events, Observer observer) {
+        if (closed) {
+            throw new IllegalStateException("Cannot subscribe to a closed scope");
+        }
+        Subscription subscription = eventDispatcher.subscribe(events, observer);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Returns the number of subscriptions made in this scope which are still open.
+     *
+     * @return The number of open subscriptions
+     */
+    public synchronized int size() {
+        int open = 0;
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.isClosed()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes every subscription in this scope, most recent first.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = subscriptions.size() - 1; i >= 0; i--) {
+            subscriptions.get(i).close();
+        }
+        subscriptions.clear();
+    }
+}
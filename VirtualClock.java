@@ -0,0 +1,102 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * A manually driven clock for tests and benchmarks.
+ * <br><br>
+ * Controllers read the time through a {@link Clock} instead of calling
+ * System.currentTimeMillis() or LocalTime.now() directly. Passing a VirtualClock
+ * lets a test jump forward by minutes or hours instantly, so cooldowns, time limits
+ * and restricted hours can be checked without real waiting.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   VirtualClock clock = VirtualClock.at(LocalTime.of(23, 59));
+ *   ParentalController pc = new ParentalController(eventDispatcher, clock);
+ *   clock.advance(Duration.ofMinutes(2)); // now 00:01 the next day
+ * }
+ * </pre>
+ *
+ * @see Clock
+ * @see Controller
+ */
+public class VirtualClock extends Clock {
+    /** The current instant of this clock, only changes when advanced or set */
+    private volatile Instant instant;
+    /** The time zone used to convert the instant into local times */
+    private final ZoneId zone;
+
+    /**
+     * Constructor for the VirtualClock class.
+     *
+     * @param instant The instant the clock starts at
+     * @param zone The time zone of the clock
+     */
+    public VirtualClock(Instant instant, ZoneId zone) {
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    /**
+     * Creates a clock in the system time zone which starts at the given time of day (today).
+     *
+     * @param time The local time the clock starts at
+     * @return A new VirtualClock
+     */
+    public static VirtualClock at(LocalTime time) {
+        ZoneId zone = ZoneId.systemDefault();
+        return new VirtualClock(LocalDate.now(zone).atTime(time).atZone(zone).toInstant(), zone);
+    }
+
+    /**
+     * Moves the clock forward (or backward, for negative durations).
+     *
+     * @param duration The amount of time to advance by
+     */
+    public synchronized void advance(Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    /**
+     * Moves the clock forward by a number of milliseconds.
+     *
+     * @param millis The number of milliseconds to advance by
+     */
+    public void advanceMillis(long millis) {
+        advance(Duration.ofMillis(millis));
+    }
+
+    /**
+     * Sets the clock to a specific instant.
+     *
+     * @param instant The new instant
+     */
+    public void set(Instant instant) {
+        this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+
+    @Override
+    public long millis() {
+        return instant.toEpochMilli();
+    }
+}
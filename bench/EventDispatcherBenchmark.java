@@ -0,0 +1,145 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures how long the EventDispatcher takes to dispatch an event, and how much it allocates.
+ * <br><br>
+ * Dispatches a button click (a FEED event and its payload, with one observer) and
+ * the burst sent when leaving the minigame (STOPSOUND then LEAVEMINIGAME) millions
+ * of times after a warm up, then prints the average time and bytes allocated per
+ * dispatch: first with nothing recorded, then with the {@link FlightRecorder} on, and
+ * then with dispatch metrics recorded as well.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   javac -cp "lib/*" -d out *.java bench/*.java
+ *   java -cp "out:lib/*" EventDispatcherBenchmark
+ * }
+ * </pre>
+ *
+ * @see EventDispatcher
+ */
+public class EventDispatcherBenchmark {
+    /** The number of dispatches in each measured round */
+    private static final int DISPATCHES = 10_000_000;
+    /** The number of rounds used to warm up the JIT compiler */
+    private static final int WARMUP_ROUNDS = 5;
+    /** The number of measured rounds */
+    private static final int ROUNDS = 5;
+
+    /** The payload of the feed button, created once like the button's */
+    private static final EventPayload FEED_APPLE = new EventPayload.Feed(Item.APPLE);
+
+    /** Sink for the observers, so the JIT cannot remove the dispatch */
+    private static long handled;
+
+    /**
+     * An observer which only counts the events it receives.
+     */
+    private static class CountingObserver extends Observer {
+        CountingObserver(EventDispatcher eventDispatcher) {
+            super(eventDispatcher);
+        }
+
+        @Override
+        protected void handleEvent(GameEvent event) {
+            handled++;
+        }
+
+        @Override
+        protected void registerEvents() {
+            eventDispatcher.addObserver(GameEvent.FEED, this);
+            eventDispatcher.addObserver(GameEvent.STOPSOUND, this);
+            eventDispatcher.addObserver(GameEvent.LEAVEMINIGAME, this);
+        }
+    }
+
+    public static void main(String[] args) {
+        EventDispatcher dispatcher = new EventDispatcher();
+        dispatcher.getMetrics().setEnabled(false);
+        FlightRecorder.getDefault().setEnabled(false);
+        new CountingObserver(dispatcher).registerEvents();
+        // A second observer on the burst, like the sound and game controllers
+        CountingObserver second = new CountingObserver(dispatcher);
+        dispatcher.addObserver(GameEvent.LEAVEMINIGAME, second);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            click(dispatcher);
+            burst(dispatcher);
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            report("click", click(dispatcher));
+            report("minigame burst", burst(dispatcher));
+        }
+        // The same dispatches while logging to the flight recorder
+        FlightRecorder.getDefault().setEnabled(true);
+        for (int i = 0; i < ROUNDS; i++) {
+            report("click+recorder", click(dispatcher));
+            report("burst+recorder", burst(dispatcher));
+        }
+        // And while recording latency histograms as well
+        dispatcher.getMetrics().setEnabled(true);
+        for (int i = 0; i < ROUNDS; i++) {
+            report("click+metrics", click(dispatcher));
+            report("burst+metrics", burst(dispatcher));
+        }
+        System.out.println();
+        System.out.print(dispatcher.getMetrics().getReport());
+        System.out.println("Handled " + handled + " events");
+    }
+
+    /**
+     * Dispatches a button click repeatedly.
+     *
+     * @param dispatcher The dispatcher to measure
+     * @return The elapsed nanoseconds and allocated bytes
+     */
+    private static long[] click(EventDispatcher dispatcher) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < DISPATCHES; i++) {
+            dispatcher.notifyObservers(GameEvent.FEED, FEED_APPLE);
+        }
+        return new long[] { System.nanoTime() - start, allocatedBytes() - bytes };
+    }
+
+    /**
+     * Dispatches the minigame exit burst repeatedly.
+     *
+     * @param dispatcher The dispatcher to measure
+     * @return The elapsed nanoseconds and allocated bytes
+     */
+    private static long[] burst(EventDispatcher dispatcher) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < DISPATCHES; i++) {
+            dispatcher.notifyObservers(GameEvent.STOPSOUND);
+            dispatcher.notifyObservers(GameEvent.LEAVEMINIGAME);
+        }
+        return new long[] { System.nanoTime() - start, allocatedBytes() - bytes };
+    }
+
+    /**
+     * Prints the cost of one dispatch in a round.
+     *
+     * @param name The name of the measurement
+     * @param result The elapsed nanoseconds and allocated bytes of the round
+     */
+    private static void report(String name, long[] result) {
+        System.out.printf("%-15s %8.2f ns/op %8.3f bytes/op%n", name,
+                (double) result[0] / DISPATCHES, (double) result[1] / DISPATCHES);
+    }
+
+    /**
+     * Returns the number of bytes allocated by this thread so far.
+     *
+     * @return The allocated bytes, or 0 if the JVM cannot measure it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,202 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Compares the ways of reading and writing a save, in time and bytes allocated per save.
+ * <br><br>
+ * Each save is read and written in memory, so the numbers are the cost of the JSON
+ * handling alone, which is what scanning many save files repeats. Four approaches
+ * are compared:
+ * <ul>
+ * <li>tree: building a JsonNode tree and calling path(...) for each property, as
+ * SaveManager used to, with one shared mapper</li>
+ * <li>databind: the cached {@link JsonCodec#SAVE_READER} and {@link JsonCodec#SAVE_WRITER}</li>
+ * <li>streaming: {@link SaveCodec}</li>
+ * <li>binary: {@link BinarySaveCodec}</li>
+ * </ul>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   javac -cp "lib/*" -d out *.java bench/*.java
+ *   java -cp "out:lib/*" SaveCodecBenchmark
+ * }
+ * </pre>
+ *
+ * @see SaveCodec
+ * @see BinarySaveCodec
+ */
+public class SaveCodecBenchmark {
+    /** The number of saves read or written in each measured round */
+    private static final int OPERATIONS = 200_000;
+    /** The number of rounds used to warm up the JIT compiler */
+    private static final int WARMUP_ROUNDS = 5;
+    /** The number of measured rounds */
+    private static final int ROUNDS = 5;
+
+    /** The mapper used by the tree approach */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /** The save which is written */
+    private static final SaveData SAVE = new SaveData(3, 1, 0, 2, "pet1", "Chopper", "normal", 100.0,
+            53.60000000000264, 22.20000000000124, 7.2000000000013955, 15);
+    /** The JSON of the save which is read */
+    private static byte[] json;
+    /** The binary save which is read */
+    private static byte[] binary;
+
+    /** Sink for the results, so the JIT cannot remove the work */
+    private static long sink;
+
+    /**
+     * One way of reading or writing a save.
+     */
+    private interface Operation {
+        void run() throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SaveCodec.write(out, SAVE);
+        json = out.toByteArray();
+        binary = BinarySaveCodec.encode(SAVE);
+
+        String[] names = { "read tree", "read databind", "read streaming", "read binary", "write tree",
+                "write databind", "write streaming", "write binary" };
+        Operation[] operations = { SaveCodecBenchmark::readTree, SaveCodecBenchmark::readDatabind,
+                SaveCodecBenchmark::readStreaming, SaveCodecBenchmark::readBinary, SaveCodecBenchmark::writeTree,
+                SaveCodecBenchmark::writeDatabind, SaveCodecBenchmark::writeStreaming,
+                SaveCodecBenchmark::writeBinary };
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Operation operation : operations) {
+                measure(operation);
+            }
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < operations.length; i++) {
+                report(names[i], measure(operations[i]));
+            }
+            System.out.println();
+        }
+        System.out.println("Sink " + sink);
+    }
+
+    /**
+     * Reads the save by building a tree and looking up each property.
+     */
+    private static void readTree() throws IOException {
+        JsonNode root = MAPPER.readTree(json);
+        sink += root.path("apples").asInt() + root.path("bananas").asInt() + root.path("purplegifts").asInt()
+                + root.path("greengifts").asInt() + root.path("name").asText().length()
+                + root.path("type").asText().length() + root.path("state").asText().length()
+                + root.path("health").asInt() + root.path("hunger").asInt() + root.path("happiness").asInt()
+                + root.path("sleep").asInt() + root.path("score").asInt();
+    }
+
+    /**
+     * Reads the save with the cached databind reader.
+     */
+    private static void readDatabind() throws IOException {
+        SaveData data = JsonCodec.SAVE_READER.readValue(json);
+        sink += data.score();
+    }
+
+    /**
+     * Reads the save with the streaming codec.
+     */
+    private static void readStreaming() throws IOException {
+        sink += SaveCodec.read(json).score();
+    }
+
+    /**
+     * Reads the save with the binary codec.
+     */
+    private static void readBinary() throws IOException {
+        sink += BinarySaveCodec.decode(binary).score();
+    }
+
+    /**
+     * Writes the save by building a tree.
+     */
+    private static void writeTree() throws IOException {
+        ObjectNode node = MAPPER.createObjectNode()
+                .put("apples", SAVE.apples())
+                .put("bananas", SAVE.bananas())
+                .put("purplegifts", SAVE.purpleGifts())
+                .put("greengifts", SAVE.greenGifts())
+                .put("name", SAVE.name())
+                .put("type", SAVE.type())
+                .put("state", SAVE.state())
+                .put("health", SAVE.health())
+                .put("hunger", SAVE.hunger())
+                .put("happiness", SAVE.happiness())
+                .put("sleep", SAVE.sleep())
+                .put("score", SAVE.score());
+        sink += MAPPER.writeValueAsBytes(node).length;
+    }
+
+    /**
+     * Writes the save with the cached databind writer.
+     */
+    private static void writeDatabind() throws IOException {
+        sink += JsonCodec.SAVE_WRITER.writeValueAsBytes(SAVE).length;
+    }
+
+    /**
+     * Writes the save with the streaming codec.
+     */
+    private static void writeStreaming() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        SaveCodec.write(out, SAVE);
+        sink += out.size();
+    }
+
+    /**
+     * Writes the save with the binary codec.
+     */
+    private static void writeBinary() throws IOException {
+        sink += BinarySaveCodec.encode(SAVE).length;
+    }
+
+    /**
+     * Runs an operation repeatedly.
+     *
+     * @param operation The operation to measure
+     * @return The elapsed nanoseconds and allocated bytes
+     */
+    private static long[] measure(Operation operation) throws IOException {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            operation.run();
+        }
+        return new long[] { System.nanoTime() - start, allocatedBytes() - bytes };
+    }
+
+    /**
+     * Prints the cost of one operation in a round.
+     *
+     * @param name The name of the measurement
+     * @param result The elapsed nanoseconds and allocated bytes of the round
+     */
+    private static void report(String name, long[] result) {
+        System.out.printf("%-16s %9.1f ns/op %9.1f bytes/op%n", name,
+                (double) result[0] / OPERATIONS, (double) result[1] / OPERATIONS);
+    }
+
+    /**
+     * Returns the number of bytes allocated by this thread so far.
+     *
+     * @return The allocated bytes, or 0 if the JVM cannot measure it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,101 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Compares the save backends, in time per save, checkpoint, load and listing of the slots.
+ * <br><br>
+ * Each backend keeps {@link #PROFILES} profiles in a temporary directory and is driven
+ * through {@link SaveManager}, so the times include encoding the save and updating the
+ * slot index, as the game does. Saves to "files" and "store" are forced to disk, so
+ * their times depend on the disk the temporary directory is on.
+ * <br><br>
+ * <b>Example Use:</b>
+ * <pre>
+ * {@code
+ *   javac -cp "lib/*" -d out *.java bench/*.java
+ *   java -cp "out:lib/*" SaveRepositoryBenchmark
+ * }
+ * </pre>
+ *
+ * @see SaveRepository
+ */
+public class SaveRepositoryBenchmark {
+    /** The backends compared */
+    private static final String[] BACKENDS = { "memory", "store", "files" };
+    /** The number of profiles kept by each backend */
+    private static final int PROFILES = 50;
+    /** The number of rounds used to warm up the JIT compiler */
+    private static final int WARMUP_ROUNDS = 2;
+    /** The number of measured rounds */
+    private static final int ROUNDS = 3;
+
+    /** Sink for the results, so the JIT cannot remove the work */
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            for (String backend : BACKENDS) {
+                Path directory = Files.createTempDirectory("bench");
+                try {
+                    run(backend, directory, round >= WARMUP_ROUNDS);
+                } finally {
+                    try (Stream<Path> files = Files.walk(directory)) {
+                        files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                    }
+                }
+            }
+            if (round >= WARMUP_ROUNDS) {
+                System.out.println();
+            }
+        }
+        System.out.println("Sink " + sink);
+    }
+
+    /**
+     * Saves, checkpoints, lists and loads every profile of one backend.
+     *
+     * @param backend The backend
+     * @param directory An empty directory for the backend's records
+     * @param print Whether to print the times
+     */
+    private static void run(String backend, Path directory, boolean print) throws IOException {
+        SaveRepository repository = SaveRepository.open(backend, directory);
+        SaveManager saveManager = new SaveManager(repository);
+        PetSnapshot snapshot = PetSnapshot.of(new Pet("Rex", "Chopper", 100, 50, 50, 50));
+
+        long start = System.nanoTime();
+        for (int slot = 1; slot <= PROFILES; slot++) {
+            saveManager.saveGame(snapshot, slot);
+        }
+        long save = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int slot = 1; slot <= PROFILES; slot++) {
+            saveManager.saveCheckpoint(snapshot, slot);
+        }
+        long checkpoint = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        sink += saveManager.listSlots().size();
+        long list = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int slot = 1; slot <= PROFILES; slot++) {
+            sink += saveManager.loadGame(slot).y.y;
+        }
+        long load = System.nanoTime() - start;
+
+        if (repository instanceof Closeable) {
+            ((Closeable) repository).close();
+        }
+        if (print) {
+            System.out.printf("%-8s save %8.1f us  checkpoint %8.1f us  load %8.1f us  list %d profiles %8.1f us%n",
+                    backend, save / 1000.0 / PROFILES, checkpoint / 1000.0 / PROFILES, load / 1000.0 / PROFILES,
+                    PROFILES, list / 1000.0);
+        }
+    }
+}
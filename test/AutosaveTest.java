@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JUnit test class for Autosave
+ */
+public class AutosaveTest {
+    /** The slot of each checkpoint written, in order */
+    private List<Integer> checkpoints;
+    /** The save service checkpoints are written through */
+    private SaveService saveService;
+    /** The autosave under test, without a timer so checks are made by the test */
+    private Autosave autosave;
+    /** The game being checkpointed */
+    private TestGameController game;
+
+    @BeforeEach
+    void setUp() {
+        checkpoints = Collections.synchronizedList(new ArrayList<>());
+        EventDispatcher eventDispatcher = new EventDispatcher();
+        SaveManager saveManager = new SaveManager() {
+            @Override
+            public boolean saveCheckpoint(PetSnapshot snapshot, int saveSlot) {
+                checkpoints.add(saveSlot);
+                return true;
+            }
+
+            @Override
+            public boolean saveGame(PetSnapshot snapshot, int saveSlot) {
+                fail("A checkpoint should not write the slot's save");
+                return false;
+            }
+        };
+        saveService = new SaveService(saveManager, eventDispatcher);
+        autosave = new Autosave(saveService, 0, TimeUnit.SECONDS);
+        game = new TestGameController(eventDispatcher, 2);
+    }
+
+    /**
+     * Checks the game as the timer would, and waits for any checkpoint to be written.
+     */
+    private void check() {
+        autosave.checkpoint();
+        assertTrue(saveService.flush(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Test a checkpoint is only taken when the game changed")
+    void testOnlyWhenChanged() {
+        autosave.watch(game);
+        game.running = true;
+
+        // The first check only records the version of the new game
+        check();
+        assertTrue(checkpoints.isEmpty());
+
+        check();
+        assertTrue(checkpoints.isEmpty());
+
+        game.version++;
+        check();
+        assertEquals(List.of(2), checkpoints);
+
+        check();
+        assertEquals(List.of(2), checkpoints);
+        assertEquals(1, autosave.getCheckpoints());
+    }
+
+    @Test
+    @DisplayName("Test no checkpoint is taken while the game is paused or not watched")
+    void testPausedOrUnwatched() {
+        autosave.watch(game);
+        game.running = true;
+        check();
+
+        game.running = false;
+        game.version++;
+        check();
+        assertTrue(checkpoints.isEmpty());
+
+        autosave.watch(null);
+        game.running = true;
+        check();
+        assertTrue(checkpoints.isEmpty());
+    }
+
+    /**
+     * A game controller whose running state and version are set by the test.
+     */
+    private static class TestGameController extends GameController {
+        volatile boolean running = false;
+        volatile long version = 0;
+
+        TestGameController(EventDispatcher eventDispatcher, int saveSlot) {
+            super(eventDispatcher, new GameplayPanel(eventDispatcher), new Inventory(), saveSlot,
+                    new Pet("Rex", "Chopper", 100, 100, 100, 100), 0);
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
+}
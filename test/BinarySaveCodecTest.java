@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JUnit test class for BinarySaveCodec
+ */
+public class BinarySaveCodecTest {
+
+    /** A save as written by the game */
+    private static final SaveData SAVE = new SaveData(1, 2, 3, 4, "Rëx", "Chopper", "hungry", 100, 53.60000000000264,
+            22.25, 7.2, 15);
+
+    @Test
+    @DisplayName("Test a save is read back exactly, including full precision stats")
+    void testRoundTrip() throws IOException {
+        byte[] bytes = BinarySaveCodec.encode(SAVE);
+
+        assertTrue(BinarySaveCodec.isBinary(bytes));
+        assertEquals(SAVE, BinarySaveCodec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("Test the header holds the magic number and schema version")
+    void testHeader() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(BinarySaveCodec.encode(SAVE));
+
+        assertEquals(BinarySaveCodec.MAGIC, buffer.getInt());
+        assertEquals(BinarySaveCodec.VERSION, buffer.getShort());
+        assertFalse(BinarySaveCodec.isBinary("{\"apples\":1}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Test null strings are kept")
+    void testNullStrings() throws IOException {
+        SaveData data = new SaveData(0, 0, 0, 0, null, "Chopper", null, 0, 0, 0, 0, 0);
+
+        assertEquals(data, BinarySaveCodec.decode(BinarySaveCodec.encode(data)));
+    }
+
+    @Test
+    @DisplayName("Test damaged, truncated and newer saves are rejected")
+    void testRejects() throws IOException {
+        byte[] bytes = BinarySaveCodec.encode(SAVE);
+
+        byte[] damaged = bytes.clone();
+        damaged[20] ^= 1;
+        assertThrows(IOException.class, () -> BinarySaveCodec.decode(damaged));
+        assertThrows(IOException.class, () -> BinarySaveCodec.decode(Arrays.copyOf(bytes, bytes.length - 5)));
+        assertThrows(IOException.class, () -> BinarySaveCodec.decode(new byte[0]));
+
+        byte[] newer = bytes.clone();
+        ByteBuffer.wrap(newer).putShort(4, (short) (BinarySaveCodec.VERSION + 1));
+        IOException e = assertThrows(IOException.class, () -> BinarySaveCodec.decode(newer));
+        assertTrue(e.getMessage().contains("newer"));
+    }
+}
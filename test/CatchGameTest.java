@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for CatchGame
+ */
+public class CatchGameTest {
+
+    /**
+     * Plays a whole game, moving the basket back and forth every 40 frames.
+     *
+     * @param seed The seed of the game
+     * @return The game after it ended
+     */
+    private static CatchGame play(long seed) {
+        CatchGame game = new CatchGame(seed, 800, 600, null);
+        int direction = -1;
+        while (!game.isOver()) {
+            if (game.getFrame() % 40 == 0) {
+                direction = -direction;
+            }
+            if (game.getFrame() % 2 == 0) {
+                game.move(direction);
+            }
+            game.step();
+        }
+        return game;
+    }
+
+    @Test
+    @DisplayName("Test a game with the same seed and moves always ends the same")
+    void testDeterministic() {
+        CatchGame first = play(42);
+        CatchGame second = play(42);
+        assertEquals(first.getScore(), second.getScore());
+        assertEquals(first.getFrame(), second.getFrame());
+        assertEquals(first.getApples().size(), second.getApples().size());
+        for (int i = 0; i < first.getApples().size(); i++) {
+            assertEquals(first.getApples().get(i).getX(), second.getApples().get(i).getX());
+            assertEquals(first.getApples().get(i).getY(), second.getApples().get(i).getY());
+        }
+    }
+
+    @Test
+    @DisplayName("Test apples fall once a second and the game ends after its duration")
+    void testTiming() {
+        CatchGame game = new CatchGame(1, 800, 600, null);
+        int framesPerSecond = 1000 / CatchGame.FRAME_MILLIS;
+        for (int i = 0; i < framesPerSecond; i++) {
+            game.step();
+        }
+        assertTrue(game.getApples().isEmpty());
+        game.step();
+        assertEquals(1, game.getApples().size());
+        assertEquals(CatchGame.DURATION_SECONDS - 1, game.getTimeLeft());
+
+        while (!game.isOver()) {
+            game.step();
+        }
+        assertEquals(CatchGame.DURATION_SECONDS * 1000 / CatchGame.FRAME_MILLIS
+                + (CatchGame.DURATION_SECONDS * 1000 % CatchGame.FRAME_MILLIS == 0 ? 0 : 1), game.getFrame());
+        int score = game.getScore();
+        assertEquals(0, game.step());
+        assertEquals(score, game.getScore());
+    }
+
+    @Test
+    @DisplayName("Test the basket starts in the middle and stops at the edges")
+    void testMove() {
+        CatchGame game = new CatchGame(1, 300, 600, null);
+        assertEquals(100, game.getPlayerX());
+        assertEquals(600 - CatchGame.PLAYER_HEIGHT - CatchGame.GROUND_OFFSET, game.getPlayerY());
+        for (int i = 0; i < 20; i++) {
+            game.move(-1);
+        }
+        assertEquals(0, game.getPlayerX());
+        for (int i = 0; i < 20; i++) {
+            game.move(1);
+        }
+        assertEquals(200, game.getPlayerX());
+    }
+}
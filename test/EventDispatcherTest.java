@@ -3,9 +3,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.util.HashMap;
-import java.util.List;
-
 /**
  * JUnit test class for EventDispatcher
  */
@@ -19,14 +16,13 @@ public class EventDispatcherTest {
     }
     
     @Test
-    @DisplayName("Test constructor initializes observers map")
+    @DisplayName("Test constructor initializes observers table")
     void testConstructor() {
-        // Get the observers map using reflection
-        HashMap<GameEvent, List<Observer>> observers = getPrivateField(dispatcher, "observers");
-        
-        // Verify map is initialized
-        assertNotNull(observers);
-        assertTrue(observers.isEmpty());
+        // Verify every event starts without observers
+        for (GameEvent event : GameEvent.values()) {
+            assertNotNull(dispatcher.getObservers(event));
+            assertEquals(0, dispatcher.getObservers(event).length);
+        }
     }
     
     @Test
@@ -38,13 +34,9 @@ public class EventDispatcherTest {
         // Add the observer for a test event
         dispatcher.addObserver(GameEvent.MENU, observer);
         
-        // Get the observers map using reflection
-        HashMap<GameEvent, List<Observer>> observers = getPrivateField(dispatcher, "observers");
-        
         // Verify the observer was added
-        assertTrue(observers.containsKey(GameEvent.MENU));
-        assertEquals(1, observers.get(GameEvent.MENU).size());
-        assertSame(observer, observers.get(GameEvent.MENU).get(0));
+        assertEquals(1, dispatcher.getObservers(GameEvent.MENU).length);
+        assertSame(observer, dispatcher.getObservers(GameEvent.MENU)[0]);
     }
     
     @Test
@@ -60,14 +52,10 @@ public class EventDispatcherTest {
         // Add the second observer for the same event
         dispatcher.addObserver(GameEvent.MENU, observer2);
         
-        // Get the observers map using reflection
-        HashMap<GameEvent, List<Observer>> observers = getPrivateField(dispatcher, "observers");
-        
         // Verify both observers were added
-        assertTrue(observers.containsKey(GameEvent.MENU));
-        assertEquals(2, observers.get(GameEvent.MENU).size());
-        assertSame(observer1, observers.get(GameEvent.MENU).get(0));
-        assertSame(observer2, observers.get(GameEvent.MENU).get(1));
+        assertEquals(2, dispatcher.getObservers(GameEvent.MENU).length);
+        assertSame(observer1, dispatcher.getObservers(GameEvent.MENU)[0]);
+        assertSame(observer2, dispatcher.getObservers(GameEvent.MENU)[1]);
     }
     
     @Test
@@ -80,16 +68,11 @@ public class EventDispatcherTest {
         dispatcher.addObserver(GameEvent.MENU, observer);
         dispatcher.addObserver(GameEvent.QUIT, observer);
         
-        // Get the observers map using reflection
-        HashMap<GameEvent, List<Observer>> observers = getPrivateField(dispatcher, "observers");
-        
         // Verify the observer was added to both events
-        assertTrue(observers.containsKey(GameEvent.MENU));
-        assertTrue(observers.containsKey(GameEvent.QUIT));
-        assertEquals(1, observers.get(GameEvent.MENU).size());
-        assertEquals(1, observers.get(GameEvent.QUIT).size());
-        assertSame(observer, observers.get(GameEvent.MENU).get(0));
-        assertSame(observer, observers.get(GameEvent.QUIT).get(0));
+        assertEquals(1, dispatcher.getObservers(GameEvent.MENU).length);
+        assertEquals(1, dispatcher.getObservers(GameEvent.QUIT).length);
+        assertSame(observer, dispatcher.getObservers(GameEvent.MENU)[0]);
+        assertSame(observer, dispatcher.getObservers(GameEvent.QUIT)[0]);
     }
     
     @Test
@@ -106,13 +89,9 @@ public class EventDispatcherTest {
         // Remove the first observer
         dispatcher.removeObserver(GameEvent.MENU, observer1);
         
-        // Get the observers map using reflection
-        HashMap<GameEvent, List<Observer>> observers = getPrivateField(dispatcher, "observers");
-        
         // Verify the first observer was removed but the second remains
-        assertTrue(observers.containsKey(GameEvent.MENU));
-        assertEquals(1, observers.get(GameEvent.MENU).size());
-        assertSame(observer2, observers.get(GameEvent.MENU).get(0));
+        assertEquals(1, dispatcher.getObservers(GameEvent.MENU).length);
+        assertSame(observer2, dispatcher.getObservers(GameEvent.MENU)[0]);
     }
     
     @Test
@@ -124,11 +103,8 @@ public class EventDispatcherTest {
         // Try to remove from an event that doesn't exist
         dispatcher.removeObserver(GameEvent.QUIT, observer);
         
-        // Get the observers map using reflection
-        HashMap<GameEvent, List<Observer>> observers = getPrivateField(dispatcher, "observers");
-        
-        // Verify the map is still empty
-        assertTrue(observers.isEmpty());
+        // Verify there are still no observers
+        assertEquals(0, dispatcher.getObservers(GameEvent.QUIT).length);
     }
     
     @Test
@@ -144,13 +120,9 @@ public class EventDispatcherTest {
         // Try to remove the second observer that was never added
         dispatcher.removeObserver(GameEvent.MENU, observer2);
         
-        // Get the observers map using reflection
-        HashMap<GameEvent, List<Observer>> observers = getPrivateField(dispatcher, "observers");
-        
         // Verify the first observer is still there
-        assertTrue(observers.containsKey(GameEvent.MENU));
-        assertEquals(1, observers.get(GameEvent.MENU).size());
-        assertSame(observer1, observers.get(GameEvent.MENU).get(0));
+        assertEquals(1, dispatcher.getObservers(GameEvent.MENU).length);
+        assertSame(observer1, dispatcher.getObservers(GameEvent.MENU)[0]);
     }
     
     @Test
@@ -228,6 +200,185 @@ public class EventDispatcherTest {
         assertFalse(observer.wasNotified());
     }
     
+    @Test
+    @DisplayName("Test observers can subscribe and unsubscribe during a dispatch")
+    void testChangeObserversDuringDispatch() {
+        TestObserver late = new TestObserver();
+        TestObserver second = new TestObserver();
+        // The first observer adds a new observer and removes the second one
+        TestObserver first = new TestObserver() {
+            @Override
+            protected void handleEvent(GameEvent event) {
+                super.handleEvent(event);
+                dispatcher.addObserver(GameEvent.MENU, late);
+                dispatcher.removeObserver(GameEvent.MENU, second);
+            }
+        };
+        dispatcher.addObserver(GameEvent.MENU, first);
+        dispatcher.addObserver(GameEvent.MENU, second);
+        
+        // The dispatch in progress uses the observers from when it started
+        dispatcher.notifyObservers(GameEvent.MENU);
+        assertTrue(first.wasNotified());
+        assertTrue(second.wasNotified());
+        assertFalse(late.wasNotified());
+        assertEquals(2, dispatcher.getObservers(GameEvent.MENU).length);
+        
+        // The next dispatch sees the changes
+        second.reset();
+        dispatcher.notifyObservers(GameEvent.MENU);
+        assertFalse(second.wasNotified());
+        assertTrue(late.wasNotified());
+    }
+    
+    @Test
+    @DisplayName("Test queued mode runs posted events after the current event in order")
+    void testQueuedModeOrder() {
+        EventDispatcher queuedDispatcher = new EventDispatcher(true);
+        StringBuilder order = new StringBuilder();
+        // Handling LOAD posts INGAME and then MENU, like App.setSave
+        Observer loader = new TestObserver() {
+            @Override
+            protected void handleEvent(GameEvent event) {
+                order.append(event).append(' ');
+                if (event == GameEvent.LOAD) {
+                    queuedDispatcher.notifyObservers(GameEvent.INGAME);
+                    queuedDispatcher.notifyObservers(GameEvent.MENU);
+                    order.append("LOAD-DONE ");
+                }
+            }
+        };
+        queuedDispatcher.addObserver(GameEvent.LOAD, loader);
+        queuedDispatcher.addObserver(GameEvent.INGAME, loader);
+        queuedDispatcher.addObserver(GameEvent.MENU, loader);
+        
+        queuedDispatcher.notifyObservers(GameEvent.LOAD);
+        
+        // The posted events ran once LOAD finished, without nesting
+        assertEquals("LOAD LOAD-DONE INGAME MENU ", order.toString());
+        assertEquals(1, queuedDispatcher.getMaxDepth());
+        assertEquals(2, queuedDispatcher.getMaxBacklog());
+        assertEquals(0, queuedDispatcher.getBacklog());
+    }
+    
+    @Test
+    @DisplayName("Test queued mode grows its buffer and recovers after an observer throws")
+    void testQueuedModeBacklog() {
+        EventDispatcher queuedDispatcher = new EventDispatcher(true);
+        TestObserver counter = new TestObserver();
+        int[] count = { 0 };
+        // Each STOPSOUND posts 40 more events, more than the initial buffer holds
+        Observer burst = new TestObserver() {
+            @Override
+            protected void handleEvent(GameEvent event) {
+                for (int i = 0; i < 40; i++) {
+                    queuedDispatcher.notifyObservers(GameEvent.LEAVEMINIGAME);
+                }
+            }
+        };
+        Observer failing = new TestObserver() {
+            @Override
+            protected void handleEvent(GameEvent event) {
+                if (count[0]++ == 0) {
+                    throw new IllegalStateException("first event fails");
+                }
+            }
+        };
+        queuedDispatcher.addObserver(GameEvent.STOPSOUND, burst);
+        queuedDispatcher.addObserver(GameEvent.LEAVEMINIGAME, failing);
+        queuedDispatcher.addObserver(GameEvent.QUIT, counter);
+        
+        // The first LEAVEMINIGAME throws, the rest stay queued
+        assertThrows(IllegalStateException.class, () -> queuedDispatcher.notifyObservers(GameEvent.STOPSOUND));
+        assertEquals(39, queuedDispatcher.getBacklog());
+        
+        // The next event posted drains the backlog first
+        queuedDispatcher.notifyObservers(GameEvent.QUIT);
+        assertEquals(40, count[0]);
+        assertTrue(counter.wasNotified());
+        assertEquals(0, queuedDispatcher.getBacklog());
+        assertEquals(40, queuedDispatcher.getMaxBacklog());
+    }
+    
+    @Test
+    @DisplayName("Test nested dispatch depth is measured without queued mode")
+    void testNestedDepth() {
+        Observer nesting = new TestObserver() {
+            @Override
+            protected void handleEvent(GameEvent event) {
+                if (event == GameEvent.LOAD) {
+                    dispatcher.notifyObservers(GameEvent.INGAME);
+                }
+            }
+        };
+        dispatcher.addObserver(GameEvent.LOAD, nesting);
+        dispatcher.addObserver(GameEvent.INGAME, nesting);
+        
+        dispatcher.notifyObservers(GameEvent.LOAD);
+        
+        assertFalse(dispatcher.isQueued());
+        assertEquals(2, dispatcher.getMaxDepth());
+    }
+    
+    @Test
+    @DisplayName("Test subscribing to a set of events in one call")
+    void testAddObserverSet() {
+        TestObserver observer = new TestObserver();
+        Object tableBefore = getPrivateField(dispatcher, "observers");
+        
+        dispatcher.addObserver(java.util.EnumSet.of(GameEvent.MENU, GameEvent.QUIT, GameEvent.FEED), observer);
+        
+        // The table was replaced once and routes each event to the observer
+        assertNotSame(tableBefore, getPrivateField(dispatcher, "observers"));
+        assertSame(observer, dispatcher.getObservers(GameEvent.MENU)[0]);
+        assertSame(observer, dispatcher.getObservers(GameEvent.QUIT)[0]);
+        assertSame(observer, dispatcher.getObservers(GameEvent.FEED)[0]);
+        assertEquals(0, dispatcher.getObservers(GameEvent.GIFT).length);
+        
+        dispatcher.notifyObservers(GameEvent.FEED);
+        assertEquals(GameEvent.FEED, observer.getLastEvent());
+        
+        // Removing the set removes every route
+        dispatcher.removeObserver(java.util.EnumSet.of(GameEvent.MENU, GameEvent.QUIT, GameEvent.FEED), observer);
+        assertTrue(dispatcher.getObserverCounts().isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Test subscribing with a mask of events")
+    void testAddObserverMask() {
+        TestObserver observer = new TestObserver();
+        long mask = EventDispatcher.mask(GameEvent.STOPSOUND, GameEvent.LEAVEMINIGAME);
+        assertEquals(java.util.EnumSet.of(GameEvent.STOPSOUND, GameEvent.LEAVEMINIGAME), EventDispatcher.events(mask));
+        
+        dispatcher.addObserver(mask, observer);
+        
+        assertEquals(1, dispatcher.getObservers(GameEvent.STOPSOUND).length);
+        assertEquals(1, dispatcher.getObservers(GameEvent.LEAVEMINIGAME).length);
+        assertEquals(2, dispatcher.getObserverCounts().size());
+    }
+    
+    @Test
+    @DisplayName("Test payloads are delivered with their event")
+    void testNotifyWithPayload() {
+        EventPayload[] received = new EventPayload[1];
+        Observer observer = new TestObserver() {
+            @Override
+            protected void handleEvent(GameEvent event, EventPayload payload) {
+                received[0] = payload;
+                super.handleEvent(event, payload);
+            }
+        };
+        TestObserver plain = new TestObserver();
+        dispatcher.addObserver(GameEvent.LOAD, observer);
+        dispatcher.addObserver(GameEvent.LOAD, plain);
+        
+        dispatcher.notifyObservers(GameEvent.LOAD, new EventPayload.Load(7));
+        
+        // Any slot can be loaded without a new event, and observers ignoring payloads still see the event
+        assertEquals(new EventPayload.Load(7), received[0]);
+        assertEquals(GameEvent.LOAD, plain.getLastEvent());
+    }
+    
     /**
      * Helper method to get a private field using reflection
      */
@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JUnit test class for FileSaveRepository, running the tests every backend must pass
+ */
+public class FileSaveRepositoryTest extends SaveRepositoryTest {
+
+    @Override
+    protected SaveRepository createRepository(Path directory) {
+        return new FileSaveRepository(directory.resolve("saves"));
+    }
+
+    @Test
+    @DisplayName("Test each record is a file in the directory, which is created by the first write")
+    void testFiles() throws IOException {
+        repository.write("save1.sav", new byte[] { 1 }, false);
+
+        assertArrayEquals(new byte[] { 1 }, Files.readAllBytes(directory.resolve("saves").resolve("save1.sav")));
+        assertEquals(directory.resolve("saves").resolve("save1.sav"),
+                ((FileSaveRepository) repository).getFile("save1.sav"));
+    }
+
+    @Test
+    @DisplayName("Test saves named with a backslash by older versions are moved into the directory")
+    void testAdoptMisnamedFiles() throws IOException {
+        if (File.separatorChar == '\\') {
+            return;
+        }
+        Files.write(directory.resolve("saves\\save1.sav"), new byte[] { 1 });
+        Files.createDirectories(directory.resolve("saves"));
+        Files.write(directory.resolve("saves\\save2.sav"), new byte[] { 2 });
+        Files.write(directory.resolve("saves").resolve("save2.sav"), new byte[] { 3 });
+
+        FileSaveRepository.adoptMisnamedFiles(directory.resolve("saves"));
+
+        assertArrayEquals(new byte[] { 1 }, repository.read("save1.sav"));
+        assertFalse(Files.exists(directory.resolve("saves\\save1.sav")));
+        // A save already in the directory is newer, so it is kept
+        assertArrayEquals(new byte[] { 3 }, repository.read("save2.sav"));
+    }
+
+    @Test
+    @DisplayName("Test the backup is made without moving the file, so the file is never missing")
+    void testBackupKeepsFile() throws Exception {
+        Path file = directory.resolve("saves").resolve("save1.sav");
+        Path backup = directory.resolve("saves").resolve("save1.sav" + SaveRepository.BACKUP_SUFFIX);
+        repository.write("save1.sav", new byte[] { 0 }, true);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger missing = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (!Files.exists(file)) {
+                    missing.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 1; i <= 500; i++) {
+                repository.write("save1.sav", new byte[] { (byte) i }, true);
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+
+        assertEquals(0, missing.get());
+        assertArrayEquals(new byte[] { (byte) 500 }, Files.readAllBytes(file));
+        assertArrayEquals(new byte[] { (byte) 499 }, Files.readAllBytes(backup));
+        assertFalse(Files.exists(file.resolveSibling("save1.sav" + FileSaveRepository.TEMP_SUFFIX)));
+        assertFalse(Files.exists(backup.resolveSibling(backup.getFileName() + FileSaveRepository.TEMP_SUFFIX)));
+    }
+}
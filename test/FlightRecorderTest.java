@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * JUnit test class for FlightRecorder and FlightRecorderDecoder
+ */
+public class FlightRecorderTest {
+
+    /**
+     * An observer which ignores every event.
+     */
+    private static class QuietObserver extends Observer {
+        QuietObserver(EventDispatcher eventDispatcher) {
+            super(eventDispatcher);
+        }
+
+        @Override
+        protected void handleEvent(GameEvent event) {
+        }
+
+        @Override
+        protected void registerEvents() {
+        }
+    }
+
+    /**
+     * Dumps a recorder and decodes the dump.
+     *
+     * @param recorder The recorder to dump
+     * @return The decoded lines
+     */
+    private String[] decode(FlightRecorder recorder) throws IOException {
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        recorder.writeTo(dump);
+        StringWriter text = new StringWriter();
+        FlightRecorderDecoder.decode(new ByteArrayInputStream(dump.toByteArray()), new PrintWriter(text, true));
+        String decoded = text.toString().trim();
+        return decoded.isEmpty() ? new String[0] : decoded.split("\\R");
+    }
+
+    @Test
+    @DisplayName("Test entries are decoded in the order they were recorded")
+    void testDecode() throws IOException {
+        FlightRecorder recorder = new FlightRecorder(16, true);
+        Pet pet = new Pet("Rex", "Chopper", 80, 70, 60, 50);
+        recorder.recordTick(pet, System.nanoTime(), 12_000);
+        recorder.recordObserver(GameEvent.FEED, new QuietObserver(new EventDispatcher()), System.nanoTime(), 1_500);
+        recorder.recordEvent(GameEvent.FEED, System.nanoTime(), 2_000);
+        recorder.mark("exit");
+
+        String[] lines = decode(recorder);
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("TICK") && lines[0].contains("12.0 us"), lines[0]);
+        assertTrue(lines[0].contains("health " + String.format("%.1f", pet.getHealth())), lines[0]);
+        assertTrue(lines[1].contains("OBSERVER") && lines[1].contains("FEED") && lines[1].contains("QuietObserver"),
+                lines[1]);
+        assertTrue(lines[2].contains("EVENT") && lines[2].contains("FEED") && lines[2].contains("2.0 us"), lines[2]);
+        assertTrue(lines[3].contains("MARK") && lines[3].contains("exit"), lines[3]);
+    }
+
+    @Test
+    @DisplayName("Test durations longer than an int of nanoseconds are kept whole")
+    void testLongDuration() throws IOException {
+        FlightRecorder recorder = new FlightRecorder(16, true);
+        recorder.recordEvent(GameEvent.SAVE, System.nanoTime(), 5_000_000_000L);
+
+        String[] lines = decode(recorder);
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].contains("5000000.0 us"), lines[0]);
+    }
+
+    @Test
+    @DisplayName("Test a full recorder keeps only the newest entries")
+    void testWrapAround() throws IOException {
+        FlightRecorder recorder = new FlightRecorder(8, true);
+        for (int i = 0; i < 20; i++) {
+            recorder.recordEvent(i < 15 ? GameEvent.MENU : GameEvent.QUIT, System.nanoTime(), 1_000);
+        }
+
+        assertEquals(20, recorder.getRecorded());
+        String[] lines = decode(recorder);
+        assertEquals(8, lines.length);
+        // The last 5 entries are QUIT, preceded by the 3 newest MENU entries
+        for (int i = 0; i < 8; i++) {
+            assertTrue(lines[i].contains(i < 3 ? "MENU" : "QUIT"), lines[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Test a disabled recorder records nothing")
+    void testDisabled() throws IOException {
+        FlightRecorder recorder = new FlightRecorder(8, false);
+        recorder.recordEvent(GameEvent.MENU, System.nanoTime(), 1_000);
+        recorder.mark("ignored");
+
+        assertEquals(0, recorder.getRecorded());
+        assertEquals(0, decode(recorder).length);
+    }
+
+    @Test
+    @DisplayName("Test the decoder rejects files which are not dumps")
+    void testRejectsOtherFiles() {
+        StringWriter text = new StringWriter();
+        assertThrows(IOException.class, () -> FlightRecorderDecoder.decode(
+                new ByteArrayInputStream("not a dump at all".getBytes()), new PrintWriter(text)));
+    }
+}
@@ -3,13 +3,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
-import javax.swing.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
 
 /**
  * Test class for non-GUI methods of GameController
@@ -44,11 +47,8 @@ public class GameControllerTest {
             // Create controller with the correct constructor (including score parameter)
             gameController = new GameController(eventDispatcher, gameplayPanel, inventory, saveSlot, pet, score);
             
-            // Ensure the timer is properly initialized
-            Timer statTimer = getPrivateField(gameController, "statTimer");
-            if (statTimer == null) {
-                fail("Timer is not initialized - check GameController constructor");
-            }
+            // The simulation only ticks once the game starts
+            assertFalse(gameController.isRunning(), "Simulation should not run before the game starts");
         } catch (Exception e) {
             fail("Setup failed: " + e.getMessage());
         }
@@ -70,10 +70,9 @@ public class GameControllerTest {
         assertEquals(0L, cooldowns.getOrDefault("walk", -1L), "Walk cooldown should be initialized to 0");
         assertEquals(0L, cooldowns.getOrDefault("play", -1L), "Play cooldown should be initialized to 0");
         
-        // Verify previous state is set
-        PetState previousState = getPrivateField(gameController, "previousState");
-        assertNotNull(previousState, "Previous state should be initialized");
-        assertEquals(pet.getState(), previousState, "Previous state should match pet's initial state");
+        // Verify the controller listens for changes to the pet
+        PetListener displayListener = getPrivateField(gameController, "displayListener");
+        assertNotNull(displayListener, "Pet listener should be registered");
         
         // Verify sleep penalty flag is initialized to false
         boolean sleepPenaltyApplied = getPrivateField(gameController, "sleepPenaltyApplied");
@@ -83,25 +82,41 @@ public class GameControllerTest {
     @Test
     @DisplayName("Test start and pause methods")
     void testStartAndPause() throws Exception {
-        // Get the timer
-        Timer statTimer = getPrivateField(gameController, "statTimer");
-        assertNotNull(statTimer, "Timer should be initialized");
-        
-        // Make sure timer is initially stopped
-        statTimer.stop();
-        assertFalse(statTimer.isRunning(), "Timer should be stopped initially");
+        // Make sure the simulation is initially stopped
+        assertFalse(gameController.isRunning(), "Simulation should be stopped initially");
         
         // Start the controller
         gameController.start();
         
-        // Verify timer is running
-        assertTrue(statTimer.isRunning(), "Timer should be running after start() call");
+        // Verify the simulation is running
+        assertTrue(gameController.isRunning(), "Simulation should be running after start() call");
         
         // Pause the controller
         gameController.pause();
         
-        // Verify timer is stopped
-        assertFalse(statTimer.isRunning(), "Timer should be stopped after pause() call");
+        // Verify the simulation is stopped
+        assertFalse(gameController.isRunning(), "Simulation should be stopped after pause() call");
+    }
+    
+    @Test
+    @DisplayName("Test actions are applied by the simulation thread")
+    void testActionsQueuedWhileRunning() throws Exception {
+        pet.setHappiness(50);
+        gameController.start();
+        try {
+            gameController.handleEvent(GameEvent.GIFT, new EventPayload.Gift(Item.PURPLEGIFT));
+            // Pausing waits for the tick in progress, then applies anything still queued
+            gameController.pause();
+            assertTrue(pet.getHappiness() > 50, "Gift should have been applied");
+            assertEquals(0, inventory.getCount(Item.PURPLEGIFT), "Gift should be used up");
+            
+            // The published snapshot matches the pet once the simulation is paused
+            PetSnapshot snapshot = gameController.getSnapshot();
+            assertEquals(pet.getHappiness(), snapshot.getHappiness(), 0.0001, "Snapshot should match the pet");
+            assertEquals(0, snapshot.getCount(Item.PURPLEGIFT), "Snapshot should match the inventory");
+        } finally {
+            gameController.pause();
+        }
     }
     
     @Test
@@ -139,43 +154,171 @@ public class GameControllerTest {
         assertFalse(sleepPenaltyApplied, "Sleep penalty flag should be reset to false");
     }
     
-    // Other tests remain the same...
+    @Test
+    @DisplayName("Test play cooldown expires with a virtual clock")
+    void testPlayCooldownWithVirtualClock() throws Exception {
+        VirtualClock clock = VirtualClock.at(java.time.LocalTime.NOON);
+        gameController = new GameController(eventDispatcher, gameplayPanel, inventory, saveSlot, pet, score, clock);
+        pet.setHappiness(50);
+        
+        // Playing starts the 8 second cooldown
+        invokeHandleEvent(GameEvent.PLAY);
+        assertEquals(60, pet.getHappiness(), 0.01, "Playing should add 10 happiness");
+        
+        // Playing again during the cooldown does nothing
+        clock.advanceMillis(7999);
+        invokeHandleEvent(GameEvent.PLAY);
+        assertEquals(60, pet.getHappiness(), 0.01, "Play should be ignored while on cooldown");
+        
+        // Once the cooldown has passed the pet can play again
+        clock.advanceMillis(1);
+        invokeHandleEvent(GameEvent.PLAY);
+        assertEquals(70, pet.getHappiness(), 0.01, "Play should be allowed after the cooldown");
+    }
     
-    // Improved helper methods
+    @Test
+    @DisplayName("Test feeding and gifting use the item in the payload")
+    void testUseItemFromPayload() {
+        pet.setHunger(50);
+        pet.setHappiness(50);
+        
+        gameController.handleEvent(GameEvent.FEED, new EventPayload.Feed(Item.BANANA));
+        assertEquals(70, pet.getHunger(), 0.01, "A banana should add 20 hunger");
+        assertEquals(0, inventory.getCount(Item.BANANA), "The banana should be used up");
+        assertEquals(20, gameController.getScore(), "A banana should add 20 score");
+        
+        gameController.handleEvent(GameEvent.GIFT, new EventPayload.Gift(Item.GREENGIFT));
+        assertEquals(65, pet.getHappiness(), 0.01, "A green gift should add 15 happiness");
+        
+        // Nothing happens once the item has run out
+        gameController.handleEvent(GameEvent.FEED, new EventPayload.Feed(Item.BANANA));
+        assertEquals(70, pet.getHunger(), 0.01, "Feeding without bananas should do nothing");
+    }
     
-    private boolean invokeTimerAction() throws Exception {
+    @Test
+    @DisplayName("Test capture copies the game between ticks")
+    void testCaptureWhileRunning() throws Exception {
+        PetSnapshot snapshot;
+        gameController.start();
         try {
-            // Get the timer
-            Timer statTimer = getPrivateField(gameController, "statTimer");
-            if (statTimer == null) {
-                fail("Timer is null");
-                return false;
+            // Taken on the simulation thread after the current tick
+            snapshot = gameController.capture().get(1, TimeUnit.SECONDS);
+        } finally {
+            gameController.pause();
+        }
+        assertEquals("TestPet", snapshot.getName(), "Snapshot should copy the name");
+        assertEquals(1, snapshot.getCount(Item.APPLE), "Snapshot should copy the inventory");
+        assertEquals(score, snapshot.getScore(), "Snapshot should copy the score");
+        
+        // The pet keeps changing, but the snapshot does not
+        double hunger = snapshot.getHunger();
+        gameController.tick();
+        assertTrue(pet.getHunger() < hunger, "Pet should have been simulated");
+        assertEquals(hunger, snapshot.getHunger(), "Snapshot should not change after capture");
+        
+        // While paused the snapshot is taken straight away
+        assertTrue(gameController.capture().isDone(), "Capture should complete immediately while paused");
+        assertEquals(pet.getHunger(), gameController.capture().get().getHunger(), "Snapshot should match the paused pet");
+    }
+    
+    @Test
+    @DisplayName("Test the simulation ticks on the simulation lane")
+    void testTicksOnSimulationLane() throws Exception {
+        CountDownLatch ticked = new CountDownLatch(1);
+        AtomicBoolean onLane = new AtomicBoolean();
+        PetListener listener = new PetListener() {
+            @Override
+            public void statsChanged(Pet changed) {
+                if (ticked.getCount() > 0 && !SwingUtilities.isEventDispatchThread()
+                        && gameController.isRunning()) {
+                    onLane.set(Lane.SIMULATION.isLaneThread());
+                    ticked.countDown();
+                }
             }
-            
-            // Get all action listeners (there should be at least one)
-            ActionListener[] listeners = statTimer.getActionListeners();
-            if (listeners.length == 0) {
-                fail("Timer has no action listeners");
-                return false;
+        };
+        pet.addListener(listener);
+        gameController.start();
+        try {
+            assertTrue(ticked.await(1, TimeUnit.SECONDS), "A tick should have run");
+            assertTrue(onLane.get(), "Ticks should run on the simulation lane");
+        } finally {
+            gameController.pause();
+            pet.removeListener(listener);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test pausing during a stuck tick returns, and the game is handed over after the tick")
+    void testPauseDuringStuckTick() throws Exception {
+        Thread testThread = Thread.currentThread();
+        CountDownLatch inTick = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PetListener stall = new PetListener() {
+            @Override
+            public void statsChanged(Pet changed) {
+                if (Thread.currentThread() != testThread && inTick.getCount() > 0) {
+                    inTick.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
             }
+        };
+        pet.addListener(stall);
+        CompletableFuture<PetSnapshot> capture;
+        gameController.start();
+        try {
+            assertTrue(inTick.await(1, TimeUnit.SECONDS), "A tick should have started");
             
-            // Get the first ActionListener
-            ActionListener listener = listeners[0];
-            
-            // Create a dummy ActionEvent
-            ActionEvent event = new ActionEvent(statTimer, ActionEvent.ACTION_PERFORMED, "test");
+            // The Swing thread is not held up by the stuck tick
+            assertTimeoutPreemptively(Duration.ofSeconds(5), gameController::pause);
+            assertFalse(gameController.isRunning(), "Simulation should be stopped after pause() call");
             
-            // Try direct invocation first (works for non-anonymous classes)
-            try {
-                Method actionPerformed = listener.getClass().getDeclaredMethod("actionPerformed", ActionEvent.class);
-                actionPerformed.setAccessible(true);
-                actionPerformed.invoke(listener, event);
-                return true;
-            } catch (NoSuchMethodException e) {
-                // If direct method access fails, try the interface method
-                listener.actionPerformed(event);
-                return true;
-            }
+            // The simulation still owns the game, so neither happens before the tick ends
+            gameController.handleEvent(GameEvent.GIFT, new EventPayload.Gift(Item.PURPLEGIFT));
+            capture = gameController.capture();
+            assertEquals(1, inventory.getCount(Item.PURPLEGIFT), "Gift should wait for the tick");
+            assertFalse(capture.isDone(), "Capture should wait for the tick");
+        } finally {
+            release.countDown();
+        }
+        PetSnapshot snapshot = capture.get(1, TimeUnit.SECONDS);
+        assertEquals(0, snapshot.getCount(Item.PURPLEGIFT), "The pause should apply the gift before the capture");
+        pet.removeListener(stall);
+        
+        // Once handed over, actions are applied straight away
+        gameController.handleEvent(GameEvent.GIFT, new EventPayload.Gift(Item.GREENGIFT));
+        assertEquals(0, inventory.getCount(Item.GREENGIFT), "Gift should be applied while paused");
+    }
+    
+    @Test
+    @DisplayName("Test panel is only updated when the pet's state changes")
+    void testSpriteUpdatedOnStateChange() throws Exception {
+        // A tick with no state change does not touch the sprite
+        invokeTimerAction();
+        gameplayPanel.petSpriteUpdated = false;
+        invokeTimerAction();
+        assertFalse(gameplayPanel.petSpriteUpdated, "Sprite should not change while the pet is normal");
+        
+        // The pet falls asleep, the next tick updates the sprite once
+        invokeHandleEvent(GameEvent.SLEEP);
+        invokeTimerAction();
+        assertTrue(gameplayPanel.petSpriteUpdated, "Sprite should change when the pet falls asleep");
+    }
+    
+    // Other tests remain the same...
+    
+    // Improved helper methods
+    
+    private boolean invokeTimerAction() throws Exception {
+        try {
+            // Run one tick of the simulation on this thread
+            gameController.tick();
+            // Wait for the published snapshot to be rendered on the Swing thread
+            SwingUtilities.invokeAndWait(() -> {});
+            return true;
         } catch (Exception e) {
             fail("Error invoking timer action: " + e.getMessage());
             return false;
@@ -256,12 +399,12 @@ public class GameControllerTest {
         }
         
         @Override
-        public void updateInventory(Inventory inventory) {
+        public void updateInventory(PetSnapshot snapshot) {
             inventoryUpdated = true;
         }
         
         @Override
-        public void updateStatusBars(Pet pet) {
+        public void updateStatusBars(PetSnapshot pet) {
             statusBarsUpdated = true;
         }
         
@@ -271,7 +414,7 @@ public class GameControllerTest {
         }
         
         @Override
-        public void updateButtonCooldowns(Pet pet) {
+        public void updateButtonCooldowns(PetSnapshot pet) {
             cooldownsUpdated = true;
         }
         
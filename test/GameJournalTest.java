@@ -0,0 +1,227 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JUnit test class for GameJournal
+ */
+public class GameJournalTest {
+    /** The directory the journal of a test is written to */
+    private Path directory;
+    /** The file of the journal */
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        file = directory.resolve("save1" + GameJournal.EXTENSION);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Returns the save of a pet with a given hunger and one apple.
+     *
+     * @param hunger The hunger of the pet
+     * @return The save
+     */
+    private static SaveData save(double hunger) {
+        return new SaveData(1, 0, 0, 0, "Rex", "Chopper", "normal", 80, hunger, 50, 50, 10);
+    }
+
+    @Test
+    @DisplayName("Test a replay restores the latest snapshot and applies the entries after it")
+    void testReplay() throws IOException {
+        GameJournal journal = new GameJournal(file, false);
+        journal.snapshot(save(90));
+        journal.snapshot(save(40));
+        journal.action(GameEvent.FEED, Item.APPLE);
+        // No apple is left, so this feed was not applied by the game either
+        journal.action(GameEvent.FEED, Item.APPLE);
+        Pet pet = new Pet("Rex", "Chopper", 70, 45, 50, 50);
+        journal.stats(pet, 25);
+        journal.action(GameEvent.PLAY, null);
+        journal.close();
+
+        GameJournal.Replay replay = GameJournal.replay(file);
+        assertEquals(4, replay.replayed());
+        assertEquals(70, replay.data().health());
+        assertEquals(45, replay.data().hunger());
+        assertEquals(60, replay.data().happiness());
+        assertEquals(0, replay.data().apples());
+        assertEquals(35, replay.data().score());
+        assertEquals(6, GameJournal.read(file).size());
+    }
+
+    @Test
+    @DisplayName("Test an entry cut short by a crash is dropped and appends continue after the last intact entry")
+    void testTornEntry() throws IOException {
+        GameJournal journal = new GameJournal(file, false);
+        journal.snapshot(save(40));
+        journal.action(GameEvent.HEAL, null);
+        journal.close();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+        assertEquals(40, GameJournal.replay(file).data().hunger());
+        assertEquals(80, GameJournal.replay(file).data().health());
+
+        journal = new GameJournal(file, false);
+        journal.action(GameEvent.SLEEP, null);
+        journal.close();
+        List<GameJournal.Entry> entries = GameJournal.read(file);
+        assertEquals(2, entries.size());
+        assertEquals(GameEvent.SLEEP, entries.get(1).event());
+        assertEquals("sleeping", GameJournal.replay(file).data().state());
+    }
+
+    @Test
+    @DisplayName("Test a journal is started again for a new game and has nothing to replay without a snapshot")
+    void testReset() throws IOException {
+        GameJournal journal = new GameJournal(file, false);
+        journal.snapshot(save(40));
+        journal.close();
+
+        journal = new GameJournal(file, true);
+        journal.action(GameEvent.HEAL, null);
+        journal.close();
+
+        assertNull(GameJournal.replay(file));
+        assertEquals(1, GameJournal.read(file).size());
+        assertTrue(GameJournal.read(directory.resolve("missing.journal")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test entries appended after the journal is closed are ignored")
+    void testAppendAfterClose() throws IOException {
+        GameJournal journal = new GameJournal(file, false);
+        journal.snapshot(save(90));
+        journal.close();
+
+        journal.snapshot(save(40));
+        for (int i = 0; i < GameJournal.SNAPSHOT_INTERVAL; i++) {
+            journal.action(GameEvent.PLAY, null);
+            journal.stats(new Pet("Rex", "Chopper", 70, 45, 50, 50), 25);
+        }
+        assertFalse(journal.isSnapshotDue(), "Nothing should be appended once closed");
+        assertEquals(1, GameJournal.read(file).size());
+        assertEquals(90, GameJournal.replay(file).data().hunger());
+    }
+
+    @Test
+    @DisplayName("Test entries are timed by the journal's clock")
+    void testClock() throws IOException {
+        VirtualClock clock = new VirtualClock(Instant.ofEpochMilli(1_000), ZoneOffset.UTC);
+        GameJournal journal = new GameJournal(file, false, clock);
+        journal.snapshot(save(90));
+        clock.advanceMillis(500);
+        journal.action(GameEvent.PLAY, null);
+        journal.close();
+
+        List<GameJournal.Entry> entries = GameJournal.read(file);
+        assertEquals(1_000, entries.get(0).time());
+        assertEquals(1_500, entries.get(1).time());
+        assertEquals(1_500, GameJournal.replay(file).time());
+    }
+
+    @Test
+    @DisplayName("Test a snapshot is due every interval and the oldest snapshots are compacted away")
+    void testSnapshotsAndCompaction() throws IOException {
+        GameJournal journal = new GameJournal(file, false);
+        journal.snapshot(save(0));
+        for (int i = 1; i < GameJournal.SNAPSHOT_INTERVAL; i++) {
+            journal.action(GameEvent.WALK, null);
+        }
+        assertFalse(journal.isSnapshotDue());
+        journal.action(GameEvent.WALK, null);
+        assertTrue(journal.isSnapshotDue());
+
+        int count = GameJournal.SNAPSHOTS_KEPT + 4;
+        for (int i = 1; i < count; i++) {
+            journal.snapshot(save(i));
+        }
+        assertFalse(journal.isSnapshotDue());
+        journal.close();
+
+        assertTrue(journal.getCompactions() > 0);
+        long snapshots = GameJournal.read(file).stream().filter(entry -> entry.kind() == GameJournal.SNAPSHOT).count();
+        assertTrue(snapshots < count);
+        assertEquals(count - 1, GameJournal.replay(file).data().hunger());
+    }
+
+    @Test
+    @DisplayName("Test the game journals the actions it applies and its stats when paused")
+    void testGameController() throws IOException {
+        EventDispatcher eventDispatcher = new EventDispatcher();
+        Pet pet = new Pet("Rex", "Chopper", 50, 50, 50, 50);
+        GameController game = new GameController(eventDispatcher, new QuietGameplayPanel(eventDispatcher),
+                new Inventory(0, 1, 0, 0), 1, pet, 0);
+        GameJournal journal = new GameJournal(file, false);
+        game.setJournal(journal);
+
+        game.handleEvent(GameEvent.FEED, new EventPayload.Feed(Item.BANANA));
+        // Out of bananas, so nothing is applied or journaled
+        game.handleEvent(GameEvent.FEED, new EventPayload.Feed(Item.BANANA));
+        game.handleEvent(GameEvent.PLAY);
+        // On cooldown
+        game.handleEvent(GameEvent.PLAY);
+        game.start();
+        game.pause();
+        journal.close();
+
+        List<GameJournal.Entry> entries = GameJournal.read(file);
+        assertEquals(GameJournal.SNAPSHOT, entries.get(0).kind());
+        assertEquals(GameEvent.FEED, entries.get(1).event());
+        assertEquals(GameEvent.PLAY, entries.get(2).event());
+        assertEquals(GameJournal.STATS, entries.get(entries.size() - 1).kind());
+        SaveData replayed = GameJournal.replay(file).data();
+        assertEquals(pet.getHunger(), replayed.hunger());
+        assertEquals(pet.getHappiness(), replayed.happiness());
+        assertEquals(game.getScore(), replayed.score());
+        assertEquals(0, replayed.bananas());
+    }
+
+    /**
+     * A gameplay panel which ignores rendering, since it is never shown
+     */
+    private static class QuietGameplayPanel extends GameplayPanel {
+        QuietGameplayPanel(EventDispatcher eventDispatcher) {
+            super(eventDispatcher);
+        }
+
+        @Override
+        public void updateScore(int score) {}
+
+        @Override
+        public void updateInventory(PetSnapshot snapshot) {}
+
+        @Override
+        public void updateStatusBars(PetSnapshot pet) {}
+
+        @Override
+        public void updateStatusWarning(PetStat stat, boolean warning) {}
+
+        @Override
+        public void updatePetSprite(PetState state) {}
+
+        @Override
+        public void updateButtonCooldowns(PetSnapshot pet) {}
+    }
+}
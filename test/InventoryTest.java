@@ -214,4 +214,18 @@ public class InventoryTest {
         // Verify count is correct
         assertEquals(100, inventory.getCount(Item.APPLE));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("Test the version changes when items are added or removed")
+    void testVersion() {
+        long version = inventory.getVersion();
+        
+        // Removing an item which is not there changes nothing
+        inventory.removeItem(Item.APPLE);
+        assertEquals(version, inventory.getVersion());
+        
+        inventory.addItem(Item.APPLE);
+        inventory.removeItem(Item.APPLE);
+        assertEquals(version + 2, inventory.getVersion());
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * JUnit test class for JsonCodec and SaveData
+ */
+public class JsonCodecTest {
+
+    @Test
+    @DisplayName("Test save data is written with the property names of existing saves")
+    void testSaveFormat() throws IOException {
+        Pet pet = new Pet("Rex", "Chopper", 100, 53.5, 22.25, 7);
+        pet.setState(PetState.HUNGRY);
+        SaveData data = SaveData.of(new PetSnapshot(pet, new Inventory(1, 2, 3, 4), 15, true, true, true));
+
+        String json = JsonCodec.SAVE_WRITER.writeValueAsString(data);
+        assertEquals("{\"apples\":1,\"bananas\":2,\"purplegifts\":3,\"greengifts\":4,\"name\":\"Rex\","
+                + "\"type\":\"Chopper\",\"state\":\"hungry\",\"health\":100.0,\"hunger\":53.5,"
+                + "\"happiness\":22.25,\"sleep\":7.0,\"score\":15}", json);
+        assertEquals(data, JsonCodec.SAVE_READER.readValue(json));
+    }
+
+    @Test
+    @DisplayName("Test saves with missing or unknown properties can still be read")
+    void testLenientSaves() throws IOException {
+        SaveData data = JsonCodec.SAVE_READER.readValue("{\"name\":\"Rex\",\"type\":\"Laboon\","
+                + "\"state\":\"normal\",\"health\":80,\"colour\":\"blue\"}");
+
+        assertEquals("Rex", data.name());
+        assertEquals(80, data.health());
+        assertEquals(0, data.apples());
+        assertEquals(0, data.score());
+    }
+
+    @Test
+    @DisplayName("Test the parental controls file keeps properties the game does not use")
+    void testParentalRoundTrip() throws IOException {
+        File file = Files.createTempFile("parental", ".json").toFile();
+        try {
+            Files.writeString(file.toPath(), "{\"enabled\":true,\"password\":1234,\"numLogins\":3}");
+
+            ObjectNode settings = JsonCodec.readParental(file);
+            settings.put("numLogins", settings.path("numLogins").asInt() + 1);
+            JsonCodec.writeParental(file, settings);
+
+            ObjectNode written = JsonCodec.readParental(file);
+            assertEquals(4, written.path("numLogins").asInt());
+            assertEquals(1234, written.path("password").asInt());
+            assertTrue(written.path("enabled").asBoolean());
+        } finally {
+            file.delete();
+        }
+    }
+}
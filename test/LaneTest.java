@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JUnit test class for dispatching events on observer lanes
+ */
+public class LaneTest {
+    
+    @Test
+    @DisplayName("Test observers are notified on their lane")
+    void testObserversNotifiedOnLane() throws Exception {
+        EventDispatcher dispatcher = new EventDispatcher();
+        LaneObserver caller = new LaneObserver(Lane.CALLER);
+        LaneObserver edt = new LaneObserver(Lane.EDT);
+        LaneObserver io = new LaneObserver(Lane.IO);
+        dispatcher.addObserver(GameEvent.MENU, caller);
+        dispatcher.addObserver(GameEvent.MENU, edt);
+        dispatcher.addObserver(GameEvent.MENU, io);
+        
+        dispatcher.notifyObservers(GameEvent.MENU);
+        
+        // The caller's lane is handled before notifyObservers returns
+        assertSame(Thread.currentThread(), caller.thread.get());
+        assertTrue(edt.handled.await(5, TimeUnit.SECONDS), "EDT observer should be notified");
+        assertTrue(io.handled.await(5, TimeUnit.SECONDS), "IO observer should be notified");
+        assertTrue(edt.onEventDispatchThread, "EDT observer should run on the Swing thread");
+        assertEquals("io-lane", io.thread.get().getName());
+    }
+    
+    @Test
+    @DisplayName("Test a slow observer does not delay the caller")
+    void testSlowObserverDoesNotBlock() throws Exception {
+        EventDispatcher dispatcher = new EventDispatcher();
+        CountDownLatch release = new CountDownLatch(1);
+        LaneObserver slow = new LaneObserver(Lane.SIMULATION) {
+            @Override
+            protected void handleEvent(GameEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.handleEvent(event);
+            }
+        };
+        dispatcher.addObserver(GameEvent.FEED, slow);
+        
+        // notifyObservers returns while the observer is still waiting
+        dispatcher.notifyObservers(GameEvent.FEED);
+        assertEquals(1, slow.handled.getCount(), "Observer should still be running");
+        
+        release.countDown();
+        assertTrue(slow.handled.await(5, TimeUnit.SECONDS), "Observer should finish once released");
+    }
+    
+    @Test
+    @DisplayName("Test posting to a full lane waits for room")
+    void testBackpressure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Lane.SIMULATION.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // Fill the lane's queue while its thread is blocked
+        for (int i = 0; i < Lane.CAPACITY; i++) {
+            Lane.SIMULATION.execute(() -> {});
+        }
+        Thread poster = new Thread(() -> Lane.SIMULATION.execute(() -> {}));
+        poster.start();
+        poster.join(200);
+        assertTrue(poster.isAlive(), "Posting to a full lane should wait");
+        
+        release.countDown();
+        poster.join(5000);
+        assertFalse(poster.isAlive(), "Posting should continue once there is room");
+    }
+    
+    /**
+     * Observer which records the thread it was notified on
+     */
+    private static class LaneObserver extends Observer {
+        private final Lane lane;
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final CountDownLatch handled = new CountDownLatch(1);
+        volatile boolean onEventDispatchThread;
+        
+        LaneObserver(Lane lane) {
+            this.lane = lane;
+        }
+        
+        @Override
+        protected Lane getLane() {
+            return lane;
+        }
+        
+        @Override
+        protected void handleEvent(GameEvent event) {
+            thread.set(Thread.currentThread());
+            onEventDispatchThread = javax.swing.SwingUtilities.isEventDispatchThread();
+            handled.countDown();
+        }
+        
+        @Override
+        protected void registerEvents() {
+            // Not needed for testing
+        }
+    }
+}
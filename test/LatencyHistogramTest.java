@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for LatencyHistogram and DispatchMetrics
+ */
+public class LatencyHistogramTest {
+    
+    @Test
+    @DisplayName("Test every value falls in a bucket whose bound is within 12.5%")
+    void testBucketAccuracy() {
+        for (long value = 0; value < 100_000; value += 7) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertTrue(upper >= value, "Bucket bound should not be below the value " + value);
+            assertTrue(upper - value <= value / LatencyHistogram.SUB_BUCKETS, "Bucket of " + value + " is too wide");
+        }
+        // Very large values share the last bucket instead of overflowing
+        assertTrue(LatencyHistogram.bucketOf(Long.MAX_VALUE) >= LatencyHistogram.bucketOf(1L << 40));
+    }
+    
+    @Test
+    @DisplayName("Test percentiles of recorded values")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        
+        // 1..1000 microseconds
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_000, histogram.getPercentile(50), 500_000 / 8.0);
+        assertEquals(990_000, histogram.getPercentile(99), 990_000 / 8.0);
+        assertEquals(1_000_000, histogram.getPercentile(100));
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 0.01);
+        
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+    
+    @Test
+    @DisplayName("Test dispatch metrics can be switched off")
+    void testDispatchMetricsToggle() {
+        EventDispatcher dispatcher = new EventDispatcher();
+        DispatchMetrics metrics = dispatcher.getMetrics();
+        metrics.setEnabled(true);
+        SlowObserver observer = new SlowObserver();
+        dispatcher.addObserver(GameEvent.MENU, observer);
+        
+        dispatcher.notifyObservers(GameEvent.MENU);
+        dispatcher.notifyObservers(GameEvent.MENU);
+        
+        assertEquals(2, metrics.getEventLatency(GameEvent.MENU).getCount());
+        assertTrue(metrics.getEventLatency(GameEvent.MENU).getPercentile(50) >= 1_000_000, "Handler sleeps 1ms");
+        assertEquals(2, metrics.getObserverLatencies().get(SlowObserver.class.getName()).getCount());
+        assertTrue(metrics.getReport().contains("MENU"));
+        
+        // Nothing more is recorded once disabled
+        metrics.setEnabled(false);
+        dispatcher.notifyObservers(GameEvent.MENU);
+        assertEquals(2, metrics.getEventLatency(GameEvent.MENU).getCount());
+    }
+    
+    /**
+     * Observer which takes at least a millisecond to handle an event
+     */
+    private static class SlowObserver extends Observer {
+        @Override
+        protected void handleEvent(GameEvent event) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        @Override
+        protected void registerEvents() {
+            // Not needed for testing
+        }
+    }
+}
@@ -55,6 +55,17 @@ public class LoadGamePanelTest {
         assertEquals(150, dim.height);
     }
     
+    @Test
+    @DisplayName("Test one free slot follows the saved slots, split into pages")
+    void testSlotAndPageCount() {
+        SlotSummary summary = new SlotSummary(7, "Rex", "Chopper", "normal", 100, 50, 50, 50, 0, 0, 0);
+
+        assertEquals(SaveManager.SLOTS, LoadGamePanel.getSlotCount(java.util.Map.of()));
+        assertEquals(8, LoadGamePanel.getSlotCount(java.util.Map.of(7, summary)));
+        assertEquals(1, LoadGamePanel.getPageCount(LoadGamePanel.PAGE_SIZE));
+        assertEquals(2, LoadGamePanel.getPageCount(LoadGamePanel.PAGE_SIZE + 1));
+    }
+    
     /**
      * Test subclass that doesn't call init() in constructor
      * This allows us to test the non-GUI methods without initializing the UI
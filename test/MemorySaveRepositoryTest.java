@@ -0,0 +1,12 @@
+import java.nio.file.Path;
+
+/**
+ * JUnit test class for MemorySaveRepository, running the tests every backend must pass
+ */
+public class MemorySaveRepositoryTest extends SaveRepositoryTest {
+
+    @Override
+    protected SaveRepository createRepository(Path directory) {
+        return new MemorySaveRepository();
+    }
+}
@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * JUnit test class for ParentalSettings
+ */
+public class ParentalSettingsTest {
+    /** The directory the settings of a test are written to */
+    private Path directory;
+    /** The file of the settings */
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("parental");
+        file = directory.resolve("parental_controls.json");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Test the settings are read once and changes are made in memory")
+    void testLoad() throws IOException {
+        Files.write(file, ("{\"password\":1234,\"numLogins\":4,\"totalPlayTime\":100,"
+                + "\"restrictedTimes\":[{\"start\":\"21:00\",\"end\":\"07:00\"}]}").getBytes(StandardCharsets.UTF_8));
+        ParentalSettings settings = ParentalSettings.load(file);
+        assertEquals(4, settings.getLogins());
+        assertEquals(25, settings.getAveragePlayTime());
+        assertEquals(LocalTime.of(21, 0), settings.getRestrictedStartTime());
+        assertEquals(LocalTime.of(7, 0), settings.getRestrictedEndTime());
+
+        // Later changes to the file are not read again
+        Files.delete(file);
+        settings.incrementLogins();
+        settings.addPlayTime(25);
+        assertEquals(25, settings.getAveragePlayTime());
+    }
+
+    @Test
+    @DisplayName("Test a burst of changes is written once, keeping unknown properties")
+    void testDebouncedWrite() throws IOException {
+        Files.write(file, "{\"password\":1234,\"numLogins\":0}".getBytes(StandardCharsets.UTF_8));
+        ParentalSettings settings = ParentalSettings.load(file);
+        settings.incrementLogins();
+        settings.addPlayTime(30);
+        settings.setRestrictedHours(LocalTime.of(10, 0), LocalTime.of(12, 0));
+
+        // Whether or not the scheduled write has run yet, the burst is written once
+        assertTrue(settings.flush());
+        assertTrue(settings.flush());
+        assertEquals(1, settings.getWrites());
+        ObjectNode written = JsonCodec.readParental(file.toFile());
+        assertEquals(1234, written.path("password").asInt());
+        assertEquals(1, written.path("numLogins").asInt());
+        assertEquals(30, written.path("totalPlayTime").asLong());
+        assertEquals("10:00", written.path("restrictedTimes").path(0).path("start").asText());
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + FileSaveRepository.TEMP_SUFFIX)));
+    }
+
+    @Test
+    @DisplayName("Test flush writes straight away and only when something changed")
+    void testFlush() throws IOException {
+        ParentalSettings settings = ParentalSettings.load(file);
+        assertEquals(0, settings.getAveragePlayTime());
+        assertTrue(settings.flush());
+        assertEquals(0, settings.getWrites());
+        assertFalse(Files.exists(file));
+
+        settings.incrementLogins();
+        assertTrue(settings.flush());
+        assertEquals(1, settings.getWrites());
+        assertEquals(1, JsonCodec.readParental(file.toFile()).path("numLogins").asInt());
+        assertEquals(1, ParentalSettings.load(file).getLogins());
+    }
+
+    @Test
+    @DisplayName("Test a file which cannot be read is never replaced")
+    void testUnreadableFile() throws IOException {
+        byte[] damaged = "{\"numLogins\": 3,".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, damaged);
+        ParentalSettings settings = ParentalSettings.load(file);
+        assertEquals(0, settings.getLogins());
+        settings.incrementLogins();
+        assertFalse(settings.flush());
+        assertArrayEquals(damaged, Files.readAllBytes(file));
+    }
+
+    @Test
+    @DisplayName("Test the controller reads and changes the settings it is given")
+    void testController() {
+        ParentalSettings settings = ParentalSettings.load(file);
+        ParentalController controller = new ParentalController(new EventDispatcher(),
+                VirtualClock.at(LocalTime.of(11, 0)), settings, false);
+        assertEquals(1, settings.getLogins());
+        controller.updateTotalPlayTime(40);
+        assertEquals(40, controller.getAveragePlayTime());
+        controller.setRestrictedHours(LocalTime.of(10, 0), LocalTime.of(12, 0));
+        assertTrue(controller.isRestricted());
+        assertTrue(controller.flush());
+        assertEquals(LocalTime.of(10, 0), ParentalSettings.load(file).getRestrictedStartTime());
+    }
+
+    @Test
+    @DisplayName("Test the settings file is kept in the directory set with -Dpetcrossing.saves.dir")
+    void testFileInSavesDirectory() {
+        String old = System.getProperty("petcrossing.saves.dir");
+        try {
+            System.clearProperty("petcrossing.saves.dir");
+            assertEquals(Paths.get("saves", "parental_controls.json"), ParentalController.getFile());
+            System.setProperty("petcrossing.saves.dir", directory.toString());
+            assertEquals(file, ParentalController.getFile());
+        } finally {
+            if (old == null) {
+                System.clearProperty("petcrossing.saves.dir");
+            } else {
+                System.setProperty("petcrossing.saves.dir", old);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit test class for Pet change notifications
+ */
+public class PetTest {
+    
+    private Pet pet;
+    private RecordingListener listener;
+    
+    @BeforeEach
+    void setUp() {
+        pet = new Pet("TestPet", "chopper", 100, 100, 100, 100);
+        listener = new RecordingListener();
+    }
+    
+    @Test
+    @DisplayName("Test threshold crossing notifies once per direction")
+    void testThresholdCrossing() {
+        pet.addThresholdListener(PetStat.HEALTH, 25, listener);
+        
+        // Staying above the threshold does not notify
+        pet.setHealth(50);
+        pet.publishChanges();
+        assertTrue(listener.crossings.isEmpty());
+        
+        // Falling to the threshold notifies once
+        pet.setHealth(25);
+        pet.publishChanges();
+        pet.setHealth(20);
+        pet.publishChanges();
+        assertEquals(List.of("HEALTH below"), listener.crossings);
+        
+        // Recovering notifies once
+        pet.setHealth(30);
+        pet.publishChanges();
+        assertEquals(List.of("HEALTH below", "HEALTH above"), listener.crossings);
+    }
+    
+    @Test
+    @DisplayName("Test changes within one tick are coalesced")
+    void testCoalescedWithinTick() {
+        pet.addThresholdListener(PetStat.HUNGER, 0, listener);
+        pet.addListener(listener);
+        
+        // Hunger reaches 0 and recovers before the tick publishes
+        pet.setHunger(0);
+        pet.setHunger(40);
+        pet.setState(PetState.SLEEPING);
+        pet.setState(PetState.NORMAL);
+        pet.publishChanges();
+        
+        assertTrue(listener.crossings.isEmpty(), "Net change across the threshold is zero");
+        assertTrue(listener.states.isEmpty(), "Net state change is zero");
+        assertEquals(1, listener.statsChanges, "Displayed hunger did change");
+    }
+    
+    @Test
+    @DisplayName("Test state transition notifies with previous and current state")
+    void testStateTransition() {
+        pet.addListener(listener);
+        pet.setSleep(0);
+        pet.updateState();
+        pet.publishChanges();
+        
+        assertEquals(List.of("NORMAL->SLEEPING"), listener.states);
+    }
+    
+    @Test
+    @DisplayName("Test publish without changes notifies nobody")
+    void testPublishWithoutChanges() {
+        pet.addListener(listener);
+        pet.addThresholdListener(PetStat.SLEEP, 25, listener);
+        pet.publishChanges();
+        
+        assertTrue(listener.crossings.isEmpty());
+        assertTrue(listener.states.isEmpty());
+        assertEquals(0, listener.statsChanges);
+    }
+    
+    @Test
+    @DisplayName("Test removed listener is no longer notified")
+    void testRemoveListener() {
+        pet.addListener(listener);
+        pet.addThresholdListener(PetStat.HEALTH, 25, listener);
+        pet.removeListener(listener);
+        
+        pet.setHealth(0);
+        pet.updateState();
+        pet.publishChanges();
+        
+        assertTrue(listener.crossings.isEmpty());
+        assertTrue(listener.states.isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Test the version only changes when a value changes")
+    void testVersion() {
+        long version = pet.getVersion();
+        
+        // Clamped to the value the pet already has
+        pet.setHealth(150);
+        pet.setState(PetState.NORMAL);
+        assertEquals(version, pet.getVersion());
+        
+        pet.setHunger(99.5);
+        pet.setState(PetState.ANGRY);
+        assertEquals(version + 2, pet.getVersion());
+    }
+    
+    /**
+     * Listener which records every notification it receives
+     */
+    private static class RecordingListener implements PetListener {
+        List<String> crossings = new ArrayList<>();
+        List<String> states = new ArrayList<>();
+        int statsChanges = 0;
+        
+        @Override
+        public void thresholdCrossed(Pet pet, PetStat stat, double threshold, boolean below) {
+            crossings.add(stat + (below ? " below" : " above"));
+        }
+        
+        @Override
+        public void stateChanged(Pet pet, PetState previous, PetState current) {
+            states.add(previous + "->" + current);
+        }
+        
+        @Override
+        public void statsChanged(Pet pet) {
+            statsChanges++;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * JUnit test class for SaveCodec
+ */
+public class SaveCodecTest {
+
+    /** A save as written by the game */
+    private static final SaveData SAVE = new SaveData(1, 2, 3, 4, "Rex", "Chopper", "hungry", 100, 53.60000000000264,
+            22.25, 7.2, 15);
+
+    @Test
+    @DisplayName("Test the streaming codec writes the same bytes as the databind writer, plus a checksum")
+    void testSameFormat() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SaveCodec.write(out, SAVE);
+
+        String databind = JsonCodec.SAVE_WRITER.writeValueAsString(SAVE);
+        String body = databind.substring(0, databind.length() - 1);
+        CRC32C crc = new CRC32C();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        assertEquals(body + ",\"crc32c\":" + crc.getValue() + "}", out.toString(StandardCharsets.UTF_8));
+        assertEquals(SAVE, SaveCodec.read(out.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("Test unknown properties are skipped, however deeply nested")
+    void testUnknownProperties() throws IOException {
+        String json = "{\"apples\":1,\"achievements\":[{\"id\":1,\"tags\":[\"a\",{\"b\":null}]}],"
+                + "\"name\":\"Rex\",\"settings\":{\"volume\":0.5},\"score\":15,\"beta\":true}";
+        SaveData data = SaveCodec.read(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, data.apples());
+        assertEquals("Rex", data.name());
+        assertEquals(15, data.score());
+    }
+
+    @Test
+    @DisplayName("Test missing properties are 0 or null and decimals are accepted for whole numbers")
+    void testLenientValues() throws IOException {
+        SaveData data = SaveCodec.read("{\"bananas\":2.0,\"health\":80}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(2, data.bananas());
+        assertEquals(80, data.health());
+        assertEquals(0, data.apples());
+        assertNull(data.name());
+    }
+
+    @Test
+    @DisplayName("Test files which are not save objects are rejected")
+    void testRejectsOtherFiles() {
+        assertThrows(IOException.class, () -> SaveCodec.read("[1, 2]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IOException.class, () -> SaveCodec.read("{\"apples\":1".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IOException.class, () -> SaveCodec.read(new byte[0]));
+    }
+}
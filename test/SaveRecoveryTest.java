@@ -0,0 +1,288 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * JUnit test class for the atomic saves, checksums and recovery of SaveManager
+ */
+public class SaveRecoveryTest {
+    /** The directory the saves of a test are written to */
+    private Path directory;
+    /** The repository of the saves, one file per record in the test's directory */
+    private FileSaveRepository repository;
+    /** The save manager, writing to the test's directory */
+    private SaveManager saveManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("saves");
+        repository = new FileSaveRepository(directory);
+        saveManager = new SaveManager(repository);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Saves a pet with a given hunger to slot 1.
+     *
+     * @param hunger The hunger of the pet
+     */
+    private void save(int hunger) {
+        Pet pet = new Pet("Rex", "Chopper", 100, hunger, 50, 50);
+        assertTrue(saveManager.saveGame(pet, new Inventory(), 1, 10));
+    }
+
+    /**
+     * Saves a checkpoint of a pet with a given hunger to slot 1, written a given number of seconds ago.
+     *
+     * @param hunger The hunger of the pet
+     * @param age How many seconds ago the checkpoint is dated
+     */
+    private void checkpoint(int hunger, int age) throws IOException {
+        Pet pet = new Pet("Rex", "Chopper", 100, hunger, 50, 50);
+        assertTrue(saveManager.saveCheckpoint(PetSnapshot.of(pet), 1));
+        // Date the file explicitly, since file times may be too coarse to order quick writes
+        Files.setLastModifiedTime(newestCheckpoint(), FileTime.fromMillis(System.currentTimeMillis() - age * 1000L));
+    }
+
+    /**
+     * Returns the checkpoint of slot 1 which was modified most recently.
+     *
+     * @return The newest checkpoint, or null if there is none
+     */
+    private Path newestCheckpoint() throws IOException {
+        Path newest = null;
+        for (int i = 0; i < SaveManager.CHECKPOINTS; i++) {
+            Path file = repository.getFile(SaveManager.getCheckpointKey(1, i));
+            if (Files.exists(file) && (newest == null
+                    || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(newest)) > 0)) {
+                newest = file;
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Returns the hunger of the pet loaded from slot 1.
+     *
+     * @return The hunger, or -1 if nothing could be loaded
+     */
+    private double loadHunger() {
+        Pet pet = saveManager.loadGame(1).x;
+        return pet == null ? -1 : pet.getHunger();
+    }
+
+    @Test
+    @DisplayName("Test a save keeps the previous save and leaves no temporary file")
+    void testGenerations() throws IOException {
+        save(70);
+        save(60);
+
+        Path file = directory.resolve("save1.sav");
+        assertEquals(60, SaveManager.read(file).hunger());
+        assertEquals(70, SaveManager.read(directory.resolve("save1.sav" + SaveRepository.BACKUP_SUFFIX)).hunger());
+        assertFalse(Files.exists(directory.resolve("save1.sav" + FileSaveRepository.TEMP_SUFFIX)));
+        assertEquals(60, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test a damaged save falls back to the previous save")
+    void testChecksumFallback() throws IOException {
+        save(70);
+        save(60);
+
+        // Change one bit of the stats, which still decodes to a save
+        Path file = directory.resolve("save1.sav");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[30] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> SaveManager.read(file));
+        assertEquals(70, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test a truncated save falls back to the previous save")
+    void testTruncatedFallback() throws IOException {
+        save(70);
+        save(60);
+
+        Path file = directory.resolve("save1.sav");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertEquals(70, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test a crash between the two renames loads the previous save")
+    void testMissingFileFallback() throws IOException {
+        save(70);
+        save(60);
+
+        Files.delete(directory.resolve("save1.sav"));
+
+        assertEquals(70, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test JSON saves without a checksum can still be loaded")
+    void testLegacySave() throws IOException {
+        Files.writeString(directory.resolve("save1.json"), "{\"apples\":0,\"bananas\":0,\"purplegifts\":0,"
+                + "\"greengifts\":0,\"name\":\"pet1\",\"type\":\"Chopper\",\"state\":\"normal\",\"health\":100.0,"
+                + "\"hunger\":53.6,\"happiness\":22.2,\"sleep\":7.2,\"score\":15}");
+
+        assertEquals(53, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test an empty slot loads nothing")
+    void testEmptySlot() {
+        assertEquals(-1, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test a checkpoint newer than the save is loaded")
+    void testNewerCheckpoint() throws IOException {
+        save(70);
+        Files.setLastModifiedTime(directory.resolve("save1.sav"), FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        checkpoint(40, 30);
+
+        assertEquals(40, loadHunger());
+        // The save and its backup are left as they were
+        assertEquals(70, SaveManager.read(directory.resolve("save1.sav")).hunger());
+    }
+
+    @Test
+    @DisplayName("Test a save newer than every checkpoint is loaded")
+    void testNewerSave() throws IOException {
+        checkpoint(40, 30);
+        save(70);
+
+        assertEquals(70, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test checkpoints replace the oldest of a bounded ring of files")
+    void testCheckpointRing() throws IOException {
+        int count = SaveManager.CHECKPOINTS + 2;
+        for (int i = 0; i < count; i++) {
+            // Each checkpoint is one second newer than the one before
+            checkpoint(10 + i, count - i);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(SaveManager.CHECKPOINTS, files.filter(file -> file.toString().contains("checkpoint")).count());
+        }
+        assertEquals(10 + count - 1, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test a damaged checkpoint falls back to the next newest")
+    void testDamagedCheckpoint() throws IOException {
+        checkpoint(40, 20);
+        checkpoint(30, 10);
+
+        Path newest = newestCheckpoint();
+        byte[] bytes = Files.readAllBytes(newest);
+        Files.write(newest, Arrays.copyOf(bytes, bytes.length / 2));
+        Files.setLastModifiedTime(newest, FileTime.fromMillis(System.currentTimeMillis() - 10_000));
+
+        assertEquals(40, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test a JSON save is migrated to a binary save once")
+    void testMigrate() throws IOException {
+        Files.writeString(directory.resolve("save1.json"), "{\"apples\":2,\"name\":\"Rex\",\"type\":\"Chopper\","
+                + "\"state\":\"normal\",\"health\":90.0,\"hunger\":53.6,\"score\":15}");
+
+        assertTrue(saveManager.migrate(1));
+        assertFalse(saveManager.migrate(1));
+        assertTrue(BinarySaveCodec.isBinary(Files.readAllBytes(directory.resolve("save1.sav"))));
+        assertEquals(53, loadHunger());
+    }
+
+    @Test
+    @DisplayName("Test a binary save is exported as JSON which loads the same")
+    void testExportJson() throws IOException {
+        save(60);
+        Path export = directory.resolve("export.json");
+
+        assertTrue(saveManager.exportJson(1, export));
+        assertEquals(SaveManager.read(directory.resolve("save1.sav")), SaveCodec.read(export.toFile()));
+        assertFalse(saveManager.exportJson(2, directory.resolve("empty.json")));
+    }
+
+    @Test
+    @DisplayName("Test the slot index summarizes each save as it is written")
+    void testIndexMaintained() throws IOException {
+        save(70);
+        checkpoint(40, 0);
+
+        SlotSummary summary = saveManager.listSlots().get(1);
+        assertEquals(40, summary.hunger());
+        assertEquals("Rex", summary.name());
+        assertEquals(1, saveManager.listSlots().size());
+        assertTrue(Files.exists(directory.resolve(SaveManager.INDEX_FILE)));
+    }
+
+    @Test
+    @DisplayName("Test a missing or damaged slot index is rebuilt from the saves")
+    void testIndexRebuilt() throws IOException {
+        save(70);
+        Path index = directory.resolve(SaveManager.INDEX_FILE);
+
+        Files.delete(index);
+        assertEquals(70, saveManager.listSlots().get(1).hunger());
+        assertTrue(Files.exists(index));
+
+        Files.write(index, new byte[] { 1, 2, 3 });
+        assertEquals(70, saveManager.listSlots().get(1).hunger());
+    }
+
+    @Test
+    @DisplayName("Test a slot saved after its index row was written is read again")
+    void testIndexStaleRow() throws IOException {
+        save(70);
+        byte[] index = Files.readAllBytes(directory.resolve(SaveManager.INDEX_FILE));
+        save(60);
+        // As if the game crashed between writing the save and the index
+        Files.write(directory.resolve(SaveManager.INDEX_FILE), index);
+        Path file = directory.resolve("save1.sav");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+
+        assertEquals(60, saveManager.listSlots().get(1).hunger());
+    }
+
+    @Test
+    @DisplayName("Test profiles beyond the default slots are listed and rebuilt")
+    void testManyProfiles() throws IOException {
+        int profiles = 100;
+        for (int slot = 1; slot <= profiles; slot++) {
+            Pet pet = new Pet("Rex" + slot, "Chopper", 100, 50, 50, 50);
+            assertTrue(saveManager.saveGame(pet, new Inventory(), slot, slot));
+        }
+        assertEquals(profiles, saveManager.listSlots().size());
+        assertEquals("Rex" + profiles, saveManager.listSlots().get(profiles).name());
+
+        Files.delete(directory.resolve(SaveManager.INDEX_FILE));
+        assertEquals(profiles, saveManager.listSlots().size());
+        assertEquals(profiles, saveManager.listSlots().get(profiles).score());
+    }
+}
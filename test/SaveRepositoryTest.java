@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * JUnit tests which every SaveRepository backend must pass, run once for each backend
+ * by its subclass
+ */
+public abstract class SaveRepositoryTest {
+    /** The directory the backend keeps its records in */
+    protected Path directory;
+    /** The repository under test */
+    protected SaveRepository repository;
+
+    /**
+     * Creates the repository under test.
+     *
+     * @param directory An empty directory the repository may keep its records in
+     * @return The repository
+     */
+    protected abstract SaveRepository createRepository(Path directory);
+
+    @BeforeEach
+    void setUpRepository() throws IOException {
+        directory = Files.createTempDirectory("repository");
+        repository = createRepository(directory);
+    }
+
+    @AfterEach
+    void tearDownRepository() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Test a missing record reads as null")
+    void testMissing() throws IOException {
+        assertNull(repository.read("save1.sav"));
+        assertEquals(-1, repository.lastModified("save1.sav"));
+        assertFalse(repository.exists("save1.sav"));
+    }
+
+    @Test
+    @DisplayName("Test a record is read back as written")
+    void testRoundTrip() throws IOException {
+        byte[] contents = { 1, 2, 3 };
+        repository.write("save1.sav", contents, false);
+        contents[0] = 9;
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, repository.read("save1.sav"));
+        assertTrue(repository.exists("save1.sav"));
+        assertFalse(repository.exists("save2.sav"));
+    }
+
+    @Test
+    @DisplayName("Test a replaced record keeps its old contents as its backup only if asked")
+    void testBackup() throws IOException {
+        repository.write("save1.sav", new byte[] { 1 }, true);
+        assertFalse(repository.exists("save1.sav" + SaveRepository.BACKUP_SUFFIX));
+
+        repository.write("save1.sav", new byte[] { 2 }, true);
+        assertArrayEquals(new byte[] { 2 }, repository.read("save1.sav"));
+        assertArrayEquals(new byte[] { 1 }, repository.read("save1.sav" + SaveRepository.BACKUP_SUFFIX));
+
+        repository.write("save1.sav", new byte[] { 3 }, false);
+        assertArrayEquals(new byte[] { 1 }, repository.read("save1.sav" + SaveRepository.BACKUP_SUFFIX));
+    }
+
+    @Test
+    @DisplayName("Test a record written later is never dated earlier")
+    void testOrder() throws IOException {
+        repository.write("save1.sav", new byte[] { 1 }, false);
+        repository.write("save2.sav", new byte[] { 2 }, false);
+
+        assertTrue(repository.lastModified("save2.sav") >= repository.lastModified("save1.sav"));
+    }
+
+    @Test
+    @DisplayName("Test games are saved, checkpointed, listed and loaded through the repository")
+    void testSaveManager() {
+        SaveManager saveManager = new SaveManager(repository);
+        for (int slot = 1; slot <= 20; slot++) {
+            Pet pet = new Pet("Rex" + slot, "Chopper", 100, 50, 50, 50);
+            assertTrue(saveManager.saveGame(pet, new Inventory(1, 2, 3, 4), slot, slot));
+        }
+        Pet pet = new Pet("Rex", "Chopper", 100, 40, 50, 50);
+        assertTrue(saveManager.saveCheckpoint(PetSnapshot.of(pet), 3));
+
+        assertEquals(20, saveManager.listSlots().size());
+        assertEquals("Rex20", saveManager.listSlots().get(20).name());
+        assertEquals(40, saveManager.loadGame(3).x.getHunger());
+        assertEquals(7, saveManager.loadGame(7).y.y);
+        assertEquals(3, saveManager.loadGame(7).y.x.getCount(Item.PURPLEGIFT));
+        assertNull(saveManager.loadGame(21).x);
+    }
+}
@@ -0,0 +1,175 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * JUnit test class for SaveService
+ */
+public class SaveServiceTest {
+    /** Released to let the writer thread write */
+    private CountDownLatch release;
+    /** The hunger of each snapshot written, in order */
+    private List<Double> written;
+    /** Whether writes fail */
+    private volatile boolean failing;
+    /** The save service under test */
+    private SaveService saveService;
+    /** The event dispatcher failures are reported to */
+    private EventDispatcher eventDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        release = new CountDownLatch(0);
+        written = Collections.synchronizedList(new ArrayList<>());
+        failing = false;
+        eventDispatcher = new EventDispatcher();
+        SaveManager saveManager = new SaveManager() {
+            @Override
+            public boolean saveGame(PetSnapshot snapshot, int saveSlot) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(snapshot.getHunger());
+                return !failing;
+            }
+        };
+        saveService = new SaveService(saveManager, eventDispatcher);
+    }
+
+    /**
+     * Returns a snapshot of a pet with a given hunger.
+     *
+     * @param hunger The hunger of the pet
+     * @return The snapshot
+     */
+    private static PetSnapshot snapshot(int hunger) {
+        return PetSnapshot.of(new Pet("Rex", "Chopper", 100, hunger, 50, 50));
+    }
+
+    @Test
+    @DisplayName("Test saves of a slot made while a save is waiting are merged into one write of the latest")
+    void testCoalescing() throws Exception {
+        release = new CountDownLatch(1);
+        // Occupy the writer with another slot so the saves of slot 1 wait
+        CompletableFuture<Boolean> other = saveService.save(snapshot(10), 2);
+        List<CompletableFuture<Boolean>> saves = new ArrayList<>();
+        for (int hunger = 50; hunger <= 90; hunger += 10) {
+            saves.add(saveService.save(snapshot(hunger), 1));
+        }
+        release.countDown();
+
+        assertTrue(saveService.flush(5, TimeUnit.SECONDS));
+        assertTrue(other.get());
+        for (CompletableFuture<Boolean> save : saves) {
+            assertTrue(save.get());
+        }
+        assertEquals(List.of(10.0, 90.0), written);
+        assertEquals(4, saveService.getCoalesced());
+    }
+
+    @Test
+    @DisplayName("Test a save made after the previous save was written is written again")
+    void testSaveAfterWrite() throws Exception {
+        assertTrue(saveService.save(snapshot(50), 1).get(5, TimeUnit.SECONDS));
+        assertTrue(saveService.save(snapshot(60), 1).get(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(50.0, 60.0), written);
+        assertEquals(0, saveService.getCoalesced());
+    }
+
+    @Test
+    @DisplayName("Test flush waits for every save requested before it")
+    void testFlushBarrier() {
+        release = new CountDownLatch(1);
+        saveService.save(snapshot(50), 1);
+        saveService.save(snapshot(60), 2);
+
+        assertFalse(saveService.flush(50, TimeUnit.MILLISECONDS));
+        assertTrue(written.isEmpty());
+
+        release.countDown();
+        assertTrue(saveService.flush(5, TimeUnit.SECONDS));
+        assertEquals(List.of(50.0, 60.0), written);
+    }
+
+    @Test
+    @DisplayName("Test a failed save is reported to observers with its slot")
+    void testFailureEvent() throws Exception {
+        CompletableFuture<Integer> reported = new CompletableFuture<>();
+        eventDispatcher.addObserver(GameEvent.SAVE_FAILED, new Observer() {
+            @Override
+            protected void handleEvent(GameEvent event, EventPayload payload) {
+                reported.complete(((EventPayload.SaveFailed) payload).slot());
+            }
+
+            @Override
+            protected void handleEvent(GameEvent event) {}
+
+            @Override
+            protected void registerEvents() {}
+        });
+        failing = true;
+
+        assertFalse(saveService.save(snapshot(50), 3).get(5, TimeUnit.SECONDS));
+        assertEquals(3, reported.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Test a failed save from the writer thread never runs queued Swing events off the Swing thread")
+    void testFailureEventStaysOnSwingThread() throws Exception {
+        EventDispatcher queued = new EventDispatcher(true);
+        saveService = new SaveService(new SaveManager() {
+            @Override
+            public boolean saveGame(PetSnapshot snapshot, int saveSlot) {
+                return false;
+            }
+        }, queued);
+        List<String> offSwing = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> fed = new CompletableFuture<>();
+        CountDownLatch reported = new CountDownLatch(1);
+        queued.addObserver(EnumSet.of(GameEvent.SAVE_FAILED, GameEvent.FEED), new Observer() {
+            @Override
+            protected void handleEvent(GameEvent event, EventPayload payload) {
+                if (!SwingUtilities.isEventDispatchThread()) {
+                    offSwing.add(event + " on " + Thread.currentThread().getName());
+                }
+                if (event == GameEvent.SAVE_FAILED) {
+                    reported.countDown();
+                } else {
+                    fed.complete(null);
+                }
+            }
+
+            @Override
+            protected void handleEvent(GameEvent event) {
+                handleEvent(event, null);
+            }
+
+            @Override
+            protected void registerEvents() {}
+        });
+
+        // Swing keeps posting events while the save fails on the writer thread
+        CompletableFuture<Boolean> save = saveService.save(snapshot(50), 2);
+        while (!save.isDone()) {
+            SwingUtilities.invokeAndWait(() -> queued.notifyObservers(GameEvent.FEED));
+        }
+        SwingUtilities.invokeAndWait(() -> queued.notifyObservers(GameEvent.FEED));
+        assertTrue(reported.await(5, TimeUnit.SECONDS));
+        fed.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(), offSwing);
+    }
+}
@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JUnit test class for SessionRecorder and SessionReplayer
+ */
+public class SessionReplayerTest {
+    /** A game with one apple, which the recorded games are started from */
+    private static final SaveData SAVE = new SaveData(1, 0, 0, 0, "Rex", "Chopper", "normal", 80, 90, 50, 50, 10);
+    /** The file the session is recorded to */
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("session", ".rec");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Ticks a game which is not running, advancing its clock by the time between ticks each tick.
+     *
+     * @param game The game
+     * @param clock The game's clock
+     * @param ticks The number of ticks to run
+     */
+    private static void tick(GameController game, VirtualClock clock, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            clock.advanceMillis(GameController.TICK_MILLIS);
+            game.tick();
+        }
+    }
+
+    @Test
+    @DisplayName("Test a recorded session replays to the same outcomes")
+    void testReplay() throws IOException {
+        SessionRecorder recorder = new SessionRecorder(file);
+        Pet pet = new Pet("Rex", "Chopper", 80, 60, 40, 70);
+        VirtualClock clock = new VirtualClock(Instant.ofEpochMilli(1_000), ZoneOffset.UTC);
+        GameController game = new GameController(new EventDispatcher(), null, new Inventory(2, 1, 1, 0), 1, pet,
+                20, clock);
+        game.setSessionRecorder(recorder);
+        tick(game, clock, 3);
+        game.handleEvent(GameEvent.FEED, new EventPayload.Feed(Item.APPLE));
+        game.handleEvent(GameEvent.PLAY);
+        // On cooldown
+        game.handleEvent(GameEvent.PLAY);
+        game.handleEvent(GameEvent.VET);
+        tick(game, clock, 6);
+        game.handleEvent(GameEvent.WALK);
+        game.handleEvent(GameEvent.GIFT, new EventPayload.Gift(Item.PURPLEGIFT));
+        tick(game, clock, 6);
+        game.handleEvent(GameEvent.SLEEP);
+        game.handleEvent(GameEvent.LEAVEMINIGAME);
+        tick(game, clock, 3);
+        game.close();
+
+        CatchGame minigame = new CatchGame(7, 800, 600, null);
+        recorder.startMinigame(7, 800, 600);
+        while (!minigame.isOver()) {
+            if (minigame.getFrame() % 3 == 0) {
+                int direction = minigame.getFrame() / 120 % 2 == 0 ? 1 : -1;
+                recorder.move(minigame.getFrame(), direction);
+                minigame.move(direction);
+            }
+            minigame.step();
+        }
+        recorder.endMinigame(minigame.getFrame(), minigame.getScore());
+        recorder.close();
+
+        SessionReplayer.Result result = SessionReplayer.replay(file);
+        assertEquals(List.of(), result.mismatches());
+        assertEquals(1, result.games());
+        assertEquals(1, result.minigames());
+        assertEquals(18, result.tickTimes().getCount());
+        assertEquals(minigame.getFrame(), result.frames());
+    }
+
+    @Test
+    @DisplayName("Test a replay reports an outcome which differs from the recording")
+    void testMismatch() throws IOException {
+        SessionRecorder recorder = new SessionRecorder(file);
+        int game = recorder.startGame(1, 0, SAVE);
+        recorder.command(game, 0, 0, GameEvent.FEED, Item.APPLE);
+        recorder.endGame(game, 0, SAVE);
+        recorder.startMinigame(7, 800, 600);
+        recorder.endMinigame(10, 5);
+        recorder.close();
+
+        SessionReplayer.Result result = SessionReplayer.replay(file);
+        assertEquals(2, result.mismatches().size());
+    }
+
+    @Test
+    @DisplayName("Test a recording cut short replays the games which ended before the cut")
+    void testTruncated() throws IOException {
+        SessionRecorder recorder = new SessionRecorder(file);
+        int first = recorder.startGame(1, 0, SAVE);
+        recorder.endGame(first, 0, SAVE);
+        int second = recorder.startGame(2, 0, SAVE);
+        recorder.command(second, 5, 0, GameEvent.PLAY, null);
+        recorder.close();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        SessionReplayer.Result result = SessionReplayer.replay(file);
+        assertEquals(1, result.games());
+        assertEquals(List.of(), result.mismatches());
+    }
+
+    @Test
+    @DisplayName("Test a game which ends after the next one started replays to its own outcome")
+    void testInterleavedGames() throws IOException {
+        SaveData other = new SaveData(0, 0, 0, 0, "Max", "Chopper", "normal", 70, 60, 50, 40, 5);
+        SessionRecorder recorder = new SessionRecorder(file);
+        int first = recorder.startGame(1, 0, SAVE);
+        // The first game's pause was still running on the simulation lane
+        int second = recorder.startGame(2, 0, other);
+        recorder.endGame(first, 0, SAVE);
+        recorder.endGame(second, 0, other);
+        // A game is only ended once
+        recorder.endGame(first, 0, other);
+        recorder.close();
+
+        SessionReplayer.Result result = SessionReplayer.replay(file);
+        assertEquals(2, result.games());
+        assertEquals(List.of(), result.mismatches());
+    }
+}
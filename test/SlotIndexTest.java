@@ -0,0 +1,44 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JUnit test class for SlotIndex
+ */
+public class SlotIndexTest {
+
+    @Test
+    @DisplayName("Test an index is read back exactly, ordered by slot")
+    void testRoundTrip() throws IOException {
+        SlotIndex index = new SlotIndex();
+        index.put(new SlotSummary(3, "Laboon", "laboon", "dead", 0, 10, 20, 30, 99, 1700000000000L, 0xCAFEBABE));
+        index.put(new SlotSummary(1, "Rëx", "Chopper", "normal", 100, 53.6, 22.25, 7.2, 15, 1600000000000L, 42));
+        index.put(new SlotSummary(2, null, null, null, 0, 0, 0, 0, 0, 0, 0));
+
+        SlotIndex read = SlotIndex.decode(index.encode());
+
+        assertEquals(index.getSummaries(), read.getSummaries());
+        assertEquals(List.of(1, 2, 3), List.copyOf(read.getSummaries().keySet()));
+        assertTrue(read.get(3).isDead());
+        assertFalse(read.get(1).isDead());
+    }
+
+    @Test
+    @DisplayName("Test damaged and truncated indexes are rejected")
+    void testRejects() throws IOException {
+        SlotIndex index = new SlotIndex();
+        index.put(new SlotSummary(1, "Rex", "Chopper", "normal", 100, 50, 50, 50, 0, 0, 0));
+        byte[] bytes = index.encode();
+
+        byte[] damaged = bytes.clone();
+        damaged[15] ^= 1;
+        assertThrows(IOException.class, () -> SlotIndex.decode(damaged));
+        assertThrows(IOException.class, () -> SlotIndex.decode(Arrays.copyOf(bytes, 8)));
+        assertThrows(IOException.class, () -> SlotIndex.decode(BinarySaveCodec.encode(
+                new SaveData(0, 0, 0, 0, "Rex", "Chopper", "normal", 0, 0, 0, 0, 0))));
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * JUnit test class for StoreSaveRepository, running the tests every backend must pass
+ */
+public class StoreSaveRepositoryTest extends SaveRepositoryTest {
+
+    /**
+     * Returns the file of the store.
+     *
+     * @return The store's file
+     */
+    private Path file() {
+        return directory.resolve(StoreSaveRepository.FILE_NAME);
+    }
+
+    @Override
+    protected SaveRepository createRepository(Path directory) {
+        return new StoreSaveRepository(directory.resolve(StoreSaveRepository.FILE_NAME));
+    }
+
+    @AfterEach
+    void closeStore() throws IOException {
+        ((StoreSaveRepository) repository).close();
+    }
+
+    @Test
+    @DisplayName("Test records are read back after the store is opened again")
+    void testReopen() throws IOException {
+        repository.write("save1.sav", new byte[] { 1 }, true);
+        repository.write("save1.sav", new byte[] { 2 }, true);
+        long modified = repository.lastModified("save1.sav");
+        ((StoreSaveRepository) repository).close();
+
+        SaveRepository reopened = createRepository(directory);
+        assertArrayEquals(new byte[] { 2 }, reopened.read("save1.sav"));
+        assertArrayEquals(new byte[] { 1 }, reopened.read("save1.sav" + SaveRepository.BACKUP_SUFFIX));
+        assertEquals(modified, reopened.lastModified("save1.sav"));
+        ((StoreSaveRepository) reopened).close();
+    }
+
+    @Test
+    @DisplayName("Test a record cut short by a crash is dropped and earlier records are kept")
+    void testTornWrite() throws IOException {
+        repository.write("save1.sav", new byte[] { 1 }, false);
+        repository.write("save1.sav", new byte[] { 2, 2, 2 }, false);
+        ((StoreSaveRepository) repository).close();
+        byte[] bytes = Files.readAllBytes(file());
+        Files.write(file(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertArrayEquals(new byte[] { 1 }, repository.read("save1.sav"));
+        // Later writes follow the last intact record
+        repository.write("save2.sav", new byte[] { 3 }, false);
+        ((StoreSaveRepository) repository).close();
+        assertArrayEquals(new byte[] { 3 }, repository.read("save2.sav"));
+    }
+
+    @Test
+    @DisplayName("Test replaced records are dropped once they fill half the file")
+    void testCompaction() throws IOException {
+        StoreSaveRepository store = (StoreSaveRepository) repository;
+        byte[] contents = new byte[1024];
+        for (int i = 0; i < 200; i++) {
+            contents[0] = (byte) i;
+            store.write("save" + (i % 4) + ".sav", contents, false);
+        }
+
+        assertTrue(store.getCompactions() > 0);
+        assertTrue(Files.size(file()) <= 2 * StoreSaveRepository.COMPACT_MIN_SIZE);
+        for (int slot = 0; slot < 4; slot++) {
+            assertEquals((byte) (196 + slot), store.read("save" + slot + ".sav")[0]);
+        }
+        store.close();
+        assertEquals((byte) 199, store.read("save3.sav")[0]);
+    }
+
+    @Test
+    @DisplayName("Test a file which is not a store is not overwritten")
+    void testNotAStore() throws IOException {
+        Files.write(file(), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+
+        assertThrows(IOException.class, () -> repository.read("save1.sav"));
+        assertThrows(IOException.class, () -> repository.write("save1.sav", new byte[] { 1 }, false));
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, Files.readAllBytes(file()));
+    }
+}
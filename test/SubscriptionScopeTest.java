@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+
+/**
+ * JUnit test class for SubscriptionScope, Subscription and weak observers
+ */
+public class SubscriptionScopeTest {
+    
+    private EventDispatcher dispatcher;
+    
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EventDispatcher();
+    }
+    
+    @Test
+    @DisplayName("Test closing a scope removes all of its subscriptions")
+    void testCloseScope() {
+        CountingObserver observer = new CountingObserver();
+        SubscriptionScope scope = new SubscriptionScope(dispatcher);
+        scope.subscribe(GameEvent.MENU, observer);
+        scope.subscribe(GameEvent.QUIT, observer);
+        assertEquals(2, scope.size());
+        
+        dispatcher.notifyObservers(GameEvent.MENU);
+        assertEquals(1, observer.count);
+        
+        scope.close();
+        dispatcher.notifyObservers(GameEvent.MENU);
+        dispatcher.notifyObservers(GameEvent.QUIT);
+        assertEquals(1, observer.count, "Observer should not be notified after the scope is closed");
+        assertTrue(dispatcher.getObserverCounts().isEmpty());
+        assertThrows(IllegalStateException.class, () -> scope.subscribe(GameEvent.MENU, observer));
+    }
+    
+    @Test
+    @DisplayName("Test a subscription can be closed on its own")
+    void testCloseSubscription() {
+        CountingObserver observer = new CountingObserver();
+        SubscriptionScope scope = new SubscriptionScope(dispatcher);
+        Subscription menu = scope.subscribe(GameEvent.MENU, observer);
+        scope.subscribe(GameEvent.QUIT, observer);
+        
+        menu.close();
+        menu.close();
+        assertTrue(menu.isClosed());
+        assertEquals(1, scope.size());
+        assertEquals(0, dispatcher.getObservers(GameEvent.MENU).length);
+        assertEquals(1, dispatcher.getObservers(GameEvent.QUIT).length);
+    }
+    
+    @Test
+    @DisplayName("Test weak observers are removed once collected")
+    void testWeakObserver() throws Exception {
+        CountingObserver kept = new CountingObserver();
+        dispatcher.addWeakObserver(GameEvent.MENU, kept);
+        addCollectableObserver();
+        
+        // Wait for the unreachable observer to be collected
+        for (int i = 0; i < 50 && dispatcher.getObservers(GameEvent.MENU).length > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+            dispatcher.notifyObservers(GameEvent.MENU);
+        }
+        assertEquals(1, dispatcher.getObservers(GameEvent.MENU).length, "Collected observer should be removed");
+        assertTrue(kept.count > 0, "Reachable observer should still be notified");
+        
+        // A weak observer can be removed like any other
+        dispatcher.removeObserver(GameEvent.MENU, kept);
+        assertEquals(0, dispatcher.getObservers(GameEvent.MENU).length);
+    }
+    
+    @Test
+    @DisplayName("Test observer counts stay flat across many loads")
+    void testNoAccumulationAcrossLoads() {
+        GameController previous = null;
+        EnumMap<GameEvent, Integer> firstCounts = null;
+        for (int i = 0; i < 300; i++) {
+            if (previous != null) {
+                previous.close();
+            }
+            Pet pet = new Pet("Pet" + i, "chopper", 100, 100, 100, 100);
+            previous = new GameController(dispatcher, new GameplayPanel(dispatcher), new Inventory(), 1, pet, 0);
+            previous.registerEvents();
+            if (firstCounts == null) {
+                firstCounts = dispatcher.getObserverCounts();
+            }
+        }
+        assertEquals(firstCounts, dispatcher.getObserverCounts(), "Observer counts should not grow");
+        assertFalse(dispatcher.checkForLeaks(1));
+        
+        // Without closing, the detector reports the growth
+        new GameController(dispatcher, new GameplayPanel(dispatcher), new Inventory(), 1,
+                new Pet("Leak", "chopper", 100, 100, 100, 100), 0).registerEvents();
+        assertTrue(dispatcher.checkForLeaks(1));
+        assertEquals(2, dispatcher.getObserverCounts().get(GameEvent.FEED));
+    }
+    
+    /**
+     * Adds a weak observer which is not reachable from the test
+     */
+    private void addCollectableObserver() {
+        dispatcher.addWeakObserver(GameEvent.MENU, new CountingObserver());
+    }
+    
+    /**
+     * Observer which counts the events it receives
+     */
+    private static class CountingObserver extends Observer {
+        int count = 0;
+        
+        @Override
+        protected void handleEvent(GameEvent event) {
+            count++;
+        }
+        
+        @Override
+        protected void registerEvents() {
+            // Not needed for testing
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * JUnit test class for VirtualClock, and the controllers which read time from it
+ */
+public class VirtualClockTest {
+    /** The directory the parental controls of a test are kept in */
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a parental controller reading the clock, with its own settings and no timer.
+     *
+     * @param clock The clock to read
+     * @return The controller
+     */
+    private ParentalController parentalController(VirtualClock clock) {
+        ParentalSettings settings = ParentalSettings.load(directory.resolve("parental_controls.json"));
+        return new ParentalController(new EventDispatcher(), clock, settings, false);
+    }
+    
+    @Test
+    @DisplayName("Test clock only moves when advanced")
+    void testAdvance() {
+        VirtualClock clock = VirtualClock.at(LocalTime.of(10, 0));
+        long start = clock.millis();
+        
+        // Time does not pass on its own
+        assertEquals(start, clock.millis());
+        
+        // Advancing moves the clock by exactly that amount
+        clock.advance(Duration.ofMinutes(5));
+        assertEquals(start + 5 * 60 * 1000, clock.millis());
+        assertEquals(LocalTime.of(10, 5), LocalTime.now(clock));
+    }
+    
+    @Test
+    @DisplayName("Test restricted window which crosses midnight")
+    void testRestrictedWindowCrossingMidnight() {
+        VirtualClock clock = VirtualClock.at(LocalTime.of(21, 0));
+        ParentalController controller = parentalController(clock);
+        controller.setRestrictedHours(LocalTime.of(22, 0), LocalTime.of(6, 0));
+        
+        // Before the window starts
+        assertFalse(controller.isRestricted(), "21:00 should not be restricted");
+        
+        // Just before midnight
+        clock.advance(Duration.ofMinutes(179));
+        assertTrue(controller.isRestricted(), "23:59 should be restricted");
+        
+        // Just after midnight
+        clock.advance(Duration.ofMinutes(2));
+        assertTrue(controller.isRestricted(), "00:01 should be restricted");
+        
+        // After the window ends
+        clock.advance(Duration.ofHours(6));
+        assertFalse(controller.isRestricted(), "06:01 should not be restricted");
+    }
+    
+    @Test
+    @DisplayName("Test session play time follows the virtual clock")
+    void testPlayTimeWithoutWaiting() {
+        VirtualClock clock = VirtualClock.at(LocalTime.NOON);
+        ParentalController controller = parentalController(clock);
+        assertEquals(0, controller.getTotalPlayTime());
+        
+        // A minute passes instantly
+        clock.advance(Duration.ofMinutes(1).plusSeconds(1));
+        controller.enforceRestrictions();
+        assertEquals(1, controller.getTotalPlayTime());
+    }
+}